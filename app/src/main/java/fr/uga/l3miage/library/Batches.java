@@ -0,0 +1,146 @@
+package fr.uga.l3miage.library;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BorrowedBookException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch endpoints: an array of items in, an array of results out, one per item and in the same order.
+ * <p>
+ * A batch is applied as a whole or not at all. When it is rejected, each failing item gets its own status and
+ * error, the other ones {@code 424 Failed Dependency}, and the response takes the status of the first failing item.
+ */
+@Component
+public class Batches {
+
+    public static final int MAX_SIZE = 1000;
+
+    private final Validator validator;
+
+    @Autowired
+    public Batches(Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Result of an item of a batch
+     *
+     * @param index position of the item in the batch
+     * @param status HTTP status of the item
+     * @param value  the resulting item, when applied
+     * @param error  why the item failed, when rejected
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result<T>(int index, int status, T value, String error) {
+    }
+
+    /**
+     * Validates all items of a batch, as {@code @Valid} would do for a single one.
+     *
+     * @param items the batch
+     * @param check additional check of an item, returning an error or null
+     * @return the response rejecting the batch, null when all items are valid
+     */
+    public <D> ResponseEntity<List<Result<D>>> validate(List<D> items, Function<? super D, String> check) {
+        size(items);
+        Map<Integer, String> errors = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            D item = items.get(i);
+            if (item == null) {
+                errors.put(i, "item is required");
+                continue;
+            }
+            String error = validator.validate(item).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            if (error.isEmpty()) {
+                error = check.apply(item);
+            }
+            if (error != null) {
+                errors.put(i, error);
+            }
+        }
+        if (errors.isEmpty()) {
+            return null;
+        }
+        Map<Integer, HttpStatus> statuses = new TreeMap<>();
+        errors.keySet().forEach(i -> statuses.put(i, HttpStatus.BAD_REQUEST));
+        return rejected(items.size(), statuses, errors);
+    }
+
+    /**
+     * Checks the number of items of a batch given as request parameters.
+     */
+    public void size(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "a batch holds from 1 to " + MAX_SIZE + " items");
+        }
+    }
+
+    /**
+     * @param status status of each item
+     * @param values the applied items, in the order of the batch
+     * @param mapper maps an item to its DTO
+     * @return the response of an applied batch
+     */
+    public static <O, D> ResponseEntity<List<Result<D>>> applied(HttpStatus status, List<O> values, Function<O, D> mapper) {
+        List<Result<D>> results = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            results.add(new Result<>(i, status.value(), mapper.apply(values.get(i)), null));
+        }
+        return ResponseEntity.status(status == HttpStatus.NO_CONTENT ? HttpStatus.OK : status).body(results);
+    }
+
+    /**
+     * @param size the number of items of the batch
+     * @param e    the exception rejecting the batch
+     * @return the response of a rejected batch
+     */
+    public static <D> ResponseEntity<List<Result<D>>> rejected(int size, BatchException e) {
+        Map<Integer, HttpStatus> statuses = new TreeMap<>();
+        Map<Integer, String> errors = new TreeMap<>();
+        e.getFailures().forEach((i, failure) -> {
+            statuses.put(i, status(failure));
+            errors.put(i, failure.getMessage());
+        });
+        return rejected(size, statuses, errors);
+    }
+
+    private static <D> ResponseEntity<List<Result<D>>> rejected(int size, Map<Integer, HttpStatus> statuses, Map<Integer, String> errors) {
+        List<Result<D>> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            HttpStatus status = statuses.getOrDefault(i, HttpStatus.FAILED_DEPENDENCY);
+            results.add(new Result<>(i, status.value(), null, errors.get(i)));
+        }
+        HttpStatus first = statuses.values().stream().findFirst().orElse(HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(first).body(results);
+    }
+
+    /**
+     * Same statuses as the endpoints handling a single item, a {@link fr.uga.l3miage.library.service.DeleteAuthorException}
+     * is a bad request, a {@link DuplicateIsbnException} or a {@link BorrowedBookException} a conflict.
+     */
+    private static HttpStatus status(Exception failure) {
+        if (failure instanceof EntityNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        return failure instanceof DuplicateIsbnException || failure instanceof BorrowedBookException
+                ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+    }
+}
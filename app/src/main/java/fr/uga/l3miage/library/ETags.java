@@ -0,0 +1,45 @@
+package fr.uga.l3miage.library;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+/**
+ * Strong entity tags derived from versions, so that a conditional request is answered before anything is
+ * mapped or serialized, see {@link org.springframework.web.context.request.WebRequest#checkNotModified(String)}.
+ */
+public final class ETags {
+
+    private ETags() {
+        // utility class
+    }
+
+    public static String of(Author author) {
+        return quote("a" + author.getVersion());
+    }
+
+    /**
+     * A book is rendered with the names of its authors, their versions are part of its tag. Any change of the
+     * set of authors bumps the version of the book itself.
+     */
+    public static String of(Book book) {
+        long authors = 0;
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                authors += author.getVersion();
+            }
+        }
+        return quote("b" + book.getVersion() + "." + authors);
+    }
+
+    /**
+     * @param version the catalog version, read before the collection
+     * @param variant distinguishes the representations of a same collection, such as JSON and NDJSON
+     */
+    public static String catalog(long version, String variant) {
+        return quote("c" + version + "-" + variant);
+    }
+
+    private static String quote(String tag) {
+        return '"' + tag + '"';
+    }
+}
@@ -0,0 +1,115 @@
+package fr.uga.l3miage.library;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import fr.uga.l3miage.library.service.BookField;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets: {@code ?fields=id,title} restricts the objects of a JSON response to some of their
+ * properties. Books are then read with these attributes only, and the other properties are dropped as the DTOs
+ * are serialized, by {@link FieldsAdvice}, or skipped by {@link fr.uga.l3miage.library.json.EntityJson}. Without the parameter objects have all their properties.
+ */
+public final class Fields {
+
+    /**
+     * The Jackson filters of the DTOs, see {@link FieldsAdvice}
+     */
+    public static final String BOOK_FILTER = "book";
+    public static final String AUTHOR_FILTER = "author";
+
+    static final String ATTRIBUTE = Fields.class.getName() + ".filters";
+
+    private static final Set<String> AUTHOR_PROPERTIES = Set.of("id", "fullName");
+
+    private Fields() {
+        // utility class
+    }
+
+    /**
+     * Parses the fields of a response made of books, and has the others dropped from it.
+     *
+     * @param fields  the value of the parameter, null when absent
+     * @param request the request being answered
+     * @return the fields to read, all of them without the parameter
+     */
+    public static Set<BookField> books(String fields, WebRequest request) {
+        if (fields == null) {
+            return EnumSet.allOf(BookField.class);
+        }
+        Set<BookField> selected = EnumSet.noneOf(BookField.class);
+        Set<String> properties = parse(fields);
+        for (String property : properties) {
+            BookField field = BookField.of(property);
+            if (field == null) {
+                throw unknown(property, EnumSet.allOf(BookField.class).stream().map(BookField::attribute).toList());
+            }
+            selected.add(field);
+        }
+        select(request, BOOK_FILTER, properties);
+        return selected;
+    }
+
+    /**
+     * Parses the fields of a response made of authors, and has the others dropped from it.
+     *
+     * @param fields  the value of the parameter, null when absent
+     * @param request the request being answered
+     * @return the properties of the authors, all of them without the parameter
+     */
+    public static Set<String> authors(String fields, WebRequest request) {
+        if (fields == null) {
+            return AUTHOR_PROPERTIES;
+        }
+        Set<String> properties = parse(fields);
+        for (String property : properties) {
+            if (!AUTHOR_PROPERTIES.contains(property)) {
+                throw unknown(property, AUTHOR_PROPERTIES);
+            }
+        }
+        select(request, AUTHOR_FILTER, properties);
+        return properties;
+    }
+
+    private static Set<String> parse(String fields) {
+        Set<String> properties = new LinkedHashSet<>();
+        for (String property : fields.split(",")) {
+            if (!property.isBlank()) {
+                properties.add(property.strip());
+            }
+        }
+        if (properties.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fields must list at least one field");
+        }
+        return properties;
+    }
+
+    private static void select(WebRequest request, String filter, Set<String> properties) {
+        request.setAttribute(ATTRIBUTE, filters(filter, properties), RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * @param filter     {@link #BOOK_FILTER} or {@link #AUTHOR_FILTER}
+     * @param properties the properties to keep
+     * @return the filters dropping the other properties of the objects of a type
+     */
+    public static FilterProvider filters(String filter, Set<String> properties) {
+        // objects of the other type, nested or not, keep all their properties
+        return new SimpleFilterProvider()
+                .setFailOnUnknownId(false)
+                .addFilter(filter, SimpleBeanPropertyFilter.filterOutAllExcept(properties));
+    }
+
+    private static ResponseStatusException unknown(String property, Iterable<String> known) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "unknown field: " + property + ", expected some of " + String.join(", ", known));
+    }
+}
@@ -0,0 +1,65 @@
+package fr.uga.l3miage.library;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.books.BookDTO;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Applies the fields selected by {@link Fields} to the JSON body of a response, through Jackson filters.
+ * <p>
+ * The DTOs get their filters from mix-ins registered on the application object mapper only. Without a selection
+ * no filter is found for them, and Jackson serializes them as it would without one. Other object mappers
+ * serialize the DTOs as they are.
+ */
+@ControllerAdvice
+public class FieldsAdvice implements ResponseBodyAdvice<Object> {
+
+    @JsonFilter(Fields.BOOK_FILTER)
+    interface BookFilter {
+    }
+
+    @JsonFilter(Fields.AUTHOR_FILTER)
+    interface AuthorFilter {
+    }
+
+    @Bean
+    public static Jackson2ObjectMapperBuilderCustomizer fieldFilters() {
+        return builder -> builder
+                .mixIn(BookDTO.class, BookFilter.class)
+                .mixIn(AuthorDTO.class, AuthorFilter.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        // bodies are left as they are without a selection, the common case
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(servletRequest.getServletRequest().getAttribute(Fields.ATTRIBUTE) instanceof FilterProvider filters)) {
+            return body;
+        }
+        MappingJacksonValue value = body instanceof MappingJacksonValue container ? container : new MappingJacksonValue(body);
+        value.setFilters(filters);
+        return value;
+    }
+}
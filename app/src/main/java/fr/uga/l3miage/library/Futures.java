@@ -0,0 +1,56 @@
+package fr.uga.l3miage.library;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Failures of the futures returned by the asynchronous services, mapped by the asynchronous controllers to the
+ * statuses the blocking ones give for the same exceptions.
+ */
+public final class Futures {
+
+    private Futures() {
+        // utility class
+    }
+
+    /**
+     * @return the exception the service threw, unwrapped from the {@link CompletionException} of a dependent
+     * stage; a call rejected by a saturated executor becomes a {@code 503 Service Unavailable}
+     */
+    public static Throwable cause(Throwable failure) {
+        while ((failure instanceof CompletionException || failure instanceof ExecutionException)
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure instanceof RejectedExecutionException) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many requests in progress");
+        }
+        return failure;
+    }
+
+    /**
+     * @return true for an exception of the service, as opposed to a status already decided
+     */
+    public static boolean failed(Throwable cause) {
+        return cause instanceof Exception && !(cause instanceof ResponseStatusException);
+    }
+
+    /**
+     * Fails a stage with an exception no status was given to, which the caller throws. Spring MVC unwraps the
+     * {@link CompletionException}, a checked exception then gives a {@code 500} as it does when thrown by a
+     * blocking controller.
+     */
+    public static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+}
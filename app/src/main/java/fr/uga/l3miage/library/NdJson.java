@@ -0,0 +1,73 @@
+package fr.uga.l3miage.library;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes collections as newline delimited JSON, one object per line, as they are read from the service.
+ * Only the object being written is held in memory, not the whole collection nor its DTOs.
+ */
+@Component
+public class NdJson {
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public NdJson(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param entities supplies the entities, called when the response is written and closed afterwards
+     * @param mapper   maps one entity to its DTO
+     * @param type     the DTO type
+     * @return the streaming response
+     */
+    public <O, D> ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<O>> entities, Function<O, D> mapper, Class<D> type) {
+        // flushing is left to the servlet buffer rather than done for each line
+        ObjectWriter writer = objectMapper.writerFor(type)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return stream(entities, (generator, entity) -> writer.writeValue(generator, mapper.apply(entity)));
+    }
+
+    /**
+     * @param entities supplies the entities, called when the response is written and closed afterwards
+     * @param writer   writes one entity as a JSON value
+     * @return the streaming response
+     */
+    public <O> ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<O>> entities, Writer<O> writer) {
+        StreamingResponseBody body = out -> {
+            try (Stream<O> stream = entities.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // lines are separated explicitly, and the servlet stream is closed by the container
+                generator.setRootValueSeparator(null);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                var it = stream.iterator();
+                while (it.hasNext()) {
+                    writer.write(generator, it.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @FunctionalInterface
+    public interface Writer<O> {
+        void write(JsonGenerator generator, O entity) throws IOException;
+    }
+}
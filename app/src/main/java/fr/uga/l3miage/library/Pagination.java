@@ -0,0 +1,71 @@
+package fr.uga.l3miage.library;
+
+import fr.uga.l3miage.library.service.base.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination of collection endpoints: {@code ?limit=} and {@code ?after=} select a page, the body stays
+ * a plain array and the next page is given by a {@code Link: <...>; rel="next"} header.
+ */
+public final class Pagination {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private Pagination() {
+        // utility class
+    }
+
+    /**
+     * @return true when the request asks for a page rather than the whole collection
+     */
+    public static boolean requested(Integer limit, Long after) {
+        return limit != null || after != null;
+    }
+
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    /**
+     * @param body makes the body from the content of the page
+     */
+    public static <O, B> ResponseEntity<B> response(Page<O, Long> page, int limit, Function<List<O>, B> body) {
+        return response(page, limit, body, ServletUriComponentsBuilder.fromCurrentRequest());
+    }
+
+    /**
+     * Same as above off the request thread, where the current request is unknown.
+     *
+     * @param request the URI of the request, read beforehand on its thread with
+     *                {@link ServletUriComponentsBuilder#fromCurrentRequest()}
+     */
+    public static <O, B> ResponseEntity<B> response(Page<O, Long> page, int limit, Function<List<O>, B> body,
+                                                    UriComponentsBuilder request) {
+        B content = body.apply(page.content());
+        if (!page.hasNext()) {
+            return ResponseEntity.ok(content);
+        }
+        String next = request
+                .replaceQueryParam("after", page.next())
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(content);
+    }
+}
@@ -0,0 +1,77 @@
+package fr.uga.l3miage.library;
+
+import fr.uga.l3miage.library.cache.CachingAuthorService;
+import fr.uga.l3miage.library.cache.CachingBookService;
+import fr.uga.l3miage.library.cache.ServiceCaches;
+import fr.uga.l3miage.library.metrics.ServiceTimers;
+import fr.uga.l3miage.library.metrics.TimedAuthorService;
+import fr.uga.l3miage.library.metrics.TimedBookService;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Wraps the service beans, whatever their implementation, in the caching decorators when caches are configured,
+ * then in the timing ones when a meter registry is available.
+ * <p>
+ * Both are applied here, in this order, so that timers see what the controllers get, cache hits included.
+ * The post-processor is not ordered on purpose: it then runs after the one creating transactional proxies.
+ * <p>
+ * For load tests, {@code library.store.latency} delays the calls under the decorators, as a remote store would.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ServiceDecorators {
+
+    @Bean
+    public static BeanPostProcessor serviceDecoratorPostProcessor(ObjectProvider<ServiceCaches> caches,
+                                                                  ObjectProvider<MeterRegistry> registry,
+                                                                  ObjectProvider<BookService> bookService,
+                                                                  Environment environment) {
+        Duration latency = environment.getProperty("library.store.latency", Duration.class, Duration.ZERO);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AuthorService authorService && !(bean instanceof TimedAuthorService)
+                        && !(bean instanceof CachingAuthorService)) {
+                    String implementation = ServiceTimers.implementation(bean);
+                    if (!latency.isZero()) {
+                        authorService = StoreLatency.delayed(AuthorService.class, authorService, latency);
+                    }
+                    ServiceCaches serviceCaches = caches.getIfAvailable();
+                    if (serviceCaches != null) {
+                        authorService = new CachingAuthorService(authorService, serviceCaches, bookService::getObject);
+                    }
+                    MeterRegistry meterRegistry = registry.getIfAvailable();
+                    if (meterRegistry != null) {
+                        authorService = new TimedAuthorService(authorService, meterRegistry, implementation);
+                    }
+                    return authorService;
+                }
+                if (bean instanceof BookService service && !(bean instanceof TimedBookService)
+                        && !(bean instanceof CachingBookService)) {
+                    String implementation = ServiceTimers.implementation(bean);
+                    if (!latency.isZero()) {
+                        service = StoreLatency.delayed(BookService.class, service, latency);
+                    }
+                    ServiceCaches serviceCaches = caches.getIfAvailable();
+                    if (serviceCaches != null) {
+                        service = new CachingBookService(service, serviceCaches);
+                    }
+                    MeterRegistry meterRegistry = registry.getIfAvailable();
+                    if (meterRegistry != null) {
+                        service = new TimedBookService(service, meterRegistry, implementation);
+                    }
+                    return service;
+                }
+                return bean;
+            }
+        };
+    }
+}
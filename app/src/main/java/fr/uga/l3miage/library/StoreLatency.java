@@ -0,0 +1,32 @@
+package fr.uga.l3miage.library;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+/**
+ * Simulates a slow store for load tests, {@code library.store.latency} being added to each call of the services
+ * but {@code version()}, which an implementation keeps in memory. The calling thread sleeps meanwhile, as it
+ * would wait for a remote database.
+ */
+final class StoreLatency {
+
+    private StoreLatency() {
+        // utility class
+    }
+
+    static <S> S delayed(Class<S> type, S service, Duration latency) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() != Object.class && !method.getName().equals("version")) {
+                Thread.sleep(latency.toMillis(), latency.toNanosPart() % 1_000_000);
+            }
+            try {
+                return method.invoke(service, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,289 @@
+package fr.uga.l3miage.library.authors;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Batches;
+import fr.uga.l3miage.library.ETags;
+import fr.uga.l3miage.library.Fields;
+import fr.uga.l3miage.library.Futures;
+import fr.uga.l3miage.library.Pagination;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.cache.CachedResponses;
+import fr.uga.l3miage.library.cache.ResponseCache;
+import fr.uga.l3miage.library.json.JsonRenderer;
+import fr.uga.l3miage.library.service.AsyncAuthorService;
+import fr.uga.l3miage.library.service.AsyncBookService;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import jakarta.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The endpoints of {@link AuthorsController} when {@code library.api.mode} is {@code async}: the services are
+ * called through their asynchronous counterparts and the futures are returned, the request thread going back to
+ * the container meanwhile. The response is written once the future completes, with the same statuses.
+ * <p>
+ * The request is only read on its own thread, the stages completing on the threads of the services: conditional
+ * requests on the catalog are answered at once from its version, kept in memory by the blocking services, and
+ * responses whose tag is only known once read carry it, Spring MVC answering them once they are written.
+ * <p>
+ * The NDJSON stream is the exception: it already runs on the executor of the asynchronous responses.
+ */
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+@ConditionalOnProperty(prefix = "library.api", name = "mode", havingValue = "async")
+public class AsyncAuthorsController {
+
+    private final AsyncAuthorService authorService;
+    private final AsyncBookService bookService;
+    private final AuthorService blockingAuthorService;
+    private final BookService blockingBookService;
+    private final AuthorMapper authorMapper;
+    private final BooksMapper booksMapper;
+    private final Batches batches;
+    private final JsonRenderer renderer;
+    private final CachedResponses cachedResponses;
+
+    @Autowired
+    public AsyncAuthorsController(AsyncAuthorService authorService, AsyncBookService bookService,
+                                  AuthorService blockingAuthorService, BookService blockingBookService,
+                                  AuthorMapper authorMapper, BooksMapper booksMapper, Batches batches,
+                                  JsonRenderer renderer, CachedResponses cachedResponses) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+        this.blockingAuthorService = blockingAuthorService;
+        this.blockingBookService = blockingBookService;
+        this.authorMapper = authorMapper;
+        this.booksMapper = booksMapper;
+        this.batches = batches;
+        this.renderer = renderer;
+        this.cachedResponses = cachedResponses;
+    }
+
+    @GetMapping("/authors")
+    public CompletableFuture<ResponseEntity<Object>> authors(@RequestParam(value = "q", required = false) String query,
+                                                             @RequestParam(value = "limit", required = false) Integer limit,
+                                                             @RequestParam(value = "after", required = false) Long after,
+                                                             @RequestParam(value = "fields", required = false) String fields,
+                                                             WebRequest request) {
+        Set<String> selected = Fields.authors(fields, request);
+        if (request.checkNotModified(ETags.catalog(blockingAuthorService.version(), "json"))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (query == null && Pagination.requested(limit, after)) {
+            int size = Pagination.limit(limit);
+            return authorService.page(after, size).thenApply(page -> Pagination.response(page, size,
+                    content -> renderer.authors(content, selected), uri));
+        }
+        CompletableFuture<Collection<Author>> authors = query == null
+                ? authorService.list()
+                : authorService.searchByName(query);
+        return authors.thenApply(found -> ResponseEntity.ok(renderer.authors(found, selected)));
+    }
+
+    // same as above, streamed one author per line for consumers reading the whole catalog
+    @GetMapping(value = "/authors", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAuthors(@RequestParam(value = "q", required = false) String query,
+                                                               WebRequest request) {
+        if (request.checkNotModified(ETags.catalog(blockingAuthorService.version(), "ndjson"))) {
+            return null;
+        }
+        return renderer.streamAuthors(() -> query == null
+                ? blockingAuthorService.stream()
+                : blockingAuthorService.searchByName(query).stream());
+    }
+
+    @GetMapping("/authors/{id}")
+    public CompletableFuture<ResponseEntity<Object>> author(@PathVariable("id") Long id, WebRequest request) {
+        return authorService.get(id).handle((author, failure) -> {
+            if (failure != null) {
+                Throwable cause = Futures.cause(failure);
+                throw Futures.failed(cause)
+                        ? new ResponseStatusException(HttpStatus.NOT_FOUND, "The author was not found")
+                        : Futures.rethrow(cause);
+            }
+            return ResponseEntity.ok().eTag(ETags.of(author)).body(renderer.author(author));
+        });
+    }
+
+    @PostMapping("/authors")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<AuthorDTO> newAuthor(@RequestBody @Valid AuthorDTO author) {
+        return authorService.save(authorMapper.dtoToEntity(author)).thenApply(authorMapper::entityToDTO);
+    }
+
+    @PostMapping("/authors/batch")
+    public CompletableFuture<ResponseEntity<List<Batches.Result<AuthorDTO>>>> newAuthors(@RequestBody List<AuthorDTO> authors) {
+        var invalid = batches.validate(authors, author -> null);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+        return authorService.saveAll(authors.stream().map(authorMapper::dtoToEntity).toList())
+                .thenApply(saved -> Batches.applied(HttpStatus.CREATED, saved, authorMapper::entityToDTO));
+    }
+
+    @PutMapping("/authors/batch")
+    public CompletableFuture<ResponseEntity<List<Batches.Result<AuthorDTO>>>> updateAuthors(@RequestBody List<AuthorDTO> authors) {
+        var invalid = batches.validate(authors, author -> author.id() == null ? "id: must not be null" : null);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+        return authorService.updateAll(authors.stream().map(authorMapper::dtoToEntity).toList())
+                .handle((updated, failure) -> {
+                    if (failure == null) {
+                        return Batches.applied(HttpStatus.OK, updated, authorMapper::entityToDTO);
+                    }
+                    Throwable cause = Futures.cause(failure);
+                    if (cause instanceof BatchException e) {
+                        return Batches.rejected(authors.size(), e);
+                    }
+                    throw Futures.rethrow(cause);
+                });
+    }
+
+    @DeleteMapping(value = "/authors", params = "id")
+    public CompletableFuture<ResponseEntity<List<Batches.Result<Long>>>> deleteAuthors(@RequestParam("id") List<Long> ids) {
+        batches.size(ids);
+        return authorService.deleteAll(ids).handle((done, failure) -> {
+            if (failure == null) {
+                return Batches.applied(HttpStatus.NO_CONTENT, ids, id -> id);
+            }
+            Throwable cause = Futures.cause(failure);
+            if (cause instanceof BatchException e) {
+                return Batches.rejected(ids.size(), e);
+            }
+            throw Futures.rethrow(cause);
+        });
+    }
+
+    @PutMapping("/authors/{id}")
+    public CompletableFuture<AuthorDTO> updateAuthor(@PathVariable("id") Long id, @RequestBody @Valid AuthorDTO author) {
+        // attention AuthorDTO.id() doit être égale à id, sinon la requête utilisateur est mauvaise
+        if (author.id() != id) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The author was not found");
+        }
+        return authorService.update(authorMapper.dtoToEntity(author)).thenApply(authorMapper::entityToDTO);
+    }
+
+    @DeleteMapping("/authors/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)  //code HTTP 204
+    public CompletableFuture<Void> deleteAuthor(@PathVariable("id") Long id) {
+        return authorService.delete(id).exceptionally(failure -> {
+            Throwable cause = Futures.cause(failure);
+            if (cause instanceof DeleteAuthorException) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, cause.getMessage());
+            }
+            if (cause instanceof EntityNotFoundException) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The author doesn't exist");
+            }
+            throw Futures.rethrow(cause);
+        });
+    }
+
+    //return all books of an author
+    @GetMapping("/authors/{id}/books")
+    public CompletableFuture<ResponseEntity<?>> books(@PathVariable("id") Long authorId,
+                                                      @RequestParam(value = "q", required = false) String query,
+                                                      @RequestParam(value = "fields", required = false) String fields,
+                                                      WebRequest request) {
+        Set<BookField> selected = Fields.books(fields, request);
+        String tag = ETags.catalog(blockingBookService.version(), "json");
+        if (request.checkNotModified(tag)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (query == null && fields == null) {
+            return cachedResponses.jsonAsync(ResponseCache.Resource.AUTHOR_BOOKS, authorId, tag,
+                    request.getHeader(HttpHeaders.ACCEPT_ENCODING),
+                    () -> booksOf(authorId, null, selected).thenApply(books -> renderer.books(books, selected)));
+        }
+        return booksOf(authorId, query, selected).thenApply(books -> ResponseEntity.ok(renderer.books(books, selected)));
+    }
+
+    private CompletableFuture<Collection<Book>> booksOf(Long authorId, String query, Set<BookField> selected) {
+        CompletableFuture<Collection<Book>> books = query == null
+                ? bookService.getByAuthor(authorId, selected)
+                : bookService.findByAuthor(authorId, query, selected);
+        return books.exceptionally(failure -> {
+            Throwable cause = Futures.cause(failure);
+            throw Futures.failed(cause)
+                    ? new ResponseStatusException(HttpStatus.NOT_FOUND, "The author was not found")
+                    : Futures.rethrow(cause);
+        });
+    }
+
+    //create several books for an author
+    @PostMapping("/authors/{id}/books/batch")
+    public CompletableFuture<ResponseEntity<List<Batches.Result<BookDTO>>>> newBooks(@PathVariable("id") Long authorId,
+                                                                                     @RequestBody List<BookDTO> bookDTOs) {
+        var invalid = batches.validate(bookDTOs, book -> null);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+        return bookService.saveAll(authorId, bookDTOs.stream().map(booksMapper::dtoToEntity).toList())
+                .handle((saved, failure) -> {
+                    if (failure == null) {
+                        return Batches.applied(HttpStatus.CREATED, saved, booksMapper::entityToDTO);
+                    }
+                    Throwable cause = Futures.cause(failure);
+                    if (cause instanceof EntityNotFoundException) {
+                        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The author was not found");
+                    }
+                    if (cause instanceof DuplicateIsbnException) {
+                        throw new ResponseStatusException(HttpStatus.CONFLICT, cause.getMessage());
+                    }
+                    throw Futures.rethrow(cause);
+                });
+    }
+
+    //create a new book for an author
+    @PostMapping("/authors/{id}/books")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<BookDTO> newBook(@PathVariable("id") Long authorId, @RequestBody @Valid BookDTO bookDTO) {
+        return bookService.save(authorId, booksMapper.dtoToEntity(bookDTO)).handle((saved, failure) -> {
+            if (failure == null) {
+                return booksMapper.entityToDTO(saved);
+            }
+            Throwable cause = Futures.cause(failure);
+            if (cause instanceof DuplicateIsbnException) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, cause.getMessage());
+            }
+            throw Futures.failed(cause)
+                    ? new ResponseStatusException(HttpStatus.NOT_FOUND, "The author was not found")
+                    : Futures.rethrow(cause);
+        });
+    }
+
+}
@@ -2,17 +2,31 @@ package fr.uga.l3miage.library.authors;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Batches;
+import fr.uga.l3miage.library.ETags;
+import fr.uga.l3miage.library.Fields;
+import fr.uga.l3miage.library.Pagination;
 import fr.uga.l3miage.library.books.BookDTO;
 import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.cache.CachedResponses;
+import fr.uga.l3miage.library.cache.ResponseCache;
+import fr.uga.l3miage.library.execution.ExecutionModes;
+import fr.uga.l3miage.library.json.JsonRenderer;
 import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookField;
 import fr.uga.l3miage.library.service.BookService;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,49 +38,86 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping(value = "/api/v1", produces = "application/json")
+@Conditional(ExecutionModes.BlockingApi.class)
 public class AuthorsController {
 
     private final AuthorService authorService;
     private final AuthorMapper authorMapper;
     private final BooksMapper booksMapper;
     private final BookService bookService;
+    private final Batches batches;
+    private final JsonRenderer renderer;
+    private final CachedResponses cachedResponses;
 
     @Autowired
-    public AuthorsController(AuthorService authorService, AuthorMapper authorMapper, BooksMapper booksMapper, BookService bookService) {
+    public AuthorsController(AuthorService authorService, AuthorMapper authorMapper, BooksMapper booksMapper, BookService bookService, Batches batches, JsonRenderer renderer,
+                             CachedResponses cachedResponses) {
         this.authorService = authorService;
         this.authorMapper = authorMapper;
         this.booksMapper = booksMapper;
         this.bookService = bookService;
+        this.batches = batches;
+        this.renderer = renderer;
+        this.cachedResponses = cachedResponses;
     }
 
     @GetMapping("/authors")
-    public Collection<AuthorDTO> authors(@RequestParam(value = "q", required = false) String query) {
+    public ResponseEntity<Object> authors(@RequestParam(value = "q", required = false) String query,
+                                          @RequestParam(value = "limit", required = false) Integer limit,
+                                          @RequestParam(value = "after", required = false) Long after,
+                                          @RequestParam(value = "fields", required = false) String fields,
+                                          WebRequest request) {
+        Set<String> selected = Fields.authors(fields, request);
+        if (request.checkNotModified(ETags.catalog(authorService.version(), "json"))) {
+            return null;
+        }
+        if (query == null && Pagination.requested(limit, after)) {
+            int size = Pagination.limit(limit);
+            return Pagination.response(authorService.page(after, size), size,
+                    content -> renderer.authors(content, selected));
+        }
         Collection<Author> authors;
         if (query == null) {
             authors = authorService.list();
         } else {
             authors = authorService.searchByName(query);
         }
-        return authors.stream()
-                .map(authorMapper::entityToDTO)
-                .toList();
+        return ResponseEntity.ok(renderer.authors(authors, selected));
+    }
+
+    // same as above, streamed one author per line for consumers reading the whole catalog
+    @GetMapping(value = "/authors", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAuthors(@RequestParam(value = "q", required = false) String query,
+                                                               WebRequest request) {
+        if (request.checkNotModified(ETags.catalog(authorService.version(), "ndjson"))) {
+            return null;
+        }
+        return renderer.streamAuthors(() -> query == null ? authorService.stream() : authorService.searchByName(query).stream());
     }
     
     @GetMapping("/authors/{id}")
-    public AuthorDTO author(@PathVariable("id") Long id) {
+    public Object author(@PathVariable("id") Long id, WebRequest request) {
+        Author auteur;
         try {
-            Author auteur = authorService.get(id);
-            return authorMapper.entityToDTO(auteur);
+            auteur = authorService.get(id);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The author was not found");
         }
+        if (request.checkNotModified(ETags.of(auteur))) {
+            return null;
+        }
+        return renderer.author(auteur);
     }
 
     @PostMapping("/authors")
@@ -77,6 +128,41 @@ public class AuthorsController {
         return authorMapper.entityToDTO(newAuthor);
     }
     
+    @PostMapping("/authors/batch")
+    public ResponseEntity<List<Batches.Result<AuthorDTO>>> newAuthors(@RequestBody List<AuthorDTO> authors) {
+        var invalid = batches.validate(authors, author -> null);
+        if (invalid != null) {
+            return invalid;
+        }
+        List<Author> saved = authorService.saveAll(authors.stream().map(authorMapper::dtoToEntity).toList());
+        return Batches.applied(HttpStatus.CREATED, saved, authorMapper::entityToDTO);
+    }
+
+    @PutMapping("/authors/batch")
+    public ResponseEntity<List<Batches.Result<AuthorDTO>>> updateAuthors(@RequestBody List<AuthorDTO> authors) {
+        var invalid = batches.validate(authors, author -> author.id() == null ? "id: must not be null" : null);
+        if (invalid != null) {
+            return invalid;
+        }
+        try {
+            List<Author> updated = authorService.updateAll(authors.stream().map(authorMapper::dtoToEntity).toList());
+            return Batches.applied(HttpStatus.OK, updated, authorMapper::entityToDTO);
+        } catch (BatchException e) {
+            return Batches.rejected(authors.size(), e);
+        }
+    }
+
+    @DeleteMapping(value = "/authors", params = "id")
+    public ResponseEntity<List<Batches.Result<Long>>> deleteAuthors(@RequestParam("id") List<Long> ids) {
+        batches.size(ids);
+        try {
+            authorService.deleteAll(ids);
+            return Batches.applied(HttpStatus.NO_CONTENT, ids, id -> id);
+        } catch (BatchException e) {
+            return Batches.rejected(ids.size(), e);
+        }
+    }
+
     @PutMapping("/authors/{id}")
     public AuthorDTO updateAuthor(@PathVariable("id") Long id, @RequestBody @Valid AuthorDTO author) throws EntityNotFoundException {
         // attention AuthorDTO.id() doit être égale à id, sinon la requête utilisateur est mauvaise
@@ -94,7 +180,7 @@ public class AuthorsController {
         try{
             authorService.delete(id);
         }catch(DeleteAuthorException e){
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cannot delete author, one or several books are co-authored");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }catch(EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The author doesn't exist");
         }
@@ -102,18 +188,52 @@ public class AuthorsController {
 
     //return all books of an author
     @GetMapping("/authors/{id}/books")
-    public Collection<BookDTO> books(@PathVariable("id") Long authorId) {
+    public ResponseEntity<?> books(@PathVariable("id") Long authorId, @RequestParam(value = "q", required = false) String query,
+                                   @RequestParam(value = "fields", required = false) String fields,
+                                   WebRequest request) {
+        Set<BookField> selected = Fields.books(fields, request);
+        String tag = ETags.catalog(bookService.version(), "json");
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        if (query == null && fields == null) {
+            return cachedResponses.json(ResponseCache.Resource.AUTHOR_BOOKS, authorId, tag,
+                    request.getHeader(HttpHeaders.ACCEPT_ENCODING),
+                    () -> renderer.books(booksOf(authorId, null, selected), selected));
+        }
+        return ResponseEntity.ok(renderer.books(booksOf(authorId, query, selected), selected));
+    }
+
+    private Collection<Book> booksOf(Long authorId, String query, Set<BookField> selected) {
         try{
-            Collection<Book> books = bookService.getByAuthor(authorId);
-            return books.stream()
-                        .map(booksMapper::entityToDTO)
-                        .toList();
+            if (query == null) {
+                return bookService.getByAuthor(authorId, selected);
+            } else {
+                return bookService.findByAuthor(authorId, query, selected);
+            }
         }
         catch(Exception e){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The author was not found");
         }
     }
 
+    //create several books for an author
+    @PostMapping("/authors/{id}/books/batch")
+    public ResponseEntity<List<Batches.Result<BookDTO>>> newBooks(@PathVariable("id") Long authorId, @RequestBody List<BookDTO> bookDTOs) {
+        var invalid = batches.validate(bookDTOs, book -> null);
+        if (invalid != null) {
+            return invalid;
+        }
+        try {
+            List<Book> saved = bookService.saveAll(authorId, bookDTOs.stream().map(booksMapper::dtoToEntity).toList());
+            return Batches.applied(HttpStatus.CREATED, saved, booksMapper::entityToDTO);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The author was not found");
+        } catch (DuplicateIsbnException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
     //create a new book for an author
     @PostMapping("/authors/{id}/books")
     @ResponseStatus(HttpStatus.CREATED)
@@ -123,6 +243,9 @@ public class AuthorsController {
             Book saved = bookService.save(authorId, book);
             return booksMapper.entityToDTO(saved);
         }
+        catch (DuplicateIsbnException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
         catch (Exception e){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The author was not found");
         }
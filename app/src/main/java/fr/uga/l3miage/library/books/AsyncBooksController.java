@@ -0,0 +1,271 @@
+package fr.uga.l3miage.library.books;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Batches;
+import fr.uga.l3miage.library.ETags;
+import fr.uga.l3miage.library.Fields;
+import fr.uga.l3miage.library.Futures;
+import fr.uga.l3miage.library.Pagination;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.cache.CachedResponses;
+import fr.uga.l3miage.library.cache.ResponseCache;
+import fr.uga.l3miage.library.json.JsonRenderer;
+import fr.uga.l3miage.library.service.AsyncBookService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BorrowedBookException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import jakarta.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The endpoints of {@link BooksController} when {@code library.api.mode} is {@code async}, as
+ * {@link fr.uga.l3miage.library.authors.AsyncAuthorsController} does for the authors.
+ */
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+@ConditionalOnProperty(prefix = "library.api", name = "mode", havingValue = "async")
+public class AsyncBooksController {
+
+    private final AsyncBookService bookService;
+    private final BookService blockingBookService;
+    private final BooksMapper booksMapper;
+    private final Batches batches;
+    private final JsonRenderer renderer;
+    private final CachedResponses cachedResponses;
+
+    @Autowired
+    public AsyncBooksController(AsyncBookService bookService, BookService blockingBookService, BooksMapper booksMapper,
+                                Batches batches, JsonRenderer renderer, CachedResponses cachedResponses) {
+        this.bookService = bookService;
+        this.blockingBookService = blockingBookService;
+        this.booksMapper = booksMapper;
+        this.batches = batches;
+        this.renderer = renderer;
+        this.cachedResponses = cachedResponses;
+    }
+
+    @GetMapping("/books")
+    public CompletableFuture<ResponseEntity<Object>> books(@RequestParam(value = "q", required = false) String query,
+                                                           @RequestParam(value = "limit", required = false) Integer limit,
+                                                           @RequestParam(value = "after", required = false) Long after,
+                                                           @RequestParam(value = "isbn", required = false) Long isbn,
+                                                           @RequestParam(value = "fields", required = false) String fields,
+                                                           @RequestParam(value = "yearFrom", required = false) Short yearFrom,
+                                                           @RequestParam(value = "yearTo", required = false) Short yearTo,
+                                                           @RequestParam(value = "language", required = false) List<String> languages,
+                                                           @RequestParam(value = "publisher", required = false) List<String> publishers,
+                                                           @RequestParam(value = "facets", defaultValue = "false") boolean facets,
+                                                           WebRequest request) {
+        Set<BookField> selected = Fields.books(fields, request);
+        BookFilter filter = new BookFilter(yearFrom, yearTo, BooksController.languages(languages),
+                publishers == null ? null : Set.copyOf(publishers));
+        if (request.checkNotModified(ETags.catalog(blockingBookService.version(), "json"))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        UriComponentsBuilder uri = ServletUriComponentsBuilder.fromCurrentRequest();
+        if (!filter.isEmpty() || facets) {
+            if (query != null || isbn != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q and isbn cannot be combined with filters");
+            }
+            // filtered books are always paginated, the facets telling how many there are
+            int size = Pagination.limit(limit);
+            var page = bookService.filter(filter, after, size, selected);
+            if (!facets) {
+                return page.thenApply(books -> Pagination.response(books, size,
+                        content -> renderer.books(content, selected), uri));
+            }
+            // both are read at the same time
+            return page.thenCombine(bookService.facets(filter, BooksController.FACET_PUBLISHERS),
+                    (books, counts) -> Pagination.response(books, size, content -> new BookFacetsDTO.FacetedBooks(
+                            renderer.books(content, selected), BookFacetsDTO.of(counts)), uri));
+        }
+        if (isbn != null) {
+            // an ISBN identifies at most one book, not finding it is an empty result rather than a 404
+            return bookService.findByIsbn(isbn).handle((book, failure) -> {
+                if (failure == null) {
+                    return ResponseEntity.ok(renderer.books(List.of(book), selected));
+                }
+                Throwable cause = Futures.cause(failure);
+                if (cause instanceof EntityNotFoundException) {
+                    return ResponseEntity.ok(List.of());
+                }
+                throw Futures.rethrow(cause);
+            });
+        }
+        if (query == null && Pagination.requested(limit, after)) {
+            int size = Pagination.limit(limit);
+            return bookService.page(after, size, selected).thenApply(page -> Pagination.response(page, size,
+                    content -> renderer.books(content, selected), uri));
+        }
+        CompletableFuture<Collection<Book>> books = query == null
+                ? bookService.list(selected)
+                : bookService.findByTitle(query, selected);
+        return books.thenApply(found -> ResponseEntity.ok(renderer.books(found, selected)));
+    }
+
+    // same as above, streamed one book per line for consumers reading the whole catalog
+    @GetMapping(value = "/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBooks(@RequestParam(value = "q", required = false) String query,
+                                                             WebRequest request) {
+        if (request.checkNotModified(ETags.catalog(blockingBookService.version(), "ndjson"))) {
+            return null;
+        }
+        return renderer.streamBooks(() -> query == null
+                ? blockingBookService.stream()
+                : blockingBookService.findByTitle(query).stream());
+    }
+
+    @GetMapping("/books/{id}")
+    public CompletableFuture<ResponseEntity<?>> book(@PathVariable("id") Long id,
+                                                     @RequestParam(value = "fields", required = false) String fields,
+                                                     WebRequest request) {
+        Set<BookField> selected = Fields.books(fields, request);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        // the tag is only known off the request thread, the response carries it and Spring MVC answers a
+        // conditional request once it is written
+        return bookService.get(id, selected).handle((book, failure) -> {
+            if (failure != null) {
+                Throwable cause = Futures.cause(failure);
+                throw Futures.failed(cause)
+                        ? new ResponseStatusException(HttpStatus.NOT_FOUND, "The book was not found")
+                        : Futures.rethrow(cause);
+            }
+            String tag = ETags.of(book);
+            if (fields != null) {
+                return ResponseEntity.ok().eTag(tag).body(renderer.book(book, selected));
+            }
+            return cachedResponses.json(ResponseCache.Resource.BOOK, id, tag, acceptEncoding,
+                    () -> renderer.book(book, selected));
+        });
+    }
+
+    @PostMapping("/books")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<BookDTO> newBook(Long authorId, @RequestBody @Valid BookDTO book) {
+        return bookService.save(authorId, booksMapper.dtoToEntity(book)).handle((saved, failure) -> {
+            if (failure == null) {
+                return booksMapper.entityToDTO(saved);
+            }
+            Throwable cause = Futures.cause(failure);
+            if (cause instanceof DuplicateIsbnException) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, cause.getMessage());
+            }
+            throw Futures.failed(cause)
+                    ? new ResponseStatusException(HttpStatus.BAD_REQUEST, "The author of the book doesn't exist")
+                    : Futures.rethrow(cause);
+        });
+    }
+
+    @PutMapping("/books/{id}")
+    public CompletableFuture<BookDTO> updateBook(@PathVariable("id") Long bookId, @RequestBody @Valid BookDTO bookDTO) {
+        // attention BookDTO.id() doit être égale à id, sinon la requête utilisateur est mauvaise
+        if (bookDTO.id() != bookId) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mismatch book id");
+        }
+        return bookService.update(booksMapper.dtoToEntity(bookDTO)).handle((updated, failure) -> {
+            if (failure == null) {
+                return booksMapper.entityToDTO(updated);
+            }
+            Throwable cause = Futures.cause(failure);
+            if (cause instanceof DuplicateIsbnException) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, cause.getMessage());
+            }
+            throw Futures.failed(cause)
+                    ? new ResponseStatusException(HttpStatus.NOT_FOUND, "The book was not found")
+                    : Futures.rethrow(cause);
+        });
+    }
+
+    @PutMapping("/books/batch")
+    public CompletableFuture<ResponseEntity<List<Batches.Result<BookDTO>>>> updateBooks(@RequestBody List<BookDTO> bookDTOs) {
+        var invalid = batches.validate(bookDTOs, book -> book.id() == null ? "id: must not be null" : null);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+        return bookService.updateAll(bookDTOs.stream().map(booksMapper::dtoToEntity).toList())
+                .handle((updated, failure) -> {
+                    if (failure == null) {
+                        return Batches.applied(HttpStatus.OK, updated, booksMapper::entityToDTO);
+                    }
+                    Throwable cause = Futures.cause(failure);
+                    if (cause instanceof BatchException e) {
+                        return Batches.rejected(bookDTOs.size(), e);
+                    }
+                    throw Futures.rethrow(cause);
+                });
+    }
+
+    @DeleteMapping(value = "/books", params = "id")
+    public CompletableFuture<ResponseEntity<List<Batches.Result<Long>>>> deleteBooks(@RequestParam("id") List<Long> ids) {
+        batches.size(ids);
+        return bookService.deleteAll(ids).handle((done, failure) -> {
+            if (failure == null) {
+                return Batches.applied(HttpStatus.NO_CONTENT, ids, id -> id);
+            }
+            Throwable cause = Futures.cause(failure);
+            if (cause instanceof BatchException e) {
+                return Batches.rejected(ids.size(), e);
+            }
+            throw Futures.rethrow(cause);
+        });
+    }
+
+    @DeleteMapping("/books/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)  //code HTTP 204
+    public CompletableFuture<Void> deleteBook(@PathVariable("id") Long id) {
+        return bookService.delete(id).exceptionally(failure -> {
+            Throwable cause = Futures.cause(failure);
+            if (cause instanceof BorrowedBookException) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, cause.getMessage());
+            }
+            throw Futures.failed(cause)
+                    ? new ResponseStatusException(HttpStatus.NOT_FOUND, "The book was not found")
+                    : Futures.rethrow(cause);
+        });
+    }
+
+    //Add an additional author to a book
+    @PutMapping("/books/{bookId}/authors")
+    public CompletableFuture<BookDTO> addAuthor(@PathVariable("bookId") Long bookId, @RequestBody @Valid AuthorDTO author) {
+        return bookService.addAuthor(bookId, author.id()).handle((updated, failure) -> {
+            if (failure == null) {
+                return booksMapper.entityToDTO(updated);
+            }
+            Throwable cause = Futures.cause(failure);
+            if (cause instanceof EntityNotFoundException) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The book or second author was not found");
+            }
+            throw Futures.rethrow(cause);
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package fr.uga.l3miage.library.books;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFacets;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Numbers of books by year, language and publisher, languages being named as in {@link BookDTO}.
+ */
+public record BookFacetsDTO(
+        long total,
+        Map<Short, Long> years,
+        Map<String, Long> languages,
+        Map<String, Long> publishers
+) {
+
+    public static BookFacetsDTO of(BookFacets facets) {
+        Map<String, Long> languages = new LinkedHashMap<>();
+        for (Map.Entry<Book.Language, Long> entry : facets.languages().entrySet()) {
+            languages.put(entry.getKey().name().toLowerCase(Locale.ROOT), entry.getValue());
+        }
+        return new BookFacetsDTO(facets.total(), facets.years(), languages, facets.publishers());
+    }
+
+    /**
+     * A page of books along with the facets of the filter selecting them.
+     *
+     * @param books the books, as rendered without facets
+     */
+    public record FacetedBooks(Object books, BookFacetsDTO facets) {
+    }
+}
@@ -1,13 +1,31 @@
 package fr.uga.l3miage.library.books;
 
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Batches;
+import fr.uga.l3miage.library.ETags;
+import fr.uga.l3miage.library.Fields;
+import fr.uga.l3miage.library.Pagination;
 import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.cache.CachedResponses;
+import fr.uga.l3miage.library.cache.ResponseCache;
+import fr.uga.l3miage.library.execution.ExecutionModes;
+import fr.uga.l3miage.library.json.JsonRenderer;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
 import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BorrowedBookException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,38 +36,122 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @RestController
 @RequestMapping(value = "/api/v1", produces = "application/json")
+@Conditional(ExecutionModes.BlockingApi.class)
 public class BooksController {
 
+    // publishers counted by the facets, those having the most books
+    static final int FACET_PUBLISHERS = 20;
+
     private final BookService bookService;
     private final BooksMapper booksMapper;
+    private final Batches batches;
+    private final JsonRenderer renderer;
+    private final CachedResponses cachedResponses;
 
     @Autowired
-    public BooksController(BookService bookService, BooksMapper booksMapper) {
+    public BooksController(BookService bookService, BooksMapper booksMapper, Batches batches, JsonRenderer renderer,
+                           CachedResponses cachedResponses) {
        this.bookService = bookService;
         this.booksMapper = booksMapper;
+        this.batches = batches;
+        this.renderer = renderer;
+        this.cachedResponses = cachedResponses;
     }
 
     @GetMapping("/books")
-    public Collection<BookDTO> books(@RequestParam(value = "q", required = false) String query) {
-        return bookService.list().stream()
-                        .map(booksMapper::entityToDTO)
-                        .toList();
+    public ResponseEntity<Object> books(@RequestParam(value = "q", required = false) String query,
+                                        @RequestParam(value = "limit", required = false) Integer limit,
+                                        @RequestParam(value = "after", required = false) Long after,
+                                        @RequestParam(value = "isbn", required = false) Long isbn,
+                                        @RequestParam(value = "fields", required = false) String fields,
+                                        @RequestParam(value = "yearFrom", required = false) Short yearFrom,
+                                        @RequestParam(value = "yearTo", required = false) Short yearTo,
+                                        @RequestParam(value = "language", required = false) List<String> languages,
+                                        @RequestParam(value = "publisher", required = false) List<String> publishers,
+                                        @RequestParam(value = "facets", defaultValue = "false") boolean facets,
+                                        WebRequest request) {
+        Set<BookField> selected = Fields.books(fields, request);
+        BookFilter filter = new BookFilter(yearFrom, yearTo, languages(languages), publishers == null ? null : Set.copyOf(publishers));
+        if (request.checkNotModified(ETags.catalog(bookService.version(), "json"))) {
+            return null;
+        }
+        if (!filter.isEmpty() || facets) {
+            if (query != null || isbn != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q and isbn cannot be combined with filters");
+            }
+            // filtered books are always paginated, the facets telling how many there are
+            int size = Pagination.limit(limit);
+            Page<Book, Long> page = bookService.filter(filter, after, size, selected);
+            if (!facets) {
+                return Pagination.response(page, size, content -> renderer.books(content, selected));
+            }
+            BookFacetsDTO counts = BookFacetsDTO.of(bookService.facets(filter, FACET_PUBLISHERS));
+            return Pagination.response(page, size,
+                    content -> new BookFacetsDTO.FacetedBooks(renderer.books(content, selected), counts));
+        }
+        if (isbn != null) {
+            // an ISBN identifies at most one book, not finding it is an empty result rather than a 404
+            try {
+                return ResponseEntity.ok(renderer.books(List.of(bookService.findByIsbn(isbn)), selected));
+            } catch (EntityNotFoundException e) {
+                return ResponseEntity.ok(List.of());
+            }
+        }
+        if (query == null && Pagination.requested(limit, after)) {
+            int size = Pagination.limit(limit);
+            return Pagination.response(bookService.page(after, size, selected), size,
+                    content -> renderer.books(content, selected));
+        }
+        Collection<Book> books;
+        if (query == null) {
+            books = bookService.list(selected);
+        } else {
+            books = bookService.findByTitle(query, selected);
+        }
+        return ResponseEntity.ok(renderer.books(books, selected));
+    }
+
+    // same as above, streamed one book per line for consumers reading the whole catalog
+    @GetMapping(value = "/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBooks(@RequestParam(value = "q", required = false) String query,
+                                                             WebRequest request) {
+        if (request.checkNotModified(ETags.catalog(bookService.version(), "ndjson"))) {
+            return null;
+        }
+        return renderer.streamBooks(() -> query == null ? bookService.stream() : bookService.findByTitle(query).stream());
     }
 
     @GetMapping("/books/{id}")
-    public BookDTO book(@PathVariable("id") Long id) {
+    public ResponseEntity<?> book(@PathVariable("id") Long id, @RequestParam(value = "fields", required = false) String fields,
+                                  WebRequest request) {
+        Set<BookField> selected = Fields.books(fields, request);
+        Book book;
         try {
-            Book book = bookService.get(id);
-            return booksMapper.entityToDTO(book);
+            book = bookService.get(id, selected);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The book was not found");
         }
+        String tag = ETags.of(book);
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        if (fields != null) {
+            return ResponseEntity.ok(renderer.book(book, selected));
+        }
+        return cachedResponses.json(ResponseCache.Resource.BOOK, id, tag, request.getHeader(HttpHeaders.ACCEPT_ENCODING),
+                () -> renderer.book(book, selected));
     }
 
     @PostMapping("/books")
@@ -60,6 +162,9 @@ public class BooksController {
             Book saved = bookService.save(authorId, newBook);
             return booksMapper.entityToDTO(saved);
         }
+        catch (DuplicateIsbnException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
         catch (Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The author of the book doesn't exist");
         }
@@ -76,16 +181,46 @@ public class BooksController {
             Book updated = bookService.update(book);
             return booksMapper.entityToDTO(updated);
         }
+        catch (DuplicateIsbnException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
         catch (Exception e){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,"The book was not found");
         }
     }
 
+    @PutMapping("/books/batch")
+    public ResponseEntity<List<Batches.Result<BookDTO>>> updateBooks(@RequestBody List<BookDTO> bookDTOs) {
+        var invalid = batches.validate(bookDTOs, book -> book.id() == null ? "id: must not be null" : null);
+        if (invalid != null) {
+            return invalid;
+        }
+        try {
+            List<Book> updated = bookService.updateAll(bookDTOs.stream().map(booksMapper::dtoToEntity).toList());
+            return Batches.applied(HttpStatus.OK, updated, booksMapper::entityToDTO);
+        } catch (BatchException e) {
+            return Batches.rejected(bookDTOs.size(), e);
+        }
+    }
+
+    @DeleteMapping(value = "/books", params = "id")
+    public ResponseEntity<List<Batches.Result<Long>>> deleteBooks(@RequestParam("id") List<Long> ids) {
+        batches.size(ids);
+        try {
+            bookService.deleteAll(ids);
+            return Batches.applied(HttpStatus.NO_CONTENT, ids, id -> id);
+        } catch (BatchException e) {
+            return Batches.rejected(ids.size(), e);
+        }
+    }
+
     @DeleteMapping("/books/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)  //code HTTP 204
     public void deleteBook(@PathVariable("id") Long id) {
         try{
             bookService.delete(id);
+        }catch(BorrowedBookException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }catch(Exception e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The book was not found");
         }
@@ -102,4 +237,19 @@ public class BooksController {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The book or second author was not found");
         }
     }
+
+    static Set<Book.Language> languages(List<String> names) {
+        if (names == null) {
+            return null;
+        }
+        Set<Book.Language> languages = EnumSet.noneOf(Book.Language.class);
+        for (String name : names) {
+            try {
+                languages.add(Book.Language.valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "wrong language: " + name);
+            }
+        }
+        return languages;
+    }
 }
@@ -1,18 +1,35 @@
 package fr.uga.l3miage.library.books;
 
+import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.service.BookField;
 import org.mapstruct.*;
 
 import java.util.Collection;
+import java.util.Set;
+import java.util.function.Function;
 
 @Mapper(componentModel = "spring")
 public interface BooksMapper {
     BookDTO entityToDTO(Book book);
 
+    // named, so that it is only used when asked for
+    @Named("withoutAuthors")
+    @Mapping(target = "authors", ignore = true)
+    BookDTO entityToDTOWithoutAuthors(Book book);
+
     Collection<BookDTO> entityToDTO(Iterable<Book> books);
 
+    // the version of an entity is never taken from a client
+    @Mapping(target = "version", ignore = true)
     Book dtoToEntity(BookDTO book);
 
+    // the authors of a book are references, their own books are not read
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "books", ignore = true)
+    Author authorDtoToEntity(AuthorDTO author);
+
     Collection<Book> dtoToEntity(Iterable<BookDTO> books);
 
     @EnumMapping(nameTransformationStrategy = "case", configuration = "lower")
@@ -23,4 +40,12 @@ public interface BooksMapper {
     @ValueMapping(source = "", target = "FRENCH")
     Book.Language stringToEnum(String language);
 
-}
\ No newline at end of file
+    /**
+     * @param fields the fields of the response
+     * @return the mapping to DTOs, which skips the authors when they are not part of the response
+     */
+    default Function<Book, BookDTO> mapping(Set<BookField> fields) {
+        return fields.contains(BookField.AUTHORS) ? this::entityToDTO : this::entityToDTOWithoutAuthors;
+    }
+
+}
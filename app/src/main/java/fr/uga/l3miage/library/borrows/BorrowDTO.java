@@ -0,0 +1,21 @@
+package fr.uga.l3miage.library.borrows;
+
+import java.util.Collection;
+import java.util.Date;
+
+public record BorrowDTO(
+        Long id,
+
+        Long borrowerId,
+
+        Collection<Long> books,
+
+        Date start,
+
+        // when the books are due
+        Date end,
+
+        // null while the books are borrowed
+        Date returned
+) {
+}
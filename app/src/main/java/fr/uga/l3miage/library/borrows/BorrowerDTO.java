@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.borrows;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.Date;
+
+public record BorrowerDTO(
+        Long id,
+
+        @Pattern(regexp = "^(female|male|fluid)", message = "wrong gender")
+        String gender,
+
+        @NotBlank
+        String firstName,
+
+        @NotBlank
+        String lastName,
+
+        Date birth,
+
+        // both set by the service
+        Date registered,
+
+        float lateRatio
+) {
+}
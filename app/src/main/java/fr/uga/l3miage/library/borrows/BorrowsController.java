@@ -0,0 +1,105 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.Pagination;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.UnavailableException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class BorrowsController {
+
+    private static final int DEFAULT_LATE = 10;
+
+    private final BorrowService borrowService;
+    private final BorrowsMapper borrowsMapper;
+
+    @Autowired
+    public BorrowsController(BorrowService borrowService, BorrowsMapper borrowsMapper) {
+        this.borrowService = borrowService;
+        this.borrowsMapper = borrowsMapper;
+    }
+
+    @PostMapping("/borrowers")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BorrowerDTO newBorrower(@RequestBody @Valid BorrowerDTO borrower) {
+        Borrower saved = borrowService.saveBorrower(borrowsMapper.dtoToEntity(borrower));
+        return borrowsMapper.entityToDTO(saved);
+    }
+
+    // worst first, read from a ranking kept up to date as borrows fall due
+    @GetMapping("/borrowers/late")
+    public Collection<BorrowerDTO> lateBorrowers(@RequestParam(value = "limit", required = false) Integer limit) {
+        int size = Pagination.limit(limit == null ? DEFAULT_LATE : limit);
+        return borrowService.worstBorrowers(size).stream().map(borrowsMapper::entityToDTO).toList();
+    }
+
+    @GetMapping("/borrowers/{id}")
+    public BorrowerDTO borrower(@PathVariable("id") Long id) {
+        try {
+            return borrowsMapper.entityToDTO(borrowService.getBorrower(id));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The borrower was not found", e);
+        }
+    }
+
+    @GetMapping("/borrowers/{id}/borrows")
+    public Collection<BorrowDTO> activeBorrows(@PathVariable("id") Long id) {
+        try {
+            return borrowsMapper.entityToDTO(borrowService.active(id));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The borrower was not found", e);
+        }
+    }
+
+    @PostMapping("/borrowers/{id}/borrows")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BorrowDTO checkout(@PathVariable("id") Long borrowerId, @RequestBody @Valid CheckoutDTO checkout)
+            throws UnavailableException {
+        try {
+            Borrow borrow = borrowService.checkout(borrowerId, checkout.books());
+            return borrowsMapper.entityToDTO(borrow);
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping("/borrows/{id}/return")
+    public BorrowDTO giveBack(@PathVariable("id") Long borrowId) {
+        try {
+            return borrowsMapper.entityToDTO(borrowService.giveBack(borrowId));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The borrow was not found", e);
+        }
+    }
+
+    /**
+     * Answers a checkout refused because of borrowed books with the ids of those books.
+     */
+    @ExceptionHandler(UnavailableException.class)
+    public ResponseEntity<Unavailable> unavailable(UnavailableException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new Unavailable(e.getMessage(), e.getBookIds()));
+    }
+
+    public record Unavailable(String error, List<Long> books) {
+    }
+}
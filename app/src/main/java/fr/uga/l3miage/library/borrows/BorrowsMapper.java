@@ -0,0 +1,38 @@
+package fr.uga.l3miage.library.borrows;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.domain.Person;
+import org.mapstruct.EnumMapping;
+import org.mapstruct.InheritInverseConfiguration;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ValueMapping;
+
+import java.util.Collection;
+
+@Mapper(componentModel = "spring")
+public interface BorrowsMapper {
+    BorrowerDTO entityToDTO(Borrower borrower);
+
+    Borrower dtoToEntity(BorrowerDTO borrower);
+
+    @Mapping(target = "borrowerId", source = "borrower.id")
+    BorrowDTO entityToDTO(Borrow borrow);
+
+    Collection<BorrowDTO> entityToDTO(Iterable<Borrow> borrows);
+
+    default Long bookToId(Book book) {
+        return book.getId();
+    }
+
+    @EnumMapping(nameTransformationStrategy = "case", configuration = "lower")
+    String enumToString(Person.Gender gender);
+
+    // the DTO validation only lets known genders through
+    @InheritInverseConfiguration
+    @ValueMapping(source = MappingConstants.ANY_REMAINING, target = MappingConstants.THROW_EXCEPTION)
+    Person.Gender stringToEnum(String gender);
+}
@@ -0,0 +1,11 @@
+package fr.uga.l3miage.library.borrows;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record CheckoutDTO(
+        @NotEmpty(message = "books cannot be empty")
+        List<Long> books
+) {
+}
@@ -0,0 +1,113 @@
+package fr.uga.l3miage.library.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Answers reads of cacheable resources with the bytes of the {@link ResponseCache}, when there is one, written as
+ * they are. Clients accepting gzip get the compressed bytes, under a weak tag as they are another representation.
+ * Without the cache the body is returned to be serialized as usual.
+ * <p>
+ * Responses carry their tag, so that they may be made off the request thread, a conditional request being then
+ * answered once the response is written.
+ */
+@Component
+public class CachedResponses {
+
+    private final ResponseCache cache;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CachedResponses(ObjectProvider<ResponseCache> cache, ObjectMapper objectMapper) {
+        this.cache = cache.getIfAvailable();
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param tag            the entity tag of the current representation
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request, null when absent
+     * @param body           makes the body, called when it is not cached
+     * @return the response
+     */
+    public ResponseEntity<?> json(ResponseCache.Resource resource, Long id, String tag, String acceptEncoding,
+                                  Supplier<Object> body) {
+        if (cache == null) {
+            return ResponseEntity.ok().eTag(tag).body(body.get());
+        }
+        ResponseCache.Entry entry = cache.get(resource, id, tag);
+        if (entry == null) {
+            entry = put(resource, id, tag, body.get());
+        }
+        return response(entry, tag, acceptEncoding);
+    }
+
+    /**
+     * Same as above, the body being made asynchronously when it is not cached.
+     *
+     * @param body makes the body, called when it is not cached
+     * @return the response, completed at once when cached
+     */
+    public CompletableFuture<ResponseEntity<?>> jsonAsync(ResponseCache.Resource resource, Long id, String tag,
+                                                          String acceptEncoding,
+                                                          Supplier<? extends CompletableFuture<?>> body) {
+        if (cache == null) {
+            return body.get().thenApply(content -> ResponseEntity.ok().eTag(tag).body(content));
+        }
+        ResponseCache.Entry entry = cache.get(resource, id, tag);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(response(entry, tag, acceptEncoding));
+        }
+        return body.get().thenApply(content -> response(put(resource, id, tag, content), tag, acceptEncoding));
+    }
+
+    private ResponseCache.Entry put(ResponseCache.Resource resource, Long id, String tag, Object body) {
+        try {
+            return cache.put(resource, id, tag, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static ResponseEntity<?> response(ResponseCache.Entry entry, String tag, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+        if (entry.gzip() == null) {
+            return response.eTag(tag).body(entry.identity());
+        }
+        response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(acceptEncoding)) {
+            return response.eTag(tag).body(entry.identity());
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .eTag("W/" + tag)
+                .body(entry.gzip());
+    }
+
+    /**
+     * @param header the value of {@code Accept-Encoding}, null when absent
+     */
+    static boolean acceptsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        for (String coding : header.split(",")) {
+            int parameters = coding.indexOf(';');
+            String name = (parameters < 0 ? coding : coding.substring(0, parameters)).strip();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                // gzip;q=0 refuses it
+                return parameters < 0 || !coding.substring(parameters + 1).strip().matches("q=0(\\.0{0,3})?");
+            }
+        }
+        return false;
+    }
+}
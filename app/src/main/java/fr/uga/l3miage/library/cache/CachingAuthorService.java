@@ -0,0 +1,138 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.Page;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Caches {@link #get(Long)} of an {@link AuthorService}.
+ */
+public class CachingAuthorService implements AuthorService {
+
+    private final AuthorService delegate;
+    private final ServiceCaches caches;
+    private final Supplier<BookService> bookService;
+
+    /**
+     * @param delegate    the actual service
+     * @param caches      the caches, shared with the book service
+     * @param bookService the book service, to find the books of an author
+     */
+    public CachingAuthorService(AuthorService delegate, ServiceCaches caches, Supplier<BookService> bookService) {
+        this.delegate = delegate;
+        this.caches = caches;
+        this.bookService = bookService;
+    }
+
+    @Override
+    public Author get(Long id) throws EntityNotFoundException {
+        return ServiceCaches.get(caches.authors, id, delegate::get);
+    }
+
+    @Override
+    public Author save(Author author) {
+        return delegate.save(author);
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name) {
+        return delegate.searchByName(name);
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return delegate.suggest(prefix, limit);
+    }
+
+    @Override
+    public Collection<Author> list() {
+        return delegate.list();
+    }
+
+    @Override
+    public Page<Author, Long> page(Long after, int limit) {
+        return delegate.page(after, limit);
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Stream<Author> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public Author update(Author author) throws EntityNotFoundException {
+        Author updated = delegate.update(author);
+        caches.authors.synchronous().invalidate(updated.getId());
+        // books embed the name of their authors
+        caches.invalidateBooks(books(updated.getId()));
+        return updated;
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        Collection<Book> books = books(id);
+        delegate.delete(id);
+        caches.authors.synchronous().invalidate(id);
+        caches.invalidateBooksOf(id);
+        caches.invalidateBooks(books);
+    }
+
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        return delegate.saveAll(authors);
+    }
+
+    @Override
+    public List<Author> updateAll(List<Author> authors) throws BatchException {
+        List<Author> updated = delegate.updateAll(authors);
+        for (Author author : updated) {
+            caches.authors.synchronous().invalidate(author.getId());
+            try {
+                caches.invalidateBooks(books(author.getId()));
+            } catch (EntityNotFoundException e) {
+                // deleted meanwhile, along with its books
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids) throws BatchException {
+        List<Book> books = new ArrayList<>();
+        for (Long id : ids) {
+            try {
+                books.addAll(books(id));
+            } catch (EntityNotFoundException e) {
+                // the batch will be rejected
+            }
+        }
+        delegate.deleteAll(ids);
+        ids.forEach(id -> {
+            caches.authors.synchronous().invalidate(id);
+            caches.invalidateBooksOf(id);
+        });
+        caches.invalidateBooks(books);
+    }
+
+    private Collection<Book> books(Long id) throws EntityNotFoundException {
+        Collection<Book> books = bookService.get().getByAuthor(id);
+        return books == null ? List.of() : books;
+    }
+}
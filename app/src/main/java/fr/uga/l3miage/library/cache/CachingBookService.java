@@ -0,0 +1,193 @@
+package fr.uga.l3miage.library.cache;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.CatalogStats;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.Page;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Caches {@link #get(Long)} and {@link #getByAuthor(Long)} of a {@link BookService}.
+ */
+public class CachingBookService implements BookService {
+
+    private final BookService delegate;
+    private final ServiceCaches caches;
+
+    public CachingBookService(BookService delegate, ServiceCaches caches) {
+        this.delegate = delegate;
+        this.caches = caches;
+    }
+
+    @Override
+    public Book get(Long id) throws EntityNotFoundException {
+        return ServiceCaches.get(caches.books, id, delegate::get);
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        return ServiceCaches.get(caches.booksByAuthor, id, authorId -> {
+            Collection<Book> books = delegate.getByAuthor(authorId);
+            return books == null ? List.of() : List.copyOf(books);
+        });
+    }
+
+    /**
+     * A cached book has all the fields, it is returned whatever the ones asked for.
+     */
+    @Override
+    public Book get(Long id, Set<BookField> fields) throws EntityNotFoundException {
+        return get(id);
+    }
+
+    /**
+     * Same as {@link #get(Long, Set)}.
+     */
+    @Override
+    public Collection<Book> getByAuthor(Long id, Set<BookField> fields) throws EntityNotFoundException {
+        return getByAuthor(id);
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        Book saved = delegate.save(authorId, book);
+        caches.invalidateBooksOf(authorId);
+        return saved;
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException {
+        Book updated = delegate.update(book);
+        caches.invalidateBooks(List.of(updated));
+        return updated;
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        Book updated = delegate.addAuthor(bookId, authorId);
+        caches.invalidateBooksOf(authorId);
+        caches.invalidateBooks(List.of(updated));
+        return updated;
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        Book book = get(id);
+        delegate.delete(id);
+        caches.invalidateBooks(List.of(book));
+    }
+
+    @Override
+    public List<Book> saveAll(Long authorId, List<Book> books) throws EntityNotFoundException {
+        List<Book> saved = delegate.saveAll(authorId, books);
+        caches.invalidateBooksOf(authorId);
+        return saved;
+    }
+
+    @Override
+    public List<Book> updateAll(List<Book> books) throws BatchException {
+        List<Book> updated = delegate.updateAll(books);
+        caches.invalidateBooks(updated);
+        return updated;
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids) throws BatchException {
+        List<Book> books = new ArrayList<>();
+        for (Long id : ids) {
+            try {
+                books.add(get(id));
+            } catch (EntityNotFoundException e) {
+                // the batch will be rejected
+            }
+        }
+        delegate.deleteAll(ids);
+        caches.invalidateBooks(books);
+    }
+
+    @Override
+    public Collection<Book> list() {
+        return delegate.list();
+    }
+
+    @Override
+    public Book findByIsbn(long isbn) throws EntityNotFoundException {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public Page<Book, Long> page(Long after, int limit) {
+        return delegate.page(after, limit);
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Stream<Book> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title) {
+        return delegate.findByTitle(title);
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        return delegate.findByAuthor(id, title);
+    }
+
+    @Override
+    public Collection<Book> list(Set<BookField> fields) {
+        return delegate.list(fields);
+    }
+
+    @Override
+    public Page<Book, Long> page(Long after, int limit, Set<BookField> fields) {
+        return delegate.page(after, limit, fields);
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title, Set<BookField> fields) {
+        return delegate.findByTitle(title, fields);
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title, Set<BookField> fields) throws EntityNotFoundException {
+        return delegate.findByAuthor(id, title, fields);
+    }
+
+    @Override
+    public Page<Book, Long> filter(BookFilter filter, Long after, int limit, Set<BookField> fields) {
+        return delegate.filter(filter, after, limit, fields);
+    }
+
+    @Override
+    public BookFacets facets(BookFilter filter, int publishers) {
+        return delegate.facets(filter, publishers);
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return delegate.suggest(prefix, limit);
+    }
+
+    @Override
+    public CatalogStats stats() {
+        return delegate.stats();
+    }
+}
@@ -0,0 +1,116 @@
+package fr.uga.l3miage.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON bodies of responses, as the bytes to write, along with their gzip compression. Eviction is size based,
+ * weighted by the number of bytes held.
+ * <p>
+ * An entry is stored with the entity tag of its representation and only returned for the same tag, so that a
+ * body written from an older version of the entities is never served, even when it is stored after the mutation
+ * removing it. Entries are removed on mutations by {@link ServiceCaches}, to free them early.
+ */
+public class ResponseCache {
+
+    /**
+     * The cached resources, each one identified by an id.
+     */
+    public enum Resource {
+        // a book, by its id
+        BOOK,
+        // the books of an author, by the author id
+        AUTHOR_BOOKS
+    }
+
+    /**
+     * @param tag      the entity tag of the representation
+     * @param identity the body
+     * @param gzip     the body compressed, null when not worth it
+     */
+    public record Entry(String tag, byte[] identity, byte[] gzip) {
+    }
+
+    private record Key(Resource resource, Long id) {
+    }
+
+    // references, headers and array overhead of an entry
+    private static final int OVERHEAD = 128;
+
+    private final Cache<Key, Entry> entries;
+    private final int gzipThreshold;
+
+    /**
+     * @param maximumBytes  the size of the bodies held, compressed or not
+     * @param gzipThreshold the size from which bodies are compressed, smaller ones gaining little
+     */
+    public ResponseCache(long maximumBytes, int gzipThreshold) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Entry entry) -> OVERHEAD + entry.tag().length() + entry.identity().length
+                        + (entry.gzip() == null ? 0 : entry.gzip().length))
+                .recordStats()
+                .build();
+        this.gzipThreshold = gzipThreshold;
+    }
+
+    /**
+     * @param tag the entity tag of the current representation
+     * @return the entry, null when missing or stored for another tag
+     */
+    public Entry get(Resource resource, Long id, String tag) {
+        Entry entry = entries.getIfPresent(new Key(resource, id));
+        return entry != null && entry.tag().equals(tag) ? entry : null;
+    }
+
+    /**
+     * Stores a body, compressing it when large enough.
+     *
+     * @return the entry stored
+     */
+    public Entry put(Resource resource, Long id, String tag, byte[] body) {
+        Entry entry = new Entry(tag, body, body.length >= gzipThreshold ? gzip(body) : null);
+        entries.put(new Key(resource, id), entry);
+        return entry;
+    }
+
+    void invalidate(Resource resource, Long id) {
+        entries.invalidate(new Key(resource, id));
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return entries.stats();
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    Cache<?, ?> cache() {
+        return entries;
+    }
+
+    /**
+     * @return the compressed body, null when it is not smaller
+     */
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            // in memory only
+            throw new UncheckedIOException(e);
+        }
+        return out.size() < body.length ? out.toByteArray() : null;
+    }
+}
@@ -0,0 +1,35 @@
+package fr.uga.l3miage.library.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches of the services, when {@code library.cache.enabled} is set. Services are wrapped in the caching
+ * decorators by {@link fr.uga.l3miage.library.ServiceDecorators}. With {@code library.cache.responses.enabled}
+ * the bodies of book responses are cached as well, see {@link CachedResponses}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.cache", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ServiceCacheProperties.class)
+public class ServiceCacheConfig {
+
+    @Bean
+    public ServiceCaches serviceCaches(ServiceCacheProperties properties, ObjectProvider<ResponseCache> responses) {
+        return new ServiceCaches(properties.maximumSize(), properties.ttl(), responses.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "library.cache.responses", name = "enabled", havingValue = "true")
+    public ResponseCache responseCache(ServiceCacheProperties properties) {
+        ServiceCacheProperties.Responses responses = properties.responses();
+        return new ResponseCache(responses.maximumSize().toBytes(), (int) responses.gzipThreshold().toBytes());
+    }
+
+    @Bean
+    public ServiceCacheMetrics serviceCacheMetrics(ServiceCaches caches) {
+        return new ServiceCacheMetrics(caches);
+    }
+}
@@ -0,0 +1,27 @@
+package fr.uga.l3miage.library.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Size, hits, misses and evictions of each of the {@link ServiceCaches}, tagged {@code cache=library.<name>}.
+ */
+public class ServiceCacheMetrics implements MeterBinder {
+
+    private final ServiceCaches caches;
+
+    public ServiceCacheMetrics(ServiceCaches caches) {
+        this.caches = caches;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, caches.authors.synchronous(), "library.authors");
+        CaffeineCacheMetrics.monitor(registry, caches.books.synchronous(), "library.books");
+        CaffeineCacheMetrics.monitor(registry, caches.booksByAuthor.synchronous(), "library.booksByAuthor");
+        if (caches.responses != null) {
+            CaffeineCacheMetrics.monitor(registry, caches.responses.cache(), "library.responses");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package fr.uga.l3miage.library.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the service caches, under {@code library.cache}.
+ *
+ * @param enabled     whether services are wrapped in caches
+ * @param maximumSize maximum number of entries of each cache
+ * @param ttl         time after which an entry expires once written, none if not set
+ * @param responses   the cache of response bodies, under {@code library.cache.responses}
+ */
+@ConfigurationProperties("library.cache")
+public record ServiceCacheProperties(@DefaultValue("false") boolean enabled,
+                                     @DefaultValue("10000") long maximumSize,
+                                     Duration ttl,
+                                     @DefaultValue Responses responses) {
+
+    /**
+     * @param enabled       whether the bodies of book responses are cached, on top of the entities
+     * @param maximumSize   the size of the bodies held
+     * @param gzipThreshold the size from which bodies are also held compressed
+     */
+    public record Responses(@DefaultValue("false") boolean enabled,
+                            @DefaultValue("64MB") DataSize maximumSize,
+                            @DefaultValue("1KB") DataSize gzipThreshold) {
+    }
+}
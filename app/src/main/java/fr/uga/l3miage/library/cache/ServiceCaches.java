@@ -0,0 +1,150 @@
+package fr.uga.l3miage.library.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Caches shared by {@link CachingAuthorService} and {@link CachingBookService}: authors and books by id, and the
+ * books of each author. Eviction is size based (W-TinyLFU), with an optional time to live.
+ * <p>
+ * Entries are removed on each mutation rather than updated, a book being cached both alone and in the list of
+ * each of its authors.
+ * <p>
+ * Caches hold futures: a missing entry is loaded by the calling thread outside of any lock of the cache, so
+ * that a virtual thread waiting for the database is not pinned to its carrier, and concurrent readers of the
+ * same entry wait for that single load. A removal during the load drops the future, its stale value is never
+ * seen by later readers.
+ * <p>
+ * Mutations also remove the bodies of the responses made of the changed books, when they are cached too.
+ */
+public class ServiceCaches {
+
+    final AsyncCache<Long, Author> authors;
+    final AsyncCache<Long, Book> books;
+    final AsyncCache<Long, List<Book>> booksByAuthor;
+    final ResponseCache responses;
+
+    public ServiceCaches(long maximumSize, Duration ttl) {
+        this(maximumSize, ttl, null);
+    }
+
+    /**
+     * @param responses the cache of response bodies, null if they are not cached
+     */
+    public ServiceCaches(long maximumSize, Duration ttl, ResponseCache responses) {
+        this.authors = build(maximumSize, ttl);
+        this.books = build(maximumSize, ttl);
+        this.booksByAuthor = build(maximumSize, ttl);
+        this.responses = responses;
+    }
+
+    /**
+     * @return statistics of each cache: hits, misses, evictions...
+     */
+    public Map<String, CacheStats> stats() {
+        return Map.of("authors", authors.synchronous().stats(),
+                "books", books.synchronous().stats(),
+                "booksByAuthor", booksByAuthor.synchronous().stats());
+    }
+
+    /**
+     * @return the number of entries of each cache
+     */
+    public Map<String, Long> sizes() {
+        return Map.of("authors", authors.synchronous().estimatedSize(),
+                "books", books.synchronous().estimatedSize(),
+                "booksByAuthor", booksByAuthor.synchronous().estimatedSize());
+    }
+
+    public void invalidateAll() {
+        authors.synchronous().invalidateAll();
+        books.synchronous().invalidateAll();
+        booksByAuthor.synchronous().invalidateAll();
+        if (responses != null) {
+            responses.invalidateAll();
+        }
+    }
+
+    /**
+     * Removes books and the lists of books of all their authors.
+     */
+    void invalidateBooks(Collection<Book> changed) {
+        for (Book book : changed) {
+            books.synchronous().invalidate(book.getId());
+            if (responses != null) {
+                responses.invalidate(ResponseCache.Resource.BOOK, book.getId());
+            }
+            if (book.getAuthors() != null) {
+                book.getAuthors().forEach(author -> invalidateBooksOf(author.getId()));
+            }
+        }
+    }
+
+    /**
+     * Removes the list of books of an author.
+     */
+    void invalidateBooksOf(Long authorId) {
+        booksByAuthor.synchronous().invalidate(authorId);
+        if (responses != null) {
+            responses.invalidate(ResponseCache.Resource.AUTHOR_BOOKS, authorId);
+        }
+    }
+
+    /**
+     * Reads through a cache. Missing entities are not cached, failed futures being removed by the cache. Whatever
+     * the loader throws, errors included, completes the future, callers waiting on it would otherwise hang.
+     */
+    static <V> V get(AsyncCache<Long, V> cache, Long id, Loader<V> loader) throws EntityNotFoundException {
+        if (id == null) {
+            return loader.load(null);
+        }
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> cached = cache.get(id, (key, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(loader.load(id));
+            } catch (Throwable e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof EntityNotFoundException notFound) {
+                throw notFound;
+            } else if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static <V> AsyncCache<Long, V> build(long maximumSize, Duration ttl) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (ttl != null) {
+            builder.expireAfterWrite(ttl);
+        }
+        return builder.buildAsync();
+    }
+
+    @FunctionalInterface
+    interface Loader<V> {
+        V load(Long id) throws EntityNotFoundException;
+    }
+}
@@ -0,0 +1,25 @@
+package fr.uga.l3miage.library.execution;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How the controllers call the services, under {@code library.api}.
+ *
+ * @param mode    {@code blocking} for controllers calling the services on the request thread, or {@code async}
+ *                for controllers returning futures of the asynchronous services, which give the request thread
+ *                back to the container while the services wait for their store
+ * @param threads the number of threads the asynchronous services are called on, in {@code async} mode; unused
+ *                with {@code library.execution.mode=virtual}, each call then getting a virtual thread
+ * @param queue   the number of calls waiting for one of these threads, beyond which calls are rejected and
+ *                answered with a {@code 503 Service Unavailable}
+ */
+@ConfigurationProperties("library.api")
+public record ApiProperties(@DefaultValue("blocking") Mode mode, @DefaultValue("512") int threads,
+                            @DefaultValue("1024") int queue) {
+
+    public enum Mode {
+        BLOCKING,
+        ASYNC
+    }
+}
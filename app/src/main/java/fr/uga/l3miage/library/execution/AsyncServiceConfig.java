@@ -0,0 +1,71 @@
+package fr.uga.l3miage.library.execution;
+
+import fr.uga.l3miage.library.service.AsyncAuthorService;
+import fr.uga.l3miage.library.service.AsyncBookService;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.base.AsyncAuthorServiceAdapter;
+import fr.uga.l3miage.library.service.base.AsyncBookServiceAdapter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The asynchronous services the controllers call when {@code library.api.mode} is {@code async}, adapting the
+ * service beans, decorators included.
+ * <p>
+ * The services still block on their store, on the threads of an executor of their own rather than on those of the
+ * container: requests waiting for the store then do not keep the container from accepting and answering other
+ * ones, the cached ones above all. At most {@code library.api.queue} calls wait for one of the threads, the
+ * others are rejected and answered with a {@code 503 Service Unavailable} rather than piling up.
+ * <p>
+ * With {@code library.execution.mode=virtual} the calls run on virtual threads, one per call: none of them waits.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.api", name = "mode", havingValue = "async")
+public class AsyncServiceConfig implements DisposableBean {
+
+    private final ExecutorService executor;
+    private final boolean owned;
+
+    public AsyncServiceConfig(ApiProperties properties, ObjectProvider<ExecutorService> virtualThreadExecutor) {
+        ExecutorService virtual = virtualThreadExecutor.getIfAvailable();
+        this.owned = virtual == null;
+        this.executor = owned ? bounded(properties.threads(), properties.queue()) : virtual;
+    }
+
+    /**
+     * @return a pool of a fixed number of threads, rejecting the calls once its queue is full
+     */
+    static ThreadPoolExecutor bounded(int threads, int queue) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queue)), new CustomizableThreadFactory("service-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean
+    public AsyncAuthorService asyncAuthorService(AuthorService authorService) {
+        return new AsyncAuthorServiceAdapter(authorService, executor);
+    }
+
+    @Bean
+    public AsyncBookService asyncBookService(BookService bookService) {
+        return new AsyncBookServiceAdapter(bookService, executor);
+    }
+
+    @Override
+    public void destroy() {
+        // the virtual thread executor is a bean, shut down by the context
+        if (owned) {
+            executor.shutdown();
+        }
+    }
+}
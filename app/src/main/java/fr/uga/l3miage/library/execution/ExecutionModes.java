@@ -0,0 +1,29 @@
+package fr.uga.l3miage.library.execution;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the properties choosing how requests are executed whatever their values, so that an unknown mode fails
+ * the startup instead of leaving the configurations conditional on them all disabled.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties({ApiProperties.class, ExecutionProperties.class})
+public class ExecutionModes {
+
+    /**
+     * Matches unless {@code library.api.mode} is {@code async}: the blocking controllers are the default.
+     */
+    public static class BlockingApi extends NoneNestedConditions {
+
+        BlockingApi() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "library.api", name = "mode", havingValue = "async")
+        static class AsyncApi {
+        }
+    }
+}
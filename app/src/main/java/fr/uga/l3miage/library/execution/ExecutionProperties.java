@@ -0,0 +1,20 @@
+package fr.uga.l3miage.library.execution;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How requests are executed, under {@code library.execution}.
+ *
+ * @param mode {@code pool} for the platform threads of the servlet container, sized by
+ *             {@code server.tomcat.threads.max}, or {@code virtual} for a virtual thread per request, which needs
+ *             a Java 21 or later runtime
+ */
+@ConfigurationProperties("library.execution")
+public record ExecutionProperties(@DefaultValue("pool") Mode mode) {
+
+    public enum Mode {
+        POOL,
+        VIRTUAL
+    }
+}
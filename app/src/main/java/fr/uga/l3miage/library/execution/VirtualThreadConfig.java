@@ -0,0 +1,54 @@
+package fr.uga.l3miage.library.execution;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs each request, and each asynchronous response such as the NDJSON streams, on its own virtual thread when
+ * {@code library.execution.mode} is {@code virtual}. A request blocked on the database then only holds a few
+ * hundred bytes instead of one of the container threads.
+ * <p>
+ * The build targets Java 17, the executor is looked up at runtime and the application fails to start on an
+ * older runtime rather than silently falling back to the pool.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.execution", name = "mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("virtual threads need a Java 21 or later runtime, this one is "
+                    + Runtime.version(), e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot create the virtual thread executor", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Replaces the pool Spring MVC runs asynchronous responses on.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
@@ -0,0 +1,192 @@
+package fr.uga.l3miage.library.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookField;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes books and authors straight from the entities, byte for byte as their DTOs mapped by
+ * {@link fr.uga.l3miage.library.books.BooksMapper} and {@link fr.uga.l3miage.library.authors.AuthorMapper} are
+ * written by Jackson, properties in the same order and nulls included. Nothing is allocated per entity: property
+ * names and languages are encoded once, and the authors of a book are written as they are iterated.
+ */
+public final class EntityJson {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString ISBN = new SerializedString("isbn");
+    private static final SerializableString PUBLISHER = new SerializedString("publisher");
+    private static final SerializableString YEAR = new SerializedString("year");
+    private static final SerializableString LANGUAGE = new SerializedString("language");
+    private static final SerializableString AUTHORS = new SerializedString("authors");
+    private static final SerializableString FULL_NAME = new SerializedString("fullName");
+
+    // as BooksMapper.enumToString
+    private static final Map<Book.Language, SerializableString> LANGUAGES = new EnumMap<>(Book.Language.class);
+
+    static {
+        for (Book.Language language : Book.Language.values()) {
+            LANGUAGES.put(language, new SerializedString(language.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    private EntityJson() {
+        // utility class
+    }
+
+    /**
+     * @param fields the properties to write, the others being skipped
+     */
+    public static void writeBook(JsonGenerator generator, Book book, Set<BookField> fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.contains(BookField.ID)) {
+            generator.writeFieldName(ID);
+            writeId(generator, book.getId());
+        }
+        if (fields.contains(BookField.TITLE)) {
+            generator.writeFieldName(TITLE);
+            writeString(generator, book.getTitle());
+        }
+        if (fields.contains(BookField.ISBN)) {
+            generator.writeFieldName(ISBN);
+            generator.writeNumber(book.getIsbn());
+        }
+        if (fields.contains(BookField.PUBLISHER)) {
+            generator.writeFieldName(PUBLISHER);
+            writeString(generator, book.getPublisher());
+        }
+        if (fields.contains(BookField.YEAR)) {
+            generator.writeFieldName(YEAR);
+            generator.writeNumber(book.getYear());
+        }
+        if (fields.contains(BookField.LANGUAGE)) {
+            generator.writeFieldName(LANGUAGE);
+            if (book.getLanguage() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(LANGUAGES.get(book.getLanguage()));
+            }
+        }
+        if (fields.contains(BookField.AUTHORS)) {
+            generator.writeFieldName(AUTHORS);
+            if (book.getAuthors() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeStartArray();
+                for (Author author : book.getAuthors()) {
+                    writeAuthor(generator, author, AuthorFields.ALL);
+                }
+                generator.writeEndArray();
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * @param fields the properties to write, the others being skipped
+     */
+    public static void writeAuthor(JsonGenerator generator, Author author, AuthorFields fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.id()) {
+            generator.writeFieldName(ID);
+            writeId(generator, author.getId());
+        }
+        if (fields.fullName()) {
+            generator.writeFieldName(FULL_NAME);
+            writeString(generator, author.getFullName());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeId(JsonGenerator generator, Long id) throws IOException {
+        if (id == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(id);
+        }
+    }
+
+    private static void writeString(JsonGenerator generator, String value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    /**
+     * The properties of an author to write.
+     */
+    public record AuthorFields(boolean id, boolean fullName) {
+
+        public static final AuthorFields ALL = new AuthorFields(true, true);
+
+        /**
+         * @param properties the names of the properties
+         */
+        public static AuthorFields of(Set<String> properties) {
+            return new AuthorFields(properties.contains("id"), properties.contains("fullName"));
+        }
+    }
+
+    /*
+     * Response bodies written with the above when Jackson serializes them.
+     */
+
+    public record BookJson(Book book, Set<BookField> fields) implements Body {
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writeBook(generator, book, fields);
+        }
+    }
+
+    public record BooksJson(Collection<Book> books, Set<BookField> fields) implements Body {
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray();
+            for (Book book : books) {
+                writeBook(generator, book, fields);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    public record AuthorJson(Author author, AuthorFields fields) implements Body {
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writeAuthor(generator, author, fields);
+        }
+    }
+
+    public record AuthorsJson(Collection<Author> authors, AuthorFields fields) implements Body {
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray();
+            for (Author author : authors) {
+                writeAuthor(generator, author, fields);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private interface Body extends JsonSerializable {
+        @Override
+        default void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer)
+                throws IOException {
+            serialize(generator, provider);
+        }
+    }
+}
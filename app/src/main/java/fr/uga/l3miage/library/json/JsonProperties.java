@@ -0,0 +1,19 @@
+package fr.uga.l3miage.library.json;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How books and authors are written in responses, under {@code library.json}.
+ *
+ * @param mode {@code mapper} to map the entities to DTOs serialized by Jackson, or {@code direct} to write the
+ *             entities with {@link EntityJson}, the same bytes without the DTOs
+ */
+@ConfigurationProperties("library.json")
+public record JsonProperties(@DefaultValue("mapper") Mode mode) {
+
+    public enum Mode {
+        MAPPER,
+        DIRECT
+    }
+}
@@ -0,0 +1,109 @@
+package fr.uga.l3miage.library.json;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.NdJson;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.authors.AuthorMapper;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.service.BookField;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * The response bodies of the reads of books and authors, according to {@link JsonProperties}: DTOs, or bodies
+ * writing the entities themselves. Either way the JSON is the same.
+ */
+@Component
+@EnableConfigurationProperties(JsonProperties.class)
+public class JsonRenderer {
+
+    private static final Set<BookField> ALL = EnumSet.allOf(BookField.class);
+
+    private final boolean direct;
+    private final BooksMapper booksMapper;
+    private final AuthorMapper authorMapper;
+    private final NdJson ndJson;
+
+    @Autowired
+    public JsonRenderer(JsonProperties properties, BooksMapper booksMapper, AuthorMapper authorMapper, NdJson ndJson) {
+        this.direct = properties.mode() == JsonProperties.Mode.DIRECT;
+        this.booksMapper = booksMapper;
+        this.authorMapper = authorMapper;
+        this.ndJson = ndJson;
+    }
+
+    /**
+     * @param fields the fields of the response
+     */
+    public Object book(Book book, Set<BookField> fields) {
+        if (direct) {
+            return new EntityJson.BookJson(book, fields);
+        }
+        return booksMapper.mapping(fields).apply(book);
+    }
+
+    /**
+     * @param fields the fields of the response
+     */
+    public Object books(Collection<Book> books, Set<BookField> fields) {
+        if (direct) {
+            return new EntityJson.BooksJson(books, fields);
+        }
+        Function<Book, BookDTO> mapping = booksMapper.mapping(fields);
+        return books.stream()
+                .map(mapping)
+                .toList();
+    }
+
+    public Object author(Author author) {
+        if (direct) {
+            return new EntityJson.AuthorJson(author, EntityJson.AuthorFields.ALL);
+        }
+        return authorMapper.entityToDTO(author);
+    }
+
+    /**
+     * @param fields the fields of the response
+     */
+    public Object authors(Collection<Author> authors, Set<String> fields) {
+        if (direct) {
+            return new EntityJson.AuthorsJson(authors, EntityJson.AuthorFields.of(fields));
+        }
+        return authors.stream()
+                .map(authorMapper::entityToDTO)
+                .toList();
+    }
+
+    /**
+     * @see NdJson#stream(Supplier, Function, Class)
+     */
+    public ResponseEntity<StreamingResponseBody> streamBooks(Supplier<Stream<Book>> books) {
+        if (direct) {
+            return ndJson.stream(books, (generator, book) -> EntityJson.writeBook(generator, book, ALL));
+        }
+        return ndJson.stream(books, booksMapper::entityToDTO, BookDTO.class);
+    }
+
+    /**
+     * @see NdJson#stream(Supplier, Function, Class)
+     */
+    public ResponseEntity<StreamingResponseBody> streamAuthors(Supplier<Stream<Author>> authors) {
+        if (direct) {
+            return ndJson.stream(authors,
+                    (generator, author) -> EntityJson.writeAuthor(generator, author, EntityJson.AuthorFields.ALL));
+        }
+        return ndJson.stream(authors, authorMapper::entityToDTO, AuthorDTO.class);
+    }
+}
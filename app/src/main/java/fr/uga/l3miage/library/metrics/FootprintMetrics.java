@@ -0,0 +1,43 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.library.service.base.Footprint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges of the {@link Footprint} of the services: {@code library.store.size} for each structure, and
+ * {@code library.store.heap} when the implementation can estimate it.
+ */
+@Component
+public class FootprintMetrics implements MeterBinder {
+
+    private final ObjectProvider<Footprint> footprints;
+
+    public FootprintMetrics(ObjectProvider<Footprint> footprints) {
+        this.footprints = footprints;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        footprints.forEach(footprint -> {
+            String implementation = ServiceTimers.implementation(footprint);
+            for (String structure : footprint.sizes().keySet()) {
+                Gauge.builder("library.store.size", footprint, f -> f.sizes().getOrDefault(structure, 0L))
+                        .description("Entries of the structures kept by the services")
+                        .tag("structure", structure)
+                        .tag("implementation", implementation)
+                        .register(registry);
+            }
+            if (footprint.estimatedHeapBytes() >= 0) {
+                Gauge.builder("library.store.heap", footprint, Footprint::estimatedHeapBytes)
+                        .description("Estimated heap used by the data kept in memory")
+                        .baseUnit("bytes")
+                        .tag("implementation", implementation)
+                        .register(registry);
+            }
+        });
+    }
+}
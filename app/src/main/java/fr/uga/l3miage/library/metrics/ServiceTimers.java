@@ -0,0 +1,140 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BorrowedBookException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers of the methods of a service, all named {@value #NAME} and tagged by service, method, implementation
+ * and outcome, with percentile histograms.
+ * <p>
+ * The timer of a successful call is looked up once, when the decorator is built, so that the hot path only
+ * reads the clock twice and records. Timers of failures are looked up on their first occurrence.
+ */
+public final class ServiceTimers {
+
+    static final String NAME = "library.service";
+
+    private final MeterRegistry registry;
+    private final String service;
+    private final String implementation;
+
+    /**
+     * @param registry       where timers are registered
+     * @param service        the service tag, {@code author} or {@code book}
+     * @param implementation the implementation tag, see {@link #implementation(Object)}
+     */
+    ServiceTimers(MeterRegistry registry, String service, String implementation) {
+        this.registry = registry;
+        this.service = service;
+        this.implementation = implementation;
+    }
+
+    /**
+     * @return the last part of the package of the actual class of a service: {@code mock} or {@code impl}
+     */
+    public static String implementation(Object service) {
+        String packageName = ClassUtils.getUserClass(service).getPackageName();
+        return packageName.substring(packageName.lastIndexOf('.') + 1);
+    }
+
+    Method method(String method) {
+        return new Method(method);
+    }
+
+    static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "ok";
+        } else if (failure instanceof EntityNotFoundException) {
+            return "not-found";
+        } else if (failure instanceof DeleteAuthorException) {
+            return "delete-refused";
+        } else if (failure instanceof BatchException) {
+            return "batch-refused";
+        } else if (failure instanceof DuplicateIsbnException) {
+            return "duplicate-isbn";
+        } else if (failure instanceof BorrowedBookException) {
+            return "borrowed";
+        }
+        return "error";
+    }
+
+    @FunctionalInterface
+    interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    interface Run<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Timers of one method.
+     */
+    final class Method {
+
+        private final String name;
+        private final Timer ok;
+        private final Map<String, Timer> failures = new ConcurrentHashMap<>();
+
+        private Method(String name) {
+            this.name = name;
+            this.ok = timer("ok");
+        }
+
+        <T, E extends Exception> T call(Call<T, E> call) throws E {
+            long start = System.nanoTime();
+            try {
+                T result = call.call();
+                ok.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable e) {
+                record(start, e);
+                throw e;
+            }
+        }
+
+        <E extends Exception> void run(Run<E> run) throws E {
+            long start = System.nanoTime();
+            try {
+                run.run();
+                ok.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (Throwable e) {
+                record(start, e);
+                throw e;
+            }
+        }
+
+        /**
+         * Records a call started at {@code start} ({@link System#nanoTime()}), for callers throwing several
+         * checked exceptions.
+         *
+         * @param failure what the call threw, null if it succeeded
+         */
+        void record(long start, Throwable failure) {
+            Timer timer = failure == null ? ok : failures.computeIfAbsent(outcome(failure), this::timer);
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder(NAME)
+                    .description("Calls of the service layer")
+                    .tag("service", service)
+                    .tag("method", name)
+                    .tag("implementation", implementation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Times every method of an {@link AuthorService}, see {@link ServiceTimers}.
+ */
+public class TimedAuthorService implements AuthorService {
+
+    private final AuthorService delegate;
+    private final ServiceTimers.Method get;
+    private final ServiceTimers.Method save;
+    private final ServiceTimers.Method searchByName;
+    private final ServiceTimers.Method suggest;
+    private final ServiceTimers.Method list;
+    private final ServiceTimers.Method page;
+    private final ServiceTimers.Method stream;
+    private final ServiceTimers.Method version;
+    private final ServiceTimers.Method update;
+    private final ServiceTimers.Method delete;
+    private final ServiceTimers.Method saveAll;
+    private final ServiceTimers.Method updateAll;
+    private final ServiceTimers.Method deleteAll;
+
+    /**
+     * @param delegate       the service to time, possibly decorated already
+     * @param registry       where timers are registered
+     * @param implementation the implementation tag, {@code mock} or {@code impl}
+     */
+    public TimedAuthorService(AuthorService delegate, MeterRegistry registry, String implementation) {
+        this.delegate = delegate;
+        ServiceTimers timers = new ServiceTimers(registry, "author", implementation);
+        this.get = timers.method("get");
+        this.save = timers.method("save");
+        this.searchByName = timers.method("searchByName");
+        this.suggest = timers.method("suggest");
+        this.list = timers.method("list");
+        this.page = timers.method("page");
+        this.stream = timers.method("stream");
+        this.version = timers.method("version");
+        this.update = timers.method("update");
+        this.delete = timers.method("delete");
+        this.saveAll = timers.method("saveAll");
+        this.updateAll = timers.method("updateAll");
+        this.deleteAll = timers.method("deleteAll");
+    }
+
+    @Override
+    public Author get(Long id) throws EntityNotFoundException {
+        return get.call(() -> delegate.get(id));
+    }
+
+    @Override
+    public Author save(Author author) {
+        return save.call(() -> delegate.save(author));
+    }
+
+    @Override
+    public Collection<Author> searchByName(String name) {
+        return searchByName.call(() -> delegate.searchByName(name));
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggest.call(() -> delegate.suggest(prefix, limit));
+    }
+
+    @Override
+    public Collection<Author> list() {
+        return list.call(delegate::list);
+    }
+
+    @Override
+    public Page<Author, Long> page(Long after, int limit) {
+        return page.call(() -> delegate.page(after, limit));
+    }
+
+    /**
+     * Only the opening of the stream is timed, not its consumption.
+     */
+    @Override
+    public Stream<Author> stream() {
+        return stream.call(delegate::stream);
+    }
+
+    @Override
+    public long version() {
+        return version.call(delegate::version);
+    }
+
+    @Override
+    public Author update(Author author) throws EntityNotFoundException {
+        return update.call(() -> delegate.update(author));
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        long start = System.nanoTime();
+        try {
+            delegate.delete(id);
+            delete.record(start, null);
+        } catch (Exception | Error e) {
+            delete.record(start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        return saveAll.call(() -> delegate.saveAll(authors));
+    }
+
+    @Override
+    public List<Author> updateAll(List<Author> authors) throws BatchException {
+        return updateAll.call(() -> delegate.updateAll(authors));
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids) throws BatchException {
+        deleteAll.run(() -> delegate.deleteAll(ids));
+    }
+}
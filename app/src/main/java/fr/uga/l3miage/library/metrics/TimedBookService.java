@@ -0,0 +1,209 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.CatalogStats;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Times every method of a {@link BookService}, see {@link ServiceTimers}.
+ */
+public class TimedBookService implements BookService {
+
+    private final BookService delegate;
+    private final ServiceTimers.Method get;
+    private final ServiceTimers.Method findByIsbn;
+    private final ServiceTimers.Method save;
+    private final ServiceTimers.Method list;
+    private final ServiceTimers.Method page;
+    private final ServiceTimers.Method stream;
+    private final ServiceTimers.Method version;
+    private final ServiceTimers.Method update;
+    private final ServiceTimers.Method addAuthor;
+    private final ServiceTimers.Method delete;
+    private final ServiceTimers.Method saveAll;
+    private final ServiceTimers.Method updateAll;
+    private final ServiceTimers.Method deleteAll;
+    private final ServiceTimers.Method findByTitle;
+    private final ServiceTimers.Method getByAuthor;
+    private final ServiceTimers.Method findByAuthor;
+    private final ServiceTimers.Method filter;
+    private final ServiceTimers.Method facets;
+    private final ServiceTimers.Method suggest;
+    private final ServiceTimers.Method stats;
+
+    /**
+     * @param delegate       the service to time, possibly decorated already
+     * @param registry       where timers are registered
+     * @param implementation the implementation tag, {@code mock} or {@code impl}
+     */
+    public TimedBookService(BookService delegate, MeterRegistry registry, String implementation) {
+        this.delegate = delegate;
+        ServiceTimers timers = new ServiceTimers(registry, "book", implementation);
+        this.get = timers.method("get");
+        this.findByIsbn = timers.method("findByIsbn");
+        this.save = timers.method("save");
+        this.list = timers.method("list");
+        this.page = timers.method("page");
+        this.stream = timers.method("stream");
+        this.version = timers.method("version");
+        this.update = timers.method("update");
+        this.addAuthor = timers.method("addAuthor");
+        this.delete = timers.method("delete");
+        this.saveAll = timers.method("saveAll");
+        this.updateAll = timers.method("updateAll");
+        this.deleteAll = timers.method("deleteAll");
+        this.findByTitle = timers.method("findByTitle");
+        this.getByAuthor = timers.method("getByAuthor");
+        this.findByAuthor = timers.method("findByAuthor");
+        this.filter = timers.method("filter");
+        this.facets = timers.method("facets");
+        this.suggest = timers.method("suggest");
+        this.stats = timers.method("stats");
+    }
+
+    @Override
+    public Book get(Long id) throws EntityNotFoundException {
+        return get.call(() -> delegate.get(id));
+    }
+
+    @Override
+    public Book findByIsbn(long isbn) throws EntityNotFoundException {
+        return findByIsbn.call(() -> delegate.findByIsbn(isbn));
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        return save.call(() -> delegate.save(authorId, book));
+    }
+
+    @Override
+    public Collection<Book> list() {
+        return list.call(delegate::list);
+    }
+
+    @Override
+    public Page<Book, Long> page(Long after, int limit) {
+        return page.call(() -> delegate.page(after, limit));
+    }
+
+    /**
+     * Only the opening of the stream is timed, not its consumption.
+     */
+    @Override
+    public Stream<Book> stream() {
+        return stream.call(delegate::stream);
+    }
+
+    @Override
+    public long version() {
+        return version.call(delegate::version);
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException {
+        return update.call(() -> delegate.update(book));
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        return addAuthor.call(() -> delegate.addAuthor(bookId, authorId));
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        delete.run(() -> delegate.delete(id));
+    }
+
+    @Override
+    public List<Book> saveAll(Long authorId, List<Book> books) throws EntityNotFoundException {
+        return saveAll.call(() -> delegate.saveAll(authorId, books));
+    }
+
+    @Override
+    public List<Book> updateAll(List<Book> books) throws BatchException {
+        return updateAll.call(() -> delegate.updateAll(books));
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids) throws BatchException {
+        deleteAll.run(() -> delegate.deleteAll(ids));
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title) {
+        return findByTitle.call(() -> delegate.findByTitle(title));
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        return getByAuthor.call(() -> delegate.getByAuthor(id));
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        return findByAuthor.call(() -> delegate.findByAuthor(id, title));
+    }
+
+    @Override
+    public Book get(Long id, Set<BookField> fields) throws EntityNotFoundException {
+        return get.call(() -> delegate.get(id, fields));
+    }
+
+    @Override
+    public Collection<Book> list(Set<BookField> fields) {
+        return list.call(() -> delegate.list(fields));
+    }
+
+    @Override
+    public Page<Book, Long> page(Long after, int limit, Set<BookField> fields) {
+        return page.call(() -> delegate.page(after, limit, fields));
+    }
+
+    @Override
+    public Collection<Book> findByTitle(String title, Set<BookField> fields) {
+        return findByTitle.call(() -> delegate.findByTitle(title, fields));
+    }
+
+    @Override
+    public Collection<Book> getByAuthor(Long id, Set<BookField> fields) throws EntityNotFoundException {
+        return getByAuthor.call(() -> delegate.getByAuthor(id, fields));
+    }
+
+    @Override
+    public Collection<Book> findByAuthor(Long id, String title, Set<BookField> fields) throws EntityNotFoundException {
+        return findByAuthor.call(() -> delegate.findByAuthor(id, title, fields));
+    }
+
+    @Override
+    public Page<Book, Long> filter(BookFilter filter, Long after, int limit, Set<BookField> fields) {
+        return this.filter.call(() -> delegate.filter(filter, after, limit, fields));
+    }
+
+    @Override
+    public BookFacets facets(BookFilter filter, int publishers) {
+        return facets.call(() -> delegate.facets(filter, publishers));
+    }
+
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggest.call(() -> delegate.suggest(prefix, limit));
+    }
+
+    @Override
+    public CatalogStats stats() {
+        return stats.call(delegate::stats);
+    }
+}
@@ -0,0 +1,32 @@
+package fr.uga.l3miage.library.stats;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.CatalogStats;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Numbers of books of the catalog, languages being named as in {@link fr.uga.l3miage.library.books.BookDTO}.
+ *
+ * @param booksPerAuthor the numbers of authors by number of books
+ */
+public record CatalogStatsDTO(
+        long books,
+        long authors,
+        long coAuthoredBooks,
+        Map<Integer, Long> booksPerAuthor,
+        Map<String, Long> languages,
+        Map<Short, Long> years
+) {
+
+    public static CatalogStatsDTO of(CatalogStats stats) {
+        Map<String, Long> languages = new LinkedHashMap<>();
+        for (Map.Entry<Book.Language, Long> entry : stats.languages().entrySet()) {
+            languages.put(entry.getKey().name().toLowerCase(Locale.ROOT), entry.getValue());
+        }
+        return new CatalogStatsDTO(stats.books(), stats.authors(), stats.coAuthoredBooks(), stats.booksPerAuthor(),
+                languages, stats.years());
+    }
+}
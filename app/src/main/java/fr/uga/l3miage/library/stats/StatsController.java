@@ -0,0 +1,30 @@
+package fr.uga.l3miage.library.stats;
+
+import fr.uga.l3miage.library.ETags;
+import fr.uga.l3miage.library.service.BookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class StatsController {
+
+    private final BookService bookService;
+
+    @Autowired
+    public StatsController(BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    // polled by dashboards: read from counters kept up to date, never from the store
+    @GetMapping("/stats")
+    public CatalogStatsDTO stats(WebRequest request) {
+        if (request.checkNotModified(ETags.catalog(bookService.version(), "stats"))) {
+            return null;
+        }
+        return CatalogStatsDTO.of(bookService.stats());
+    }
+}
@@ -0,0 +1,47 @@
+package fr.uga.l3miage.library.suggest;
+
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/v1", produces = "application/json")
+public class SuggestController {
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+
+    private final AuthorService authorService;
+    private final BookService bookService;
+
+    @Autowired
+    public SuggestController(AuthorService authorService, BookService bookService) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+    }
+
+    // called as the user types: read from indexes kept up to date, never from the store
+    @GetMapping("/suggest")
+    public SuggestionsDTO suggest(@RequestParam("q") String query,
+                                  @RequestParam(value = "limit", required = false) Integer limit,
+                                  @RequestParam(value = "type", required = false) String type) {
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (type != null && !type.equals("authors") && !type.equals("books")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "type must be authors or books");
+        }
+        return new SuggestionsDTO(
+                type == null || type.equals("authors") ? authorService.suggest(query, size) : List.of(),
+                type == null || type.equals("books") ? bookService.suggest(query, size) : List.of());
+    }
+}
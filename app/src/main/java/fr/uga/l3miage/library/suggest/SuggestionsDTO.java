@@ -0,0 +1,14 @@
+package fr.uga.l3miage.library.suggest;
+
+import fr.uga.l3miage.library.service.Suggestion;
+
+import java.util.List;
+
+/**
+ * Completions of what a user typed, best first, each being an id along with the name or title completed.
+ */
+public record SuggestionsDTO(
+        List<Suggestion> authors,
+        List<Suggestion> books
+) {
+}
@@ -0,0 +1,145 @@
+package fr.uga.l3miage.library.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingServicesTest {
+
+    ServiceCaches caches = new ServiceCaches(100, Duration.ofMinutes(1));
+    BookService bookService = new CachingBookService(new BookServiceMockImpl(), caches);
+    AuthorService authorService = new CachingAuthorService(new AuthorServiceMockImpl(), caches, () -> bookService);
+
+    @Test
+    void booksOfAuthorsAreInvalidated() throws EntityNotFoundException {
+        Author author = authorService.save(author("Foo"));
+        Author coAuthor = authorService.save(author("Bar"));
+        Book first = bookService.save(author.getId(), book("First"));
+        assertThat(bookService.getByAuthor(author.getId())).containsExactly(first);
+
+        Book second = bookService.save(author.getId(), book("Second"));
+        assertThat(bookService.getByAuthor(author.getId())).containsExactlyInAnyOrder(first, second);
+
+        assertThat(bookService.getByAuthor(coAuthor.getId())).isEmpty();
+        bookService.addAuthor(first.getId(), coAuthor.getId());
+        assertThat(bookService.getByAuthor(coAuthor.getId())).containsExactly(first);
+
+        assertThat(bookService.get(second.getId())).isSameAs(second);
+        bookService.delete(second.getId());
+        assertThatThrownBy(() -> bookService.get(second.getId())).isInstanceOf(EntityNotFoundException.class);
+        assertThat(bookService.getByAuthor(author.getId())).containsExactly(first);
+        assertThat(caches.stats().get("books").hitCount()).isPositive();
+    }
+
+    @Test
+    void failedLoadsDoNotBlockOtherReaders() throws Exception {
+        AsyncCache<Long, String> cache = Caffeine.newBuilder().buildAsync();
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<Void> failing = new CompletableFuture<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> loader = executor.submit(() -> ServiceCaches.get(cache, 1L, id -> {
+                loading.countDown();
+                failing.join();
+                throw new StackOverflowError();
+            }));
+            loading.await();
+            CompletableFuture<String> pending = cache.getIfPresent(1L);
+            failing.complete(null);
+
+            assertThatThrownBy(loader::get).hasCauseInstanceOf(StackOverflowError.class);
+            assertThat(pending).isCompletedExceptionally();
+            assertThatThrownBy(() -> ServiceCaches.get(cache, 1L, id -> {
+                throw new OutOfMemoryError();
+            })).isInstanceOf(OutOfMemoryError.class);
+            assertThat(ServiceCaches.get(cache, 1L, id -> "loaded")).isEqualTo("loaded");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void authorDeleteInvalidatesItsBooks() throws Exception {
+        Author author = authorService.save(author("Baz"));
+        Book book = bookService.save(author.getId(), book("Alone"));
+        authorService.get(author.getId());
+        bookService.get(book.getId());
+        bookService.getByAuthor(author.getId());
+
+        authorService.delete(author.getId());
+
+        assertThatThrownBy(() -> authorService.get(author.getId())).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> bookService.get(book.getId())).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> bookService.getByAuthor(author.getId())).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void responsesAreInvalidatedAndCompressed() throws Exception {
+        ResponseCache responses = new ResponseCache(1 << 20, 64);
+        ServiceCaches caches = new ServiceCaches(100, null, responses);
+        BookService books = new CachingBookService(new BookServiceMockImpl(), caches);
+        AuthorService authors = new CachingAuthorService(new AuthorServiceMockImpl(), caches, () -> books);
+        Author author = authors.save(author("Qux"));
+        Book book = books.save(author.getId(), book("Cached"));
+
+        byte[] body = "{\"title\":\"Cached\"}".repeat(10).getBytes(StandardCharsets.UTF_8);
+        responses.put(ResponseCache.Resource.BOOK, book.getId(), "\"b1\"", body);
+        responses.put(ResponseCache.Resource.AUTHOR_BOOKS, author.getId(), "\"c1\"", "[]".getBytes(StandardCharsets.UTF_8));
+
+        ResponseCache.Entry entry = responses.get(ResponseCache.Resource.BOOK, book.getId(), "\"b1\"");
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(entry.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(body);
+        }
+        assertThat(responses.get(ResponseCache.Resource.BOOK, book.getId(), "\"b2\"")).isNull();
+        assertThat(responses.get(ResponseCache.Resource.AUTHOR_BOOKS, author.getId(), "\"c1\"").gzip()).isNull();
+
+        // books embed the name of their authors
+        authors.update(author);
+
+        assertThat(responses.get(ResponseCache.Resource.BOOK, book.getId(), "\"b1\"")).isNull();
+        assertThat(responses.get(ResponseCache.Resource.AUTHOR_BOOKS, author.getId(), "\"c1\"")).isNull();
+    }
+
+    @Test
+    void acceptEncoding() {
+        assertThat(CachedResponses.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(CachedResponses.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(CachedResponses.acceptsGzip("*")).isTrue();
+        assertThat(CachedResponses.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CachedResponses.acceptsGzip("identity")).isFalse();
+        assertThat(CachedResponses.acceptsGzip(null)).isFalse();
+    }
+
+    private static Author author(String name) {
+        Author author = new Author();
+        author.setFullName(name);
+        return author;
+    }
+
+    private static Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        return book;
+    }
+}
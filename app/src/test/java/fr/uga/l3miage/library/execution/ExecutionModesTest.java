@@ -0,0 +1,28 @@
+package fr.uga.l3miage.library.execution;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionModesTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(ExecutionModes.class);
+
+    @Test
+    void poolAndBlockingByDefault() {
+        runner.run(context -> {
+            assertThat(context.getBean(ExecutionProperties.class).mode()).isEqualTo(ExecutionProperties.Mode.POOL);
+            assertThat(context.getBean(ApiProperties.class).mode()).isEqualTo(ApiProperties.Mode.BLOCKING);
+        });
+    }
+
+    @Test
+    void unknownModesFailTheStartup() {
+        runner.withPropertyValues("library.execution.mode=virtaul")
+                .run(context -> assertThat(context).hasFailed());
+        runner.withPropertyValues("library.api.mode=asnyc")
+                .run(context -> assertThat(context).hasFailed());
+    }
+}
@@ -0,0 +1,116 @@
+package fr.uga.l3miage.library.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.Fields;
+import fr.uga.l3miage.library.FieldsAdvice;
+import fr.uga.l3miage.library.authors.AuthorMapper;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.service.BookField;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityJsonTest {
+
+    BooksMapper booksMapper = Mappers.getMapper(BooksMapper.class);
+    AuthorMapper authorMapper = Mappers.getMapper(AuthorMapper.class);
+    ObjectMapper objectMapper = objectMapper();
+
+    @Test
+    void booksAreWrittenAsTheirDTOs() throws IOException {
+        List<Book> books = books();
+        Set<BookField> all = EnumSet.allOf(BookField.class);
+
+        assertThat(direct(new EntityJson.BooksJson(books, all)))
+                .isEqualTo(objectMapper.writeValueAsString(books.stream().map(booksMapper::entityToDTO).toList()));
+        for (Book book : books) {
+            assertThat(direct(new EntityJson.BookJson(book, all)))
+                    .isEqualTo(objectMapper.writeValueAsString(booksMapper.entityToDTO(book)));
+        }
+    }
+
+    @Test
+    void selectedFieldsAreWrittenAsTheFilteredDTOs() throws IOException {
+        List<Book> books = books();
+        for (Set<BookField> fields : List.of(EnumSet.of(BookField.ID), EnumSet.of(BookField.TITLE, BookField.YEAR),
+                EnumSet.of(BookField.LANGUAGE, BookField.AUTHORS), EnumSet.complementOf(EnumSet.of(BookField.AUTHORS)))) {
+            Set<String> properties = fields.stream().map(BookField::attribute).collect(Collectors.toSet());
+            String filtered = objectMapper.writer(Fields.filters(Fields.BOOK_FILTER, properties))
+                    .writeValueAsString(books.stream().map(booksMapper.mapping(fields)).toList());
+
+            assertThat(direct(new EntityJson.BooksJson(books, fields))).isEqualTo(filtered);
+        }
+    }
+
+    @Test
+    void authorsAreWrittenAsTheirDTOs() throws IOException {
+        List<Author> authors = List.of(author(1L, "Émile Zola"), author(2L, "Jules \"Verne\"\t\\"), author(null, null));
+
+        assertThat(direct(new EntityJson.AuthorsJson(authors, EntityJson.AuthorFields.ALL)))
+                .isEqualTo(objectMapper.writeValueAsString(authors.stream().map(authorMapper::entityToDTO).toList()));
+        Set<String> fullName = Set.of("fullName");
+        assertThat(direct(new EntityJson.AuthorsJson(authors, EntityJson.AuthorFields.of(fullName))))
+                .isEqualTo(objectMapper.writer(Fields.filters(Fields.AUTHOR_FILTER, fullName))
+                        .writeValueAsString(authors.stream().map(authorMapper::entityToDTO).toList()));
+    }
+
+    private String direct(Object body) throws IOException {
+        return objectMapper.writeValueAsString(body);
+    }
+
+    private static List<Book> books() {
+        Author hugo = author(1L, "Victor Hugo");
+        Author zola = author(2L, "Émile Zola");
+
+        Book miserables = book(10L, "Les Misérables", Book.Language.FRENCH);
+        miserables.setIsbn(9782070409228L);
+        miserables.setPublisher("Gallimard");
+        miserables.setYear((short) 1862);
+        miserables.addAuthor(hugo);
+
+        Book coAuthored = book(11L, "\"Quoted\" title\nwith a line break, a tab\t and \u0001", Book.Language.ENGLISH);
+        coAuthored.setYear((short) -300);
+        coAuthored.addAuthor(hugo);
+        coAuthored.addAuthor(zola);
+
+        // nothing set but the title, as a projection reads it
+        Book bare = book(12L, "</script>", null);
+
+        Book unsaved = book(null, null, null);
+        unsaved.setAuthors(Set.of());
+
+        return List.of(miserables, coAuthored, bare, unsaved);
+    }
+
+    private static Book book(Long id, String title, Book.Language language) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setLanguage(language);
+        return book;
+    }
+
+    private static Author author(Long id, String name) {
+        Author author = new Author();
+        author.setId(id);
+        author.setFullName(name);
+        return author;
+    }
+
+    private static ObjectMapper objectMapper() {
+        // as the application one, with the filters of the fields
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        FieldsAdvice.fieldFilters().customize(builder);
+        return builder.build();
+    }
+}
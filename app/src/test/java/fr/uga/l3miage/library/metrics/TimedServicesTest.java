@@ -0,0 +1,75 @@
+package fr.uga.l3miage.library.metrics;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Footprint;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.MockFootprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimedServicesTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    AuthorService authorService = new TimedAuthorService(new AuthorServiceMockImpl(), registry, "mock");
+    BookService bookService = new TimedBookService(new BookServiceMockImpl(), registry, "mock");
+
+    @Test
+    void outcomesAreTagged() throws EntityNotFoundException {
+        Author author = authorService.save(author("Foo"));
+        Author coAuthor = authorService.save(author("Bar"));
+        Book book = bookService.save(author.getId(), book("First"));
+        bookService.addAuthor(book.getId(), coAuthor.getId());
+
+        authorService.get(author.getId());
+        assertThatThrownBy(() -> authorService.get(Long.MIN_VALUE)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> authorService.delete(author.getId())).isInstanceOf(DeleteAuthorException.class);
+
+        assertThat(count("author", "get", "ok")).isEqualTo(1);
+        assertThat(count("author", "get", "not-found")).isEqualTo(1);
+        assertThat(count("author", "delete", "delete-refused")).isEqualTo(1);
+        assertThat(count("book", "addAuthor", "ok")).isEqualTo(1);
+    }
+
+    @Test
+    void footprintGauges() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("footprint", new MockFootprint());
+        new FootprintMetrics(beans.getBeanProvider(Footprint.class))
+                .bindTo(registry);
+
+        authorService.save(author("Baz"));
+        assertThat(registry.get("library.store.size").tag("structure", "authors").gauge().value()).isPositive();
+        assertThat(registry.get("library.store.heap").tag("implementation", "mock").gauge().value()).isPositive();
+    }
+
+    private long count(String service, String method, String outcome) {
+        return registry.get(ServiceTimers.NAME)
+                .tag("service", service)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    private static Author author(String name) {
+        Author author = new Author();
+        author.setFullName(name);
+        return author;
+    }
+
+    private static Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        return book;
+    }
+}
@@ -0,0 +1,10 @@
+package library;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The tests of {@link DemoApplicationTests} against the asynchronous controllers, which have the same contract.
+ */
+@TestPropertySource(properties = "library.api.mode=async")
+class AsyncApplicationTests extends DemoApplicationTests {
+}
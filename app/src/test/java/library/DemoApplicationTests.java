@@ -6,7 +6,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
@@ -42,4 +46,58 @@ class DemoApplicationTests {
         var list = this.restTemplate.getForObject("/api/v1/authors", List.class);
         assertThat(list).isNotEmpty();
     }
+
+    @Test
+    void authorsNdJsonResponse() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        ResponseEntity<String> response = this.restTemplate.exchange("/api/v1/authors", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(response.getBody()).startsWith("{").endsWith("}\n");
+    }
+
+    @Test
+    void authorNotModified() {
+        ResponseEntity<String> response = this.restTemplate.getForEntity("/api/v1/authors/-1", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String etag = response.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        response = this.restTemplate.exchange("/api/v1/authors/-1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void bookNotModified() {
+        ResponseEntity<String> response = this.restTemplate.getForEntity("/api/v1/books/-1", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String etag = response.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        response = this.restTemplate.exchange("/api/v1/books/-1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void booksNotModified() {
+        ResponseEntity<String> response = this.restTemplate.getForEntity("/api/v1/books", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(response.getHeaders().getETag());
+        response = this.restTemplate.exchange("/api/v1/books", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void missingBookNotFound() {
+        ResponseEntity<String> response = this.restTemplate.getForEntity("/api/v1/books/" + Long.MAX_VALUE, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
 }
@@ -0,0 +1,50 @@
+package library;
+
+import fr.uga.l3miage.library.LibraryApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatusCode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The asynchronous controllers with a single service thread and room for a single waiting call, the store being
+ * slow enough for the calls to overlap.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, classes = LibraryApplication.class, properties = {
+        "library.api.mode=async", "library.api.threads=1", "library.api.queue=1", "library.store.latency=500ms"})
+class SaturatedAsyncApiTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void rejectedCallsGetServiceUnavailable() throws Exception {
+        int requests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Callable<HttpStatusCode>> tasks = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                tasks.add(() -> restTemplate.getForEntity("/api/v1/authors/-1", String.class).getStatusCode());
+            }
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<HttpStatusCode> status : executor.invokeAll(tasks)) {
+                statuses.add(status.get().value());
+            }
+            // one call runs, one waits, the others are rejected at once
+            assertThat(statuses).contains(200, 503);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
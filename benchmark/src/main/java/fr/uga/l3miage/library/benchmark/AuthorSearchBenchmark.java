@@ -0,0 +1,63 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author search by name, with the trigram index and with the former linear scan.
+ * The number of matching authors is constant so that only the catalog size varies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorSearchBenchmark {
+
+    private static final int MATCHES = 10;
+
+    @Param({"1000", "10000", "100000", "500000"})
+    int authors;
+
+    private AuthorService authorService;
+
+    @Setup
+    public void setup() {
+        authorService = new AuthorServiceMockImpl();
+        Catalog.authors(authorService, authors - MATCHES, 42);
+        for (int i = 0; i < MATCHES; i++) {
+            Author author = new Author();
+            author.setFullName("Victor Hugo " + i);
+            authorService.save(author);
+        }
+    }
+
+    @Benchmark
+    public Collection<Author> indexed() {
+        return authorService.searchByName("hugo");
+    }
+
+    @Benchmark
+    public List<Author> scan() {
+        return authorService.list().stream()
+                .filter(author -> author.getFullName().toLowerCase().contains("hugo"))
+                .toList();
+    }
+}
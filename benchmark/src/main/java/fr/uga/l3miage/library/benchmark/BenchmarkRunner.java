@@ -0,0 +1,62 @@
+package fr.uga.l3miage.library.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks once per thread count and writes all results to a single JSON file, meant to be kept and
+ * compared between releases. Other arguments are given to JMH as is.
+ * <p>
+ * {@code java -cp benchmarks.jar fr.uga.l3miage.library.benchmark.BenchmarkRunner --threads=1,4,8
+ * --result=results.json -p implementation=mock ServiceBenchmark}
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        // main class
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> threads = List.of(1);
+        String result = "jmh-result.json";
+        List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Arrays.stream(arg.substring("--threads=".length()).split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .toList();
+            } else if (arg.startsWith("--result=")) {
+                result = arg.substring("--result=".length());
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+
+        Options parent = new CommandLineOptions(jmhArgs.toArray(String[]::new));
+        List<RunResult> results = new ArrayList<>();
+        for (int count : threads) {
+            Options options = new OptionsBuilder()
+                    .parent(parent)
+                    .threads(count)
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+        // threads are part of each result, runs with different counts stay apart
+        try (PrintStream out = new PrintStream(new FileOutputStream(result), true, StandardCharsets.UTF_8)) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, out).writeOut(results);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package fr.uga.l3miage.library.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.uga.l3miage.library.authors.AuthorDTO;
+import fr.uga.l3miage.library.books.BookDTO;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of {@code GET /api/v1/books/{id}}, or {@code GET /api/v1/authors/{id}/books} with
+ * {@code --path=author-books}, run against running instances of the application and compared.
+ * <p>
+ * Start one instance per execution mode, for instance with the JPA services whose requests block on the database:
+ * {@code --library.execution.mode=pool} on port 8080 and {@code --library.execution.mode=virtual
+ * --server.port=8081}, then
+ * {@code java -cp benchmarks.jar fr.uga.l3miage.library.benchmark.BooksLoadTest --target=pool=http://localhost:8080
+ * --target=virtual=http://localhost:8081 --concurrency=2000}.
+ * <p>
+ * Each target is seeded with books through the batch endpoints, then a fixed number of requests are kept in flight
+ * for the given duration, a new one being sent as soon as one completes. The client is asynchronous, so that it
+ * sustains the concurrency with a few threads. Throughput and latency percentiles of each target are printed and
+ * written to a JSON file.
+ * <p>
+ * The response cache is compared on a read-mostly workload the same way: {@code --library.cache.enabled=true} on
+ * one instance, {@code --library.cache.enabled=true --library.cache.responses.enabled=true} on the other, then
+ * {@code --target=entities=... --target=responses=... --write-ratio=0.01 --gzip}. A write updates the title of a
+ * book, {@code --gzip} accepts compressed responses.
+ * <p>
+ * The asynchronous controllers are compared with a slow store, whose latency would otherwise hold the container
+ * threads: {@code --library.api.mode=blocking --library.store.latency=20ms} on one instance,
+ * {@code --library.api.mode=async --library.store.latency=20ms} on the other, then
+ * {@code --target=blocking=... --target=async=... --concurrency=2000}.
+ */
+public final class BooksLoadTest {
+
+    private static final int MAX_SAMPLES = 5_000_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final long[] latencies = new long[MAX_SAMPLES];
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final boolean authorBooks;
+    private final double writeRatio;
+    private final boolean gzip;
+
+    private BooksLoadTest(boolean authorBooks, double writeRatio, boolean gzip) {
+        this.authorBooks = authorBooks;
+        this.writeRatio = writeRatio;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Summary of the load on one target, latencies in microseconds.
+     */
+    record Result(String target, int concurrency, double seconds, long requests, long errors, double throughput,
+                  long p50, long p90, long p99, long p999, long max) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> targets = new LinkedHashMap<>();
+        int concurrency = 1000;
+        int seconds = 20;
+        int warmup = 5;
+        int books = 1000;
+        String path = "book";
+        double writeRatio = 0;
+        boolean gzip = false;
+        String output = "load-result.json";
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "--target" -> {
+                    String[] target = option[1].split("=", 2);
+                    targets.put(target[0], target[1]);
+                }
+                case "--concurrency" -> concurrency = Integer.parseInt(option[1]);
+                case "--seconds" -> seconds = Integer.parseInt(option[1]);
+                case "--warmup" -> warmup = Integer.parseInt(option[1]);
+                case "--books" -> books = Integer.parseInt(option[1]);
+                case "--path" -> path = option[1];
+                case "--write-ratio" -> writeRatio = Double.parseDouble(option[1]);
+                case "--gzip" -> gzip = true;
+                case "--result" -> output = option[1];
+                default -> throw new IllegalArgumentException("unknown option: " + arg);
+            }
+        }
+        if (targets.isEmpty()) {
+            targets.put("default", "http://localhost:8080");
+        }
+
+        if (!path.equals("book") && !path.equals("author-books")) {
+            throw new IllegalArgumentException("unknown path: " + path + ", expected book or author-books");
+        }
+
+        BooksLoadTest test = new BooksLoadTest(path.equals("author-books"), writeRatio, gzip);
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            Seed seed = test.seed(target.getValue(), books);
+            test.run(target.getKey(), target.getValue(), seed, concurrency, warmup);
+            Result result = test.run(target.getKey(), target.getValue(), seed, concurrency, seconds);
+            results.add(result);
+            System.out.printf("%-10s %8d req %6d err %10.0f req/s  p50 %7d µs  p99 %7d µs  p99.9 %7d µs  max %7d µs%n",
+                    result.target(), result.requests(), result.errors(), result.throughput(),
+                    result.p50(), result.p99(), result.p999(), result.max());
+        }
+        Files.writeString(Path.of(output), test.mapper.writeValueAsString(results));
+    }
+
+    /**
+     * The saved authors and books.
+     */
+    record Seed(long[] authors, BookDTO[] books) {
+    }
+
+    /**
+     * Saves books through the batch endpoints, about ten per author.
+     */
+    private Seed seed(String url, int count) throws IOException, InterruptedException {
+        Random random = new Random(42);
+        List<AuthorDTO> authors = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, count / Catalog.BOOKS_PER_AUTHOR); i++) {
+            authors.add(new AuthorDTO(null, Catalog.name(random)));
+        }
+        List<Long> authorIds = new ArrayList<>();
+        for (JsonNode result : post(url + "/api/v1/authors/batch", authors)) {
+            authorIds.add(result.get("value").get("id").asLong());
+        }
+
+        // ISBNs are unique, those of a previous run against the same application must not be reused
+        long firstIsbn = System.currentTimeMillis() * 1000;
+        BookDTO[] saved = new BookDTO[count];
+        int index = 0;
+        for (Long authorId : authorIds) {
+            List<BookDTO> written = new ArrayList<>();
+            while (written.size() < Catalog.BOOKS_PER_AUTHOR && index + written.size() < count) {
+                written.add(new BookDTO(null, Catalog.word(random, 3), firstIsbn + index + written.size(),
+                        Catalog.word(random, 2), (short) (1800 + random.nextInt(224)), "french", null));
+            }
+            int first = index;
+            for (JsonNode result : post(url + "/api/v1/authors/" + authorId + "/books/batch", written)) {
+                BookDTO book = written.get(index - first);
+                saved[index++] = new BookDTO(result.get("value").get("id").asLong(), book.title(), book.isbn(),
+                        book.publisher(), book.year(), book.language(), null);
+            }
+        }
+        return new Seed(authorIds.stream().mapToLong(Long::longValue).toArray(), Arrays.copyOf(saved, index));
+    }
+
+    private JsonNode post(String url, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("seeding failed with " + response.statusCode() + ": " + response.body());
+        }
+        return mapper.readTree(response.body());
+    }
+
+    /**
+     * Keeps {@code concurrency} requests in flight for a duration.
+     */
+    private Result run(String name, String url, Seed seed, int concurrency, int seconds) throws InterruptedException {
+        AtomicInteger samples = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(seconds).toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            send(url, seed, deadline, samples, errors, done);
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int count = Math.min(samples.get(), MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Result(name, concurrency, elapsed, count, errors.get(), count / elapsed,
+                percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    private void send(String url, Seed seed, long deadline, AtomicInteger samples,
+                      AtomicLong errors, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request;
+        if (writeRatio > 0 && random.nextDouble() < writeRatio) {
+            request = update(url, seed.books()[random.nextInt(seed.books().length)], random);
+        } else {
+            String resource = authorBooks
+                    ? "/api/v1/authors/" + seed.authors()[random.nextInt(seed.authors().length)] + "/books"
+                    : "/api/v1/books/" + seed.books()[random.nextInt(seed.books().length)].id();
+            HttpRequest.Builder read = HttpRequest.newBuilder(URI.create(url + resource));
+            if (gzip) {
+                read.header("Accept-Encoding", "gzip");
+            }
+            request = read.GET().build();
+        }
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    } else {
+                        int sample = samples.getAndIncrement();
+                        if (sample < MAX_SAMPLES) {
+                            latencies[sample] = (System.nanoTime() - sent) / 1000;
+                        }
+                    }
+                    send(url, seed, deadline, samples, errors, done);
+                });
+    }
+
+    private HttpRequest update(String url, BookDTO book, ThreadLocalRandom random) {
+        BookDTO updated = new BookDTO(book.id(), Catalog.word(random, 3), book.isbn(), book.publisher(), book.year(),
+                book.language(), null);
+        try {
+            return HttpRequest.newBuilder(URI.create(url + "/api/v1/books/" + book.id()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(updated)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long percentile(long[] sorted, double rank) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.floor(rank * sorted.length))];
+    }
+}
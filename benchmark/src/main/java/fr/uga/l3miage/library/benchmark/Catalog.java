@@ -0,0 +1,112 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible catalogs for the benchmarks.
+ */
+final class Catalog {
+
+    static final String AUTHOR_NEEDLE = "hugo";
+    static final String TITLE_NEEDLE = "misérables";
+    static final int BOOKS_PER_AUTHOR = 10;
+    /**
+     * ISBN of the book of index 0, the following ones being consecutive.
+     */
+    static final long FIRST_ISBN = 1_000_000_000L;
+
+    // neither 'h' nor 'g' so that generated names never match the "hugo" needle
+    private static final String[] SYLLABLES = {
+            "ba", "be", "bi", "bo", "da", "de", "di", "do", "ka", "ke", "ki", "ko",
+            "la", "le", "li", "lo", "ma", "me", "mi", "mo", "na", "ne", "ni", "no",
+            "ra", "re", "ri", "ro", "sa", "se", "si", "so", "ta", "te", "ti", "to"
+    };
+
+    private Catalog() {
+        // utility class
+    }
+
+    static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    static String name(Random random) {
+        return word(random, 2 + random.nextInt(2)) + " " + word(random, 2 + random.nextInt(3));
+    }
+
+    static List<Author> authors(AuthorService authorService, int count, long seed) {
+        Random random = new Random(seed);
+        List<Author> saved = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Author author = new Author();
+            author.setFullName(name(random));
+            saved.add(authorService.save(author));
+        }
+        return saved;
+    }
+
+    static Book book(Random random, int index) {
+        Book book = new Book();
+        book.setTitle(word(random, 2 + random.nextInt(2)) + " " + word(random, 1 + random.nextInt(3)));
+        book.setIsbn(FIRST_ISBN + index);
+        book.setPublisher(word(random, 2));
+        book.setYear((short) (1800 + random.nextInt(224)));
+        book.setLanguage(random.nextInt(3) == 0 ? Book.Language.ENGLISH : Book.Language.FRENCH);
+        return book;
+    }
+
+    /**
+     * Saves about {@value #BOOKS_PER_AUTHOR} books per author through the batch operations. A few authors are
+     * named after the author needle and one of them wrote the books whose titles contain the title needle.
+     *
+     * @return ids of the saved authors
+     */
+    static long[] fill(AuthorService authorService, BookService bookService, int books, long seed) {
+        Random random = new Random(seed);
+        int count = Math.max(1, books / BOOKS_PER_AUTHOR);
+        List<Author> authors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Author author = new Author();
+            author.setFullName(i % 1000 == 0 ? "Victor Hugo " + i : name(random));
+            authors.add(author);
+        }
+        authors = authorService.saveAll(authors);
+
+        long[] ids = new long[count];
+        int index = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                ids[i] = authors.get(i).getId();
+                int size = Math.min(BOOKS_PER_AUTHOR, books - index);
+                if (size <= 0) {
+                    continue;
+                }
+                List<Book> written = new ArrayList<>(size);
+                for (int b = 0; b < size; b++) {
+                    Book book = book(random, index++);
+                    if (i == 0) {
+                        book.setTitle("Les Misérables " + b);
+                    }
+                    written.add(book);
+                }
+                bookService.saveAll(ids[i], written);
+            }
+        } catch (EntityNotFoundException e) {
+            throw new IllegalStateException("author saved just before is missing", e);
+        }
+        return ids;
+    }
+}
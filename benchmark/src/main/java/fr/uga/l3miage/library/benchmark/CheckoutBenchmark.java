@@ -0,0 +1,134 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.UnavailableException;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BorrowServiceMockImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout followed by the return of the same borrow, in operations per second. Books are picked among a hot set
+ * whose size sets the contention: with few books, most checkouts find one of theirs borrowed by another thread.
+ * Refused checkouts are counted apart, they are cheap and would otherwise inflate the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Library {
+
+        @Param({"mock", "jpa"})
+        String implementation;
+
+        @Param({"16", "10000"})
+        int hotBooks;
+
+        @Param({"1", "3"})
+        int booksPerBorrow;
+
+        BorrowService borrowService;
+        long[] bookIds;
+
+        private ConfigurableApplicationContext context;
+
+        @Setup
+        public void setup() {
+            AuthorService authorService;
+            BookService bookService;
+            if (implementation.equals("jpa")) {
+                context = JpaBenchmarkApplication.start();
+                authorService = context.getBean(AuthorService.class);
+                bookService = context.getBean(BookService.class);
+                borrowService = context.getBean(BorrowService.class);
+            } else {
+                authorService = new AuthorServiceMockImpl();
+                bookService = new BookServiceMockImpl();
+                borrowService = new BorrowServiceMockImpl();
+            }
+            Catalog.fill(authorService, bookService, hotBooks, 42);
+            bookIds = bookService.list().stream().mapToLong(Book::getId).toArray();
+        }
+
+        @TearDown
+        public void tearDown() {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+
+        Long borrowerId;
+
+        @Setup
+        public void setup(Library library) {
+            Borrower borrower = new Borrower();
+            borrower.setFirstName("Jean");
+            borrower.setLastName("Valjean");
+            borrowerId = library.borrowService.saveBorrower(borrower).getId();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        public long borrowed;
+        public long refused;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            borrowed = 0;
+            refused = 0;
+        }
+    }
+
+    @Benchmark
+    public Borrow checkoutAndReturn(Library library, Reader reader, Outcomes outcomes) throws EntityNotFoundException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> wanted = new ArrayList<>(library.booksPerBorrow);
+        for (int i = 0; i < library.booksPerBorrow; i++) {
+            wanted.add(library.bookIds[random.nextInt(library.bookIds.length)]);
+        }
+        try {
+            Borrow borrow = library.borrowService.checkout(reader.borrowerId, wanted);
+            outcomes.borrowed++;
+            return library.borrowService.giveBack(borrow.getId());
+        } catch (UnavailableException e) {
+            outcomes.refused++;
+            return null;
+        }
+    }
+}
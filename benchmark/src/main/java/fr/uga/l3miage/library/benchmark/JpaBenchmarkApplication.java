@@ -0,0 +1,35 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.library.service.impl.AuthorServiceImpl;
+import fr.uga.l3miage.library.service.impl.BookAvailability;
+import fr.uga.l3miage.library.service.impl.BookServiceImpl;
+import fr.uga.l3miage.library.service.impl.BorrowServiceImpl;
+import fr.uga.l3miage.library.service.impl.CatalogVersion;
+import fr.uga.l3miage.library.service.impl.IsbnFilter;
+import fr.uga.l3miage.library.service.impl.JpaConfig;
+import fr.uga.l3miage.library.service.impl.OverdueLoans;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Boots the JPA services on an embedded database, without scanning the mock ones which share the classpath.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@Import({JpaConfig.class, CatalogVersion.class, IsbnFilter.class, AuthorServiceImpl.class, BookServiceImpl.class,
+        BookAvailability.class, OverdueLoans.class, BorrowServiceImpl.class})
+public class JpaBenchmarkApplication {
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(JpaBenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("logging.level.root=warn")
+                .properties(properties)
+                .run();
+    }
+}
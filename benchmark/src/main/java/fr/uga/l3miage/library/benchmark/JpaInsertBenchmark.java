@@ -0,0 +1,97 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book inserts through the JPA service, in books per second.
+ * A batch size of 1 is the naive path: one round trip per book and per author link.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JpaInsertBenchmark {
+
+    private static final int BOOKS = 100;
+
+    @Param({"1", "50"})
+    int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transaction;
+    private BookService bookService;
+    private Long authorId;
+
+    @Setup
+    public void setup() {
+        context = JpaBenchmarkApplication.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        transaction = context.getBean(TransactionTemplate.class);
+        bookService = context.getBean(BookService.class);
+        Author author = new Author();
+        author.setFullName("Benchmark");
+        authorId = context.getBean(AuthorService.class).save(author).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Many books in one transaction, as a catalog import would do.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BOOKS)
+    public void saveInOneTransaction() {
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < BOOKS; i++) {
+                save(i);
+            }
+        });
+    }
+
+    /**
+     * One transaction per book, as one request per book would do.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BOOKS)
+    public void saveOneByOne() {
+        for (int i = 0; i < BOOKS; i++) {
+            save(i);
+        }
+    }
+
+    private void save(int i) {
+        Book book = new Book();
+        book.setTitle("Book " + i);
+        book.setLanguage(Book.Language.FRENCH);
+        try {
+            bookService.save(authorId, book);
+        } catch (EntityNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
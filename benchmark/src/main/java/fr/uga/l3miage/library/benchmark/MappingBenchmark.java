@@ -0,0 +1,106 @@
+package fr.uga.l3miage.library.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.books.BookDTO;
+import fr.uga.l3miage.library.books.BooksMapper;
+import fr.uga.l3miage.library.json.EntityJson;
+import fr.uga.l3miage.library.service.BookField;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a collection endpoint does once the books are read: mapping to DTOs, including the language enum to
+ * lowercase, then JSON serialization of the DTO list. Or the entities written directly, without the DTOs; run
+ * with {@code -prof gc} to compare the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    int books;
+
+    private final BooksMapper booksMapper = Mappers.getMapper(BooksMapper.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectWriter writer;
+    private List<Book> entities;
+    private List<BookDTO> dtos;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, books / 10); i++) {
+            Author author = new Author();
+            author.setId((long) i);
+            author.setFullName(Catalog.name(random));
+            authors.add(author);
+        }
+        entities = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            Book book = Catalog.book(random, i);
+            book.setId((long) i);
+            // one book out of four is co-authored
+            for (int a = 0; a < 1 + (i % 4 == 0 ? 1 : 0); a++) {
+                book.addAuthor(authors.get(random.nextInt(authors.size())));
+            }
+            entities.add(book);
+        }
+        dtos = map();
+        writer = objectMapper.writerFor(new TypeReference<List<BookDTO>>() {
+        });
+    }
+
+    @Benchmark
+    public List<BookDTO> map() {
+        return entities.stream().map(booksMapper::entityToDTO).toList();
+    }
+
+    @Benchmark
+    public void languageToString(Blackhole blackhole) {
+        for (Book book : entities) {
+            blackhole.consume(booksMapper.enumToString(book.getLanguage()));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(map());
+    }
+
+    @Benchmark
+    public byte[] serializeDirect() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new EntityJson.BooksJson(entities, EnumSet.allOf(BookField.class)));
+    }
+}
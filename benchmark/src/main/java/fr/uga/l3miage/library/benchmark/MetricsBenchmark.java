@@ -0,0 +1,94 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.metrics.TimedAuthorService;
+import fr.uga.l3miage.library.metrics.TimedBookService;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the timing decorators on the cheapest calls of the mock, where it shows the most: the same calls
+ * are made on the bare services and on the timed ones, recording into a Prometheus registry with histograms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private AuthorService authorService;
+    private BookService bookService;
+    private AuthorService timedAuthorService;
+    private BookService timedBookService;
+    private long[] authorIds;
+
+    @Setup
+    public void setup() {
+        authorService = new AuthorServiceMockImpl();
+        bookService = new BookServiceMockImpl();
+        authorIds = Catalog.fill(authorService, bookService, 10_000, 42);
+
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        timedAuthorService = new TimedAuthorService(authorService, registry, "mock");
+        timedBookService = new TimedBookService(bookService, registry, "mock");
+    }
+
+    private Long randomAuthor() {
+        return authorIds[ThreadLocalRandom.current().nextInt(authorIds.length)];
+    }
+
+    @Benchmark
+    public Author getAuthor() throws EntityNotFoundException {
+        return authorService.get(randomAuthor());
+    }
+
+    @Benchmark
+    public Author getAuthorTimed() throws EntityNotFoundException {
+        return timedAuthorService.get(randomAuthor());
+    }
+
+    @Benchmark
+    public Collection<Book> getByAuthor() throws EntityNotFoundException {
+        return bookService.getByAuthor(randomAuthor());
+    }
+
+    @Benchmark
+    public Collection<Book> getByAuthorTimed() throws EntityNotFoundException {
+        return timedBookService.getByAuthor(randomAuthor());
+    }
+
+    /**
+     * A failure, recorded in its own timer.
+     */
+    @Benchmark
+    public EntityNotFoundException getMissingTimed() {
+        try {
+            timedAuthorService.get(Long.MIN_VALUE);
+            throw new IllegalStateException("author should not exist");
+        } catch (EntityNotFoundException e) {
+            return e;
+        }
+    }
+}
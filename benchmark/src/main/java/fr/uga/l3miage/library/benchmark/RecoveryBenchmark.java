@@ -0,0 +1,96 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.MockData;
+import fr.uga.l3miage.library.service.mock.MockDurability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup of the durable mock store, in milliseconds: loading the snapshot of a catalog then replaying the
+ * journal of the books updated since. Each iteration empties the store and restores it from the same directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class RecoveryBenchmark {
+
+    @Param({"100000", "1000000"})
+    int books;
+
+    @Param({"0", "100000"})
+    int journaled;
+
+    private Path directory;
+    private MockDurability durability;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, EntityNotFoundException {
+        directory = Files.createTempDirectory("recovery-benchmark");
+        durability = MockDurability.open(directory, false, Duration.ZERO);
+        BookService bookService = new BookServiceMockImpl();
+        Catalog.fill(new AuthorServiceMockImpl(), bookService, books, 42);
+        durability.snapshot();
+        Random random = new Random(42);
+        List<Book> all = List.copyOf(bookService.list());
+        for (int i = 0; i < journaled; i++) {
+            Book book = all.get(random.nextInt(all.size()));
+            book.setTitle(Catalog.word(random, 3));
+            bookService.update(book);
+        }
+        durability.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void empty() {
+        MockData.clear();
+    }
+
+    @Benchmark
+    public MockDurability.Recovery recover() throws IOException {
+        durability = MockDurability.open(directory, false, Duration.ZERO);
+        return durability.recovery();
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        durability.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Main service operations, for both implementations and several catalog sizes, in operations per second.
+ * Thread counts are given to JMH ({@code -t}) or swept by {@link BenchmarkRunner}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final Set<BookField> TITLES = EnumSet.of(BookField.ID, BookField.TITLE);
+    private static final BookFilter FILTER = new BookFilter((short) 1900, (short) 1950, Set.of(Book.Language.ENGLISH), null);
+
+    @Benchmark
+    public Collection<Author> searchByName(Services services) {
+        return services.authorService.searchByName(Catalog.AUTHOR_NEEDLE);
+    }
+
+    @Benchmark
+    public Collection<Book> findByTitle(Services services) {
+        return services.bookService.findByTitle(Catalog.TITLE_NEEDLE);
+    }
+
+    /**
+     * Half of the ISBNs looked up are in the catalog, the other half are not.
+     */
+    @Benchmark
+    public Book findByIsbn(Services services) {
+        long isbn = Catalog.FIRST_ISBN + ThreadLocalRandom.current().nextInt(2 * services.books);
+        try {
+            return services.bookService.findByIsbn(isbn);
+        } catch (EntityNotFoundException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Collection<Book> getByAuthor(Services services) throws EntityNotFoundException {
+        return services.bookService.getByAuthor(services.randomAuthor());
+    }
+
+    /**
+     * Same as {@link #getByAuthor}, for a list view needing the titles only.
+     */
+    @Benchmark
+    public Collection<Book> getTitlesByAuthor(Services services) throws EntityNotFoundException {
+        return services.bookService.getByAuthor(services.randomAuthor(), TITLES);
+    }
+
+    /**
+     * A page of the english books of the first half of the 20th century, through the bitmap indexes.
+     */
+    @Benchmark
+    public Page<Book, Long> filter(Services services) {
+        return services.bookService.filter(FILTER, null, 100, TITLES);
+    }
+
+    /**
+     * Same as {@link #filter}, looking at every book, as a baseline.
+     */
+    @Benchmark
+    public List<Book> filterByScan(Services services) {
+        return services.bookService.list().stream().filter(FILTER::test).limit(100).toList();
+    }
+
+    @Benchmark
+    public BookFacets facets(Services services) {
+        return services.bookService.facets(FILTER, 20);
+    }
+
+    /**
+     * A save followed by the delete of the same book, so that the catalog keeps its size.
+     */
+    @Benchmark
+    public void saveAndDelete(Services services) throws EntityNotFoundException {
+        Book book = new Book();
+        book.setTitle("Saved and deleted");
+        book.setLanguage(Book.Language.FRENCH);
+        Long id = services.bookService.save(services.randomAuthor(), book).getId();
+        services.bookService.delete(id);
+    }
+}
@@ -0,0 +1,59 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Services of either implementation over a generated catalog, shared by all benchmark threads.
+ * <p>
+ * Each combination of parameters runs in its own fork, the static data of the mock starts empty every time.
+ */
+@State(Scope.Benchmark)
+public class Services {
+
+    @Param({"mock", "jpa"})
+    String implementation;
+
+    @Param({"1000", "100000"})
+    int books;
+
+    AuthorService authorService;
+    BookService bookService;
+    long[] authorIds;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup
+    public void setup() {
+        if (implementation.equals("jpa")) {
+            context = JpaBenchmarkApplication.start();
+            authorService = context.getBean(AuthorService.class);
+            bookService = context.getBean(BookService.class);
+        } else {
+            authorService = new AuthorServiceMockImpl();
+            bookService = new BookServiceMockImpl();
+        }
+        authorIds = Catalog.fill(authorService, bookService, books, 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    Long randomAuthor() {
+        return authorIds[ThreadLocalRandom.current().nextInt(authorIds.length)];
+    }
+}
@@ -0,0 +1,90 @@
+package fr.uga.l3miage.library.benchmark;
+
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.SuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Type-ahead suggestions among generated names, with the {@link SuggestIndex} and with a ranked scan. Sampled so
+ * that JMH reports percentiles: short prefixes match a large part of the names, long ones a few names only.
+ * {@code put} measures a write, the weight of a name changing as its author gains a book.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestBenchmark {
+
+    private static final int LIMIT = 10;
+    private static final String[] PREFIXES = {"b", "ka", "mel", "sano", "tiba", "ra ", "Do", "lemi", "s", "kobe"};
+
+    @Param({"100000", "1000000"})
+    int names;
+
+    private SuggestIndex index;
+    private String[] texts;
+    private int[] weights;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = new SuggestIndex();
+        texts = new String[names];
+        weights = new int[names];
+        for (int i = 0; i < names; i++) {
+            texts[i] = Catalog.name(random);
+            weights[i] = random.nextInt(Catalog.BOOKS_PER_AUTHOR * 2);
+            index.put(i, texts[i], weights[i]);
+        }
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest() {
+        return index.suggest(PREFIXES[next++ % PREFIXES.length], LIMIT);
+    }
+
+    @Benchmark
+    public List<Suggestion> scan() {
+        String prefix = PREFIXES[next++ % PREFIXES.length].toLowerCase(Locale.ROOT);
+        String spaced = " " + prefix;
+        Comparator<Integer> best = Comparator.comparingInt((Integer i) -> weights[i]).reversed()
+                .thenComparingInt(i -> texts[i].length());
+        return IntStream.range(0, names)
+                .filter(i -> {
+                    String text = texts[i].toLowerCase(Locale.ROOT);
+                    return text.startsWith(prefix) || text.contains(spaced);
+                })
+                .boxed()
+                .sorted(best)
+                .limit(LIMIT)
+                .map(i -> new Suggestion(i, texts[i]))
+                .toList();
+    }
+
+    @Benchmark
+    public void put() {
+        int i = next++ % names;
+        weights[i] = (weights[i] + 1) % (Catalog.BOOKS_PER_AUTHOR * 2);
+        index.put(i, texts[i], weights[i]);
+    }
+}
@@ -1,11 +1,28 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
+
 import java.util.HashSet;
 import java.util.Set;
 
+@Entity
 public class Author {
+    // pooled: one sequence call every 50 inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
     private Long id;
+    // bumped on every change, associations included
+    @Version
+    private long version;
     private String fullName;
+    @ManyToMany(mappedBy = "authors")
     private Set<Book> books;
 
     public Long getId() {
@@ -16,6 +33,14 @@ public class Author {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getFullName() {
         return fullName;
     }
@@ -1,16 +1,58 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
 import java.util.HashSet;
 import java.util.Set;
 
+@Entity
+// looked up by isbn, checked for duplicates before inserts and kept unique by the database
+@Table(indexes = @Index(name = Book.ISBN_INDEX, columnList = "isbn", unique = true))
+@NamedEntityGraph(name = Book.WITH_AUTHORS, attributeNodes = @NamedAttributeNode("authors"))
 public class Book {
 
+    public static final String WITH_AUTHORS = "Book.withAuthors";
+    public static final String ISBN_INDEX = "book_isbn";
+
+    // pooled: one sequence call every 50 inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
+    // bumped on every change, associations included
+    @Version
+    private long version;
     private String title;
+    // 0 when unknown, stored as NULL, which the unique index allows for several books
+    @Convert(converter = IsbnConverter.class)
+    @Column(nullable = true)
     private long isbn;
     private String publisher;
+    // year is a keyword for some databases
+    @Column(name = "publication_year")
     private short year;
+    @Enumerated(EnumType.STRING)
     private Language language;
+    @ManyToMany
+    @JoinTable(name = "book_author",
+            joinColumns = @JoinColumn(name = "book_id"),
+            inverseJoinColumns = @JoinColumn(name = "author_id"))
     private Set<Author> authors;
 
     public Long getId() {
@@ -21,6 +63,14 @@ public class Book {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
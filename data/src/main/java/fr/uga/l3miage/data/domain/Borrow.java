@@ -1,14 +1,39 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+
 import java.util.Date;
 import java.util.Set;
 
+@Entity
 public class Borrow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
+    @ManyToMany
+    @JoinTable(name = "borrow_book",
+            joinColumns = @JoinColumn(name = "borrow_id"),
+            inverseJoinColumns = @JoinColumn(name = "book_id"))
     private Set<Book> books;
+    // start and end are keywords for some databases
+    @Column(name = "start_date")
     private Date start;
+    // when the books are due
+    @Column(name = "end_date")
     private Date end;
+    // when the books were given back, null while they are borrowed
+    private Date returned;
+    @ManyToOne
     private Borrower borrower;
+    @ManyToOne
     private Librarian librarian;
 
     public Long getId() {
@@ -43,6 +68,14 @@ public class Borrow {
         this.end = end;
     }
 
+    public Date getReturned() {
+        return returned;
+    }
+
+    public void setReturned(Date returned) {
+        this.returned = returned;
+    }
+
     public Borrower getBorrower() {
         return borrower;
     }
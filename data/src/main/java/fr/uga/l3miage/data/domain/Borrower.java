@@ -1,7 +1,10 @@
 package fr.uga.l3miage.data.domain;
 
+import jakarta.persistence.Entity;
+
 import java.util.Date;
 
+@Entity
 public class Borrower extends Person {
     private Date registered;
     private float lateRatio;
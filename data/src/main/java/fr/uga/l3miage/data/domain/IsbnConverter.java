@@ -0,0 +1,21 @@
+package fr.uga.l3miage.data.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a missing isbn, 0 in the entity, as NULL: the unique index on the column then ignores books without one.
+ */
+@Converter
+public class IsbnConverter implements AttributeConverter<Long, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Long isbn) {
+        return isbn == null || isbn == 0 ? null : isbn;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(Long column) {
+        return column == null ? 0L : column;
+    }
+}
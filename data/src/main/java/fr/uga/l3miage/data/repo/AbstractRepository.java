@@ -0,0 +1,68 @@
+package fr.uga.l3miage.data.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Locale;
+
+/**
+ * Base of the JPA repositories, backed by an {@link EntityManager}.
+ * <p>
+ * The entity manager is injected by the container through {@link PersistenceContext}, or given explicitly when
+ * the repository is used outside of a container.
+ *
+ * @param <T> the entity type
+ */
+public abstract class AbstractRepository<T> implements Repository<T, Long> {
+
+    @PersistenceContext
+    protected EntityManager entityManager;
+
+    protected AbstractRepository() {
+    }
+
+    protected AbstractRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void save(T entity) {
+        if (entityManager.contains(entity) || id(entity) == null) {
+            entityManager.persist(entity);
+        } else {
+            entityManager.merge(entity);
+        }
+    }
+
+    @Override
+    public void delete(T entity) {
+        entityManager.remove(entityManager.contains(entity) ? entity : entityManager.merge(entity));
+    }
+
+    /**
+     * Bumps the version of a managed entity at commit, for a change none of its columns shows such as a new
+     * element on the inverse side of an association.
+     *
+     * @param entity a managed entity
+     */
+    public void touch(T entity) {
+        entityManager.lock(entity, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    /**
+     * @return the id of an entity, null if it is not persisted yet
+     */
+    protected abstract Long id(T entity);
+
+    /**
+     * Builds a case-insensitive LIKE pattern matching a fragment anywhere, to be used with {@code escape '\'}
+     */
+    protected static String containing(String fragment) {
+        String escaped = fragment.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
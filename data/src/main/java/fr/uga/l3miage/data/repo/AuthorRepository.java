@@ -0,0 +1,177 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.Author;
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPA repository of authors. Authors are read without their books unless stated otherwise.
+ */
+public class AuthorRepository extends AbstractRepository<Author> {
+
+    public AuthorRepository() {
+        super();
+    }
+
+    public AuthorRepository(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    @Override
+    public Author findById(Long id) {
+        return id == null ? null : entityManager.find(Author.class, id);
+    }
+
+    @Override
+    public List<Author> getAll() {
+        return entityManager.createQuery("select a from Author a order by a.id", Author.class)
+                .getResultList();
+    }
+
+    public long count() {
+        return entityManager.createQuery("select count(a) from Author a", Long.class)
+                .getSingleResult();
+    }
+
+    /**
+     * @param ids the author ids
+     * @return the authors found, in no particular order
+     */
+    public List<Author> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("select a from Author a where a.id in :ids", Author.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * @param after the id after which the page starts, null for the first page
+     * @param limit the maximum number of authors
+     * @return authors ordered by id
+     */
+    public List<Author> page(Long after, int limit) {
+        return entityManager.createQuery("select a from Author a where a.id > :after order by a.id", Author.class)
+                .setParameter("after", after == null ? Long.MIN_VALUE : after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * @param name part of the name, case-insensitive
+     * @return matching authors
+     */
+    public List<Author> searchByName(String name) {
+        return entityManager.createQuery("select a from Author a where lower(a.fullName) like :name escape '\\' order by a.id", Author.class)
+                .setParameter("name", containing(name))
+                .getResultList();
+    }
+
+    /**
+     * @param ids the author ids
+     * @return ids of the authors among the given ones having at least one book with other authors
+     */
+    public List<Long> withCoAuthoredBooks(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("""
+                        select distinct a.id from Author a join a.books b
+                        where a.id in :ids and size(b.authors) > 1""", Long.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * Reads the books of an author along with their number of authors, so that a delete checks for co-authored
+     * books and finds the books to delete with a single query.
+     *
+     * @param id the author id
+     * @return the number of authors of each book of the author, by book id
+     */
+    public Map<Long, Integer> bookAuthorCounts(Long id) {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        entityManager.createQuery("select b.id, size(b.authors) from Author a join a.books b where a.id = :id", Object[].class)
+                .setParameter("id", id)
+                .getResultStream()
+                .forEach(row -> counts.put((Long) row[0], ((Number) row[1]).intValue()));
+        return counts;
+    }
+
+    /**
+     * @return the number of books of each author having some
+     */
+    public Map<Long, Integer> bookCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        entityManager.createQuery("select a.id, count(b) from Author a join a.books b group by a.id", Object[].class)
+                .getResultStream()
+                .forEach(row -> counts.put((Long) row[0], ((Long) row[1]).intValue()));
+        return counts;
+    }
+
+    /**
+     * @return the ids of the books of each author having some
+     */
+    public Map<Long, List<Long>> bookIdsByAuthor() {
+        Map<Long, List<Long>> ids = new HashMap<>();
+        entityManager.createQuery("select a.id, b.id from Author a join a.books b", Object[].class)
+                .getResultStream()
+                .forEach(row -> ids.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]));
+        return ids;
+    }
+
+    /**
+     * @param ids the author ids
+     * @return the ids of the books of each of these authors having some
+     */
+    public Map<Long, List<Long>> bookIdsByAuthor(Collection<Long> ids) {
+        Map<Long, List<Long>> bookIds = new HashMap<>();
+        if (ids.isEmpty()) {
+            return bookIds;
+        }
+        entityManager.createQuery("select a.id, b.id from Author a join a.books b where a.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .forEach(row -> bookIds.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]));
+        return bookIds;
+    }
+
+    /**
+     * Deletes an author with a bulk statement, its books must have been removed before.
+     * The persistence context is not updated.
+     *
+     * @param id the author id
+     */
+    public void deleteById(Long id) {
+        entityManager.createQuery("delete from Author a where a.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    /**
+     * Deletes authors with a single bulk statement, their books must have been removed before.
+     * The persistence context is not updated.
+     *
+     * @param ids the author ids
+     */
+    public void deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("delete from Author a where a.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    protected Long id(Author entity) {
+        return entity.getId();
+    }
+}
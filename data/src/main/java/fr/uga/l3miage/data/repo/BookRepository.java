@@ -0,0 +1,335 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * JPA repository of books. Books are always read along with their authors, using a fetch join or the
+ * {@link Book#WITH_AUTHORS} entity graph, so that rendering a list of books costs a single query.
+ */
+public class BookRepository extends AbstractRepository<Book> {
+
+    // the columns a projection may read, attribute names being checked against them before making a query
+    private static final Map<String, BiConsumer<Book, Object>> COLUMNS = Map.of(
+            "title", (book, value) -> book.setTitle((String) value),
+            "isbn", (book, value) -> book.setIsbn(value == null ? 0 : (Long) value),
+            "publisher", (book, value) -> book.setPublisher((String) value),
+            "year", (book, value) -> book.setYear((Short) value),
+            "language", (book, value) -> book.setLanguage((Book.Language) value));
+
+    public BookRepository() {
+        super();
+    }
+
+    public BookRepository(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    @Override
+    public Book findById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return entityManager.find(Book.class, id,
+                Map.of("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(Book.WITH_AUTHORS)));
+    }
+
+    @Override
+    public List<Book> getAll() {
+        return entityManager.createQuery("select distinct b from Book b left join fetch b.authors order by b.id", Book.class)
+                .getResultList();
+    }
+
+    public long count() {
+        return entityManager.createQuery("select count(b) from Book b", Long.class)
+                .getSingleResult();
+    }
+
+    /**
+     * Ids are paged first, a limit on a fetch join would otherwise be applied in memory.
+     *
+     * @param after the id after which the page starts, null for the first page
+     * @param limit the maximum number of books
+     * @return books ordered by id
+     */
+    public List<Book> page(Long after, int limit) {
+        List<Long> ids = entityManager.createQuery("select b.id from Book b where b.id > :after order by b.id", Long.class)
+                .setParameter("after", after == null ? Long.MIN_VALUE : after)
+                .setMaxResults(limit)
+                .getResultList();
+        return findAllById(ids);
+    }
+
+    /**
+     * @param ids the book ids
+     * @return the books found, ordered by id
+     */
+    public List<Book> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("select distinct b from Book b left join fetch b.authors where b.id in :ids order by b.id", Book.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * Isbns being unique, no limit is needed, which would be applied in memory with the fetch join.
+     *
+     * @param isbn the isbn
+     * @return the book having it, or null
+     */
+    public Book findByIsbn(long isbn) {
+        return entityManager.createQuery("select distinct b from Book b left join fetch b.authors where b.isbn = :isbn", Book.class)
+                .setParameter("isbn", isbn)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @param isbns isbns to look for
+     * @return the id of a book having each isbn found
+     */
+    public Map<Long, Long> idsByIsbn(Collection<Long> isbns) {
+        if (isbns.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> ids = new HashMap<>();
+        entityManager.createQuery("select b.isbn, b.id from Book b where b.isbn in :isbns", Object[].class)
+                .setParameter("isbns", isbns)
+                .getResultStream()
+                .forEach(row -> ids.putIfAbsent((Long) row[0], (Long) row[1]));
+        return ids;
+    }
+
+    /**
+     * @return the isbns of all books having one
+     */
+    public List<Long> isbns() {
+        return entityManager.createQuery("select b.isbn from Book b where b.isbn is not null", Long.class)
+                .getResultList();
+    }
+
+    /**
+     * Sends the pending changes to the database, for constraint violations to show before commit.
+     */
+    public void flush() {
+        entityManager.flush();
+    }
+
+    /**
+     * @param title part of the title, case-insensitive
+     * @return matching books
+     */
+    public List<Book> findByTitle(String title) {
+        return entityManager.createQuery("""
+                        select distinct b from Book b
+                        left join fetch b.authors
+                        where lower(b.title) like :title escape '\\'
+                        order by b.id""", Book.class)
+                .setParameter("title", containing(title))
+                .getResultList();
+    }
+
+    /**
+     * @param authorId the author id
+     * @return books of the author, with all their authors
+     */
+    public List<Book> findByAuthor(Long authorId) {
+        return entityManager.createQuery("""
+                        select distinct b from Book b
+                        left join fetch b.authors
+                        where b.id in (select ab.id from Author a join a.books ab where a.id = :author)
+                        order by b.id""", Book.class)
+                .setParameter("author", authorId)
+                .getResultList();
+    }
+
+    /**
+     * @param authorId the author id
+     * @param title    part of the title, case-insensitive
+     * @return books of the author with a matching title, with all their authors
+     */
+    public List<Book> findByAuthor(Long authorId, String title) {
+        return entityManager.createQuery("""
+                        select distinct b from Book b
+                        left join fetch b.authors
+                        where b.id in (select ab.id from Author a join a.books ab where a.id = :author)
+                        and lower(b.title) like :title escape '\\'
+                        order by b.id""", Book.class)
+                .setParameter("author", authorId)
+                .setParameter("title", containing(title))
+                .getResultList();
+    }
+
+    /*
+     * Projections: the same reads with some columns only, the authors not being joined. The books returned are
+     * not managed, they have their id, their version and the given attributes, among title, isbn, publisher, year
+     * and language, the others being left unset.
+     */
+
+    /**
+     * @param id         the book id
+     * @param attributes the attributes to read
+     * @return the book, or null
+     */
+    public Book findById(Long id, Collection<String> attributes) {
+        if (id == null) {
+            return null;
+        }
+        return project(attributes, "where b.id = :id", Map.of("id", id), 0).stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @param attributes the attributes to read
+     * @return all books ordered by id
+     */
+    public List<Book> getAll(Collection<String> attributes) {
+        return project(attributes, "order by b.id", Map.of(), 0);
+    }
+
+    /**
+     * @param ids        the book ids
+     * @param attributes the attributes to read
+     * @return the books found, ordered by id
+     */
+    public List<Book> findAllById(Collection<Long> ids, Collection<String> attributes) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return project(attributes, "where b.id in :ids order by b.id", Map.of("ids", ids), 0);
+    }
+
+    /**
+     * Without the fetch join, the limit is applied by the database.
+     *
+     * @param after      the id after which the page starts, null for the first page
+     * @param limit      the maximum number of books
+     * @param attributes the attributes to read
+     * @return books ordered by id
+     */
+    public List<Book> page(Long after, int limit, Collection<String> attributes) {
+        return project(attributes, "where b.id > :after order by b.id",
+                Map.of("after", after == null ? Long.MIN_VALUE : after), limit);
+    }
+
+    /**
+     * @param title      part of the title, case-insensitive
+     * @param attributes the attributes to read
+     * @return matching books
+     */
+    public List<Book> findByTitle(String title, Collection<String> attributes) {
+        return project(attributes, "where lower(b.title) like :title escape '\\' order by b.id",
+                Map.of("title", containing(title)), 0);
+    }
+
+    /**
+     * @param authorId   the author id
+     * @param attributes the attributes to read
+     * @return books of the author
+     */
+    public List<Book> findByAuthor(Long authorId, Collection<String> attributes) {
+        return project(attributes, """
+                        where b.id in (select ab.id from Author a join a.books ab where a.id = :author)
+                        order by b.id""",
+                Map.of("author", authorId), 0);
+    }
+
+    /**
+     * @param authorId   the author id
+     * @param title      part of the title, case-insensitive
+     * @param attributes the attributes to read
+     * @return books of the author with a matching title
+     */
+    public List<Book> findByAuthor(Long authorId, String title, Collection<String> attributes) {
+        return project(attributes, """
+                        where b.id in (select ab.id from Author a join a.books ab where a.id = :author)
+                        and lower(b.title) like :title escape '\\'
+                        order by b.id""",
+                Map.of("author", authorId, "title", containing(title)), 0);
+    }
+
+    /**
+     * Removes books from the borrows they are part of, a link owned by {@code Borrow} that a book delete leaves
+     * behind. The persistence context is not updated.
+     *
+     * @param ids ids of the books about to be deleted
+     */
+    public void detachBorrows(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        entityManager.createNativeQuery("delete from borrow_book where book_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    /**
+     * Deletes books, their author links and their borrow links with bulk statements, whatever their number.
+     * The persistence context is not updated.
+     *
+     * @param ids ids of the books to delete
+     */
+    public void deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        // the author links go with the bulk delete, as the book owns them
+        detachBorrows(ids);
+        entityManager.createQuery("delete from Book b where b.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    /**
+     * @param attributes the attributes to read, checked against the known columns as they end up in the query
+     * @param where      the end of the query, after {@code from Book b}
+     * @param parameters the parameters of the query, by name
+     * @param limit      the maximum number of books, 0 for no limit
+     */
+    private List<Book> project(Collection<String> attributes, String where, Map<String, Object> parameters, int limit) {
+        List<BiConsumer<Book, Object>> setters = new ArrayList<>(attributes.size());
+        StringBuilder select = new StringBuilder("select b.id, b.version");
+        for (String attribute : attributes) {
+            BiConsumer<Book, Object> setter = COLUMNS.get(attribute);
+            if (setter == null) {
+                throw new IllegalArgumentException("not a column of a book: " + attribute);
+            }
+            select.append(", b.").append(attribute);
+            setters.add(setter);
+        }
+        TypedQuery<Object[]> query = entityManager.createQuery(select + " from Book b " + where, Object[].class);
+        parameters.forEach(query::setParameter);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        List<Object[]> rows = query.getResultList();
+        List<Book> books = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Book book = new Book();
+            book.setId((Long) row[0]);
+            book.setVersion((Long) row[1]);
+            for (int i = 0; i < setters.size(); i++) {
+                setters.get(i).accept(book, row[i + 2]);
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    @Override
+    protected Long id(Book entity) {
+        return entity.getId();
+    }
+}
@@ -0,0 +1,111 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import jakarta.persistence.EntityManager;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * JPA repository of borrows, read with their books. A borrow is active until its books are returned.
+ */
+public class BorrowRepository extends AbstractRepository<Borrow> {
+
+    public BorrowRepository() {
+        super();
+    }
+
+    public BorrowRepository(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    @Override
+    public Borrow findById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return entityManager.createQuery("select b from Borrow b left join fetch b.books where b.id = :id", Borrow.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    public List<Borrow> getAll() {
+        return entityManager.createQuery("select distinct b from Borrow b left join fetch b.books order by b.id", Borrow.class)
+                .getResultList();
+    }
+
+    /**
+     * @param borrowerId the borrower id
+     * @return active borrows of the borrower, ordered by id
+     */
+    public List<Borrow> findActiveByBorrower(Long borrowerId) {
+        return entityManager.createQuery("""
+                        select distinct b from Borrow b
+                        left join fetch b.books
+                        where b.borrower.id = :borrower and b.returned is null
+                        order by b.id""", Borrow.class)
+                .setParameter("borrower", borrowerId)
+                .getResultList();
+    }
+
+    /**
+     * @return ids of the books of all active borrows
+     */
+    public List<Long> borrowedBookIds() {
+        return entityManager.createQuery("select bk.id from Borrow b join b.books bk where b.returned is null", Long.class)
+                .getResultList();
+    }
+
+    /**
+     * @return the number of borrows given back and of those given back late, per borrower
+     */
+    public List<Tally> returnedTallies() {
+        return entityManager.createQuery("""
+                        select b.borrower.id, count(b), sum(case when b.returned > b.end then 1 else 0 end)
+                        from Borrow b
+                        where b.returned is not null
+                        group by b.borrower.id""", Object[].class)
+                .getResultStream()
+                .map(row -> new Tally((Long) row[0], ((Number) row[1]).longValue(), ((Number) row[2]).longValue()))
+                .toList();
+    }
+
+    /**
+     * @return the due dates of the active borrows
+     */
+    public List<Due> activeDueDates() {
+        return entityManager.createQuery("select b.id, b.borrower.id, b.end from Borrow b where b.returned is null", Object[].class)
+                .getResultStream()
+                .map(row -> new Due((Long) row[0], (Long) row[1], (Date) row[2]))
+                .toList();
+    }
+
+    /**
+     * Marks a borrow as returned, unless it already is. Concurrent calls for the same borrow are serialized by
+     * the row lock of the update, a single one of them sees the borrow as active.
+     *
+     * @param id       the borrow id
+     * @param returned the return date
+     * @return whether the borrow was active
+     */
+    public boolean markReturned(Long id, Date returned) {
+        return entityManager.createQuery("update Borrow b set b.returned = :returned where b.id = :id and b.returned is null")
+                .setParameter("returned", returned)
+                .setParameter("id", id)
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    protected Long id(Borrow entity) {
+        return entity.getId();
+    }
+
+    public record Tally(Long borrowerId, long borrows, long late) {
+    }
+
+    public record Due(Long borrowId, Long borrowerId, Date end) {
+    }
+}
@@ -0,0 +1,50 @@
+package fr.uga.l3miage.data.repo;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import jakarta.persistence.EntityManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA repository of borrowers.
+ */
+public class BorrowerRepository extends AbstractRepository<Borrower> {
+
+    public BorrowerRepository() {
+        super();
+    }
+
+    public BorrowerRepository(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    @Override
+    public Borrower findById(Long id) {
+        return id == null ? null : entityManager.find(Borrower.class, id);
+    }
+
+    @Override
+    public List<Borrower> getAll() {
+        return entityManager.createQuery("select b from Borrower b order by b.id", Borrower.class)
+                .getResultList();
+    }
+
+    /**
+     * @param ids the borrower ids
+     * @return the borrowers found, in no particular order
+     */
+    public List<Borrower> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("select b from Borrower b where b.id in :ids", Borrower.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    protected Long id(Borrower entity) {
+        return entity.getId();
+    }
+}
@@ -0,0 +1,206 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.Page;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class AuthorServiceImpl implements AuthorService {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final CatalogVersion catalogVersion;
+    private final CatalogFacets catalogFacets;
+    private final CatalogSuggestions catalogSuggestions;
+    private final CatalogStatistics catalogStatistics;
+    private final BookAvailability availability;
+
+    @Autowired
+    public AuthorServiceImpl(AuthorRepository authorRepository, BookRepository bookRepository, CatalogVersion catalogVersion,
+                             CatalogFacets catalogFacets, CatalogSuggestions catalogSuggestions,
+                             CatalogStatistics catalogStatistics, BookAvailability availability) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.catalogVersion = catalogVersion;
+        this.catalogFacets = catalogFacets;
+        this.catalogSuggestions = catalogSuggestions;
+        this.catalogStatistics = catalogStatistics;
+        this.availability = availability;
+    }
+
+    @Override
+    public Author save(Author author) {
+        authorRepository.save(author);
+        catalogSuggestions.putAuthors(List.of(author));
+        catalogVersion.changed();
+        return author;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Author> searchByName(String name) {
+        return authorRepository.searchByName(name);
+    }
+
+    /**
+     * Reads the index only, no transaction is needed.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return catalogSuggestions.authors(prefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Author get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(authorRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Author> list() {
+        return authorRepository.getAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Author, Long> page(Long after, int limit) {
+        // one more to know whether there is a next page
+        List<Author> authors = authorRepository.page(after, limit + 1);
+        if (authors.size() <= limit) {
+            return new Page<>(authors, null);
+        }
+        List<Author> content = authors.subList(0, limit);
+        return new Page<>(List.copyOf(content), content.get(limit - 1).getId());
+    }
+
+    @Override
+    public long version() {
+        return catalogVersion.get();
+    }
+
+    @Override
+    public Author update(Author author) throws EntityNotFoundException {
+        Author existing = get(author.getId());
+        existing.setFullName(author.getFullName());
+        catalogSuggestions.putAuthors(List.of(existing));
+        catalogVersion.changed();
+        return existing;
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
+        get(id);
+        Map<Long, Integer> authorCounts = authorRepository.bookAuthorCounts(id);
+        if (authorCounts.values().stream().anyMatch(count -> count > 1)) {
+            throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+        }
+        // set-based, the cost does not depend on the number of books
+        List<Long> bookIds = List.copyOf(authorCounts.keySet());
+        if (!availability.hold(bookIds).isEmpty()) {
+            throw new DeleteAuthorException("cannot delete author, one or several books are borrowed");
+        }
+        bookRepository.deleteAllById(bookIds);
+        authorRepository.deleteById(id);
+        catalogFacets.remove(bookIds);
+        catalogSuggestions.removeAuthors(List.of(id), bookIds);
+        catalogStatistics.removeAuthors(List.of(id), bookIds);
+        catalogVersion.changed();
+    }
+
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        // sent as JDBC batches at flush, ids come from the pooled sequence
+        authors.forEach(authorRepository::save);
+        catalogSuggestions.putAuthors(authors);
+        catalogVersion.changed();
+        return authors;
+    }
+
+    @Override
+    public List<Author> updateAll(List<Author> authors) throws BatchException {
+        Map<Long, Author> existing = authorRepository.findAllById(ids(authors.stream().map(Author::getId).toList()))
+                .stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        Map<Integer, Exception> failures = new HashMap<>();
+        for (int i = 0; i < authors.size(); i++) {
+            Long id = authors.get(i).getId();
+            if (!existing.containsKey(id)) {
+                failures.put(i, new EntityNotFoundException("Cannot find author with id: " + id));
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchException(failures);
+        }
+        List<Author> updated = new ArrayList<>(authors.size());
+        for (Author author : authors) {
+            Author target = existing.get(author.getId());
+            target.setFullName(author.getFullName());
+            updated.add(target);
+        }
+        catalogSuggestions.putAuthors(updated);
+        catalogVersion.changed();
+        return updated;
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids) throws BatchException {
+        Set<Long> distinct = ids(ids);
+        Set<Long> found = authorRepository.findAllById(distinct).stream().map(Author::getId).collect(Collectors.toSet());
+        Set<Long> coAuthored = new HashSet<>(authorRepository.withCoAuthoredBooks(found));
+        Map<Long, List<Long>> books = authorRepository.bookIdsByAuthor(found);
+        List<Long> bookIds = books.values().stream().flatMap(List::stream).distinct().toList();
+        // held until the end of the transaction, so that no borrow takes them meanwhile
+        Set<Long> borrowed = new HashSet<>(availability.hold(bookIds));
+        Map<Integer, Exception> failures = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (!found.contains(id)) {
+                failures.put(i, new EntityNotFoundException("Cannot find author with id: " + id));
+            } else if (coAuthored.contains(id)) {
+                failures.put(i, new DeleteAuthorException("cannot delete author, one or several books are co-authored"));
+            } else if (books.getOrDefault(id, List.of()).stream().anyMatch(borrowed::contains)) {
+                failures.put(i, new DeleteAuthorException("cannot delete author, one or several books are borrowed"));
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchException(failures);
+        }
+        // a few statements for the whole batch
+        bookRepository.deleteAllById(bookIds);
+        authorRepository.deleteAllById(distinct);
+        catalogFacets.remove(bookIds);
+        catalogSuggestions.removeAuthors(distinct, bookIds);
+        catalogStatistics.removeAuthors(distinct, bookIds);
+        catalogVersion.changed();
+    }
+
+    private static Set<Long> ids(Collection<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,98 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.repo.BorrowRepository;
+import fr.uga.l3miage.library.service.base.AvailabilityIndex;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Borrowed books, kept in memory so that concurrent checkouts of the same book are told apart without locking
+ * rows. Books are taken before the borrow is written and released when its transaction rolls back, or when a
+ * return commits. Loaded from the active borrows at startup, it assumes a single instance writes borrows.
+ */
+@Component
+public class BookAvailability implements SmartInitializingSingleton {
+
+    private final AvailabilityIndex borrowed = new AvailabilityIndex();
+    private final BorrowRepository borrowRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookAvailability(BorrowRepository borrowRepository, PlatformTransactionManager transactionManager) {
+        this.borrowRepository = borrowRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<Long> ids = transactionTemplate.execute(status -> borrowRepository.borrowedBookIds());
+        if (ids != null && !borrowed.acquire(ids).isEmpty()) {
+            throw new IllegalStateException("a book is part of several active borrows");
+        }
+    }
+
+    /**
+     * Takes books, released again if the current transaction rolls back.
+     *
+     * @return ids of the books already borrowed, none if all were taken
+     */
+    public List<Long> acquire(Collection<Long> ids) {
+        List<Long> unavailable = borrowed.acquire(ids);
+        if (unavailable.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        borrowed.release(ids);
+                    }
+                }
+            });
+        }
+        return unavailable;
+    }
+
+    /**
+     * Takes books until the current transaction completes, so that they are not borrowed while being deleted.
+     *
+     * @return ids of the books borrowed, none if all were taken
+     */
+    public List<Long> hold(Collection<Long> ids) {
+        List<Long> unavailable = borrowed.acquire(ids);
+        if (unavailable.isEmpty()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        borrowed.release(ids);
+                    }
+                });
+            } else {
+                borrowed.release(ids);
+            }
+        }
+        return unavailable;
+    }
+
+    /**
+     * Releases books after the commit of the current transaction, or right away without transaction.
+     */
+    public void release(Collection<Long> ids) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    borrowed.release(ids);
+                }
+            });
+        } else {
+            borrowed.release(ids);
+        }
+    }
+}
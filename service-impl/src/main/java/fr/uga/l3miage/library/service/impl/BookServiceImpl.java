@@ -0,0 +1,512 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BorrowedBookException;
+import fr.uga.l3miage.library.service.CatalogStats;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.Page;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+@Service
+@Transactional
+public class BookServiceImpl implements BookService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CatalogVersion catalogVersion;
+    private final IsbnFilter isbnFilter;
+    private final CatalogFacets catalogFacets;
+    private final CatalogSuggestions catalogSuggestions;
+    private final CatalogStatistics catalogStatistics;
+    private final BookAvailability availability;
+    private final TransactionTemplate separateReads;
+
+    @Autowired
+    public BookServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository, CatalogVersion catalogVersion,
+                           IsbnFilter isbnFilter, CatalogFacets catalogFacets, CatalogSuggestions catalogSuggestions,
+                           CatalogStatistics catalogStatistics, BookAvailability availability,
+                           PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.catalogVersion = catalogVersion;
+        this.isbnFilter = isbnFilter;
+        this.catalogFacets = catalogFacets;
+        this.catalogSuggestions = catalogSuggestions;
+        this.catalogStatistics = catalogStatistics;
+        this.availability = availability;
+        this.separateReads = new TransactionTemplate(transactionManager);
+        this.separateReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.separateReads.setReadOnly(true);
+    }
+
+    @Override
+    public Book save(Long authorId, Book book) throws EntityNotFoundException {
+        Author author = getAuthor(authorId);
+        checkIsbns(List.of(book));
+        // only the owning side is updated, the author's books would otherwise be loaded for nothing
+        book.addAuthor(author);
+        bookRepository.save(book);
+        isbnFilter.add(book.getIsbn());
+        flushIsbns(List.of(book));
+        authorRepository.touch(author);
+        catalogFacets.put(List.of(book));
+        catalogSuggestions.putBooks(List.of(book));
+        catalogSuggestions.counted(Map.of(author.getId(), 1));
+        catalogStatistics.put(List.of(book));
+        catalogStatistics.link(author.getId(), List.of(book.getId()));
+        catalogVersion.changed();
+        return book;
+    }
+
+    @Override
+    public List<Book> saveAll(Long authorId, List<Book> books) throws EntityNotFoundException {
+        Author author = getAuthor(authorId);
+        checkIsbns(books);
+        for (Book book : books) {
+            book.addAuthor(author);
+            bookRepository.save(book);
+            isbnFilter.add(book.getIsbn());
+        }
+        // sent as JDBC batches, the version bump of the author following at commit
+        flushIsbns(books);
+        authorRepository.touch(author);
+        catalogFacets.put(books);
+        catalogSuggestions.putBooks(books);
+        catalogSuggestions.counted(Map.of(author.getId(), books.size()));
+        catalogStatistics.put(books);
+        catalogStatistics.link(author.getId(), books.stream().map(Book::getId).toList());
+        catalogVersion.changed();
+        return books;
+    }
+
+    @Override
+    public List<Book> updateAll(List<Book> books) throws BatchException {
+        Map<Long, Book> existing = findAll(books.stream().map(Book::getId).toList());
+        Map<Integer, Exception> failures = new HashMap<>();
+        for (int i = 0; i < books.size(); i++) {
+            Long id = books.get(i).getId();
+            if (!existing.containsKey(id)) {
+                failures.put(i, new EntityNotFoundException("Cannot find book with id: " + id));
+            }
+        }
+        if (failures.isEmpty()) {
+            failures.putAll(duplicateIsbns(books));
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchException(failures);
+        }
+        List<Book> updated = new ArrayList<>(books.size());
+        for (Book book : books) {
+            Book target = existing.get(book.getId());
+            target.setTitle(book.getTitle());
+            target.setIsbn(book.getIsbn());
+            target.setPublisher(book.getPublisher());
+            target.setYear(book.getYear());
+            target.setLanguage(book.getLanguage());
+            isbnFilter.add(book.getIsbn());
+            updated.add(target);
+        }
+        Map<Integer, Exception> duplicates = flushDuplicates(updated);
+        if (!duplicates.isEmpty()) {
+            throw new BatchException(duplicates);
+        }
+        catalogFacets.put(updated);
+        catalogSuggestions.putBooks(updated);
+        catalogStatistics.put(updated);
+        catalogVersion.changed();
+        return updated;
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids) throws BatchException {
+        Map<Long, Book> existing = findAll(ids);
+        Map<Integer, Exception> failures = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (!existing.containsKey(ids.get(i))) {
+                failures.put(i, new EntityNotFoundException("Cannot find book with id: " + ids.get(i)));
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchException(failures);
+        }
+        // held until the end of the transaction, so that no borrow takes them meanwhile
+        List<Long> borrowed = availability.hold(existing.keySet());
+        for (int i = 0; i < ids.size(); i++) {
+            if (borrowed.contains(ids.get(i))) {
+                failures.put(i, new BorrowedBookException(ids.get(i)));
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchException(failures);
+        }
+        Map<Long, Integer> lost = new HashMap<>();
+        existing.values().forEach(book -> book.getAuthors().forEach(author -> lost.merge(author.getId(), -1, Integer::sum)));
+        existing.values().stream()
+                .flatMap(book -> book.getAuthors().stream())
+                .distinct()
+                .forEach(authorRepository::touch);
+        catalogStatistics.remove(existing.values());
+        bookRepository.deleteAllById(existing.keySet());
+        catalogFacets.remove(existing.keySet());
+        catalogSuggestions.removeBooks(existing.keySet());
+        catalogSuggestions.counted(lost);
+        catalogVersion.changed();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book get(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(bookRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book findByIsbn(long isbn) throws EntityNotFoundException {
+        Book book = isbnFilter.mightBeTaken(isbn) ? bookRepository.findByIsbn(isbn) : null;
+        if (book == null) {
+            throw new EntityNotFoundException("Cannot find book with isbn: " + isbn);
+        }
+        return book;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> list() {
+        return bookRepository.getAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book, Long> page(Long after, int limit) {
+        // one more to know whether there is a next page
+        List<Book> books = bookRepository.page(after, limit + 1);
+        if (books.size() <= limit) {
+            return new Page<>(books, null);
+        }
+        List<Book> content = books.subList(0, limit);
+        return new Page<>(List.copyOf(content), content.get(limit - 1).getId());
+    }
+
+    @Override
+    public long version() {
+        return catalogVersion.get();
+    }
+
+    @Override
+    public Book update(Book book) throws EntityNotFoundException {
+        Book existing = get(book.getId());
+        checkIsbns(List.of(book));
+        existing.setTitle(book.getTitle());
+        existing.setIsbn(book.getIsbn());
+        isbnFilter.add(book.getIsbn());
+        existing.setPublisher(book.getPublisher());
+        existing.setYear(book.getYear());
+        existing.setLanguage(book.getLanguage());
+        flushIsbns(List.of(existing));
+        catalogFacets.put(List.of(existing));
+        catalogSuggestions.putBooks(List.of(existing));
+        catalogStatistics.put(List.of(existing));
+        catalogVersion.changed();
+        return existing;
+    }
+
+    @Override
+    public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
+        Book book = get(bookId);
+        Author author = getAuthor(authorId);
+        // the book version follows its own association, the author one has to be bumped
+        if (!book.getAuthors().contains(author)) {
+            catalogSuggestions.counted(Map.of(authorId, 1));
+            catalogStatistics.link(authorId, List.of(bookId));
+        }
+        book.addAuthor(author);
+        authorRepository.touch(author);
+        catalogVersion.changed();
+        return book;
+    }
+
+    @Override
+    public void delete(Long id) throws EntityNotFoundException {
+        Book book = get(id);
+        if (!availability.hold(List.of(id)).isEmpty()) {
+            throw new BorrowedBookException(id);
+        }
+        book.getAuthors().forEach(authorRepository::touch);
+        catalogSuggestions.counted(book.getAuthors().stream().collect(Collectors.toMap(Author::getId, author -> -1)));
+        catalogStatistics.remove(List.of(book));
+        // author links belong to the book, they go with it, borrow links of past borrows have to be removed first
+        bookRepository.detachBorrows(List.of(id));
+        bookRepository.delete(book);
+        catalogFacets.remove(List.of(id));
+        catalogSuggestions.removeBooks(List.of(id));
+        catalogVersion.changed();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByTitle(String title) {
+        return bookRepository.findByTitle(title);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> getByAuthor(Long id) throws EntityNotFoundException {
+        getAuthor(id);
+        return bookRepository.findByAuthor(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException {
+        getAuthor(id);
+        return bookRepository.findByAuthor(id, title);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Book get(Long id, Set<BookField> fields) throws EntityNotFoundException {
+        List<String> columns = columns(fields);
+        if (columns == null) {
+            return get(id);
+        }
+        return Optional.ofNullable(bookRepository.findById(id, columns))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> list(Set<BookField> fields) {
+        List<String> columns = columns(fields);
+        return columns == null ? list() : bookRepository.getAll(columns);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book, Long> page(Long after, int limit, Set<BookField> fields) {
+        List<String> columns = columns(fields);
+        if (columns == null) {
+            return page(after, limit);
+        }
+        List<Book> books = bookRepository.page(after, limit + 1, columns);
+        if (books.size() <= limit) {
+            return new Page<>(books, null);
+        }
+        List<Book> content = books.subList(0, limit);
+        return new Page<>(List.copyOf(content), content.get(limit - 1).getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByTitle(String title, Set<BookField> fields) {
+        List<String> columns = columns(fields);
+        return columns == null ? findByTitle(title) : bookRepository.findByTitle(title, columns);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> getByAuthor(Long id, Set<BookField> fields) throws EntityNotFoundException {
+        List<String> columns = columns(fields);
+        if (columns == null) {
+            return getByAuthor(id);
+        }
+        getAuthor(id);
+        return bookRepository.findByAuthor(id, columns);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Book> findByAuthor(Long id, String title, Set<BookField> fields) throws EntityNotFoundException {
+        List<String> columns = columns(fields);
+        if (columns == null) {
+            return findByAuthor(id, title);
+        }
+        getAuthor(id);
+        return bookRepository.findByAuthor(id, title, columns);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Book, Long> filter(BookFilter filter, Long after, int limit, Set<BookField> fields) {
+        // one more to know whether there is a next page
+        long[] ids = catalogFacets.select(filter, after, limit + 1);
+        List<Long> content = LongStream.of(ids).limit(limit).boxed().toList();
+        List<String> columns = columns(fields);
+        List<Book> books = columns == null
+                ? bookRepository.findAllById(content)
+                : bookRepository.findAllById(content, Stream.concat(columns.stream(), CatalogFacets.ATTRIBUTES.stream())
+                .distinct()
+                .toList());
+        // the index may lag behind a book changed by concurrent transactions, its current values decide
+        return new Page<>(books.stream().filter(filter::test).toList(), ids.length > limit ? ids[limit - 1] : null);
+    }
+
+    @Override
+    public BookFacets facets(BookFilter filter, int publishers) {
+        return catalogFacets.facets(filter, publishers);
+    }
+
+    /**
+     * Reads the index only, no transaction is needed.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return catalogSuggestions.books(prefix, limit);
+    }
+
+    /**
+     * Reads the counters only, no transaction is needed.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CatalogStats stats() {
+        return catalogStatistics.stats();
+    }
+
+    /**
+     * @return the columns to read for some fields, null when the authors are needed: the books are then read
+     * whole along with them, the join costing more than the other columns
+     */
+    private static List<String> columns(Set<BookField> fields) {
+        if (fields.contains(BookField.AUTHORS)) {
+            return null;
+        }
+        return fields.stream()
+                .filter(field -> field != BookField.ID)
+                .map(BookField::attribute)
+                .toList();
+    }
+
+    /**
+     * @throws DuplicateIsbnException when one of the books has the isbn of another book
+     */
+    private void checkIsbns(List<Book> books) {
+        Map<Integer, Exception> duplicates = duplicateIsbns(books);
+        if (!duplicates.isEmpty()) {
+            throw (DuplicateIsbnException) duplicates.values().iterator().next();
+        }
+    }
+
+    /**
+     * Looks for books having the isbn of another one, among them or already saved. Only the isbns the filter may
+     * have seen are queried, with a single query. A book keeping its own isbn is not a duplicate.
+     *
+     * @return a {@link DuplicateIsbnException} by position of each duplicate
+     */
+    private Map<Integer, Exception> duplicateIsbns(List<Book> books) {
+        Map<Integer, Exception> duplicates = new HashMap<>();
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < books.size(); i++) {
+            long isbn = books.get(i).getIsbn();
+            if (isbn != 0 && positions.putIfAbsent(isbn, i) != null) {
+                duplicates.put(i, new DuplicateIsbnException(isbn));
+            }
+        }
+        List<Long> candidates = positions.keySet().stream().filter(isbnFilter::mightBeTaken).toList();
+        bookRepository.idsByIsbn(candidates).forEach((isbn, owner) -> {
+            int i = positions.get(isbn);
+            if (!owner.equals(books.get(i).getId())) {
+                duplicates.put(i, new DuplicateIsbnException(isbn));
+            }
+        });
+        return duplicates;
+    }
+
+    /**
+     * @throws DuplicateIsbnException when the database rejects the isbn of one of the books
+     */
+    private void flushIsbns(List<Book> books) {
+        Map<Integer, Exception> duplicates = flushDuplicates(books);
+        if (!duplicates.isEmpty()) {
+            throw (DuplicateIsbnException) duplicates.values().iterator().next();
+        }
+    }
+
+    /**
+     * Sends the books to the database. A concurrent transaction may have taken one of their isbns since they were
+     * checked, the unique index then rejects them: the books taking the isbns are looked for in a separate
+     * transaction, this one being bound to roll back.
+     *
+     * @param books managed books, in the order of the request
+     * @return a {@link DuplicateIsbnException} by position of each isbn taken by another book
+     */
+    private Map<Integer, Exception> flushDuplicates(List<Book> books) {
+        try {
+            bookRepository.flush();
+            return Map.of();
+        } catch (PersistenceException e) {
+            if (!isIsbnViolation(e)) {
+                throw e;
+            }
+            List<Long> isbns = books.stream().map(Book::getIsbn).filter(isbn -> isbn != 0).toList();
+            Map<Long, Long> owners = separateReads.execute(status -> bookRepository.idsByIsbn(isbns));
+            Map<Integer, Exception> duplicates = new HashMap<>();
+            for (int i = 0; i < books.size(); i++) {
+                Book book = books.get(i);
+                Long owner = owners == null ? null : owners.get(book.getIsbn());
+                if (owner != null && !owner.equals(book.getId())) {
+                    duplicates.put(i, new DuplicateIsbnException(book.getIsbn()));
+                }
+            }
+            if (duplicates.isEmpty()) {
+                throw e;
+            }
+            return duplicates;
+        }
+    }
+
+    private static boolean isIsbnViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Book.ISBN_INDEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<Long, Book> findAll(Collection<Long> ids) {
+        Set<Long> distinct = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        return bookRepository.findAllById(distinct)
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+    }
+
+    private Author getAuthor(Long authorId) throws EntityNotFoundException {
+        return Optional.ofNullable(authorRepository.findById(authorId))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find author with id: " + authorId));
+    }
+}
@@ -0,0 +1,132 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.data.repo.BorrowRepository;
+import fr.uga.l3miage.data.repo.BorrowerRepository;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.UnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class BorrowServiceImpl implements BorrowService {
+
+    static final Duration LOAN_PERIOD = Duration.ofDays(21);
+
+    private final BorrowerRepository borrowerRepository;
+    private final BorrowRepository borrowRepository;
+    private final BookRepository bookRepository;
+    private final BookAvailability availability;
+    private final OverdueLoans overdueLoans;
+
+    @Autowired
+    public BorrowServiceImpl(BorrowerRepository borrowerRepository, BorrowRepository borrowRepository,
+                             BookRepository bookRepository, BookAvailability availability,
+                             OverdueLoans overdueLoans) {
+        this.borrowerRepository = borrowerRepository;
+        this.borrowRepository = borrowRepository;
+        this.bookRepository = bookRepository;
+        this.availability = availability;
+        this.overdueLoans = overdueLoans;
+    }
+
+    @Override
+    public Borrower saveBorrower(Borrower borrower) {
+        if (borrower.getRegistered() == null) {
+            borrower.setRegistered(new Date());
+        }
+        borrowerRepository.save(borrower);
+        return borrower;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Borrower getBorrower(Long id) throws EntityNotFoundException {
+        return Optional.ofNullable(borrowerRepository.findById(id))
+                .map(overdueLoans::current)
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrower with id: " + id));
+    }
+
+    @Override
+    @Transactional(rollbackFor = UnavailableException.class)
+    public Borrow checkout(Long borrowerId, Collection<Long> bookIds) throws EntityNotFoundException, UnavailableException {
+        if (bookIds.isEmpty()) {
+            throw new IllegalArgumentException("a borrow needs at least one book");
+        }
+        Borrower borrower = getBorrower(borrowerId);
+        Set<Long> wanted = new HashSet<>(bookIds);
+        List<Book> books = bookRepository.findAllById(wanted);
+        if (books.size() < wanted.size()) {
+            books.forEach(book -> wanted.remove(book.getId()));
+            throw new EntityNotFoundException("Cannot find book with id: " + wanted.iterator().next());
+        }
+
+        // taken before any write, and released if the transaction does not commit
+        List<Long> unavailable = availability.acquire(List.copyOf(bookIds));
+        if (!unavailable.isEmpty()) {
+            throw new UnavailableException("books already borrowed: " + unavailable, unavailable);
+        }
+
+        Date start = new Date();
+        Borrow borrow = new Borrow();
+        borrow.setBorrower(borrower);
+        borrow.setBooks(new HashSet<>(books));
+        borrow.setStart(start);
+        borrow.setEnd(new Date(start.getTime() + LOAN_PERIOD.toMillis()));
+        borrowRepository.save(borrow);
+        overdueLoans.checkedOut(borrower, borrow.getId(), borrow.getEnd());
+        return borrow;
+    }
+
+    @Override
+    public Borrow giveBack(Long borrowId) throws EntityNotFoundException {
+        Borrow borrow = Optional.ofNullable(borrowRepository.findById(borrowId))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + borrowId));
+        Date returned = new Date();
+        if (borrowRepository.markReturned(borrowId, returned)) {
+            borrow.setReturned(returned);
+            availability.release(borrow.getBooks().stream().map(Book::getId).toList());
+            overdueLoans.returned(overdueLoans.current(borrow.getBorrower()), borrowId, returned);
+        }
+        return borrow;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Borrow> active(Long borrowerId) throws EntityNotFoundException {
+        getBorrower(borrowerId);
+        return borrowRepository.findActiveByBorrower(borrowerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Borrower> worstBorrowers(int limit) {
+        List<Long> ids = overdueLoans.worst(limit);
+        Map<Long, Borrower> borrowers = borrowerRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Borrower::getId, Function.identity()));
+        return ids.stream()
+                .map(borrowers::get)
+                .filter(Objects::nonNull)
+                .map(overdueLoans::current)
+                .toList();
+    }
+}
@@ -0,0 +1,100 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.base.FacetIndex;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link FacetIndex} of the books, loaded at startup from the year, language and publisher columns, then kept up
+ * to date as books are written.
+ * <p>
+ * Changes are applied once the transaction making them has committed, as {@link CatalogVersion} does, so that a
+ * rolled back change is never seen. Two transactions changing the same book and committing together may apply
+ * their changes in the other order: the books read through the index are thus checked against the filter.
+ */
+@Component
+public class CatalogFacets implements SmartInitializingSingleton {
+
+    static final List<String> ATTRIBUTES = List.of("year", "language", "publisher");
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final FacetIndex index = new FacetIndex();
+
+    public CatalogFacets(BookRepository bookRepository, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<Book> books = transactionTemplate.execute(status -> bookRepository.getAll(ATTRIBUTES));
+        if (books != null) {
+            books.forEach(index::put);
+        }
+    }
+
+    /**
+     * @see FacetIndex#select(BookFilter, Long, int)
+     */
+    public long[] select(BookFilter filter, Long after, int max) {
+        return index.select(filter, after, max);
+    }
+
+    /**
+     * @see FacetIndex#facets(BookFilter, int)
+     */
+    public BookFacets facets(BookFilter filter, int publishers) {
+        return index.facets(filter, publishers);
+    }
+
+    /**
+     * Indexes books saved or updated by the current transaction, with their values as of now.
+     */
+    public void put(Collection<Book> books) {
+        List<Indexed> values = books.stream()
+                .map(book -> new Indexed(book.getId(), book.getYear(), book.getLanguage(), book.getPublisher()))
+                .toList();
+        afterCommit(() -> values.forEach(book -> index.put(book.id(), book.year(), book.language(), book.publisher())));
+    }
+
+    /**
+     * Removes books deleted by the current transaction.
+     */
+    public void remove(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> removed.forEach(index::remove));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private record Indexed(long id, short year, Book.Language language, String publisher) {
+    }
+}
@@ -0,0 +1,126 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.CatalogStats;
+import fr.uga.l3miage.library.service.base.CatalogCounters;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link CatalogCounters} of the books, loaded at startup from the year and language columns and the links of the
+ * authors, then kept up to date as books and authors are written.
+ * <p>
+ * Changes are applied once the transaction making them has committed, as {@link CatalogFacets} does. Two
+ * transactions changing the same book and committing together may apply their values in the other order, the
+ * counts then keep the values of the first one; a change applied after the deletion of its book is ignored, each
+ * transaction holding a ticket of the counters until it completes.
+ */
+@Component
+public class CatalogStatistics implements SmartInitializingSingleton {
+
+    static final List<String> ATTRIBUTES = List.of("year", "language");
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogCounters counters = new CatalogCounters();
+
+    public CatalogStatistics(AuthorRepository authorRepository, BookRepository bookRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.getAll(ATTRIBUTES).forEach(counters::put);
+            authorRepository.bookIdsByAuthor().forEach(counters::link);
+        });
+    }
+
+    /**
+     * @see CatalogCounters#stats()
+     */
+    public CatalogStats stats() {
+        return counters.stats();
+    }
+
+    /**
+     * Counts books saved or updated by the current transaction, with their values as of now.
+     */
+    public void put(Collection<Book> books) {
+        List<Counted> values = books.stream()
+                .map(book -> new Counted(book.getId(), book.getYear(), book.getLanguage()))
+                .toList();
+        afterCommit(() -> values.forEach(book -> counters.put(book.id(), book.year(), book.language())));
+    }
+
+    /**
+     * Counts books for an author added to their authors by the current transaction.
+     */
+    public void link(long authorId, Collection<Long> bookIds) {
+        List<Long> linked = List.copyOf(bookIds);
+        afterCommit(() -> counters.link(authorId, linked));
+    }
+
+    /**
+     * Uncounts books deleted by the current transaction, along with their authors.
+     */
+    public void remove(Collection<Book> books) {
+        List<Removed> removed = books.stream()
+                .map(book -> new Removed(book.getId(), book.getAuthors().stream().map(Author::getId).toList()))
+                .toList();
+        afterCommit(() -> removed.forEach(book -> counters.remove(book.id(), book.authorIds())));
+    }
+
+    /**
+     * Uncounts authors deleted by the current transaction, along with their books.
+     */
+    public void removeAuthors(Collection<Long> ids, Collection<Long> bookIds) {
+        List<Long> removed = List.copyOf(ids);
+        List<Long> removedBooks = List.copyOf(bookIds);
+        afterCommit(() -> counters.removeAuthors(removed, removedBooks));
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            long ticket = counters.begin();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    counters.end(ticket);
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private record Counted(long id, short year, Book.Language language) {
+    }
+
+    private record Removed(long id, List<Long> authorIds) {
+    }
+}
@@ -0,0 +1,141 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.SuggestIndex;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SuggestIndex} of the author names, ranked by their number of books, and of the book titles, loaded at
+ * startup then kept up to date as authors and books are written.
+ * <p>
+ * Changes are applied once the transaction making them has committed, as {@link CatalogFacets} does. Numbers of
+ * books are kept here and changed by the number of books gained or lost, so that a link does not need the name
+ * of the author.
+ */
+@Component
+public class CatalogSuggestions implements SmartInitializingSingleton {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SuggestIndex authors = new SuggestIndex();
+    private final SuggestIndex books = new SuggestIndex();
+    private final Map<Long, Integer> bookCounts = new ConcurrentHashMap<>();
+
+    public CatalogSuggestions(AuthorRepository authorRepository, BookRepository bookRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bookCounts.putAll(authorRepository.bookCounts());
+            authorRepository.getAll().forEach(author -> authors.put(author.getId(), author.getFullName(),
+                    bookCounts.getOrDefault(author.getId(), 0)));
+            bookRepository.getAll(List.of("title")).forEach(book -> books.put(book.getId(), book.getTitle(), 0));
+        });
+    }
+
+    /**
+     * @see SuggestIndex#suggest(String, int)
+     */
+    public List<Suggestion> authors(String prefix, int limit) {
+        return authors.suggest(prefix, limit);
+    }
+
+    /**
+     * @see SuggestIndex#suggest(String, int)
+     */
+    public List<Suggestion> books(String prefix, int limit) {
+        return books.suggest(prefix, limit);
+    }
+
+    /**
+     * Indexes authors saved or renamed by the current transaction.
+     */
+    public void putAuthors(Collection<Author> saved) {
+        List<Named> names = saved.stream().map(author -> new Named(author.getId(), author.getFullName())).toList();
+        afterCommit(() -> names.forEach(author -> authors.put(author.id(), author.text(),
+                bookCounts.getOrDefault(author.id(), 0))));
+    }
+
+    /**
+     * Indexes books saved or updated by the current transaction.
+     */
+    public void putBooks(Collection<Book> saved) {
+        List<Named> titles = saved.stream().map(book -> new Named(book.getId(), book.getTitle())).toList();
+        afterCommit(() -> titles.forEach(book -> books.put(book.id(), book.text(), 0)));
+    }
+
+    /**
+     * Counts the books gained, or lost when negative, by authors in the current transaction.
+     */
+    public void counted(Map<Long, Integer> changes) {
+        Map<Long, Integer> copy = Map.copyOf(changes);
+        afterCommit(() -> copy.forEach((id, change) -> {
+            Integer count = bookCounts.merge(id, change, (a, b) -> a + b <= 0 ? null : a + b);
+            authors.reweigh(id, count == null ? 0 : count);
+        }));
+    }
+
+    /**
+     * Removes books deleted by the current transaction.
+     */
+    public void removeBooks(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> removed.forEach(books::remove));
+    }
+
+    /**
+     * Removes authors deleted by the current transaction, along with their books.
+     */
+    public void removeAuthors(Collection<Long> ids, Collection<Long> bookIds) {
+        List<Long> removed = List.copyOf(ids);
+        List<Long> removedBooks = List.copyOf(bookIds);
+        afterCommit(() -> {
+            removed.forEach(id -> {
+                authors.remove(id);
+                bookCounts.remove(id);
+            });
+            removedBooks.forEach(books::remove);
+        });
+    }
+
+    public int size() {
+        return authors.size() + books.size();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private record Named(long id, String text) {
+    }
+}
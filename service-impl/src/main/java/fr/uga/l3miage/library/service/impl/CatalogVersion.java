@@ -0,0 +1,40 @@
+package fr.uga.l3miage.library.service.impl;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the whole catalog, shared by the services and kept in memory.
+ * <p>
+ * It is bumped once the transaction making a change has committed: a reader seeing the previous version may
+ * already read the new data, which costs it one more download later, but a reader seeing the new version
+ * cannot read the previous data.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long get() {
+        return version.get();
+    }
+
+    /**
+     * Bumps the version after the commit of the current transaction, or right away without transaction.
+     */
+    public void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.base.BloomFilter;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Bloom filter of the ISBNs of the books, loaded at startup, in front of the queries checking that ISBNs are not
+ * taken: the ISBNs of a bulk import are mostly new, most of them are thus checked without a query. ISBNs are added
+ * as books are written, those of deleted or rolled back books stay and only cost a query.
+ */
+@Component
+public class IsbnFilter implements SmartInitializingSingleton {
+
+    private static final long MIN_EXPECTED = 1 << 20;
+    private static final double FALSE_POSITIVES = 0.01;
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private volatile BloomFilter filter = new BloomFilter(MIN_EXPECTED, FALSE_POSITIVES);
+
+    public IsbnFilter(BookRepository bookRepository, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<Long> isbns = transactionTemplate.execute(status -> bookRepository.isbns());
+        if (isbns != null) {
+            // room for the catalog to double before false positives get more frequent
+            BloomFilter loaded = new BloomFilter(Math.max(MIN_EXPECTED, 2L * isbns.size()), FALSE_POSITIVES);
+            isbns.forEach(loaded::add);
+            filter = loaded;
+        }
+    }
+
+    /**
+     * @return false if no book has the isbn, true if one may have it
+     */
+    public boolean mightBeTaken(long isbn) {
+        return isbn != 0 && filter.mightContain(isbn);
+    }
+
+    public void add(long isbn) {
+        if (isbn != 0) {
+            filter.add(isbn);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.data.repo.BorrowRepository;
+import fr.uga.l3miage.data.repo.BorrowerRepository;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the entities and repositories of the data module, which does not depend on Spring.
+ */
+@Configuration
+@EntityScan(basePackageClasses = Author.class)
+public class JpaConfig {
+
+    /**
+     * Matches the allocation size of the id sequences.
+     */
+    public static final int BATCH_SIZE = 50;
+
+    /**
+     * Inserts of a transaction are grouped by table and sent as JDBC batches, unless configured otherwise
+     * through {@code spring.jpa.properties}.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer batchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", BATCH_SIZE);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+        };
+    }
+
+    @Bean
+    public AuthorRepository authorRepository() {
+        return new AuthorRepository();
+    }
+
+    @Bean
+    public BookRepository bookRepository() {
+        return new BookRepository();
+    }
+
+    @Bean
+    public BorrowerRepository borrowerRepository() {
+        return new BorrowerRepository();
+    }
+
+    @Bean
+    public BorrowRepository borrowRepository() {
+        return new BorrowRepository();
+    }
+}
@@ -0,0 +1,39 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.repo.AuthorRepository;
+import fr.uga.l3miage.data.repo.BookRepository;
+import fr.uga.l3miage.library.service.base.Footprint;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Row counts of the database. The heap used by the data is the business of the database, and is not estimated.
+ */
+@Component
+@Transactional(readOnly = true)
+public class JpaFootprint implements Footprint {
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+
+    public JpaFootprint(AuthorRepository authorRepository, BookRepository bookRepository) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+    }
+
+    @Override
+    public Map<String, Long> sizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        sizes.put("authors", authorRepository.count());
+        sizes.put("books", bookRepository.count());
+        return sizes;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        return -1;
+    }
+}
@@ -0,0 +1,89 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.data.repo.BorrowRepository;
+import fr.uga.l3miage.library.service.base.OverdueTracker;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Late ratios of the borrowers, computed in memory from the borrows at startup then maintained by an
+ * {@link OverdueTracker}, borrows and returns being counted once committed. The ratio stored with a borrower is
+ * the one known at its last borrow or return, the tracker is the reference and is applied to borrowers when read.
+ */
+@Component
+public class OverdueLoans implements SmartInitializingSingleton {
+
+    private final OverdueTracker tracker = new OverdueTracker(Duration.ofMinutes(1), Instant.now());
+    private final BorrowRepository borrowRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public OverdueLoans(BorrowRepository borrowRepository, PlatformTransactionManager transactionManager) {
+        this.borrowRepository = borrowRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            borrowRepository.returnedTallies()
+                    .forEach(tally -> tracker.restore(tally.borrowerId(), tally.borrows(), tally.late()));
+            borrowRepository.activeDueDates()
+                    .forEach(due -> tracker.checkedOut(due.borrowerId(), due.borrowId(), due.end().toInstant()));
+        });
+    }
+
+    /**
+     * Counts a new borrow after the commit of the current transaction, or right away without transaction.
+     */
+    public void checkedOut(Borrower borrower, Long borrowId, Date due) {
+        afterCommit(() -> tracker.checkedOut(borrower.getId(), borrowId, due.toInstant()));
+    }
+
+    /**
+     * Counts a borrow given back after the commit of the current transaction, or right away without transaction.
+     */
+    public void returned(Borrower borrower, Long borrowId, Date returned) {
+        afterCommit(() -> tracker.returned(borrower.getId(), borrowId, returned.toInstant()));
+    }
+
+    /**
+     * Sets the current late ratio of a borrower, expiring the borrows due by now first.
+     */
+    public Borrower current(Borrower borrower) {
+        tracker.advance(Instant.now());
+        borrower.setLateRatio(tracker.lateRatio(borrower.getId()));
+        return borrower;
+    }
+
+    /**
+     * @return ids of the borrowers having the highest late ratios, worst first
+     */
+    public List<Long> worst(int limit) {
+        tracker.advance(Instant.now());
+        return tracker.worst(limit);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AuthorServiceImplTest {
+
+    @Autowired
+    AuthorService authorService;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void deleteCascadesWithBulkStatements() throws EntityNotFoundException, DeleteAuthorException {
+        Author author = author("Prolific");
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            bookIds.add(bookService.save(author.getId(), book).getId());
+        }
+        statistics.clear();
+
+        authorService.delete(author.getId());
+
+        // does not grow with the number of books
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(7);
+        assertThatThrownBy(() -> authorService.get(author.getId())).isInstanceOf(EntityNotFoundException.class);
+        for (Long id : bookIds) {
+            assertThatThrownBy(() -> bookService.get(id)).isInstanceOf(EntityNotFoundException.class);
+        }
+    }
+
+    @Test
+    void deleteRefusesCoAuthoredBooks() throws EntityNotFoundException {
+        Author author = author("Author");
+        Author coAuthor = author("Co-author");
+        Book book = new Book();
+        book.setTitle("Together");
+        book = bookService.save(author.getId(), book);
+        bookService.addAuthor(book.getId(), coAuthor.getId());
+
+        assertThatThrownBy(() -> authorService.delete(author.getId())).isInstanceOf(DeleteAuthorException.class);
+        assertThat(bookService.get(book.getId()).getAuthors()).hasSize(2);
+    }
+
+    @Test
+    void deleteAllIsAllOrNothing() throws EntityNotFoundException, BatchException {
+        Author alone = author("Alone");
+        Author author = author("Author");
+        Author coAuthor = author("Co-author");
+        Book book = new Book();
+        book.setTitle("Together");
+        book = bookService.save(author.getId(), book);
+        bookService.addAuthor(book.getId(), coAuthor.getId());
+
+        assertThatThrownBy(() -> authorService.deleteAll(List.of(alone.getId(), author.getId(), Long.MAX_VALUE)))
+                .isInstanceOfSatisfying(BatchException.class, e -> {
+                    assertThat(e.getFailures()).containsOnlyKeys(1, 2);
+                    assertThat(e.getFailures().get(1)).isInstanceOf(DeleteAuthorException.class);
+                    assertThat(e.getFailures().get(2)).isInstanceOf(EntityNotFoundException.class);
+                });
+        assertThat(authorService.get(alone.getId())).isNotNull();
+
+        Author other = author("Other");
+        statistics.clear();
+        authorService.deleteAll(List.of(alone.getId(), other.getId()));
+        // does not grow with the number of authors
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(7);
+        assertThatThrownBy(() -> authorService.get(other.getId())).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private Author author(String name) {
+        Author author = new Author();
+        author.setFullName(name);
+        return authorService.save(author);
+    }
+}
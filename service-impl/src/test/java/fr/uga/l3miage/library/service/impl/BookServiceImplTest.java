@@ -0,0 +1,221 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookServiceImplTest {
+
+    @Autowired
+    AuthorService authorService;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Statistics statistics;
+    Author hugo;
+
+    @BeforeEach
+    void setUp() throws EntityNotFoundException {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        hugo = author("Victor Hugo");
+        Author zola = author("Émile Zola");
+        for (int i = 0; i < 20; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setLanguage(Book.Language.FRENCH);
+            book = bookService.save(hugo.getId(), book);
+            if (i % 2 == 0) {
+                bookService.addAuthor(book.getId(), zola.getId());
+            }
+        }
+        statistics.clear();
+    }
+
+    @Test
+    void listIsASingleQuery() {
+        Collection<Book> books = bookService.list();
+
+        assertThat(books.stream().mapToInt(book -> book.getAuthors().size()).sum()).isGreaterThanOrEqualTo(30);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getByAuthorDoesNotLoadAuthorsOneByOne() throws EntityNotFoundException {
+        Collection<Book> books = bookService.getByAuthor(hugo.getId());
+
+        assertThat(books).hasSize(20);
+        assertThat(books.stream().flatMap(book -> book.getAuthors().stream()).map(Author::getFullName))
+                .hasSize(30);
+        // the author lookup, then the books with their authors
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getFetchesAuthors() throws EntityNotFoundException {
+        Long id = bookService.getByAuthor(hugo.getId()).iterator().next().getId();
+        statistics.clear();
+
+        Book book = bookService.get(id);
+
+        assertThat(book.getAuthors()).isNotEmpty().allMatch(author -> author.getFullName() != null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pageIsTwoQueries() {
+        var page = bookService.page(null, 10);
+
+        assertThat(page.content()).hasSize(10);
+        assertThat(page.hasNext()).isTrue();
+        page.content().forEach(book -> assertThat(book.getAuthors()).isNotEmpty());
+        // the ids, then the books with their authors
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void projectionsReadColumnsOnly() throws EntityNotFoundException {
+        Collection<Book> books = bookService.getByAuthor(hugo.getId(), EnumSet.of(BookField.ID, BookField.TITLE));
+
+        assertThat(books).hasSize(20).allMatch(book -> book.getTitle().startsWith("Book ")
+                && book.getAuthors() == null && book.getLanguage() == null);
+        // the author lookup, then the columns, without the join
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        Long id = books.iterator().next().getId();
+        statistics.clear();
+        var page = bookService.page(id - 1, 5, EnumSet.of(BookField.LANGUAGE));
+        assertThat(page.content()).hasSize(5).allMatch(book -> book.getLanguage() == Book.Language.FRENCH
+                && book.getTitle() == null);
+        assertThat(page.content().get(0).getId()).isEqualTo(id);
+        // the limit goes to the database, no separate query for the ids
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        // the authors need the whole books
+        assertThat(bookService.get(id, EnumSet.of(BookField.AUTHORS)).getAuthors()).isNotEmpty();
+    }
+
+    @Test
+    void addAuthorBumpsVersions() throws EntityNotFoundException {
+        Book book = bookService.getByAuthor(hugo.getId()).iterator().next();
+        Author author = author("Alexandre Dumas");
+        long catalog = bookService.version();
+
+        bookService.addAuthor(book.getId(), author.getId());
+
+        assertThat(bookService.get(book.getId()).getVersion()).isGreaterThan(book.getVersion());
+        assertThat(authorService.get(author.getId()).getVersion()).isGreaterThan(author.getVersion());
+        assertThat(bookService.version()).isGreaterThan(catalog);
+    }
+
+    @Test
+    void filtersReadTheSelectedBooksOnly() throws EntityNotFoundException {
+        Author author = author("Filtered");
+        // a publisher of its own, books of the other tests stay in the database
+        String publisher = "Filtered " + author.getId();
+        for (int i = 0; i < 10; i++) {
+            Book book = new Book();
+            book.setTitle("Filtered " + i);
+            book.setPublisher(publisher);
+            book.setYear((short) (2000 + i));
+            book.setLanguage(Book.Language.ENGLISH);
+            bookService.save(author.getId(), book);
+        }
+        BookFilter filter = new BookFilter((short) 2003, null, Set.of(Book.Language.ENGLISH), Set.of(publisher));
+        statistics.clear();
+
+        var page = bookService.filter(filter, null, 5, EnumSet.of(BookField.TITLE));
+
+        assertThat(page.content()).hasSize(5).allMatch(book -> book.getYear() >= 2003);
+        assertThat(page.hasNext()).isTrue();
+        // the ids come from the index, the page is a single projection
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        Book last = bookService.getByAuthor(author.getId()).stream().max(Comparator.comparing(Book::getId)).orElseThrow();
+        bookService.delete(last.getId());
+        assertThat(bookService.filter(filter, page.next(), 5, EnumSet.of(BookField.TITLE)).content()).hasSize(1);
+        // the years are counted whatever the years selected
+        assertThat(bookService.facets(filter, 5).years()).hasSize(9);
+        assertThat(bookService.facets(filter, 5).publishers().get(publisher)).isEqualTo(6L);
+    }
+
+    @Test
+    void suggestionsFollowCommits() throws EntityNotFoundException, DeleteAuthorException {
+        Author author = author("Marguerite Yourcenar " + hugo.getId());
+        Book book = new Book();
+        book.setTitle("Mémoires d'Hadrien " + hugo.getId());
+        book = bookService.save(author.getId(), book);
+        statistics.clear();
+
+        assertThat(bookService.suggest("memoires d'hadrien " + hugo.getId(), 5))
+                .containsExactly(new Suggestion(book.getId(), book.getTitle()));
+        assertThat(authorService.suggest("yourcenar " + hugo.getId(), 5))
+                .containsExactly(new Suggestion(author.getId(), author.getFullName()));
+        // read from the index only
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+
+        authorService.delete(author.getId());
+        assertThat(bookService.suggest("memoires d'hadrien " + hugo.getId(), 5)).isEmpty();
+        assertThat(authorService.suggest("yourcenar " + hugo.getId(), 5)).isEmpty();
+    }
+
+    @Test
+    void databaseKeepsIsbnsUnique() {
+        // books without isbn do not collide
+        assertThat(jdbcTemplate.queryForObject("select count(*) from book where isbn is null", Long.class))
+                .isGreaterThanOrEqualTo(20L);
+
+        long isbn = 9_780_000_000_000L + hugo.getId();
+        long id = Long.MAX_VALUE - hugo.getId();
+        // committed behind the service, as a concurrent transaction would after the check
+        jdbcTemplate.update("insert into book (id, version, isbn, publication_year) values (?, 0, ?, 0)", id, isbn);
+        Book book = new Book();
+        book.setTitle("Les Misérables");
+        book.setIsbn(isbn);
+
+        try {
+            assertThatThrownBy(() -> bookService.save(hugo.getId(), book))
+                    .isInstanceOfSatisfying(DuplicateIsbnException.class, e -> assertThat(e.getIsbn()).isEqualTo(isbn));
+        } finally {
+            // without authors, it would break the tests reading every book
+            jdbcTemplate.update("delete from book where id = ?", id);
+        }
+    }
+
+    private Author author(String name) {
+        Author author = new Author();
+        author.setFullName(name);
+        return authorService.save(author);
+    }
+}
@@ -0,0 +1,101 @@
+package fr.uga.l3miage.library.service.impl;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.BorrowedBookException;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.UnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class BorrowServiceImplTest {
+
+    @Autowired
+    AuthorService authorService;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BorrowService borrowService;
+
+    @Test
+    void checkoutAndGiveBack() throws Exception {
+        Author author = new Author();
+        author.setFullName("Victor Hugo");
+        author = authorService.save(author);
+        Book first = book(author, "Les Misérables");
+        Book second = book(author, "Notre-Dame de Paris");
+
+        Borrower borrower = borrower();
+        Borrow borrow = borrowService.checkout(borrower.getId(), List.of(first.getId(), second.getId()));
+        assertThat(borrowService.active(borrower.getId())).extracting(Borrow::getId).containsExactly(borrow.getId());
+
+        Long other = borrower().getId();
+        assertThatThrownBy(() -> borrowService.checkout(other, List.of(second.getId())))
+                .isInstanceOfSatisfying(UnavailableException.class,
+                        e -> assertThat(e.getBookIds()).containsExactly(second.getId()));
+
+        assertThat(borrowService.giveBack(borrow.getId()).getReturned()).isNotNull();
+        assertThat(borrowService.active(borrower.getId())).isEmpty();
+        assertThat(borrowService.checkout(other, List.of(second.getId())).getBooks()).hasSize(1);
+    }
+
+    @Test
+    void borrowedBooksAreNotDeleted() throws Exception {
+        Author author = new Author();
+        author.setFullName("Alexandre Dumas");
+        author = authorService.save(author);
+        Book first = book(author, "Les Trois Mousquetaires");
+        Book second = book(author, "Vingt ans après");
+        Borrow borrow = borrowService.checkout(borrower().getId(), List.of(first.getId(), second.getId()));
+
+        assertThatThrownBy(() -> bookService.delete(first.getId()))
+                .isInstanceOfSatisfying(BorrowedBookException.class, e -> assertThat(e.getBookId()).isEqualTo(first.getId()));
+        assertThatThrownBy(() -> bookService.deleteAll(List.of(second.getId())))
+                .isInstanceOfSatisfying(BatchException.class,
+                        e -> assertThat(e.getFailures().get(0)).isInstanceOf(BorrowedBookException.class));
+        Long authorId = author.getId();
+        assertThatThrownBy(() -> authorService.delete(authorId)).isInstanceOf(DeleteAuthorException.class);
+
+        // given back, the borrow keeps no link to deleted books
+        borrowService.giveBack(borrow.getId());
+        bookService.delete(first.getId());
+        authorService.delete(authorId);
+        assertThatThrownBy(() -> bookService.get(second.getId())).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void checkoutUnknownBook() {
+        Long borrower = borrower().getId();
+        assertThatThrownBy(() -> borrowService.checkout(borrower, List.of(Long.MAX_VALUE)))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private Borrower borrower() {
+        Borrower borrower = new Borrower();
+        borrower.setFirstName("Jean");
+        borrower.setLastName("Valjean");
+        return borrowService.saveBorrower(borrower);
+    }
+
+    private Book book(Author author, String title) throws EntityNotFoundException {
+        Book book = new Book();
+        book.setTitle(title);
+        return bookService.save(author.getId(), book);
+    }
+}
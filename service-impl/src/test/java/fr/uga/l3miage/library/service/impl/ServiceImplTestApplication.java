@@ -0,0 +1,10 @@
+package fr.uga.l3miage.library.service.impl;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Boots the JPA services alone, without the web application.
+ */
+@SpringBootApplication
+class ServiceImplTestApplication {
+}
@@ -3,31 +3,51 @@ package fr.uga.l3miage.library.service.mock;
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
 import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.Page;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.stream.Stream;
 
 @Component
 public class AuthorServiceMockImpl implements AuthorService {
 
     @Override
     public Collection<Author> searchByName(String name) {
-        return MockData.authors.values()
+        return MockData.authorNames.search(name)
                 .stream()
-                .filter(author -> author.getFullName().toLowerCase().contains(name.toLowerCase()))
+                .map(MockData.authors::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
 
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return MockData.authorSuggestions.suggest(prefix, limit);
+    }
+
     @Override
     public Author save(Author author) {
+        MockData.writable();
         author.setId(MockData.getNextId(Author.class));
-        doUpdate(author);
+        long logged;
+        try (var ignored = MockData.authorLocks.lock(author.getId())) {
+            doUpdate(author);
+            MockData.changed();
+            logged = MockData.logged(records -> records.author(author));
+        }
+        MockData.durable(logged);
         return author;
     }
 
@@ -43,44 +63,179 @@ public class AuthorServiceMockImpl implements AuthorService {
 
     @Override
     public Collection<Author> list() {
-        return MockData.authors.values().stream().toList();
+        return MockData.authors.list();
+    }
+
+    @Override
+    public Page<Author, Long> page(Long after, int limit) {
+        return MockData.authors.page(after, limit);
+    }
+
+    @Override
+    public Stream<Author> stream() {
+        return MockData.authors.values().stream();
+    }
+
+    @Override
+    public long version() {
+        return MockData.version();
     }
 
     @Override
     public Author update(Author author) throws EntityNotFoundException {
-        get(author.getId());
-        doUpdate(author);
-        return MockData.authors.get(author.getId());
+        MockData.writable();
+        Author existing;
+        long logged;
+        try (var ignored = MockData.authorLocks.lock(author.getId())) {
+            existing = get(author.getId());
+            if (existing != author) {
+                // keep the instance referenced by books, only its attributes change
+                existing.setFullName(author.getFullName());
+            }
+            MockData.touch(existing);
+            MockData.authorNames.put(existing.getId(), existing.getFullName());
+            MockData.suggest(existing);
+            MockData.changed();
+            logged = MockData.logged(records -> records.author(existing));
+        }
+        MockData.durable(logged);
+        return existing;
     }
 
+    /**
+     * Deletes an author and its books in time proportional to its number of books. Its books cannot gain an author
+     * meanwhile: books of an author only change under its stripe, and authors of a book under the book stripe.
+     */
     @Override
     public void delete(Long id) throws EntityNotFoundException, DeleteAuthorException {
-        Set<Book> books = get(id)
-                .getBooks();
-        if (books != null) {
-
-            Optional<Integer> bookWithManyAuthor = books.stream()
-                    .map(Book::getAuthors)
-                    .filter(Objects::nonNull)
-                    .map(Collection::size)
-                    .filter(s -> s > 1)
-                    .findFirst();
-
-            if (bookWithManyAuthor.isPresent()) {
-                throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+        MockData.writable();
+        long logged;
+        try (var ignored = MockData.authorLocks.lock(id)) {
+            List<Long> bookIds = bookIds(get(id));
+            try (var ignoredBooks = MockData.bookLocks.lockAll(bookIds)) {
+                if (MockData.hasCoAuthoredBooks(id)) {
+                    throw new DeleteAuthorException("cannot delete author, one or several books are co-authored");
+                }
+                remove(id, bookIds);
             }
+            MockData.changed();
+            logged = MockData.logged(records -> records.authorDeleted(id));
+        }
+        MockData.durable(logged);
+    }
 
-            books.stream().map(Book::getId).forEach(MockData.books::remove);
+    @Override
+    public List<Author> saveAll(List<Author> authors) {
+        MockData.writable();
+        long first = MockData.reserveIds(Author.class, authors.size());
+        for (int i = 0; i < authors.size(); i++) {
+            authors.get(i).setId(first + i);
+        }
+        long logged;
+        try (var ignored = MockData.authorLocks.lockAll(ids(authors))) {
+            authors.forEach(AuthorServiceMockImpl::doUpdate);
+            MockData.changed();
+            logged = MockData.logged(records -> authors.forEach(records::author));
+        }
+        MockData.durable(logged);
+        return authors;
+    }
 
+    @Override
+    public List<Author> updateAll(List<Author> authors) throws BatchException {
+        MockData.writable();
+        List<Author> existing = new ArrayList<>(authors.size());
+        long logged;
+        try (var ignored = MockData.authorLocks.lockAll(ids(authors))) {
+            Map<Integer, Exception> failures = new HashMap<>();
+            for (int i = 0; i < authors.size(); i++) {
+                try {
+                    existing.add(doGet(authors.get(i).getId()));
+                } catch (EntityNotFoundException e) {
+                    failures.put(i, e);
+                }
+            }
+            if (!failures.isEmpty()) {
+                throw new BatchException(failures);
+            }
+            for (int i = 0; i < authors.size(); i++) {
+                Author author = existing.get(i);
+                author.setFullName(authors.get(i).getFullName());
+                MockData.touch(author);
+                MockData.authorNames.put(author.getId(), author.getFullName());
+                MockData.suggest(author);
+            }
+            MockData.changed();
+            logged = MockData.logged(records -> existing.forEach(records::author));
         }
+        MockData.durable(logged);
+        return existing;
+    }
 
-        MockData.authors.remove(id);
+    @Override
+    public void deleteAll(List<Long> ids) throws BatchException {
+        MockData.writable();
+        long logged;
+        try (var ignored = MockData.authorLocks.lockAll(ids)) {
+            Map<Integer, Exception> failures = new HashMap<>();
+            Map<Integer, List<Long>> books = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                try {
+                    books.put(i, bookIds(doGet(ids.get(i))));
+                } catch (EntityNotFoundException e) {
+                    failures.put(i, e);
+                }
+            }
+
+            List<Long> allBookIds = books.values().stream().flatMap(List::stream).toList();
+            try (var ignoredBooks = MockData.bookLocks.lockAll(allBookIds)) {
+                books.keySet().forEach(i -> {
+                    if (MockData.hasCoAuthoredBooks(ids.get(i))) {
+                        failures.put(i, new DeleteAuthorException("cannot delete author, one or several books are co-authored"));
+                    }
+                });
+                if (!failures.isEmpty()) {
+                    throw new BatchException(failures);
+                }
+                books.forEach((i, bookIds) -> remove(ids.get(i), bookIds));
+            }
+            MockData.changed();
+            logged = MockData.logged(records -> ids.forEach(records::authorDeleted));
+        }
+        MockData.durable(logged);
+    }
 
+    private static List<Long> bookIds(Author author) {
+        return author.getBooks() == null ? List.of() : author.getBooks().stream().map(Book::getId).toList();
+    }
+
+    /**
+     * Removes an author and its books, none being co-authored, from the stores and indexes. Caller must hold the
+     * author stripe and the stripes of its books.
+     */
+    private static void remove(Long id, List<Long> bookIds) {
+        MockData.catalogCounters.removeAuthors(List.of(id), bookIds);
+        bookIds.forEach(bookId -> {
+            MockData.books.remove(bookId);
+            MockData.bookTitles.remove(bookId);
+            MockData.bookFacets.remove(bookId);
+            MockData.bookSuggestions.remove(bookId);
+            MockData.unindexIsbn(bookId);
+        });
+        MockData.authors.remove(id);
+        MockData.authorNames.remove(id);
+        MockData.authorSuggestions.remove(id);
+        MockData.forget(id);
+    }
 
+    private static List<Long> ids(List<Author> authors) {
+        return authors.stream().map(Author::getId).toList();
     }
 
     private static void doUpdate(Author author) {
         MockData.authors.put(author.getId(), author);
+        MockData.authorNames.put(author.getId(), author.getFullName());
+        MockData.suggest(author);
     }
 
 }
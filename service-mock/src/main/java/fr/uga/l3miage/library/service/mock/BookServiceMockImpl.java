@@ -2,33 +2,52 @@ package fr.uga.l3miage.library.service.mock;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
-import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
 import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.CatalogStats;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
-import org.springframework.beans.factory.annotation.Autowired;
+import fr.uga.l3miage.library.service.Suggestion;
+import fr.uga.l3miage.library.service.base.LongIdIndex;
+import fr.uga.l3miage.library.service.base.Page;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class BookServiceMockImpl implements BookService {
 
-    private final AuthorService authorService;
-
-    @Autowired
-    public BookServiceMockImpl(AuthorService authorService) {
-        this.authorService = authorService;
-    }
-
     @Override
     public Book save(Long authorId, Book book) throws EntityNotFoundException {
-        book.setId(MockData.getNextId(Book.class));
-        doSave(book);
-
-        Author author = bind(authorId, book);
-
-        authorService.update(author);
+        MockData.writable();
+        long logged;
+        try (var ignored = MockData.authorLocks.lock(authorId)) {
+            // read from the store under the lock, not through a possibly cached service
+            Author author = AuthorServiceMockImpl.doGet(authorId);
+            book.setId(MockData.getNextId(Book.class));
+            try (var ignoredBook = MockData.bookLocks.lock(book.getId())) {
+                indexIsbns(List.of(book));
+                MockData.link(author, book);
+                doSave(book);
+                MockData.changed();
+                logged = MockData.logged(records -> records.book(book).link(authorId, List.of(book.getId())));
+            }
+        }
+        MockData.durable(logged);
         return book;
     }
 
@@ -39,33 +58,237 @@ public class BookServiceMockImpl implements BookService {
                 .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + id));
     }
 
+    @Override
+    public Book findByIsbn(long isbn) throws EntityNotFoundException {
+        long id = MockData.bookIsbns.get(isbn);
+        Book book = id == LongIdIndex.NONE ? null : MockData.books.get(id);
+        if (book == null) {
+            throw new EntityNotFoundException("Cannot find book with isbn: " + isbn);
+        }
+        return book;
+    }
+
     @Override
     public Collection<Book> list() {
-        return MockData.books.values().stream().toList();
+        return MockData.books.list();
+    }
+
+    @Override
+    public Page<Book, Long> page(Long after, int limit) {
+        return MockData.books.page(after, limit);
+    }
+
+    @Override
+    public Stream<Book> stream() {
+        return MockData.books.values().stream();
+    }
+
+    @Override
+    public long version() {
+        return MockData.version();
     }
 
     @Override
     public Book update(Book book) throws EntityNotFoundException {
-        get(book.getId());
-        doSave(book);
-        return MockData.books.get(book.getId());
+        MockData.writable();
+        Book existing;
+        long logged;
+        try (var ignored = MockData.bookLocks.lock(book.getId())) {
+            existing = get(book.getId());
+            indexIsbns(List.of(book));
+            if (existing != book) {
+                // keep the instance referenced by authors, only its attributes change
+                existing.setTitle(book.getTitle());
+                existing.setIsbn(book.getIsbn());
+                existing.setPublisher(book.getPublisher());
+                existing.setYear(book.getYear());
+                existing.setLanguage(book.getLanguage());
+            }
+            MockData.touch(existing);
+            MockData.bookTitles.put(existing.getId(), existing.getTitle());
+            MockData.bookFacets.put(existing);
+            MockData.catalogCounters.put(existing);
+            MockData.bookSuggestions.put(existing.getId(), existing.getTitle(), 0);
+            MockData.changed();
+            logged = MockData.logged(records -> records.book(existing));
+        }
+        MockData.durable(logged);
+        return existing;
     }
 
     public Book addAuthor(Long bookId, Long authorId) throws EntityNotFoundException {
-        var book = get(bookId);
-        bind(authorId, book);
+        MockData.writable();
+        Book book;
+        long logged;
+        try (var ignored = MockData.authorLocks.lock(authorId)) {
+            Author author = AuthorServiceMockImpl.doGet(authorId);
+            try (var ignoredBook = MockData.bookLocks.lock(bookId)) {
+                // checked under the lock, the book may have been removed along with its author meanwhile
+                book = get(bookId);
+                MockData.link(author, book);
+                MockData.changed();
+                logged = MockData.logged(records -> records.link(authorId, List.of(bookId)));
+            }
+        }
+        MockData.durable(logged);
         return book;
     }
 
     @Override
     public void delete(Long id) throws EntityNotFoundException {
-        get(id);
-        MockData.books.remove(id);
+        MockData.writable();
+        long logged;
+        while (true) {
+            Set<Author> authors = Optional.ofNullable(get(id).getAuthors()).orElse(Set.of());
+            // author stripes have to be taken before the book one, authors are read again once locked
+            try (var ignored = MockData.authorLocks.lockAll(authors.stream().map(Author::getId).toList());
+                 var ignoredBook = MockData.bookLocks.lock(id)) {
+                Book book = get(id);
+                Set<Author> current = Optional.ofNullable(book.getAuthors()).orElse(Set.of());
+                if (current.equals(authors)) {
+                    MockData.catalogCounters.remove(id, MockData.authorIds(book));
+                    current.forEach(author -> MockData.unlink(author, book));
+                    MockData.books.remove(id);
+                    MockData.bookTitles.remove(id);
+                    MockData.bookFacets.remove(id);
+                    MockData.bookSuggestions.remove(id);
+                    MockData.unindexIsbn(id);
+                    MockData.changed();
+                    logged = MockData.logged(records -> records.bookDeleted(id));
+                    break;
+                }
+            }
+        }
+        MockData.durable(logged);
+    }
+
+    @Override
+    public List<Book> saveAll(Long authorId, List<Book> books) throws EntityNotFoundException {
+        MockData.writable();
+        long logged;
+        try (var ignored = MockData.authorLocks.lock(authorId)) {
+            Author author = AuthorServiceMockImpl.doGet(authorId);
+            long first = MockData.reserveIds(Book.class, books.size());
+            for (int i = 0; i < books.size(); i++) {
+                books.get(i).setId(first + i);
+            }
+            try (var ignoredBooks = MockData.bookLocks.lockAll(ids(books))) {
+                indexIsbns(books);
+                MockData.linkAll(author, books);
+                books.forEach(BookServiceMockImpl::doSave);
+                MockData.changed();
+                logged = MockData.logged(records -> {
+                    books.forEach(records::book);
+                    records.link(authorId, ids(books));
+                });
+            }
+        }
+        MockData.durable(logged);
+        return books;
+    }
+
+    @Override
+    public List<Book> updateAll(List<Book> books) throws BatchException {
+        MockData.writable();
+        List<Book> existing = new ArrayList<>(books.size());
+        long logged;
+        try (var ignored = MockData.bookLocks.lockAll(ids(books))) {
+            Map<Integer, Exception> failures = new HashMap<>();
+            for (int i = 0; i < books.size(); i++) {
+                try {
+                    existing.add(get(books.get(i).getId()));
+                } catch (EntityNotFoundException e) {
+                    failures.put(i, e);
+                }
+            }
+            if (failures.isEmpty()) {
+                MockData.indexIsbns(books)
+                        .forEach((i, owner) -> failures.put(i, new DuplicateIsbnException(books.get(i).getIsbn())));
+            }
+            if (!failures.isEmpty()) {
+                throw new BatchException(failures);
+            }
+            for (int i = 0; i < books.size(); i++) {
+                Book book = books.get(i);
+                Book target = existing.get(i);
+                target.setTitle(book.getTitle());
+                target.setIsbn(book.getIsbn());
+                target.setPublisher(book.getPublisher());
+                target.setYear(book.getYear());
+                target.setLanguage(book.getLanguage());
+                MockData.touch(target);
+                MockData.bookTitles.put(target.getId(), target.getTitle());
+                MockData.bookFacets.put(target);
+                MockData.catalogCounters.put(target);
+                MockData.bookSuggestions.put(target.getId(), target.getTitle(), 0);
+            }
+            MockData.changed();
+            logged = MockData.logged(records -> existing.forEach(records::book));
+        }
+        MockData.durable(logged);
+        return existing;
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids) throws BatchException {
+        MockData.writable();
+        long logged;
+        while (true) {
+            Map<Integer, Exception> failures = new HashMap<>();
+            Set<Long> authorIds = new HashSet<>();
+            for (int i = 0; i < ids.size(); i++) {
+                try {
+                    Optional.ofNullable(get(ids.get(i)).getAuthors()).orElse(Set.of())
+                            .forEach(author -> authorIds.add(author.getId()));
+                } catch (EntityNotFoundException e) {
+                    failures.put(i, e);
+                }
+            }
+            if (!failures.isEmpty()) {
+                throw new BatchException(failures);
+            }
+            // same as delete: authors are read again once locked, and the whole batch retried if they changed
+            try (var ignored = MockData.authorLocks.lockAll(authorIds);
+                 var ignoredBooks = MockData.bookLocks.lockAll(ids)) {
+                Map<Author, List<Book>> byAuthor = new IdentityHashMap<>();
+                boolean unchanged = true;
+                for (Long id : ids) {
+                    Book book = MockData.books.get(id);
+                    if (book == null) {
+                        unchanged = false;
+                        break;
+                    }
+                    for (Author author : Optional.ofNullable(book.getAuthors()).orElse(Set.of())) {
+                        unchanged &= authorIds.contains(author.getId());
+                        byAuthor.computeIfAbsent(author, a -> new ArrayList<>()).add(book);
+                    }
+                }
+                if (unchanged) {
+                    ids.forEach(id -> MockData.catalogCounters.remove(id, MockData.authorIds(MockData.books.get(id))));
+                    byAuthor.forEach(MockData::unlinkAll);
+                    ids.forEach(id -> {
+                        MockData.books.remove(id);
+                        MockData.bookTitles.remove(id);
+                        MockData.bookFacets.remove(id);
+                        MockData.bookSuggestions.remove(id);
+                        MockData.unindexIsbn(id);
+                    });
+                    MockData.changed();
+                    logged = MockData.logged(records -> ids.forEach(records::bookDeleted));
+                    break;
+                }
+            }
+        }
+        MockData.durable(logged);
     }
 
     @Override
     public Collection<Book> findByTitle(String title) {
-        return filterBooks(MockData.books.values(), title);
+        return MockData.bookTitles.search(title)
+                .stream()
+                .map(MockData.books::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
@@ -75,26 +298,66 @@ public class BookServiceMockImpl implements BookService {
 
     @Override
     public Collection<Book> findByAuthor(Long authorId, String title) throws EntityNotFoundException {
-        AuthorServiceMockImpl.doGet(authorId);
-        return filterBooks(MockData.authors.get(authorId).getBooks(), title);
+        Set<Book> books = Optional.ofNullable(AuthorServiceMockImpl.doGet(authorId).getBooks()).orElse(Set.of());
+        Set<Long> ids = books.stream().map(Book::getId).collect(Collectors.toSet());
+        return MockData.bookTitles.search(title, ids)
+                .stream()
+                .map(MockData.books::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
+    @Override
+    public Page<Book, Long> filter(BookFilter filter, Long after, int limit, Set<BookField> fields) {
+        long[] ids = MockData.bookFacets.select(filter, after, limit + 1);
+        List<Book> books = new ArrayList<>(Math.min(ids.length, limit));
+        for (int i = 0; i < ids.length && i < limit; i++) {
+            // a book removed, or changed to no longer match, since its id was selected is skipped
+            Book book = MockData.books.get(ids[i]);
+            if (book != null && filter.test(book)) {
+                books.add(book);
+            }
+        }
+        return new Page<>(books, ids.length > limit ? ids[limit - 1] : null);
+    }
 
-    private Author bind(Long authorId, Book book) throws EntityNotFoundException {
-        Author author = authorService.get(authorId);
-        author.addBook(book);
-        book.addAuthor(author);
-        return author;
+    @Override
+    public BookFacets facets(BookFilter filter, int publishers) {
+        return MockData.bookFacets.facets(filter, publishers);
     }
 
-    private static void doSave(Book book) {
-        MockData.books.put(book.getId(), book);
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return MockData.bookSuggestions.suggest(prefix, limit);
     }
 
-    private static Collection<Book> filterBooks(Collection<Book> books, String title) {
-        return books.stream()
-                .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
-                .toList();
+    @Override
+    public CatalogStats stats() {
+        return MockData.catalogCounters.stats();
+    }
+
+    /**
+     * Indexes the ISBNs of books, caller must hold their stripes.
+     *
+     * @throws DuplicateIsbnException when another book has one of them, none being indexed then
+     */
+    private static void indexIsbns(List<Book> books) {
+        Map<Integer, Long> conflicts = MockData.indexIsbns(books);
+        if (!conflicts.isEmpty()) {
+            throw new DuplicateIsbnException(books.get(conflicts.keySet().iterator().next()).getIsbn());
+        }
+    }
+
+    private static List<Long> ids(List<Book> books) {
+        return books.stream().map(Book::getId).toList();
+    }
+
+    private static void doSave(Book book) {
+        MockData.books.put(book.getId(), book);
+        MockData.bookTitles.put(book.getId(), book.getTitle());
+        MockData.bookFacets.put(book);
+        MockData.catalogCounters.put(book);
+        MockData.bookSuggestions.put(book.getId(), book.getTitle(), 0);
     }
 
 }
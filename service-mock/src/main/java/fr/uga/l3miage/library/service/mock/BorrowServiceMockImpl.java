@@ -0,0 +1,129 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.BorrowService;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.UnavailableException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Borrows without any lock: books are taken in the {@link MockData#borrowed} bitset, all at once, and a borrow
+ * is given back by the single caller removing it from the active borrows of its borrower.
+ * <p>
+ * Late ratios are maintained by {@link MockData#overdue}, advanced to the current time by every call.
+ */
+@Component
+public class BorrowServiceMockImpl implements BorrowService {
+
+    static final Duration LOAN_PERIOD = Duration.ofDays(21);
+
+    @Override
+    public Borrower saveBorrower(Borrower borrower) {
+        borrower.setId(MockData.getNextId(Borrower.class));
+        if (borrower.getRegistered() == null) {
+            borrower.setRegistered(new Date());
+        }
+        MockData.borrowers.put(borrower.getId(), borrower);
+        return borrower;
+    }
+
+    @Override
+    public Borrower getBorrower(Long id) throws EntityNotFoundException {
+        overdue();
+        return Optional.ofNullable(MockData.borrowers.get(id))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrower with id: " + id));
+    }
+
+    @Override
+    public Borrow checkout(Long borrowerId, Collection<Long> bookIds) throws EntityNotFoundException, UnavailableException {
+        if (bookIds.isEmpty()) {
+            throw new IllegalArgumentException("a borrow needs at least one book");
+        }
+        Borrower borrower = getBorrower(borrowerId);
+        Set<Book> books = new HashSet<>();
+        for (Long bookId : bookIds) {
+            books.add(Optional.ofNullable(MockData.books.get(bookId))
+                    .orElseThrow(() -> new EntityNotFoundException("Cannot find book with id: " + bookId)));
+        }
+
+        List<Long> unavailable = MockData.borrowed.acquire(bookIds);
+        if (!unavailable.isEmpty()) {
+            throw new UnavailableException("books already borrowed: " + unavailable, unavailable);
+        }
+
+        Date start = new Date();
+        Borrow borrow = new Borrow();
+        borrow.setId(MockData.getNextId(Borrow.class));
+        borrow.setBorrower(borrower);
+        borrow.setBooks(books);
+        borrow.setStart(start);
+        borrow.setEnd(new Date(start.getTime() + LOAN_PERIOD.toMillis()));
+        MockData.borrows.put(borrow.getId(), borrow);
+        MockData.activeBorrows.computeIfAbsent(borrowerId, id -> ConcurrentHashMap.newKeySet()).add(borrow.getId());
+        borrower.setLateRatio(MockData.overdue.checkedOut(borrowerId, borrow.getId(), borrow.getEnd().toInstant()));
+        return borrow;
+    }
+
+    @Override
+    public Borrow giveBack(Long borrowId) throws EntityNotFoundException {
+        Borrow borrow = Optional.ofNullable(MockData.borrows.get(borrowId))
+                .orElseThrow(() -> new EntityNotFoundException("Cannot find borrow with id: " + borrowId));
+        overdue();
+        Borrower borrower = borrow.getBorrower();
+        Set<Long> active = MockData.activeBorrows.get(borrower.getId());
+        if (active != null && active.remove(borrowId)) {
+            Date returned = new Date();
+            borrow.setReturned(returned);
+            MockData.borrowed.release(borrow.getBooks().stream().map(Book::getId).toList());
+            borrower.setLateRatio(MockData.overdue.returned(borrower.getId(), borrowId, returned.toInstant()));
+        }
+        return borrow;
+    }
+
+    @Override
+    public Collection<Borrow> active(Long borrowerId) throws EntityNotFoundException {
+        getBorrower(borrowerId);
+        return MockData.activeBorrows.getOrDefault(borrowerId, Set.of())
+                .stream()
+                .map(MockData.borrows::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(Borrow::getId))
+                .toList();
+    }
+
+    @Override
+    public List<Borrower> worstBorrowers(int limit) {
+        overdue();
+        return MockData.overdue.worst(limit)
+                .stream()
+                .map(MockData.borrowers::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Expires the borrows due by now.
+     */
+    private static void overdue() {
+        MockData.overdue.advance(Instant.now()).forEach((id, ratio) -> {
+            Borrower borrower = MockData.borrowers.get(id);
+            if (borrower != null) {
+                borrower.setLateRatio(ratio);
+            }
+        });
+    }
+}
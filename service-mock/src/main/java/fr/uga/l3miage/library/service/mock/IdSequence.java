@@ -0,0 +1,37 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free id generator. Callers creating many entities at once reserve a contiguous block with a single
+ * atomic operation.
+ */
+final class IdSequence {
+
+    private final AtomicLong next;
+
+    IdSequence(long first) {
+        this.next = new AtomicLong(first);
+    }
+
+    long next() {
+        return next.getAndIncrement();
+    }
+
+    /**
+     * Reserves a block of ids.
+     *
+     * @param count number of ids to reserve
+     * @return the first id of the block, the block being {@code [first, first + count)}
+     */
+    long reserve(int count) {
+        return next.getAndAdd(count);
+    }
+
+    /**
+     * Makes sure an id restored from elsewhere is never given again.
+     */
+    void advance(long id) {
+        next.accumulateAndGet(id + 1, Math::max);
+    }
+}
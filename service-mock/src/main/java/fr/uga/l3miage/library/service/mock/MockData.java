@@ -2,17 +2,75 @@ package fr.uga.l3miage.library.service.mock;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.base.AvailabilityIndex;
+import fr.uga.l3miage.library.service.base.CatalogCounters;
+import fr.uga.l3miage.library.service.base.FacetIndex;
+import fr.uga.l3miage.library.service.base.LongIdIndex;
+import fr.uga.l3miage.library.service.base.OverdueTracker;
+import fr.uga.l3miage.library.service.base.SuggestIndex;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Component
 public class MockData {
-    static Map<Long, Author> authors = new HashMap<>();
-    static Map<Long, Book> books = new HashMap<>();
-    private static long nextBookId;
-    private static long nextAuthorId;
+    static final MockStore<Author> authors = new MockStore<>();
+    static final MockStore<Book> books = new MockStore<>();
+    static final NGramIndex authorNames = new NGramIndex();
+    static final TitleIndex bookTitles = new TitleIndex();
+    static final LongIdIndex bookIsbns = new LongIdIndex();
+    static final FacetIndex bookFacets = new FacetIndex();
+    /**
+     * Statistics of the catalog, changed under the stripes of the books and authors written.
+     */
+    static final CatalogCounters catalogCounters = new CatalogCounters();
+    /**
+     * Names of the authors, ranked by their number of books, see {@link #suggest(Author)}.
+     */
+    static final SuggestIndex authorSuggestions = new SuggestIndex();
+    static final SuggestIndex bookSuggestions = new SuggestIndex();
+    /**
+     * Indexed ISBN of each book, by {@link #isbnKey(long)}, read on writes only: a book may be updated with its own
+     * instance, whose isbn is then already the new one.
+     */
+    static final LongIdIndex isbnsByBook = new LongIdIndex();
+    static final StripedLocks authorLocks = new StripedLocks(64);
+    static final StripedLocks bookLocks = new StripedLocks(64);
+    private static final IdSequence bookIds = new IdSequence(0);
+    private static final IdSequence authorIds = new IdSequence(0);
+    static final MockStore<Borrower> borrowers = new MockStore<>();
+    static final MockStore<Borrow> borrows = new MockStore<>();
+    static final AvailabilityIndex borrowed = new AvailabilityIndex();
+    /**
+     * Ids of the active borrows of each borrower. A borrow is given back by whoever removes it from here.
+     */
+    static final Map<Long, Set<Long>> activeBorrows = new ConcurrentHashMap<>();
+    static final OverdueTracker overdue = new OverdueTracker(Duration.ofMinutes(1), Instant.now());
+    private static final IdSequence borrowerIds = new IdSequence(0);
+    private static final IdSequence borrowIds = new IdSequence(0);
+    private static final AtomicLong catalogVersion = new AtomicLong();
+    /**
+     * Number of co-authored books of each author, authors having none are absent. Each book has the set of its
+     * authors, this is its reverse summed up per author, so that the rule refusing to delete an author with
+     * co-authored books is checked without looking at the books.
+     */
+    private static final Map<Long, Integer> coAuthoredBooks = new ConcurrentHashMap<>();
+    /**
+     * Journal of the changes of the catalog when the store is durable, see {@link MockDurability}.
+     */
+    private static volatile MockJournal journal;
 
     private MockData() {
         // to hide the public one
@@ -20,14 +78,368 @@ public class MockData {
 
     public static <T> long getNextId(Class<T> c) {
         if (c.equals(Book.class)) {
-            return nextBookId++;
+            return bookIds.next();
+        } else if (c.equals(Borrower.class)) {
+            return borrowerIds.next();
+        } else if (c.equals(Borrow.class)) {
+            return borrowIds.next();
         } else {
-            return nextAuthorId++;
+            return authorIds.next();
+        }
+    }
+
+    /**
+     * Reserves a block of ids with a single atomic operation.
+     *
+     * @return the first id of the block, the block being {@code [first, first + count)}
+     */
+    static <T> long reserveIds(Class<T> c, int count) {
+        if (c.equals(Book.class)) {
+            return bookIds.reserve(count);
+        } else {
+            return authorIds.reserve(count);
+        }
+    }
+
+    /**
+     * @return the version of the whole catalog
+     */
+    static long version() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Bumps the version of the catalog, to be called once a change is visible.
+     */
+    static void changed() {
+        catalogVersion.incrementAndGet();
+    }
+
+    static void journal(MockJournal current) {
+        journal = current;
+    }
+
+    /**
+     * Rejects a write once the journal failed, to be called before the change is applied: it could not be durable,
+     * it would otherwise be visible until a restart.
+     */
+    static void writable() {
+        MockJournal current = journal;
+        if (current != null) {
+            current.check();
+        }
+    }
+
+    /**
+     * Appends the records of a change to the journal, if any. To be called once the change is applied and before
+     * its stripes are released, so that the journal orders the changes of an entity as they happened.
+     *
+     * @return the position to give to {@link #durable(long)}, 0 when the store is not durable
+     */
+    static long logged(Consumer<MockRecords> change) {
+        MockJournal current = journal;
+        return current == null ? 0 : current.append(change);
+    }
+
+    /**
+     * Waits for a change to be durable. To be called once its stripes are released, other writers can then join
+     * the same write.
+     */
+    static void durable(long position) {
+        MockJournal current = journal;
+        if (position != 0 && current != null) {
+            current.await(position);
+        }
+    }
+
+    static void touch(Author author) {
+        author.setVersion(author.getVersion() + 1);
+    }
+
+    static void touch(Book book) {
+        book.setVersion(book.getVersion() + 1);
+    }
+
+    /**
+     * Indexes the ISBNs of books, all of them or none, caller must hold the stripes of the books.
+     *
+     * @return the id of the book already having the isbn of a book, by position of the book, nothing being
+     * indexed then
+     */
+    static Map<Integer, Long> indexIsbns(List<Book> books) {
+        long[] ids = new long[books.size()];
+        long[] oldIsbns = new long[books.size()];
+        long[] newIsbns = new long[books.size()];
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            ids[i] = book.getId();
+            oldIsbns[i] = indexedIsbn(book.getId());
+            newIsbns[i] = book.getIsbn();
+        }
+        Map<Integer, Long> conflicts = bookIsbns.replaceAll(ids, oldIsbns, newIsbns);
+        if (conflicts.isEmpty()) {
+            for (int i = 0; i < ids.length; i++) {
+                if (newIsbns[i] == 0) {
+                    isbnsByBook.remove(isbnKey(ids[i]), oldIsbns[i]);
+                } else {
+                    isbnsByBook.put(isbnKey(ids[i]), newIsbns[i]);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Removes the ISBN of a deleted book, caller must hold its stripe.
+     */
+    static void unindexIsbn(Long bookId) {
+        long isbn = indexedIsbn(bookId);
+        if (isbn != 0) {
+            isbnsByBook.remove(isbnKey(bookId), isbn);
+            bookIsbns.remove(isbn, bookId);
+        }
+    }
+
+    /**
+     * @return the indexed isbn of a book, 0 if none
+     */
+    private static long indexedIsbn(long bookId) {
+        long isbn = isbnsByBook.get(isbnKey(bookId));
+        return isbn == LongIdIndex.NONE ? 0 : isbn;
+    }
+
+    /**
+     * Key of a book in {@link #isbnsByBook}, which has no key 0: ids 0 and -1 are books, only
+     * {@link Long#MIN_VALUE}, never an id, would get key 0.
+     */
+    private static long isbnKey(long bookId) {
+        return bookId ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Links a book and an author, caller must hold both stripes.
+     * Association sets are replaced rather than modified so that readers iterating them without lock are safe.
+     */
+    static void link(Author author, Book book) {
+        linkAll(author, List.of(book));
+    }
+
+    /**
+     * Links several books to an author, caller must hold all stripes. The set of the author is copied once.
+     */
+    static void linkAll(Author author, Collection<Book> books) {
+        Set<Book> authorBooks = author.getBooks() == null ? new HashSet<>() : new HashSet<>(author.getBooks());
+        List<Long> linked = new ArrayList<>(books.size());
+        for (Book book : books) {
+            authorBooks.add(book);
+            Set<Author> bookAuthors = book.getAuthors() == null ? new HashSet<>() : new HashSet<>(book.getAuthors());
+            if (bookAuthors.add(author)) {
+                coAuthored(bookAuthors, author);
+                linked.add(book.getId());
+            }
+            book.setAuthors(bookAuthors);
+            touch(book);
+        }
+        author.setBooks(authorBooks);
+        touch(author);
+        suggest(author);
+        catalogCounters.link(author.getId(), linked);
+    }
+
+    /**
+     * Removes a deleted book from one of its authors, caller must hold the author and book stripes.
+     */
+    static void unlink(Author author, Book book) {
+        unlinkAll(author, List.of(book));
+    }
+
+    /**
+     * Removes several deleted books from one of their authors, caller must hold the author and book stripes.
+     * The set of the author is copied once, the sets of authors of the books are left as is.
+     */
+    static void unlinkAll(Author author, Collection<Book> books) {
+        if (author.getBooks() != null && books.stream().anyMatch(author.getBooks()::contains)) {
+            Set<Book> authorBooks = new HashSet<>(author.getBooks());
+            for (Book book : books) {
+                if (authorBooks.remove(book) && book.getAuthors() != null && book.getAuthors().size() > 1) {
+                    coAuthoredBooks.computeIfPresent(author.getId(), (id, count) -> count == 1 ? null : count - 1);
+                }
+            }
+            author.setBooks(authorBooks);
+            touch(author);
+            suggest(author);
+        }
+    }
+
+    /**
+     * Suggests an author by its name, ranked by its number of books, caller must hold its stripe.
+     */
+    static void suggest(Author author) {
+        authorSuggestions.put(author.getId(), author.getFullName(),
+                author.getBooks() == null ? 0 : author.getBooks().size());
+    }
+
+    /**
+     * @return whether an author has co-authored books, caller must hold the stripes of its books for the answer
+     * to hold
+     */
+    static boolean hasCoAuthoredBooks(Long authorId) {
+        return coAuthoredBooks.containsKey(authorId);
+    }
+
+    /**
+     * Forgets a deleted author.
+     */
+    static void forget(Long authorId) {
+        coAuthoredBooks.remove(authorId);
+    }
+
+    /**
+     * Restores an author as recorded, see {@link MockRecords}.
+     */
+    static void restoreAuthor(long id, long version, String fullName) {
+        Author author = authors.get(id);
+        if (author == null) {
+            author = new Author();
+            author.setId(id);
+            authors.put(id, author);
+        }
+        author.setFullName(fullName);
+        author.setVersion(version);
+        authorNames.put(id, fullName);
+        suggest(author);
+        authorIds.advance(id);
+    }
+
+    /**
+     * Restores the attributes of a book as recorded. Its isbn may be held by a book changed later in the journal,
+     * it is indexed when the journal gives it again.
+     *
+     * @param titles where the title is put to be indexed later along with others, null to index it now
+     */
+    static void restoreBook(long id, long version, String title, long isbn, String publisher, short year,
+                            Book.Language language, Map<Long, String> titles) {
+        Book book = books.get(id);
+        if (book == null) {
+            book = new Book();
+            book.setId(id);
+            books.put(id, book);
+        }
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setPublisher(publisher);
+        book.setYear(year);
+        book.setLanguage(language);
+        book.setVersion(version);
+        if (titles == null) {
+            bookTitles.put(id, title);
+        } else if (title != null) {
+            titles.put(id, title);
+        }
+        indexIsbns(List.of(book));
+        bookFacets.put(book);
+        catalogCounters.put(book);
+        bookSuggestions.put(id, title, 0);
+        bookIds.advance(id);
+    }
+
+    static void restoreLink(long authorId, long[] ids) {
+        Author author = authors.get(authorId);
+        if (author == null) {
+            return;
+        }
+        List<Book> linked = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Book book = books.get(id);
+            if (book != null) {
+                linked.add(book);
+            }
+        }
+        if (!linked.isEmpty()) {
+            linkAll(author, linked);
+        }
+    }
+
+    static void restoreBookDeleted(long id) {
+        Book book = books.remove(id);
+        if (book != null) {
+            catalogCounters.remove(id, authorIds(book));
+            if (book.getAuthors() != null) {
+                book.getAuthors().forEach(author -> unlink(author, book));
+            }
+            bookTitles.remove(id);
+            bookFacets.remove(id);
+            bookSuggestions.remove(id);
+            unindexIsbn(id);
+        }
+    }
+
+    static void restoreAuthorDeleted(long id) {
+        Author author = authors.get(id);
+        if (author != null) {
+            if (author.getBooks() != null) {
+                author.getBooks().forEach(book -> restoreBookDeleted(book.getId()));
+            }
+            authors.remove(id);
+            authorNames.remove(id);
+            authorSuggestions.remove(id);
+            forget(id);
+        }
+    }
+
+    /**
+     * Restores the catalog version, so that the tags given before are not given again to another catalog.
+     */
+    static void restoreVersion(long version) {
+        catalogVersion.accumulateAndGet(version, Math::max);
+    }
+
+    /**
+     * Empties the catalog, borrows excepted. Lets the recovery benchmark restore the same catalog again and
+     * again, it is not meant to be called while the services are in use.
+     */
+    public static void clear() {
+        for (Long id : authors.values().stream().map(Author::getId).toList()) {
+            restoreAuthorDeleted(id);
+        }
+        for (Long id : books.values().stream().map(Book::getId).toList()) {
+            restoreBookDeleted(id);
+        }
+        // deleted ids are remembered, the same catalog may be restored again
+        catalogCounters.clear();
+        changed();
+    }
+
+    /**
+     * @return the ids of the authors of a book
+     */
+    static List<Long> authorIds(Book book) {
+        return book.getAuthors() == null ? List.of() : book.getAuthors().stream().map(Author::getId).toList();
+    }
+
+    /**
+     * Counts a book for an author just added to its authors. A book becoming co-authored also counts for its
+     * first author.
+     */
+    private static void coAuthored(Set<Author> bookAuthors, Author added) {
+        if (bookAuthors.size() == 2) {
+            for (Author author : bookAuthors) {
+                coAuthoredBooks.merge(author.getId(), 1, Integer::sum);
+            }
+        } else if (bookAuthors.size() > 2) {
+            coAuthoredBooks.merge(added.getId(), 1, Integer::sum);
         }
     }
 
     static {
+        seed();
+    }
 
+    /**
+     * Puts the sample author and book, as any start of the application does before a durable catalog is
+     * restored over them.
+     */
+    static void seed() {
         Author me = new Author();
         me.setId(-1L);
         me.setFullName("Benoit Bordigoni");
@@ -44,8 +456,15 @@ public class MockData {
         me.addBook(jpa);
 
         authors.put(me.getId(), me);
+        authorNames.put(me.getId(), me.getFullName());
         books.put(jpa.getId(), jpa);
-
+        bookTitles.put(jpa.getId(), jpa.getTitle());
+        indexIsbns(List.of(jpa));
+        bookFacets.put(jpa);
+        catalogCounters.put(jpa);
+        catalogCounters.link(me.getId(), List.of(jpa.getId()));
+        bookSuggestions.put(jpa.getId(), jpa.getTitle(), 0);
+        suggest(me);
     }
 
 }
@@ -0,0 +1,143 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes the catalog of the mock survive restarts: each change of the authors and books is appended to a
+ * {@link MockJournal} before the service returns, and a {@link MockSnapshot} is taken periodically, after which
+ * the journal it covers is deleted. Opening a directory restores the snapshot, replays the journal written since,
+ * then journals the changes to come.
+ * <p>
+ * Borrowers and borrows stay in memory only.
+ */
+public final class MockDurability implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(MockDurability.class);
+
+    private final Path directory;
+    private final MockJournal journal;
+    private final ScheduledExecutorService snapshots;
+    private final Recovery recovery;
+    private long snapshotted;
+
+    /**
+     * What the opening of a directory restored.
+     *
+     * @param snapshot whether a snapshot was loaded
+     * @param frames   the number of journal frames replayed over it
+     * @param duration the time taken
+     */
+    public record Recovery(boolean snapshot, long frames, Duration duration) {
+    }
+
+    private MockDurability(Path directory, MockJournal journal, Duration snapshotInterval, Recovery recovery) {
+        this.directory = directory;
+        this.journal = journal;
+        this.recovery = recovery;
+        if (snapshotInterval.isZero()) {
+            this.snapshots = null;
+        } else {
+            this.snapshots = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "mock-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = snapshotInterval.toMillis();
+            this.snapshots.scheduleWithFixedDelay(this::scheduledSnapshot, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Restores the catalog from a directory, created if needed, and journals its changes there from now on. The
+     * catalog must not be in use meanwhile. What it held before is replaced by the snapshot, if any; without one,
+     * the journal was started over the seed and is replayed over it.
+     *
+     * @param fsync            whether journal writes are forced to the disk, otherwise they survive a crash of
+     *                         the process but not of the system
+     * @param snapshotInterval the delay between two snapshots, zero for snapshots on demand only
+     */
+    public static MockDurability open(Path directory, boolean fsync, Duration snapshotInterval) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        boolean snapshot = Files.exists(directory.resolve(MockSnapshot.FILE));
+        if (snapshot) {
+            // the snapshot has the whole catalog, the seed only if it was not deleted since
+            MockData.clear();
+        }
+        long first = MockSnapshot.read(directory);
+        List<Long> segments = MockJournal.segments(directory);
+        long frames = 0;
+        long next = first;
+        for (int i = 0; i < segments.size(); i++) {
+            long segment = segments.get(i);
+            if (segment >= first) {
+                frames += MockJournal.replay(MockJournal.segment(directory, segment), i == segments.size() - 1);
+                next = segment + 1;
+            }
+        }
+        MockJournal journal = new MockJournal(directory, next, fsync);
+        journal.truncate(first);
+        MockData.journal(journal);
+        MockDurability durability = new MockDurability(directory, journal, snapshotInterval,
+                new Recovery(snapshot, frames, Duration.ofNanos(System.nanoTime() - start)));
+        if (!snapshot) {
+            // what the catalog held before, the seed at least, is only known from a snapshot
+            durability.snapshot();
+        }
+        return durability;
+    }
+
+    public Recovery recovery() {
+        return recovery;
+    }
+
+    /**
+     * Takes a snapshot, then deletes the journal it covers. Writes go on meanwhile.
+     *
+     * @return the size of the snapshot
+     */
+    public synchronized long snapshot() throws IOException {
+        long covered = journal.appended();
+        long segment = journal.roll();
+        // read once the segment started: changes counted in it are replayed from the new segment
+        long size = MockSnapshot.write(directory, segment, MockData.version());
+        journal.truncate(segment);
+        snapshotted = covered;
+        return size;
+    }
+
+    /**
+     * Stops journaling. The journal written since the last snapshot is kept, it is replayed by the next opening.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+        }
+        MockData.journal(null);
+        journal.close();
+    }
+
+    private synchronized void scheduledSnapshot() {
+        if (journal.appended() == snapshotted) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            // the journal is kept, the next snapshot covers it
+            log.warn("cannot snapshot the catalog to {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Restores the mock store from {@code library.mock.durability.directory} when set, before the services are
+ * used, and journals its changes there until shutdown.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.mock.durability", name = "directory")
+@EnableConfigurationProperties(MockDurabilityProperties.class)
+public class MockDurabilityConfig {
+
+    @Bean(destroyMethod = "close")
+    public MockDurability mockDurability(MockDurabilityProperties properties) throws IOException {
+        return MockDurability.open(properties.directory(), properties.fsync(), properties.snapshotInterval());
+    }
+}
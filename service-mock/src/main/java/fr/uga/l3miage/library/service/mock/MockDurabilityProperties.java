@@ -0,0 +1,23 @@
+package fr.uga.l3miage.library.service.mock;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Durability of the mock store, under {@code library.mock.durability}.
+ *
+ * @param directory        where the snapshot and the journal are kept, the store staying in memory only when
+ *                         unset
+ * @param fsync            whether journal writes are forced to the disk before the services return, otherwise
+ *                         changes survive a crash of the process but not of the system
+ * @param snapshotInterval the delay between two snapshots, taken only when the catalog changed, zero for none:
+ *                         the whole journal is then replayed at startup
+ */
+@ConfigurationProperties("library.mock.durability")
+public record MockDurabilityProperties(Path directory,
+                                       @DefaultValue("true") boolean fsync,
+                                       @DefaultValue("5m") Duration snapshotInterval) {
+}
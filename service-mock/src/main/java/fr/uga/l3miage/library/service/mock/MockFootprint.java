@@ -0,0 +1,46 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.library.service.base.Footprint;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sizes of the mock store and of its indexes.
+ * <p>
+ * The heap estimate multiplies the number of entities by averages measured on a generated catalog of 20,000
+ * authors and 200,000 books (64-bit JVM, compressed references), indexes and associations included. It is
+ * cheap enough to be read on every scrape, and only as good as the catalog looks like the generated one. The ISBN
+ * indexes are added apart, from the size of their tables.
+ */
+@Component
+public class MockFootprint implements Footprint {
+
+    static final long AUTHOR_BYTES = 580;
+    static final long BOOK_BYTES = 810;
+
+    @Override
+    public Map<String, Long> sizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        sizes.put("authors", (long) MockData.authors.size());
+        sizes.put("books", (long) MockData.books.size());
+        sizes.put("author-names", (long) MockData.authorNames.size());
+        sizes.put("author-name-grams", (long) MockData.authorNames.gramCount());
+        sizes.put("book-titles", (long) MockData.bookTitles.size());
+        sizes.put("book-title-fragments", (long) MockData.bookTitles.fragmentCount());
+        sizes.put("book-isbns", (long) MockData.bookIsbns.size());
+        sizes.put("book-facets", (long) MockData.bookFacets.size());
+        sizes.put("book-counters", (long) MockData.catalogCounters.size());
+        sizes.put("author-suggestions", (long) MockData.authorSuggestions.size());
+        sizes.put("book-suggestions", (long) MockData.bookSuggestions.size());
+        sizes.put("suggestion-keys", MockData.authorSuggestions.keyCount() + MockData.bookSuggestions.keyCount());
+        return sizes;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        return MockData.authors.size() * AUTHOR_BYTES + MockData.books.size() * BOOK_BYTES
+                + MockData.bookIsbns.tableBytes() + MockData.isbnsByBook.tableBytes();
+    }
+}
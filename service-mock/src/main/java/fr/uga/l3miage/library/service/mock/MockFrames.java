@@ -0,0 +1,96 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Frames of the journal and snapshot files: a length, a CRC32C of the payload, then the payload, a sequence of
+ * {@link MockRecords}. A frame is the unit of recovery, it is applied whole or not at all.
+ */
+final class MockFrames {
+
+    static final int HEADER = 8;
+
+    private MockFrames() {
+        // utility class
+    }
+
+    /**
+     * Writes a frame at the position of a buffer, which must have room for {@link #HEADER} more bytes than the
+     * payload.
+     */
+    static void put(ByteBuffer target, ByteBuffer payload) {
+        target.putInt(payload.remaining()).putInt(crc(payload)).put(payload);
+    }
+
+    private static int crc(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Reads the frames of a file through read-only memory-mapped windows, a frame never being split across
+     * two of them.
+     */
+    static final class Reader {
+
+        private static final long WINDOW = 256L << 20;
+
+        private final FileChannel channel;
+        private final long size;
+        private long position;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        Reader(FileChannel channel, long position) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.position = position;
+        }
+
+        /**
+         * @return the payload of the next frame, null at the end of the file or at a torn frame, whose position
+         * is then {@link #position()}
+         */
+        ByteBuffer next() throws IOException {
+            if (!mapped(HEADER)) {
+                return null;
+            }
+            int offset = (int) (position - windowStart);
+            int length = window.getInt(offset);
+            int crc = window.getInt(offset + 4);
+            if (length < 0 || !mapped(HEADER + (long) length)) {
+                return null;
+            }
+            offset = (int) (position - windowStart);
+            ByteBuffer payload = window.slice(offset + HEADER, length);
+            if (crc(payload) != crc) {
+                return null;
+            }
+            position += HEADER + length;
+            return payload;
+        }
+
+        /**
+         * @return the position of the next frame, the end of the valid ones once {@link #next()} returned null
+         */
+        long position() {
+            return position;
+        }
+
+        private boolean mapped(long bytes) throws IOException {
+            if (position + bytes > size) {
+                return false;
+            }
+            if (window == null || position + bytes > windowStart + window.capacity()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Math.max(WINDOW, bytes)));
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead log of the changes of the catalog, in numbered segment files. A new segment is started by each
+ * snapshot, the segments it covers are then deleted.
+ * <p>
+ * Writers append a frame to a memory buffer and then wait for it to be written, with group commit: the first
+ * waiting writer writes and forces everything appended so far in a single call while the others wait, appending
+ * more to a second buffer, which the next one writes. Under load a force thus covers the changes of many writers.
+ * <p>
+ * A failed write fails the journal: the changes it carries are applied in memory but not durable, and every later
+ * write is rejected before being applied.
+ */
+final class MockJournal implements Closeable {
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final int BUFFER = 64 << 10;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private FileChannel channel;
+    private long segment;
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER);
+    // positions are counted in bytes since the journal was opened, across segments
+    private long appended;
+    private long durable;
+    private boolean writing;
+    // read without the lock by the writers checking the journal before applying a change
+    private volatile IOException failure;
+
+    /**
+     * @param segment the number of the segment to start, following those replayed
+     * @param fsync   whether writes are forced to the disk, otherwise they only survive a crash of the process
+     */
+    MockJournal(Path directory, long segment, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.segment = segment;
+        this.channel = open(segment);
+    }
+
+    /**
+     * @return the numbers of the segments of a directory, in order
+     */
+    static List<Long> segments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()))));
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    static Path segment(Path directory, long segment) {
+        return directory.resolve(String.format("%s%016d%s", PREFIX, segment, SUFFIX));
+    }
+
+    /**
+     * Replays a segment. A torn frame ends the last segment, written up to a crash, and is cut off; it is a
+     * corruption anywhere else.
+     *
+     * @return the number of frames replayed
+     */
+    static long replay(Path file, boolean last) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MockFrames.Reader reader = new MockFrames.Reader(channel, 0);
+            long frames = 0;
+            for (ByteBuffer payload = reader.next(); payload != null; payload = reader.next()) {
+                MockRecords.apply(payload, null);
+                MockData.changed();
+                frames++;
+            }
+            if (reader.position() < channel.size()) {
+                if (!last) {
+                    throw new IOException("corrupt frame at " + reader.position() + " of " + file);
+                }
+                channel.truncate(reader.position());
+            }
+            return frames;
+        }
+    }
+
+    /**
+     * Appends the records of a change, encoded before the lock is taken.
+     *
+     * @return the position to give to {@link #await(long)}
+     */
+    long append(Consumer<MockRecords> change) {
+        MockRecords records = new MockRecords();
+        change.accept(records);
+        ByteBuffer payload = records.records();
+        lock.lock();
+        try {
+            failed();
+            if (pending.remaining() < MockFrames.HEADER + payload.remaining()) {
+                pending = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + MockFrames.HEADER + payload.remaining()))
+                        .put(pending.flip());
+            }
+            MockFrames.put(pending, payload);
+            appended += MockFrames.HEADER + payload.limit();
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the frames up to a position to be written, writing them along with those appended since when no
+     * other writer is.
+     */
+    void await(long position) {
+        lock.lock();
+        try {
+            while (durable < position) {
+                failed();
+                if (writing) {
+                    written.awaitUninterruptibly();
+                    continue;
+                }
+                writing = true;
+                ByteBuffer batch = pending;
+                pending = spare;
+                long target = appended;
+                FileChannel current = channel;
+                lock.unlock();
+                IOException error = null;
+                try {
+                    write(current, batch);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+                spare = batch.clear();
+                writing = false;
+                if (error == null) {
+                    durable = target;
+                } else {
+                    failure = error;
+                }
+                written.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException once a write failed
+     */
+    void check() {
+        failed();
+    }
+
+    /**
+     * Writes what was appended and starts a new segment, all the frames appended before being in the previous
+     * ones.
+     *
+     * @return the number of the new segment
+     */
+    long roll() throws IOException {
+        lock.lock();
+        try {
+            drain();
+            channel.close();
+            channel = open(++segment);
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of bytes appended since the journal was opened
+     */
+    long appended() {
+        lock.lock();
+        try {
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments preceding a segment.
+     */
+    void truncate(long before) throws IOException {
+        for (long old : segments(directory)) {
+            if (old < before) {
+                Files.deleteIfExists(segment(directory, old));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            drain();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes what was appended, caller holding the lock. Waits for a writer to be done first, the frames it
+     * writes must precede the pending ones.
+     */
+    private void drain() throws IOException {
+        while (writing) {
+            written.awaitUninterruptibly();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        try {
+            write(channel, pending);
+            pending.clear();
+            durable = appended;
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        } finally {
+            written.signalAll();
+        }
+    }
+
+    private void write(FileChannel target, ByteBuffer frames) throws IOException {
+        frames.flip();
+        while (frames.hasRemaining()) {
+            target.write(frames);
+        }
+        if (fsync) {
+            target.force(false);
+        }
+    }
+
+    private void failed() {
+        if (failure != null) {
+            throw new UncheckedIOException("the journal failed, changes are not durable anymore", failure);
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(segment(directory, number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,159 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Binary records of the changes of the catalog, shared by the journal and the snapshots: a snapshot is the
+ * shortest sequence of records rebuilding the catalog.
+ * <p>
+ * A record carries the resulting state of what changed rather than the operation, replaying it twice or over a
+ * state which already has it gives the same catalog. This is what allows snapshots to be taken while writes go
+ * on, the journal written meanwhile being replayed over them.
+ */
+final class MockRecords {
+
+    private static final byte AUTHOR = 1;
+    private static final byte BOOK = 2;
+    private static final byte LINK = 3;
+    private static final byte BOOK_DELETED = 4;
+    private static final byte AUTHOR_DELETED = 5;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    MockRecords author(Author author) {
+        byte[] fullName = bytes(author.getFullName());
+        room(1 + 8 + 8 + 4 + length(fullName));
+        buffer.put(AUTHOR).putLong(author.getId()).putLong(author.getVersion());
+        putString(fullName);
+        return this;
+    }
+
+    MockRecords book(Book book) {
+        byte[] title = bytes(book.getTitle());
+        byte[] publisher = bytes(book.getPublisher());
+        room(1 + 8 + 8 + 8 + 2 + 1 + 4 + length(title) + 4 + length(publisher));
+        buffer.put(BOOK).putLong(book.getId()).putLong(book.getVersion()).putLong(book.getIsbn())
+                .putShort(book.getYear())
+                .put(book.getLanguage() == null ? -1 : (byte) book.getLanguage().ordinal());
+        putString(title);
+        putString(publisher);
+        return this;
+    }
+
+    /**
+     * Books becoming books of an author, the reverse side included.
+     */
+    MockRecords link(Long authorId, Collection<Long> bookIds) {
+        room(1 + 8 + 4 + 8 * bookIds.size());
+        buffer.put(LINK).putLong(authorId).putInt(bookIds.size());
+        bookIds.forEach(buffer::putLong);
+        return this;
+    }
+
+    MockRecords bookDeleted(Long id) {
+        room(1 + 8);
+        buffer.put(BOOK_DELETED).putLong(id);
+        return this;
+    }
+
+    /**
+     * An author deleted along with its books.
+     */
+    MockRecords authorDeleted(Long id) {
+        room(1 + 8);
+        buffer.put(AUTHOR_DELETED).putLong(id);
+        return this;
+    }
+
+    int size() {
+        return buffer.position();
+    }
+
+    /**
+     * @return a view of the records written so far
+     */
+    ByteBuffer records() {
+        return buffer.duplicate().flip();
+    }
+
+    /**
+     * Forgets the records written so far, to write the next ones in the same buffer.
+     */
+    void clear() {
+        buffer.clear();
+    }
+
+    /**
+     * Applies records to the catalog, from the position of the buffer to its limit. Records about an entity
+     * missing meanwhile are skipped, those restoring it follow in the journal.
+     *
+     * @param titles where book titles are gathered to be indexed all at once, null to index each of them
+     */
+    static void apply(ByteBuffer records, Map<Long, String> titles) {
+        while (records.hasRemaining()) {
+            byte type = records.get();
+            switch (type) {
+                case AUTHOR -> MockData.restoreAuthor(records.getLong(), records.getLong(), getString(records));
+                case BOOK -> {
+                    long id = records.getLong();
+                    long version = records.getLong();
+                    long isbn = records.getLong();
+                    short year = records.getShort();
+                    byte language = records.get();
+                    MockData.restoreBook(id, version, getString(records), isbn, getString(records), year,
+                            language < 0 ? null : Book.Language.values()[language], titles);
+                }
+                case LINK -> {
+                    long authorId = records.getLong();
+                    long[] bookIds = new long[records.getInt()];
+                    for (int i = 0; i < bookIds.length; i++) {
+                        bookIds[i] = records.getLong();
+                    }
+                    MockData.restoreLink(authorId, bookIds);
+                }
+                case BOOK_DELETED -> MockData.restoreBookDeleted(records.getLong());
+                case AUTHOR_DELETED -> MockData.restoreAuthorDeleted(records.getLong());
+                default -> throw new IllegalStateException("unknown record type " + type);
+            }
+        }
+    }
+
+    private void room(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + bytes));
+            buffer = larger.put(buffer.flip());
+        }
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer records) {
+        int length = records.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        records.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+}
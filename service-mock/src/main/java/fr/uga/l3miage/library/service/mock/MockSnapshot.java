@@ -0,0 +1,163 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the catalog: the authors, the books, then the books of each author, as {@link MockRecords} in
+ * frames of about {@value #FRAME} bytes, written and read through memory-mapped windows.
+ * <p>
+ * It is taken while writes go on, each entity being read once at some point of the walk. Replaying the journal
+ * from the segment started just before the walk brings it to the state of the catalog.
+ */
+final class MockSnapshot {
+
+    static final String FILE = "snapshot.bin";
+
+    private static final long MAGIC = 0x4C49425241525931L; // LIBRARY1
+    private static final int HEADER = 8 + 8 + 8 + 8;
+    private static final int FRAME = 64 << 10;
+    private static final long WINDOW = 64L << 20;
+
+    private MockSnapshot() {
+        // utility class
+    }
+
+    /**
+     * Writes a snapshot next to the current one, then replaces it.
+     *
+     * @param segment the first segment of the journal to replay over the snapshot
+     * @param version the catalog version, read once the segment started
+     * @return the size of the snapshot
+     */
+    static long write(Path directory, long segment, long version) throws IOException {
+        Path temporary = directory.resolve(FILE + ".tmp");
+        long size;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Writer writer = new Writer(channel);
+            MockRecords records = new MockRecords();
+            for (Author author : MockData.authors.values()) {
+                writer.add(records.author(author), false);
+            }
+            for (Book book : MockData.books.values()) {
+                writer.add(records.book(book), false);
+            }
+            List<Long> bookIds = new ArrayList<>();
+            for (Author author : MockData.authors.values()) {
+                if (author.getBooks() != null && !author.getBooks().isEmpty()) {
+                    bookIds.clear();
+                    author.getBooks().forEach(book -> bookIds.add(book.getId()));
+                    writer.add(records.link(author.getId(), bookIds), false);
+                }
+            }
+            writer.add(records, true);
+            size = writer.finish();
+            channel.write(ByteBuffer.allocate(HEADER).putLong(MAGIC).putLong(segment).putLong(version)
+                    .putLong(writer.frames).flip(), 0);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Loads the snapshot of a directory into the catalog.
+     *
+     * @return the first segment of the journal to replay, 0 without snapshot
+     */
+    static long read(Path directory) throws IOException {
+        Path file = directory.resolve(FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER || header.getLong() != MAGIC) {
+                throw new IOException("not a snapshot: " + file);
+            }
+            long segment = header.getLong();
+            long version = header.getLong();
+            long frames = header.getLong();
+            MockFrames.Reader reader = new MockFrames.Reader(channel, HEADER);
+            Map<Long, String> titles = new HashMap<>();
+            for (long i = 0; i < frames; i++) {
+                ByteBuffer payload = reader.next();
+                if (payload == null) {
+                    throw new IOException("corrupt frame at " + reader.position() + " of " + file);
+                }
+                MockRecords.apply(payload, titles);
+            }
+            MockData.bookTitles.putAll(titles);
+            MockData.restoreVersion(version);
+            return segment;
+        }
+    }
+
+    /**
+     * Appends frames to a file through read-write memory-mapped windows, the file growing with them.
+     */
+    private static final class Writer {
+
+        private final FileChannel channel;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long frames;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+            this.windowStart = HEADER;
+        }
+
+        /**
+         * Writes the records as a frame once they are large enough, or when asked to.
+         */
+        void add(MockRecords records, boolean flush) throws IOException {
+            if (records.size() < FRAME && !(flush && records.size() > 0)) {
+                return;
+            }
+            ByteBuffer payload = records.records();
+            int bytes = MockFrames.HEADER + payload.remaining();
+            if (window == null || window.remaining() < bytes) {
+                if (window != null) {
+                    windowStart += window.position();
+                    window.force();
+                }
+                window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW, bytes));
+            }
+            MockFrames.put(window, payload);
+            records.clear();
+            frames++;
+        }
+
+        /**
+         * Cuts the file at the end of the last frame, the last window having made it longer.
+         *
+         * @return the size of the file
+         */
+        long finish() throws IOException {
+            long end = windowStart;
+            if (window != null) {
+                end += window.position();
+                window.force();
+            }
+            channel.truncate(end);
+            return end;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.library.service.base.Page;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent in-memory table of entities ordered by their id.
+ * <p>
+ * Reads never lock. {@link #list()} returns an immutable snapshot which is shared between callers
+ * and only rebuilt after a write happened. {@link #page(Long, int)} walks the ids from a key, so that a
+ * page costs its own size whatever its position.
+ *
+ * @param <T> the entity type
+ */
+final class MockStore<T> {
+
+    private final ConcurrentSkipListMap<Long, T> entities = new ConcurrentSkipListMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot<T> snapshot = new Snapshot<>(-1, List.of());
+
+    T get(Long id) {
+        return id == null ? null : entities.get(id);
+    }
+
+    boolean containsKey(Long id) {
+        return id != null && entities.containsKey(id);
+    }
+
+    void put(Long id, T entity) {
+        entities.put(id, entity);
+        version.incrementAndGet();
+    }
+
+    T remove(Long id) {
+        T removed = entities.remove(id);
+        if (removed != null) {
+            version.incrementAndGet();
+        }
+        return removed;
+    }
+
+    int size() {
+        return entities.size();
+    }
+
+    /**
+     * @return a weakly consistent live view of the entities in id order, prefer {@link #list()} when the result
+     * must not change
+     */
+    Collection<T> values() {
+        return entities.values();
+    }
+
+    /**
+     * @return an immutable copy of all entities, shared until the next write
+     */
+    List<T> list() {
+        Snapshot<T> current = snapshot;
+        long v = version.get();
+        if (current.version() == v) {
+            return current.values();
+        }
+        // a write racing with the copy leaves a snapshot tagged with an older version, it will be rebuilt next time
+        List<T> values = List.copyOf(entities.values());
+        snapshot = new Snapshot<>(v, values);
+        return values;
+    }
+
+    /**
+     * @param after the id after which the page starts, null for the first page
+     * @param limit maximum number of entities
+     * @return the entities following {@code after} in id order
+     */
+    Page<T, Long> page(Long after, int limit) {
+        ConcurrentNavigableMap<Long, T> tail = after == null ? entities : entities.tailMap(after, false);
+        List<T> content = new ArrayList<>(Math.min(limit, 1024));
+        Long last = null;
+        Iterator<Map.Entry<Long, T>> it = tail.entrySet().iterator();
+        while (content.size() < limit && it.hasNext()) {
+            var entry = it.next();
+            content.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new Page<>(content, it.hasNext() ? last : null);
+    }
+
+    private record Snapshot<T>(long version, List<T> values) {
+    }
+}
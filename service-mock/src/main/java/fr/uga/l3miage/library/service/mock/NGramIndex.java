@@ -0,0 +1,123 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Case-insensitive substring index over a text attribute, based on trigrams.
+ * <p>
+ * Each trigram of the folded text maps to the ids of the entries containing it. A query intersects the posting
+ * lists of its own trigrams, starting with the smallest, then checks candidates against the folded text.
+ * Queries shorter than a trigram fall back to a scan of the folded texts, which at least avoids folding
+ * every entry again.
+ */
+final class NGramIndex {
+
+    private static final int N = 3;
+
+    private final Map<Long, String> folded = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes or re-indexes an entry, caller must hold the entry stripe.
+     *
+     * @param id   entry id
+     * @param text the text to index, may be null
+     */
+    void put(Long id, String text) {
+        remove(id);
+        if (text == null) {
+            return;
+        }
+        String f = fold(text);
+        folded.put(id, f);
+        for (int i = 0; i + N <= f.length(); i++) {
+            // added within compute so that a concurrent removal cannot drop the set in between
+            postings.compute(gram(f, i), (k, ids) -> {
+                Set<Long> updated = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                updated.add(id);
+                return updated;
+            });
+        }
+    }
+
+    /**
+     * Removes an entry, caller must hold the entry stripe.
+     *
+     * @param id entry id
+     */
+    void remove(Long id) {
+        String f = folded.remove(id);
+        if (f == null) {
+            return;
+        }
+        for (int i = 0; i + N <= f.length(); i++) {
+            postings.computeIfPresent(gram(f, i), (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * @param query the substring to look for, case-insensitive
+     * @return ids of the entries containing the query
+     */
+    List<Long> search(String query) {
+        String q = fold(query);
+        if (q.length() < N) {
+            return folded.entrySet().stream()
+                    .filter(e -> e.getValue().contains(q))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int i = 0; i + N <= q.length(); i++) {
+            Set<Long> ids = postings.get(gram(q, i));
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> found = new ArrayList<>();
+        Set<Long> smallest = lists.get(0);
+        candidates:
+        for (Long id : smallest) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue candidates;
+                }
+            }
+            // trigrams may all be present without being contiguous
+            String f = folded.get(id);
+            if (f != null && f.contains(q)) {
+                found.add(id);
+            }
+        }
+        return found;
+    }
+
+    int size() {
+        return folded.size();
+    }
+
+    int gramCount() {
+        return postings.size();
+    }
+
+    static String fold(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static long gram(String s, int from) {
+        return ((long) s.charAt(from) << 32) | ((long) s.charAt(from + 1) << 16) | s.charAt(from + 2);
+    }
+}
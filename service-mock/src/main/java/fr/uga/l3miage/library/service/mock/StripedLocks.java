@@ -0,0 +1,71 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks, entity ids are spread over them so that writes on different entities rarely contend.
+ * <p>
+ * To avoid deadlocks, author stripes are always taken before book stripes, and several stripes of the same
+ * set are taken with {@link #lockAll(Collection)} which orders them.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    StripedLocks(int count) {
+        if (Integer.bitCount(count) != 1) {
+            throw new IllegalArgumentException("stripe count must be a power of two: " + count);
+        }
+        this.stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = count - 1;
+    }
+
+    /**
+     * Locks the stripe of an id.
+     *
+     * @param id the entity id
+     * @return a handle releasing the lock when closed
+     */
+    Locked lock(Long id) {
+        ReentrantLock lock = stripes[index(id)];
+        lock.lock();
+        return lock::unlock;
+    }
+
+    /**
+     * Locks the stripes of several ids, in stripe order.
+     *
+     * @param ids the entity ids
+     * @return a handle releasing all locks when closed
+     */
+    Locked lockAll(Collection<Long> ids) {
+        int[] indexes = ids.stream().mapToInt(this::index).distinct().sorted().toArray();
+        for (int i : indexes) {
+            stripes[i].lock();
+        }
+        return () -> {
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        };
+    }
+
+    private int index(Long id) {
+        long h = id == null ? 0 : id * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * A held lock, meant to be used in a try-with-resources block.
+     */
+    @FunctionalInterface
+    interface Locked extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,201 @@
+package fr.uga.l3miage.library.service.mock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Case-insensitive substring index over book titles.
+ * <p>
+ * Titles are split into words, and every suffix of every word is kept in a sorted map pointing to the ids of
+ * the titles containing it. The entry of a whole word is thus its inverted list, and a prefix range of the map
+ * gives the titles having a word containing a given fragment. A query intersects the ids found for each of its
+ * words, then checks the candidates against the folded title so that results are the same as a substring
+ * match. Words of a single character are too common to be worth a lookup, a query made only of those scans.
+ */
+final class TitleIndex {
+
+    private static final int MIN_FRAGMENT = 2;
+
+    private final Map<Long, String> folded = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> fragments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Indexes or re-indexes a title, caller must hold the book stripe.
+     *
+     * @param id    book id
+     * @param title the title, may be null
+     */
+    void put(Long id, String title) {
+        remove(id);
+        if (title == null) {
+            return;
+        }
+        String f = NGramIndex.fold(title);
+        folded.put(id, f);
+        for (String fragment : fragments(f)) {
+            fragments.compute(fragment, (k, ids) -> {
+                Set<Long> updated = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                updated.add(id);
+                return updated;
+            });
+        }
+    }
+
+    /**
+     * Indexes many titles at once, as a snapshot is restored. The postings are gathered first, so that each
+     * fragment is looked up in the sorted map once rather than once per title having it.
+     *
+     * @param titles title by book id, books having none being absent
+     */
+    void putAll(Map<Long, String> titles) {
+        Map<String, Set<Long>> gathered = new HashMap<>();
+        titles.forEach((id, title) -> {
+            remove(id);
+            String f = NGramIndex.fold(title);
+            folded.put(id, f);
+            for (String fragment : fragments(f)) {
+                gathered.computeIfAbsent(fragment, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        });
+        gathered.forEach((fragment, ids) -> fragments.merge(fragment, ids, (current, added) -> {
+            current.addAll(added);
+            return current;
+        }));
+    }
+
+    /**
+     * Removes a title, caller must hold the book stripe.
+     *
+     * @param id book id
+     */
+    void remove(Long id) {
+        String f = folded.remove(id);
+        if (f == null) {
+            return;
+        }
+        for (String fragment : fragments(f)) {
+            fragments.computeIfPresent(fragment, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * @param query the substring to look for, case-insensitive
+     * @return ids of the books whose title contains the query
+     */
+    Set<Long> search(String query) {
+        return search(query, null);
+    }
+
+    /**
+     * @param query  the substring to look for, case-insensitive
+     * @param within ids to restrict the search to, intersected like any other posting list, or null
+     * @return ids among {@code within} of the books whose title contains the query
+     */
+    Set<Long> search(String query, Set<Long> within) {
+        String q = NGramIndex.fold(query);
+
+        List<Set<Long>> lists = new ArrayList<>();
+        if (within != null) {
+            lists.add(within);
+        }
+        for (String word : words(q)) {
+            if (word.length() >= MIN_FRAGMENT) {
+                Set<Long> ids = containing(word);
+                if (ids.isEmpty()) {
+                    return Set.of();
+                }
+                lists.add(ids);
+            }
+        }
+
+        Set<Long> found = new HashSet<>();
+        if (lists.isEmpty()) {
+            folded.forEach((id, title) -> {
+                if (title.contains(q)) {
+                    found.add(id);
+                }
+            });
+            return found;
+        }
+
+        lists.sort(Comparator.comparingInt(Set::size));
+        candidates:
+        for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue candidates;
+                }
+            }
+            String title = folded.get(id);
+            if (title != null && title.contains(q)) {
+                found.add(id);
+            }
+        }
+        return found;
+    }
+
+    int size() {
+        return folded.size();
+    }
+
+    int fragmentCount() {
+        return fragments.size();
+    }
+
+    /**
+     * @return ids of the titles having a word that contains the given fragment
+     */
+    private Set<Long> containing(String fragment) {
+        Map<String, Set<Long>> range = fragments.subMap(fragment, true, fragment + Character.MAX_VALUE, true);
+        Set<Long> ids = null;
+        boolean copied = false;
+        for (Set<Long> postings : range.values()) {
+            if (ids == null) {
+                ids = postings;
+            } else {
+                if (!copied) {
+                    ids = new HashSet<>(ids);
+                    copied = true;
+                }
+                ids.addAll(postings);
+            }
+        }
+        return ids == null ? Set.of() : ids;
+    }
+
+    private static Set<String> fragments(String title) {
+        Set<String> fragments = new HashSet<>();
+        for (String word : words(title)) {
+            for (int i = 0; i + MIN_FRAGMENT <= word.length(); i++) {
+                fragments.add(word.substring(i));
+            }
+        }
+        return fragments;
+    }
+
+    private static Collection<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,120 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AsyncAuthorService;
+import fr.uga.l3miage.library.service.AsyncBookService;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.mock.AuthorServiceMockImpl;
+import fr.uga.l3miage.library.service.mock.BookServiceMockImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncServiceAdapterTest {
+
+    private final AuthorServiceMockImpl authorService = new AuthorServiceMockImpl();
+    private final BookServiceMockImpl bookService = new BookServiceMockImpl();
+
+    @Test
+    void completesWithTheResultsOnTheExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "adapter-test"));
+        try {
+            AsyncAuthorService authors = new AsyncAuthorServiceAdapter(authorService, executor);
+            AsyncBookService books = new AsyncBookServiceAdapter(bookService, executor);
+            Author author = new Author();
+            author.setFullName("Marguerite Yourcenar");
+            Author saved = authors.save(author).get(5, TimeUnit.SECONDS);
+            Book book = new Book();
+            book.setTitle("Mémoires d'Hadrien");
+
+            // the executor is held until the stage is added, which then cannot run on the caller
+            CountDownLatch added = new CountDownLatch(1);
+            executor.execute(() -> await(added));
+            CompletableFuture<String> thread = books.save(saved.getId(), book)
+                    .thenApply(result -> Thread.currentThread().getName());
+            added.countDown();
+            assertThat(thread.get(5, TimeUnit.SECONDS)).isEqualTo("adapter-test");
+            assertThat(books.getByAuthor(saved.getId()).get(5, TimeUnit.SECONDS)).hasSize(1);
+            assertThat(authors.get(saved.getId()).get(5, TimeUnit.SECONDS).getFullName())
+                    .isEqualTo("Marguerite Yourcenar");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failsWithTheExceptionOfTheService() throws Exception {
+        // the caller runs the calls, the futures are done once returned
+        AsyncAuthorService authors = new AsyncAuthorServiceAdapter(authorService, Runnable::run);
+        AsyncBookService books = new AsyncBookServiceAdapter(bookService, Runnable::run);
+        Author first = authorService.save(author("Boileau"));
+        Author second = authorService.save(author("Narcejac"));
+        Book book = bookService.save(first.getId(), new Book());
+        bookService.addAuthor(book.getId(), second.getId());
+
+        assertThat(failure(authors.get(Long.MAX_VALUE))).isInstanceOf(EntityNotFoundException.class);
+        assertThat(failure(authors.delete(first.getId()))).isInstanceOf(DeleteAuthorException.class);
+        assertThat(failure(books.delete(Long.MAX_VALUE))).isInstanceOf(EntityNotFoundException.class);
+        assertThat(failure(books.findByIsbn(-1L))).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void failsWhenTheExecutorRejectsTheCall() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(started::countDown);
+        started.await();
+        executor.shutdown();
+
+        CompletableFuture<Long> version = new AsyncBookServiceAdapter(bookService, executor).version();
+        assertThat(failure(version)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void failsWhenTheExecutorIsSaturated() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            AsyncBookService books = new AsyncBookServiceAdapter(bookService, executor);
+            CompletableFuture<Long> queued = books.version();
+
+            assertThat(failure(books.version())).isInstanceOf(RejectedExecutionException.class);
+            release.countDown();
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNull();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Author author(String name) {
+        Author author = new Author();
+        author.setFullName(name);
+        return author;
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        return future.handle((value, failure) -> failure).join();
+    }
+}
@@ -0,0 +1,192 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.CatalogStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCountersTest {
+
+    private static final Book.Language[] LANGUAGES = Book.Language.values();
+
+    @Test
+    void countsAsAScanDoes() {
+        Random random = new Random(5);
+        CatalogCounters counters = new CatalogCounters();
+        Map<Long, Book> books = new HashMap<>();
+        Map<Long, Set<Long>> authors = new HashMap<>();
+        Set<Long> deleted = new HashSet<>();
+        // changes to deleted books come as from a transaction begun before the deletions
+        long ticket = counters.begin();
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(3_000);
+            int action = random.nextInt(10);
+            if (deleted.contains(id)) {
+                // changes to a deleted book are ignored
+                counters.put(book(id, random));
+                counters.link(random.nextInt(500), List.of(id));
+            } else if (action < 5) {
+                Book book = book(id, random);
+                books.put(id, book);
+                counters.put(book);
+            } else if (action < 9) {
+                long authorId = random.nextInt(500);
+                // links may come before their book
+                if (authors.computeIfAbsent(id, book -> new HashSet<>()).add(authorId)) {
+                    counters.link(authorId, List.of(id));
+                }
+            } else {
+                Set<Long> removed = authors.getOrDefault(id, Set.of());
+                counters.remove(id, removed);
+                books.remove(id);
+                authors.remove(id);
+                deleted.add(id);
+            }
+        }
+        assertThat(counters.stats()).isEqualTo(scan(books, authors));
+        assertThat(counters.tombstones()).isEqualTo(deleted.size());
+        counters.end(ticket);
+        assertThat(counters.tombstones()).isEqualTo(0);
+    }
+
+    @Test
+    void forgetsDeletionsNoPendingChangeMayFollow() {
+        CatalogCounters counters = new CatalogCounters();
+        for (long id = 1; id <= 4; id++) {
+            counters.put(id, (short) 2000, Book.Language.FRENCH);
+        }
+        counters.remove(1, List.of());
+        // nothing pending, nothing to remember
+        assertThat(counters.tombstones()).isEqualTo(0);
+
+        long first = counters.begin();
+        counters.remove(2, List.of());
+        long second = counters.begin();
+        counters.remove(3, List.of());
+        assertThat(counters.tombstones()).isEqualTo(2);
+
+        // the first change may still be about 2 or 3, the second one about 3 only
+        counters.put(2, (short) 2001, null);
+        counters.end(first);
+        assertThat(counters.tombstones()).isEqualTo(1);
+        counters.put(3, (short) 2001, null);
+        counters.end(second);
+        assertThat(counters.tombstones()).isEqualTo(0);
+        assertThat(counters.stats().books()).isEqualTo(1L);
+        assertThat(counters.stats().years()).isEqualTo(new TreeMap<>(Map.of((short) 2000, 1L)));
+    }
+
+    @Test
+    void removesAuthorsWithTheirBooks() {
+        CatalogCounters counters = new CatalogCounters();
+        for (long id = 1; id <= 4; id++) {
+            counters.put(id, (short) 2000, Book.Language.FRENCH);
+        }
+        counters.link(10, List.of(1L, 2L));
+        counters.link(11, List.of(3L));
+        counters.link(12, List.of(3L, 4L));
+
+        counters.removeAuthors(List.of(10L), List.of(1L, 2L));
+
+        CatalogStats stats = counters.stats();
+        assertThat(stats.books()).isEqualTo(2L);
+        assertThat(stats.authors()).isEqualTo(2L);
+        assertThat(stats.coAuthoredBooks()).isEqualTo(1L);
+        assertThat(stats.booksPerAuthor()).isEqualTo(new TreeMap<>(Map.of(1, 1L, 2, 1L)));
+        assertThat(stats.languages()).isEqualTo(Map.of(Book.Language.FRENCH, 2L));
+        assertThat(counters.size()).isEqualTo(2);
+
+        counters.clear();
+        counters.put(1, (short) 2001, null);
+        assertThat(counters.stats().books()).isEqualTo(1L);
+        assertThat(counters.stats().languages()).isEmpty();
+    }
+
+    @Test
+    void readersSeeMatchingCounts() throws Exception {
+        CatalogCounters counters = new CatalogCounters();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                long first = t * 100_000L;
+                writers.add(executor.submit(() -> {
+                    Random random = new Random(first);
+                    for (long id = first; id < first + 20_000; id++) {
+                        counters.put(book(id, random));
+                        counters.put(book(id, random));
+                        if (id % 3 == 0) {
+                            counters.remove(id, List.of());
+                        }
+                    }
+                }));
+            }
+            Future<Integer> reader = executor.submit(() -> {
+                int reads = 0;
+                while (!done.get()) {
+                    CatalogStats stats = counters.stats();
+                    long byYear = stats.years().values().stream().mapToLong(Long::longValue).sum();
+                    long byLanguage = stats.languages().values().stream().mapToLong(Long::longValue).sum();
+                    assertThat(byYear).isEqualTo(stats.books());
+                    assertThat(byLanguage).isEqualTo(stats.books());
+                    reads++;
+                }
+                return reads;
+            });
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            assertThat(reader.get()).isGreaterThan(0);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(counters.stats().books()).isEqualTo(40_000L - 6_667 - 6_666);
+    }
+
+    private static Book book(long id, Random random) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setYear((short) (1990 + random.nextInt(20)));
+        book.setLanguage(LANGUAGES[random.nextInt(LANGUAGES.length)]);
+        return book;
+    }
+
+    private static CatalogStats scan(Map<Long, Book> books, Map<Long, Set<Long>> authors) {
+        Map<Long, Integer> booksByAuthor = new HashMap<>();
+        long coAuthored = 0;
+        for (Set<Long> bookAuthors : authors.values()) {
+            bookAuthors.forEach(author -> booksByAuthor.merge(author, 1, Integer::sum));
+            if (bookAuthors.size() > 1) {
+                coAuthored++;
+            }
+        }
+        SortedMap<Integer, Long> booksPerAuthor = new TreeMap<>();
+        booksByAuthor.values().forEach(count -> booksPerAuthor.merge(count, 1L, Long::sum));
+        Map<Book.Language, Long> languages = new EnumMap<>(Book.Language.class);
+        SortedMap<Short, Long> years = new TreeMap<>();
+        for (Book book : books.values()) {
+            languages.merge(book.getLanguage(), 1L, Long::sum);
+            years.merge(book.getYear(), 1L, Long::sum);
+        }
+        return new CatalogStats(books.size(), booksByAuthor.size(), coAuthored, booksPerAuthor, languages, years);
+    }
+}
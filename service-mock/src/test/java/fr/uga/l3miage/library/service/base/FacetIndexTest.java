@@ -0,0 +1,98 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    @Test
+    void selectsAsTheFilterDoes() {
+        Random random = new Random(7);
+        FacetIndex index = new FacetIndex();
+        Map<Long, Book> books = new TreeMap<>();
+        for (long id = 1; id <= 20_000; id++) {
+            Book book = book(id, random);
+            books.put(id, book);
+            index.put(book);
+        }
+        // changes move books out of their former bitmaps
+        for (long id = 1; id <= 20_000; id += 7) {
+            Book book = book(id, random);
+            books.put(id, book);
+            index.put(book);
+        }
+        for (long id = 3; id <= 20_000; id += 11) {
+            books.remove(id);
+            index.remove(id);
+        }
+        assertThat(index.size()).isEqualTo(books.size());
+
+        List<BookFilter> filters = List.of(
+                BookFilter.ALL,
+                new BookFilter((short) 1990, (short) 1999, null, null),
+                new BookFilter(null, (short) 1985, Set.of(Book.Language.FRENCH), null),
+                new BookFilter((short) 2000, null, null, Set.of("Dunod", "Gallimard")),
+                new BookFilter((short) 1995, (short) 2005, Set.of(Book.Language.ENGLISH), Set.of("Seuil", "Unknown")),
+                new BookFilter((short) 2010, (short) 2000, null, null));
+        for (BookFilter filter : filters) {
+            List<Long> expected = books.values().stream().filter(filter::test).map(Book::getId).toList();
+            assertThat(ids(index.select(filter, null, Integer.MAX_VALUE))).containsExactlyElementsOf(expected);
+            if (expected.size() > 10) {
+                assertThat(ids(index.select(filter, expected.get(4), 5))).containsExactlyElementsOf(expected.subList(5, 10));
+            }
+        }
+    }
+
+    @Test
+    void countsTheOtherAttributes() {
+        Random random = new Random(11);
+        FacetIndex index = new FacetIndex();
+        List<Book> books = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            Book book = book(id, random);
+            books.add(book);
+            index.put(book);
+        }
+        BookFilter filter = new BookFilter((short) 1990, (short) 1999, Set.of(Book.Language.FRENCH), Set.of("Dunod"));
+
+        BookFacets facets = index.facets(filter, 2);
+
+        assertThat(facets.total()).isEqualTo(books.stream().filter(filter::test).count());
+        // the years are counted among the french books of Dunod, whatever their year
+        BookFilter otherThanYears = new BookFilter(null, null, filter.languages(), filter.publishers());
+        facets.years().forEach((year, count) -> assertThat(count)
+                .isEqualTo(books.stream().filter(book -> book.getYear() == year && otherThanYears.test(book)).count()));
+        assertThat(facets.years().values().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo(books.stream().filter(otherThanYears::test).count());
+        BookFilter otherThanLanguages = new BookFilter(filter.yearFrom(), filter.yearTo(), null, filter.publishers());
+        assertThat(facets.languages().get(Book.Language.ENGLISH))
+                .isEqualTo(books.stream().filter(book -> book.getLanguage() == Book.Language.ENGLISH
+                        && otherThanLanguages.test(book)).count());
+        assertThat(facets.publishers()).hasSize(2);
+    }
+
+    private static Book book(long id, Random random) {
+        Book book = new Book();
+        book.setId(id);
+        book.setYear((short) (1980 + random.nextInt(40)));
+        book.setLanguage(random.nextInt(10) == 0 ? null : Book.Language.values()[random.nextInt(2)]);
+        book.setPublisher(random.nextInt(10) == 0 ? null : List.of("Dunod", "Gallimard", "Seuil", "Flammarion").get(random.nextInt(4)));
+        return book;
+    }
+
+    private static List<Long> ids(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
@@ -0,0 +1,72 @@
+package fr.uga.l3miage.library.service.base;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdBitmapTest {
+
+    @Test
+    void matchesASortedSet() {
+        Random random = new Random(42);
+        IdBitmap bitmap = new IdBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            // dense enough in the first chunks to turn them into bitsets, and back as ids are removed
+            long id = random.nextInt(3) == 0 ? random.nextInt(1 << 20) - 10 : random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                bitmap.remove(id);
+                expected.remove(id);
+            } else {
+                bitmap.add(id);
+                expected.add(id);
+            }
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo((long) expected.size());
+        assertThat(bitmap.contains(expected.first())).isTrue();
+        assertThat(bitmap.contains(-11)).isFalse();
+        assertThat(ids(bitmap.toArray())).containsExactlyElementsOf(expected);
+        assertThat(ids(bitmap.after(4095L, 100))).containsExactlyElementsOf(expected.tailSet(4095L, false).stream().limit(100).toList());
+        assertThat(ids(bitmap.after(null, 10))).containsExactlyElementsOf(expected.stream().limit(10).toList());
+        assertThat(bitmap.after(Long.MAX_VALUE, 10).length).isEqualTo(0);
+    }
+
+    @Test
+    void combines() {
+        IdBitmap evens = new IdBitmap();
+        IdBitmap thirds = new IdBitmap();
+        IdBitmap sparse = new IdBitmap();
+        for (long id = -5; id < 100_000; id++) {
+            if (id % 2 == 0) {
+                evens.add(id);
+            }
+            if (id % 3 == 0) {
+                thirds.add(id);
+            }
+            if (id % 1000 == 0) {
+                sparse.add(id);
+            }
+        }
+
+        IdBitmap sixths = evens.and(thirds);
+        assertThat(sixths.cardinality()).isEqualTo(evens.andCardinality(thirds));
+        assertThat(ids(sixths.toArray())).allMatch(id -> id % 6 == 0);
+        assertThat(sixths.cardinality()).isEqualTo(16_667L);
+        assertThat(sparse.andCardinality(thirds)).isEqualTo(34L);
+
+        IdBitmap either = evens.or(thirds);
+        assertThat(either.cardinality()).isEqualTo(evens.cardinality() + thirds.cardinality() - sixths.cardinality());
+        assertThat(ids(IdBitmap.or(List.of(evens, thirds, sparse)).toArray())).containsExactlyElementsOf(ids(either.toArray()));
+        assertThat(IdBitmap.or(List.of()).isEmpty()).isTrue();
+    }
+
+    private static List<Long> ids(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
@@ -0,0 +1,93 @@
+package fr.uga.l3miage.library.service.base;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIdIndexTest {
+
+    @Test
+    void growsAndRemoves() {
+        LongIdIndex index = new LongIdIndex();
+        int count = 100_000;
+        for (int i = 1; i <= count; i++) {
+            // keys sharing their low bits, as consecutive ISBNs do
+            assertThat(index.replaceAll(new long[]{i}, new long[]{0}, new long[]{(long) i << 20}).isEmpty()).isTrue();
+        }
+        assertThat(index.size()).isEqualTo(count);
+
+        for (int i = 1; i <= count; i += 2) {
+            index.remove((long) i << 20, i);
+        }
+        assertThat(index.size()).isEqualTo(count / 2);
+        for (int i = 1; i <= count; i++) {
+            assertThat(index.get((long) i << 20)).isEqualTo(i % 2 == 0 ? i : LongIdIndex.NONE);
+        }
+    }
+
+    @Test
+    void replacesAllOrNothing() {
+        LongIdIndex index = new LongIdIndex();
+        index.replaceAll(new long[]{1, 2}, new long[]{0, 0}, new long[]{10, 20});
+
+        // 3 cannot take 20 from 2, which keeps it, and 1 keeps 10
+        assertThat(index.replaceAll(new long[]{1, 3}, new long[]{10, 0}, new long[]{11, 20})).containsOnlyKeys(1);
+        assertThat(index.get(10)).isEqualTo(1L);
+        assertThat(index.get(11)).isEqualTo(LongIdIndex.NONE);
+
+        // a key freed in the same call may be taken
+        assertThat(index.replaceAll(new long[]{1, 2}, new long[]{10, 20}, new long[]{20, 10})).isEmpty();
+        assertThat(index.get(10)).isEqualTo(2L);
+        assertThat(index.get(20)).isEqualTo(1L);
+    }
+
+    @Test
+    void putReplacesTheId() {
+        LongIdIndex index = new LongIdIndex();
+        index.put(Long.MIN_VALUE, 10);
+        index.put(Long.MIN_VALUE, 11);
+        index.put(0, 12);
+
+        assertThat(index.get(Long.MIN_VALUE)).isEqualTo(11L);
+        assertThat(index.size()).isEqualTo(1);
+        index.remove(Long.MIN_VALUE, 10);
+        assertThat(index.get(Long.MIN_VALUE)).isEqualTo(11L);
+        index.remove(Long.MIN_VALUE, 11);
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    @Test
+    void readsWhileGrowing() throws Exception {
+        LongIdIndex index = new LongIdIndex();
+        for (int i = 1; i <= 100; i++) {
+            index.replaceAll(new long[]{i}, new long[]{0}, new long[]{(long) i << 20});
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> reader = executor.submit(() -> {
+                long reads = 0;
+                while (!done.get()) {
+                    for (int i = 1; i <= 100; i++) {
+                        assertThat(index.get((long) i << 20)).isEqualTo((long) i);
+                        reads++;
+                    }
+                }
+                return reads;
+            });
+            // each insert past half of the capacity resizes the table under the reader
+            for (int i = 101; i <= 200_000; i++) {
+                index.replaceAll(new long[]{i}, new long[]{0}, new long[]{(long) i << 20});
+            }
+            done.set(true);
+            assertThat(reader.get()).isGreaterThan(0L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
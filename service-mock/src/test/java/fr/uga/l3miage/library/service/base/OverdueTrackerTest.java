@@ -0,0 +1,66 @@
+package fr.uga.l3miage.library.service.base;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OverdueTrackerTest {
+
+    static final Instant START = Instant.parse("2023-03-01T00:00:00Z");
+
+    OverdueTracker tracker = new OverdueTracker(Duration.ofMinutes(1), START);
+
+    @Test
+    void borrowsFallDue() {
+        tracker.checkedOut(1L, 10L, START.plus(Duration.ofDays(21)));
+        tracker.checkedOut(1L, 11L, START.plus(Duration.ofDays(21)));
+        tracker.checkedOut(2L, 20L, START.plus(Duration.ofDays(7)));
+
+        assertThat(tracker.advance(START.plus(Duration.ofDays(7)).minusSeconds(1))).isEmpty();
+        assertThat(tracker.advance(START.plus(Duration.ofDays(7)))).containsOnlyKeys(2L);
+        assertThat(tracker.lateRatio(2L)).isEqualTo(1f);
+        assertThat(tracker.worst(10)).containsExactly(2L);
+
+        // given back in time, then too late but before the wheel got there
+        assertThat(tracker.returned(1L, 10L, START.plus(Duration.ofDays(20)))).isEqualTo(0f);
+        assertThat(tracker.returned(1L, 11L, START.plus(Duration.ofDays(22)))).isEqualTo(0.5f);
+        assertThat(tracker.advance(START.plus(Duration.ofDays(30)))).isEmpty();
+        assertThat(tracker.worst(10)).containsExactly(2L, 1L);
+        assertThat(tracker.worst(1)).containsExactly(2L);
+
+        // expired borrows are already counted when given back
+        assertThat(tracker.returned(2L, 20L, START.plus(Duration.ofDays(31)))).isEqualTo(1f);
+        assertThat(tracker.pending()).isEqualTo(0);
+    }
+
+    @Test
+    void expiresInDueOrderOverAllWheels() {
+        Random random = new Random(42);
+        List<Long> dues = new ArrayList<>();
+        for (long borrow = 0; borrow < 5000; borrow++) {
+            // from a minute up to about 60 years, the last ones waiting in the overflow list
+            long minutes = 1 + (long) Math.pow(2, random.nextDouble() * 25);
+            dues.add(minutes);
+            tracker.checkedOut(borrow, borrow, START.plus(Duration.ofMinutes(minutes)));
+        }
+        long expired = 0;
+        for (long minutes = 1 << 26; minutes > 0; minutes >>= 3) {
+            // jump to a few points, every borrow due by each of them must have expired
+            Instant now = START.plus(Duration.ofMinutes((1 << 26) - minutes));
+            Map<Long, Float> ratios = tracker.advance(now);
+            expired += ratios.size();
+            long due = (1 << 26) - minutes;
+            assertThat(ratios.keySet()).allMatch(borrow -> dues.get(borrow.intValue()) <= due);
+            assertThat(expired).isEqualTo(dues.stream().filter(d -> d <= due).count());
+        }
+        tracker.advance(START.plus(Duration.ofMinutes(1 << 26)));
+        assertThat(tracker.pending()).isEqualTo(0);
+    }
+}
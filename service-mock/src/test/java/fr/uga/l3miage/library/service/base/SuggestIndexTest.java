@@ -0,0 +1,136 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.library.service.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestIndexTest {
+
+    private static final String[] WORDS = {"victor", "hugo", "vincent", "émile", "zola", "ernest", "hemingway",
+            "les", "misérables", "la", "bête", "humaine", "the", "old", "man", "and", "sea", "victoire", "humain"};
+
+    @Test
+    void ranksAsAScanDoes() {
+        Random random = new Random(11);
+        SuggestIndex index = new SuggestIndex();
+        Map<Long, String> texts = new TreeMap<>();
+        Map<Long, Integer> weights = new TreeMap<>();
+        for (long id = 1; id <= 20_000; id++) {
+            put(index, texts, weights, id, random);
+        }
+        // changes and removals leave keys behind in the runs, until merges drop them
+        for (long id = 1; id <= 20_000; id += 5) {
+            put(index, texts, weights, id, random);
+        }
+        for (long id = 2; id <= 20_000; id += 9) {
+            texts.remove(id);
+            weights.remove(id);
+            index.remove(id);
+        }
+        assertThat(index.size()).isEqualTo(texts.size());
+
+        for (String prefix : List.of("v", "vi", "Vic", "hu", "humain", "emi", "É", "z", "the o", "sea 1", "x", "mis")) {
+            List<Long> expected = scan(texts, weights, prefix, 10);
+            assertThat(index.suggest(prefix, 10).stream().map(Suggestion::id).toList())
+                    .as(prefix)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void completesAnyWordIgnoringCaseAndAccents() {
+        SuggestIndex index = new SuggestIndex();
+        index.put(1, "Émile Zola", 0);
+        index.put(2, "Victor Hugo", 0);
+
+        assertThat(index.suggest("emi", 5)).containsExactly(new Suggestion(1, "Émile Zola"));
+        assertThat(index.suggest("ZOL", 5)).containsExactly(new Suggestion(1, "Émile Zola"));
+        assertThat(index.suggest("victor h", 5)).containsExactly(new Suggestion(2, "Victor Hugo"));
+        // inside a word is not the start of a word
+        assertThat(index.suggest("ola", 5)).isEmpty();
+        assertThat(index.suggest(" ", 5)).isEmpty();
+    }
+
+    @Test
+    void weightsComeFirstThenShortTexts() {
+        SuggestIndex index = new SuggestIndex();
+        index.put(1, "Hugo", 0);
+        index.put(2, "Hugo Victor", 0);
+        index.put(3, "Hugo Victor Marie", 3);
+
+        assertThat(index.suggest("hu", 5).stream().map(Suggestion::id).toList()).containsExactly(3L, 1L, 2L);
+        assertThat(index.suggest("hu", 2).stream().map(Suggestion::id).toList()).containsExactly(3L, 1L);
+
+        index.reweigh(1, 5);
+        assertThat(index.suggest("hu", 1).stream().map(Suggestion::id).toList()).containsExactly(1L);
+    }
+
+    @Test
+    void changedTextsAreNotSuggestedAnyMore() {
+        SuggestIndex index = new SuggestIndex();
+        for (long id = 0; id < 5_000; id++) {
+            index.put(id, "Book " + id, 0);
+        }
+        index.put(42, "Renamed", 0);
+        index.remove(43);
+
+        assertThat(index.suggest("renamed", 5)).containsExactly(new Suggestion(42, "Renamed"));
+        assertThat(index.suggest("42", 3)).containsExactly(new Suggestion(420, "Book 420"),
+                new Suggestion(421, "Book 421"), new Suggestion(422, "Book 422"));
+        assertThat(index.suggest("43", 1)).containsExactly(new Suggestion(430, "Book 430"));
+        assertThat(index.size()).isEqualTo(4_999);
+    }
+
+    private static void put(SuggestIndex index, Map<Long, String> texts, Map<Long, Integer> weights, long id,
+                            Random random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        // the id keeps keys distinct, ties are then broken by key only
+        String value = text.append(id).toString();
+        int weight = random.nextInt(4);
+        texts.put(id, value);
+        weights.put(id, weight);
+        index.put(id, value, weight);
+    }
+
+    /**
+     * @return the ids of the best texts having a word starting with the prefix, as ranked by the index
+     */
+    private static List<Long> scan(Map<Long, String> texts, Map<Long, Integer> weights, String prefix, int limit) {
+        String folded = SuggestIndex.fold(prefix);
+        record Match(long id, int weight, int length, String key) {
+        }
+        List<Match> matches = new ArrayList<>();
+        texts.forEach((id, text) -> {
+            String value = SuggestIndex.fold(text);
+            String best = null;
+            for (int i = 0; i < value.length(); i++) {
+                boolean start = Character.isLetterOrDigit(value.charAt(i))
+                        && (i == 0 || !Character.isLetterOrDigit(value.charAt(i - 1)));
+                if (start && value.startsWith(folded, i) && (best == null || value.substring(i).compareTo(best) < 0)) {
+                    best = value.substring(i);
+                }
+            }
+            if (best != null) {
+                matches.add(new Match(id, weights.get(id), text.length(), best));
+            }
+        });
+        return matches.stream()
+                .sorted(Comparator.comparingInt(Match::weight).reversed()
+                        .thenComparingInt(Match::length)
+                        .thenComparing(Match::key))
+                .limit(limit)
+                .map(Match::id)
+                .toList();
+    }
+}
@@ -4,15 +4,25 @@ import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.data.domain.Book;
 import fr.uga.l3miage.library.service.DeleteAuthorException;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.Suggestion;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
 
 
 class AuthorServiceMockImplTest {
 
     AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
-    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl(authorServiceMock);
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
 
     @Test
     void delete() throws EntityNotFoundException {
@@ -49,4 +59,116 @@ class AuthorServiceMockImplTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchByName() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Victor Hugo");
+        author = authorServiceMock.save(author);
+
+        assertThat(authorServiceMock.searchByName("HUGO")).contains(author);
+        assertThat(authorServiceMock.searchByName("r h")).contains(author);
+        assertThat(authorServiceMock.searchByName("hugo victor")).doesNotContain(author);
+
+        Author renamed = new Author();
+        renamed.setId(author.getId());
+        renamed.setFullName("Émile Zola");
+        authorServiceMock.update(renamed);
+
+        assertThat(authorServiceMock.searchByName("hugo")).doesNotContain(author);
+        assertThat(authorServiceMock.searchByName("émile")).contains(author);
+    }
+
+    @Test
+    void suggestionsFollowBooksAndDeletes() throws Exception {
+        Author pascal = new Author();
+        pascal.setFullName("Pascal Quignard");
+        pascal = authorServiceMock.save(pascal);
+        Author paul = new Author();
+        paul.setFullName("Paul Quignard");
+        paul = authorServiceMock.save(paul);
+
+        // same weight, the shorter name first
+        assertThat(authorServiceMock.suggest("quig", 5).stream().map(Suggestion::id).toList())
+                .containsExactly(paul.getId(), pascal.getId());
+
+        Book book = new Book();
+        book.setTitle("Tous les matins du monde");
+        book = bookServiceMock.save(pascal.getId(), book);
+        assertThat(authorServiceMock.suggest("quig", 5).stream().map(Suggestion::id).toList())
+                .containsExactly(pascal.getId(), paul.getId());
+        assertThat(bookServiceMock.suggest("matins du", 5)).containsExactly(new Suggestion(book.getId(), book.getTitle()));
+
+        bookServiceMock.delete(book.getId());
+        authorServiceMock.delete(paul.getId());
+        assertThat(authorServiceMock.suggest("quig", 5).stream().map(Suggestion::id).toList())
+                .containsExactly(pascal.getId());
+        assertThat(bookServiceMock.suggest("matins du", 5)).isEmpty();
+    }
+
+    @Test
+    void concurrentDeletesAndAddAuthor() throws Exception {
+        List<Author> authors = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        for (int a = 0; a < 200; a++) {
+            Author author = new Author();
+            author.setFullName("Stress " + a);
+            authors.add(authorServiceMock.save(author));
+            for (int b = 0; b < 5; b++) {
+                Book book = new Book();
+                book.setTitle("Stress " + a + "." + b);
+                books.add(bookServiceMock.save(author.getId(), book));
+            }
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean deleting = t % 2 == 0;
+                tasks.add(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 500; i++) {
+                        Author author = authors.get(random.nextInt(authors.size()));
+                        try {
+                            if (deleting) {
+                                authorServiceMock.delete(author.getId());
+                            } else {
+                                bookServiceMock.addAuthor(books.get(random.nextInt(books.size())).getId(), author.getId());
+                            }
+                        } catch (EntityNotFoundException | DeleteAuthorException e) {
+                            // deleted meanwhile, or refused
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Author author : authors) {
+            boolean exists = MockData.authors.containsKey(author.getId());
+            Author current = MockData.authors.get(author.getId());
+            boolean coAuthored = false;
+            for (Book book : exists && current.getBooks() != null ? current.getBooks() : List.<Book>of()) {
+                assertThat(MockData.books.containsKey(book.getId())).isTrue();
+                assertThat(book.getAuthors()).contains(current);
+                coAuthored |= book.getAuthors().size() > 1;
+            }
+            assertThat(MockData.hasCoAuthoredBooks(author.getId())).isEqualTo(coAuthored);
+        }
+        for (Book book : books) {
+            if (MockData.books.containsKey(book.getId())) {
+                // a deleted author never leaves a book behind
+                assertThat(book.getAuthors()).allMatch(author -> MockData.authors.containsKey(author.getId()));
+            } else {
+                assertThat(bookServiceMock.findByTitle(book.getTitle())).doesNotContain(book);
+            }
+        }
+    }
+}
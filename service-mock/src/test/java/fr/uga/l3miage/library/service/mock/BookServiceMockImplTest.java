@@ -0,0 +1,313 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BatchException;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.DuplicateIsbnException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.base.CatalogCounters;
+import fr.uga.l3miage.library.service.base.Page;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookServiceMockImplTest {
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
+
+    @Test
+    void concurrentSaves() throws Exception {
+        Author author = new Author();
+        author.setFullName("Concurrent");
+        author = authorServiceMock.save(author);
+        Long authorId = author.getId();
+
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<List<Long>>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        Book book = new Book();
+                        book.setTitle("Book " + i);
+                        ids.add(bookServiceMock.save(authorId, book).getId());
+                    }
+                    return ids;
+                });
+            }
+            List<Long> ids = new ArrayList<>();
+            for (Future<List<Long>> result : executor.invokeAll(tasks)) {
+                ids.addAll(result.get());
+            }
+
+            assertThat(ids).doesNotHaveDuplicates().hasSize(threads * perThread);
+            assertThat(bookServiceMock.getByAuthor(authorId)).hasSize(threads * perThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void deleteUnlinksAuthors() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Unlinked");
+        author = authorServiceMock.save(author);
+
+        Book book = new Book();
+        book.setTitle("Deleted");
+        book = bookServiceMock.save(author.getId(), book);
+        bookServiceMock.delete(book.getId());
+
+        assertThat(bookServiceMock.getByAuthor(author.getId())).isEmpty();
+        assertThat(bookServiceMock.list()).doesNotContain(book);
+    }
+
+    @Test
+    void batches() throws EntityNotFoundException, BatchException {
+        Author author = new Author();
+        author.setFullName("Batched");
+        author = authorServiceMock.save(author);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Book book = new Book();
+            book.setTitle("Batched " + i);
+            books.add(book);
+        }
+
+        List<Long> ids = bookServiceMock.saveAll(author.getId(), books).stream().map(Book::getId).toList();
+
+        assertThat(ids).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(bookServiceMock.getByAuthor(author.getId())).containsExactlyInAnyOrderElementsOf(books);
+
+        List<Long> withMissing = new ArrayList<>(ids);
+        withMissing.add(Long.MAX_VALUE);
+        assertThatThrownBy(() -> bookServiceMock.deleteAll(withMissing))
+                .isInstanceOfSatisfying(BatchException.class, e -> assertThat(e.getFailures()).containsOnlyKeys(10));
+        assertThat(bookServiceMock.getByAuthor(author.getId())).hasSize(10);
+
+        bookServiceMock.deleteAll(ids.subList(0, 5));
+        assertThat(bookServiceMock.getByAuthor(author.getId())).containsExactlyInAnyOrderElementsOf(books.subList(5, 10));
+    }
+
+    @Test
+    void findByTitleAndAuthor() throws EntityNotFoundException {
+        Author hugo = new Author();
+        hugo.setFullName("Victor Hugo");
+        hugo = authorServiceMock.save(hugo);
+        Author zola = new Author();
+        zola.setFullName("Émile Zola");
+        zola = authorServiceMock.save(zola);
+
+        Book miserables = new Book();
+        miserables.setTitle("Les Misérables");
+        miserables = bookServiceMock.save(hugo.getId(), miserables);
+        Book assommoir = new Book();
+        assommoir.setTitle("L'Assommoir");
+        assommoir = bookServiceMock.save(zola.getId(), assommoir);
+
+        assertThat(bookServiceMock.findByTitle("MISÉR")).contains(miserables).doesNotContain(assommoir);
+        assertThat(bookServiceMock.findByTitle("s mis")).contains(miserables);
+        assertThat(bookServiceMock.findByTitle("'a")).contains(assommoir).doesNotContain(miserables);
+        assertThat(bookServiceMock.findByAuthor(zola.getId(), "l")).containsExactly(assommoir);
+
+        Book renamed = new Book();
+        renamed.setId(miserables.getId());
+        renamed.setTitle("Notre-Dame de Paris");
+        bookServiceMock.update(renamed);
+
+        assertThat(bookServiceMock.findByTitle("misérables")).doesNotContain(miserables);
+        assertThat(bookServiceMock.findByAuthor(hugo.getId(), "dame")).containsExactly(miserables);
+    }
+
+    @Test
+    void pages() throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Paged");
+        author = authorServiceMock.save(author);
+        for (int i = 0; i < 25; i++) {
+            Book book = new Book();
+            book.setTitle("Page " + i);
+            bookServiceMock.save(author.getId(), book);
+        }
+
+        List<Long> paged = new ArrayList<>();
+        Long after = null;
+        do {
+            Page<Book, Long> page = bookServiceMock.page(after, 10);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(10);
+            page.content().forEach(book -> paged.add(book.getId()));
+            after = page.next();
+        } while (after != null);
+
+        assertThat(paged)
+                .isSorted()
+                .containsExactlyInAnyOrderElementsOf(bookServiceMock.list().stream().map(Book::getId).toList());
+    }
+
+    @Test
+    void isbns() throws EntityNotFoundException, BatchException {
+        Author author = new Author();
+        author.setFullName("Numbered");
+        author = authorServiceMock.save(author);
+        Long authorId = author.getId();
+
+        Book first = isbnBook("First", 9782070360024L);
+        first = bookServiceMock.save(authorId, first);
+        assertThat(bookServiceMock.findByIsbn(9782070360024L)).isSameAs(first);
+        assertThatThrownBy(() -> bookServiceMock.findByIsbn(9782070360025L)).isInstanceOf(EntityNotFoundException.class);
+
+        assertThatThrownBy(() -> bookServiceMock.save(authorId, isbnBook("Copy", 9782070360024L)))
+                .isInstanceOf(DuplicateIsbnException.class);
+        // nothing of a refused batch is indexed
+        assertThatThrownBy(() -> bookServiceMock.saveAll(authorId,
+                List.of(isbnBook("New", 9782070360031L), isbnBook("Copy", 9782070360024L))))
+                .isInstanceOf(DuplicateIsbnException.class);
+        assertThatThrownBy(() -> bookServiceMock.findByIsbn(9782070360031L)).isInstanceOf(EntityNotFoundException.class);
+
+        Book second = bookServiceMock.save(authorId, isbnBook("Second", 9782070360048L));
+        Book stolen = isbnBook("Second", 9782070360024L);
+        stolen.setId(second.getId());
+        assertThatThrownBy(() -> bookServiceMock.update(stolen)).isInstanceOf(DuplicateIsbnException.class);
+        // updating a book with its own instance keeps its isbn
+        first.setTitle("First, again");
+        bookServiceMock.update(first);
+        assertThat(bookServiceMock.findByIsbn(9782070360024L)).isSameAs(first);
+
+        // isbns may be swapped within a batch
+        Book firstSwapped = isbnBook("First", 9782070360048L);
+        firstSwapped.setId(first.getId());
+        Book secondSwapped = isbnBook("Second", 9782070360024L);
+        secondSwapped.setId(second.getId());
+        bookServiceMock.updateAll(List.of(firstSwapped, secondSwapped));
+        assertThat(bookServiceMock.findByIsbn(9782070360048L)).isSameAs(first);
+        assertThat(bookServiceMock.findByIsbn(9782070360024L)).isSameAs(second);
+
+        bookServiceMock.delete(second.getId());
+        assertThat(bookServiceMock.save(authorId, isbnBook("Reused", 9782070360024L)).getIsbn()).isEqualTo(9782070360024L);
+    }
+
+    @Test
+    void filtersFollowChanges() throws EntityNotFoundException, BatchException {
+        Author author = new Author();
+        author.setFullName("Faceted");
+        author = authorServiceMock.save(author);
+        // a publisher of its own, the other tests add books of their own
+        String publisher = "Faceted " + author.getId();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Book book = new Book();
+            book.setTitle("Facet " + i);
+            book.setPublisher(publisher);
+            book.setYear((short) (1990 + i % 10));
+            book.setLanguage(i % 3 == 0 ? Book.Language.ENGLISH : Book.Language.FRENCH);
+            books.add(book);
+        }
+        books = bookServiceMock.saveAll(author.getId(), books);
+        BookFilter nineties = new BookFilter((short) 1990, (short) 1994, Set.of(Book.Language.FRENCH), Set.of(publisher));
+
+        List<Long> paged = new ArrayList<>();
+        Long after = null;
+        do {
+            Page<Book, Long> page = bookServiceMock.filter(nineties, after, 4, EnumSet.allOf(BookField.class));
+            page.content().forEach(book -> paged.add(book.getId()));
+            after = page.next();
+        } while (after != null);
+        assertThat(paged).isSorted().containsExactlyInAnyOrderElementsOf(
+                books.stream().filter(nineties::test).map(Book::getId).toList());
+
+        BookFacets facets = bookServiceMock.facets(nineties, 10);
+        assertThat(facets.total()).isEqualTo((long) paged.size());
+        assertThat(facets.languages().get(Book.Language.ENGLISH)).isEqualTo(5L);
+        assertThat(facets.years().get((short) 1997)).isEqualTo(2L);
+
+        Book moved = bookServiceMock.get(paged.get(0));
+        Book changed = new Book();
+        changed.setId(moved.getId());
+        changed.setTitle(moved.getTitle());
+        changed.setPublisher(publisher);
+        changed.setYear((short) 2001);
+        changed.setLanguage(Book.Language.FRENCH);
+        bookServiceMock.update(changed);
+        bookServiceMock.delete(paged.get(1));
+        assertThat(bookServiceMock.filter(nineties, null, 100, EnumSet.allOf(BookField.class)).content())
+                .hasSize(paged.size() - 2);
+        assertThat(bookServiceMock.facets(new BookFilter(null, null, null, Set.of(publisher)), 10).years().get((short) 2001))
+                .isEqualTo(1L);
+
+        // changed behind the index, as by a write between the selection and the read
+        Book stale = bookServiceMock.get(paged.get(2));
+        short year = stale.getYear();
+        stale.setYear((short) 1980);
+        try {
+            assertThat(bookServiceMock.filter(nineties, null, 100, EnumSet.allOf(BookField.class)).content().stream()
+                    .map(Book::getId).toList()).hasSize(paged.size() - 3).doesNotContain(stale.getId());
+        } finally {
+            stale.setYear(year);
+        }
+    }
+
+    @Test
+    void statsFollowChanges() throws EntityNotFoundException, BatchException, DeleteAuthorException {
+        Author author = new Author();
+        author.setFullName("Counted");
+        author = authorServiceMock.save(author);
+        Author coAuthor = new Author();
+        coAuthor.setFullName("Counted too");
+        coAuthor = authorServiceMock.save(coAuthor);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Book book = new Book();
+            book.setTitle("Counted " + i);
+            book.setYear((short) (2010 + i % 2));
+            book.setLanguage(Book.Language.FRENCH);
+            books.add(book);
+        }
+        books = bookServiceMock.saveAll(author.getId(), books);
+        assertThat(bookServiceMock.stats()).isEqualTo(CatalogCounters.of(bookServiceMock.list()).stats());
+
+        Book changed = new Book();
+        changed.setId(books.get(0).getId());
+        changed.setTitle("Changed");
+        changed.setYear((short) 1999);
+        changed.setLanguage(Book.Language.ENGLISH);
+        bookServiceMock.update(changed);
+        bookServiceMock.addAuthor(books.get(1).getId(), coAuthor.getId());
+        bookServiceMock.delete(books.get(2).getId());
+        bookServiceMock.deleteAll(List.of(books.get(3).getId()));
+        assertThat(bookServiceMock.stats()).isEqualTo(CatalogCounters.of(bookServiceMock.list()).stats());
+
+        Author alone = new Author();
+        alone.setFullName("Counted alone");
+        alone = authorServiceMock.save(alone);
+        Book book = new Book();
+        book.setTitle("Alone");
+        bookServiceMock.save(alone.getId(), book);
+        authorServiceMock.delete(alone.getId());
+        assertThat(bookServiceMock.stats()).isEqualTo(CatalogCounters.of(bookServiceMock.list()).stats());
+    }
+
+    private static Book isbnBook(String title, long isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        return book;
+    }
+}
@@ -0,0 +1,125 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import fr.uga.l3miage.library.service.UnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BorrowServiceMockImplTest {
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
+    BorrowServiceMockImpl borrowServiceMock = new BorrowServiceMockImpl();
+
+    @Test
+    void checkoutAndGiveBack() throws Exception {
+        List<Long> books = books(3);
+        Borrower borrower = borrower();
+
+        Borrow borrow = borrowServiceMock.checkout(borrower.getId(), books.subList(0, 2));
+        assertThat(borrow.getBooks()).hasSize(2);
+        assertThat(borrow.getEnd()).isAfter(borrow.getStart());
+        assertThat(borrowServiceMock.active(borrower.getId())).containsExactly(borrow);
+
+        UnavailableException e = assertThrows(UnavailableException.class,
+                () -> borrowServiceMock.checkout(borrower().getId(), books.subList(1, 3)));
+        assertThat(e.getBookIds()).containsExactly(books.get(1));
+        // nothing was taken by the failed checkout
+        assertThat(MockData.borrowed.isTaken(books.get(2))).isFalse();
+
+        assertThat(borrowServiceMock.giveBack(borrow.getId()).getReturned()).isNotNull();
+        assertThat(borrowServiceMock.active(borrower.getId())).isEmpty();
+        // giving back twice changes nothing
+        borrowServiceMock.giveBack(borrow.getId());
+        assertThat(borrowServiceMock.checkout(borrower().getId(), books).getBooks()).hasSize(3);
+    }
+
+    @Test
+    void checkoutUnknown() {
+        assertThrows(EntityNotFoundException.class, () -> borrowServiceMock.checkout(Long.MAX_VALUE, List.of(-1L)));
+        assertThrows(EntityNotFoundException.class, () -> borrowServiceMock.checkout(borrower().getId(), List.of(Long.MAX_VALUE)));
+        assertThrows(EntityNotFoundException.class, () -> borrowServiceMock.giveBack(Long.MAX_VALUE));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverShareABook() throws Exception {
+        List<Long> books = books(64);
+        int threads = 8;
+        Map<Long, AtomicInteger> holders = new ConcurrentHashMap<>();
+        books.forEach(id -> holders.put(id, new AtomicInteger()));
+        AtomicInteger conflicts = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Long borrower = borrower().getId();
+                    for (int i = 0; i < 2000; i++) {
+                        List<Long> wanted = List.of(books.get(random.nextInt(books.size())),
+                                books.get(random.nextInt(books.size())));
+                        try {
+                            Borrow borrow = borrowServiceMock.checkout(borrower, wanted);
+                            for (Book book : borrow.getBooks()) {
+                                assertThat(holders.get(book.getId()).incrementAndGet()).isEqualTo(1);
+                            }
+                            for (Book book : borrow.getBooks()) {
+                                holders.get(book.getId()).decrementAndGet();
+                            }
+                            borrowServiceMock.giveBack(borrow.getId());
+                        } catch (UnavailableException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(books).noneMatch(MockData.borrowed::isTaken);
+        assertThat(conflicts.get()).isLessThan(threads * 2000);
+    }
+
+    private Borrower borrower() {
+        Borrower borrower = new Borrower();
+        borrower.setFirstName("Jean");
+        borrower.setLastName("Valjean");
+        return borrowServiceMock.saveBorrower(borrower);
+    }
+
+    private List<Long> books(int count) throws EntityNotFoundException {
+        Author author = new Author();
+        author.setFullName("Borrowed");
+        author = authorServiceMock.save(author);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setTitle("Borrowed " + i);
+            ids.add(bookServiceMock.save(author.getId(), book).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,223 @@
+package fr.uga.l3miage.library.service.mock;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.DeleteAuthorException;
+import fr.uga.l3miage.library.service.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MockDurabilityTest {
+
+    AuthorServiceMockImpl authorServiceMock = new AuthorServiceMockImpl();
+    BookServiceMockImpl bookServiceMock = new BookServiceMockImpl();
+
+    @Test
+    void recoversSnapshotAndJournal() throws Exception {
+        Path directory = Files.createTempDirectory("mock-durability");
+        MockDurability durability = MockDurability.open(directory, false, Duration.ZERO);
+
+        Author hugo = authorServiceMock.save(author("Victor Hugo"));
+        Author zola = authorServiceMock.save(author("Émile Zola"));
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            books.add(book("Book " + i, 9791000000000L + i));
+        }
+        bookServiceMock.saveAll(hugo.getId(), books);
+        bookServiceMock.addAuthor(books.get(0).getId(), zola.getId());
+        durability.snapshot();
+
+        // journal written after the snapshot, some of it undoing what the snapshot has
+        Book renamed = book("Renamed", 9791000000000L);
+        renamed.setId(books.get(0).getId());
+        bookServiceMock.update(renamed);
+        bookServiceMock.delete(books.get(1).getId());
+        Author hugoRenamed = author("V. Hugo");
+        hugoRenamed.setId(hugo.getId());
+        authorServiceMock.update(hugoRenamed);
+        Author dumas = authorServiceMock.save(author("Alexandre Dumas"));
+        bookServiceMock.save(dumas.getId(), book("Les Trois Mousquetaires", 9791000000100L));
+        Author deleted = authorServiceMock.save(author("Deleted"));
+        bookServiceMock.save(deleted.getId(), book("Deleted", 9791000000200L));
+        authorServiceMock.delete(deleted.getId());
+
+        Map<String, String> expected = catalog();
+        crash(directory);
+
+        MockData.clear();
+        assertThat(catalog()).isEmpty();
+        durability = MockDurability.open(directory, false, Duration.ZERO);
+        assertThat(durability.recovery().snapshot()).isTrue();
+        assertThat(durability.recovery().frames()).isEqualTo(8L);
+        assertThat(catalog()).isEqualTo(expected);
+        assertThat(bookServiceMock.findByIsbn(9791000000000L).getTitle()).isEqualTo("Renamed");
+        assertThatThrownBy(() -> bookServiceMock.findByIsbn(9791000000001L)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> authorServiceMock.delete(zola.getId())).isInstanceOf(DeleteAuthorException.class);
+        assertThat(bookServiceMock.save(dumas.getId(), book("Vingt ans après", 0)).getId()).isGreaterThan(books.get(9).getId());
+
+        // nothing to replay after a snapshot
+        expected = catalog();
+        durability.snapshot();
+        durability.close();
+        MockData.clear();
+        durability = MockDurability.open(directory, false, Duration.ZERO);
+        assertThat(durability.recovery().frames()).isEqualTo(0L);
+        assertThat(catalog()).isEqualTo(expected);
+        durability.close();
+    }
+
+    @Test
+    void deletedSeedStaysDeleted() throws Exception {
+        MockData.seed();
+        Path directory = Files.createTempDirectory("mock-durability");
+        MockDurability durability = MockDurability.open(directory, false, Duration.ZERO);
+        authorServiceMock.delete(-1L);
+        Author author = authorServiceMock.save(author("Seeded"));
+        // the isbn of the seed, free once it is deleted
+        Book book = bookServiceMock.save(author.getId(), book("Same isbn", 2145673168735453L));
+
+        Map<String, String> expected = catalog();
+        crash(directory);
+
+        // a restart puts the seed back before the recovery
+        MockData.seed();
+        durability = MockDurability.open(directory, false, Duration.ZERO);
+        assertThat(catalog()).isEqualTo(expected);
+        assertThat(bookServiceMock.findByIsbn(2145673168735453L).getId()).isEqualTo(book.getId());
+
+        durability.snapshot();
+        durability.close();
+        MockData.seed();
+        durability = MockDurability.open(directory, false, Duration.ZERO);
+        assertThat(durability.recovery().frames()).isEqualTo(0L);
+        assertThat(catalog()).isEqualTo(expected);
+        assertThatThrownBy(() -> authorServiceMock.get(-1L)).isInstanceOf(EntityNotFoundException.class);
+        durability.close();
+    }
+
+    @Test
+    void concurrentWritersShareForces() throws Exception {
+        Path directory = Files.createTempDirectory("mock-durability");
+        MockDurability durability = MockDurability.open(directory, true, Duration.ZERO);
+        Long authorId = authorServiceMock.save(author("Grouped")).getId();
+
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        bookServiceMock.save(authorId, book("Grouped " + i, 0));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, String> expected = catalog();
+        crash(directory);
+        MockData.clear();
+        durability = MockDurability.open(directory, false, Duration.ZERO);
+        assertThat(durability.recovery().frames()).isEqualTo(1L + threads * perThread);
+        assertThat(catalog()).isEqualTo(expected);
+        durability.close();
+    }
+
+    @Test
+    void failedJournalRejectsWrites() throws Exception {
+        Author author = authorServiceMock.save(author("Before the failure"));
+        Path directory = Files.createTempDirectory("mock-durability");
+        MockJournal journal = new MockJournal(directory, 1, false);
+        MockData.journal(journal);
+        try {
+            // the channel closed under the journal, its next write fails
+            journal.close();
+            assertThatThrownBy(() -> authorServiceMock.save(author("Failing"))).isInstanceOf(UncheckedIOException.class);
+
+            Map<String, String> expected = catalog();
+            long version = MockData.version();
+            assertThatThrownBy(() -> authorServiceMock.save(author("Rejected"))).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> bookServiceMock.save(author.getId(), book("Rejected", 0)))
+                    .isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> authorServiceMock.delete(author.getId())).isInstanceOf(UncheckedIOException.class);
+            assertThat(catalog()).isEqualTo(expected);
+            assertThat(MockData.version()).isEqualTo(version);
+        } finally {
+            MockData.journal(null);
+        }
+    }
+
+    /**
+     * Stops journaling as a crash would, in the middle of a frame.
+     */
+    private static void crash(Path directory) throws IOException {
+        MockData.journal(null);
+        List<Long> segments = MockJournal.segments(directory);
+        Files.write(MockJournal.segment(directory, segments.get(segments.size() - 1)), new byte[]{0, 0, 1, 0, 42},
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return a description of each author and book, with their links
+     */
+    private static Map<String, String> catalog() {
+        Map<String, String> catalog = new TreeMap<>();
+        for (Author author : MockData.authors.values()) {
+            Set<Book> books = Optional.ofNullable(author.getBooks()).orElse(Set.of());
+            catalog.put("author " + author.getId(), author.getFullName() + " " + ids(books.stream().map(Book::getId).toList()));
+        }
+        for (Book book : MockData.books.values()) {
+            catalog.put("book " + book.getId(), book.getTitle() + " " + book.getIsbn() + " " + book.getPublisher()
+                    + " " + book.getYear() + " " + book.getLanguage()
+                    + " " + ids(Optional.ofNullable(book.getAuthors()).orElse(Set.of()).stream().map(Author::getId).toList()));
+        }
+        return catalog;
+    }
+
+    private static String ids(List<Long> ids) {
+        return ids.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static Author author(String fullName) {
+        Author author = new Author();
+        author.setFullName(fullName);
+        return author;
+    }
+
+    private static Book book(String title, long isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setPublisher("Gallimard");
+        book.setYear((short) 1862);
+        book.setLanguage(Book.Language.FRENCH);
+        return book;
+    }
+}
@@ -0,0 +1,50 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.base.AsyncBaseService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link AuthorService}, see {@link AsyncBaseService}.
+ */
+public interface AsyncAuthorService extends AsyncBaseService<Author, Long> {
+
+    /**
+     * @see AuthorService#save(Author)
+     */
+    CompletableFuture<Author> save(Author author);
+
+    /**
+     * @see AuthorService#searchByName(String)
+     */
+    CompletableFuture<Collection<Author>> searchByName(String name);
+
+    /**
+     * @see AuthorService#suggest(String, int)
+     */
+    CompletableFuture<List<Suggestion>> suggest(String prefix, int limit);
+
+    /**
+     * @see AuthorService#delete(Long)
+     */
+    CompletableFuture<Void> delete(Long id);
+
+    /**
+     * @see AuthorService#saveAll(List)
+     */
+    CompletableFuture<List<Author>> saveAll(List<Author> authors);
+
+    /**
+     * @see AuthorService#updateAll(List)
+     */
+    CompletableFuture<List<Author>> updateAll(List<Author> authors);
+
+    /**
+     * @see AuthorService#deleteAll(List)
+     */
+    CompletableFuture<Void> deleteAll(List<Long> ids);
+
+}
@@ -0,0 +1,116 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.base.AsyncBaseService;
+import fr.uga.l3miage.library.service.base.Page;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link BookService}, see {@link AsyncBaseService}.
+ */
+public interface AsyncBookService extends AsyncBaseService<Book, Long> {
+
+    /**
+     * @see BookService#save(Long, Book)
+     */
+    CompletableFuture<Book> save(Long authorId, Book book);
+
+    /**
+     * @see BookService#saveAll(Long, List)
+     */
+    CompletableFuture<List<Book>> saveAll(Long authorId, List<Book> books);
+
+    /**
+     * @see BookService#updateAll(List)
+     */
+    CompletableFuture<List<Book>> updateAll(List<Book> books);
+
+    /**
+     * @see BookService#findByTitle(String)
+     */
+    CompletableFuture<Collection<Book>> findByTitle(String title);
+
+    /**
+     * @see BookService#findByIsbn(long)
+     */
+    CompletableFuture<Book> findByIsbn(long isbn);
+
+    /**
+     * @see BookService#getByAuthor(Long)
+     */
+    CompletableFuture<Collection<Book>> getByAuthor(Long id);
+
+    /**
+     * @see BookService#findByAuthor(Long, String)
+     */
+    CompletableFuture<Collection<Book>> findByAuthor(Long id, String title);
+
+    /**
+     * @see BookService#get(Long, Set)
+     */
+    CompletableFuture<Book> get(Long id, Set<BookField> fields);
+
+    /**
+     * @see BookService#list(Set)
+     */
+    CompletableFuture<Collection<Book>> list(Set<BookField> fields);
+
+    /**
+     * @see BookService#page(Long, int, Set)
+     */
+    CompletableFuture<Page<Book, Long>> page(Long after, int limit, Set<BookField> fields);
+
+    /**
+     * @see BookService#findByTitle(String, Set)
+     */
+    CompletableFuture<Collection<Book>> findByTitle(String title, Set<BookField> fields);
+
+    /**
+     * @see BookService#getByAuthor(Long, Set)
+     */
+    CompletableFuture<Collection<Book>> getByAuthor(Long id, Set<BookField> fields);
+
+    /**
+     * @see BookService#findByAuthor(Long, String, Set)
+     */
+    CompletableFuture<Collection<Book>> findByAuthor(Long id, String title, Set<BookField> fields);
+
+    /**
+     * @see BookService#filter(BookFilter, Long, int, Set)
+     */
+    CompletableFuture<Page<Book, Long>> filter(BookFilter filter, Long after, int limit, Set<BookField> fields);
+
+    /**
+     * @see BookService#facets(BookFilter, int)
+     */
+    CompletableFuture<BookFacets> facets(BookFilter filter, int publishers);
+
+    /**
+     * @see BookService#suggest(String, int)
+     */
+    CompletableFuture<List<Suggestion>> suggest(String prefix, int limit);
+
+    /**
+     * @see BookService#stats()
+     */
+    CompletableFuture<CatalogStats> stats();
+
+    /**
+     * @see BookService#delete(Long)
+     */
+    CompletableFuture<Void> delete(Long id);
+
+    /**
+     * @see BookService#deleteAll(List)
+     */
+    CompletableFuture<Void> deleteAll(List<Long> ids);
+
+    /**
+     * @see BookService#addAuthor(Long, Long)
+     */
+    CompletableFuture<Book> addAuthor(Long bookId, Long authorId);
+}
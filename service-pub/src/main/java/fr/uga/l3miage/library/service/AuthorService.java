@@ -2,8 +2,10 @@ package fr.uga.l3miage.library.service;
 
 import fr.uga.l3miage.data.domain.Author;
 import fr.uga.l3miage.library.service.base.BaseService;
+import fr.uga.l3miage.library.service.base.SuggestIndex;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface AuthorService extends BaseService<Author, Long> {
 
@@ -23,6 +25,25 @@ public interface AuthorService extends BaseService<Author, Long> {
      */
     Collection<Author> searchByName(String name);
 
+    /**
+     * Suggests authors as a name is typed, those having the most books first. The default implementation ranks
+     * the authors found by {@link #searchByName(String)}, the implementations keep a {@link SuggestIndex} up to
+     * date instead.
+     *
+     * @param prefix the beginning of a word of the name, ignoring case and accents
+     * @param limit  the maximum number of suggestions
+     * @return the authors having a word of their name starting with the prefix, best first
+     */
+    default List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix.isBlank()) {
+            return List.of();
+        }
+        SuggestIndex index = new SuggestIndex();
+        searchByName(prefix.strip()).forEach(author -> index.put(author.getId(), author.getFullName(),
+                author.getBooks() == null ? 0 : author.getBooks().size()));
+        return index.suggest(prefix, limit);
+    }
+
     /**
      * Deletes an author
      *
@@ -32,4 +53,30 @@ public interface AuthorService extends BaseService<Author, Long> {
      */
     void delete(Long id) throws EntityNotFoundException, DeleteAuthorException;
 
+    /**
+     * Saves several authors at once
+     *
+     * @param authors to be saved
+     * @return the authors with an id, in the same order
+     */
+    List<Author> saveAll(List<Author> authors);
+
+    /**
+     * Updates several authors at once, all of them or none
+     *
+     * @param authors the authors to update
+     * @return the updated authors, in the same order
+     * @throws BatchException when some of the authors do not exist, nothing is updated then
+     */
+    List<Author> updateAll(List<Author> authors) throws BatchException;
+
+    /**
+     * Deletes several authors at once, all of them or none
+     *
+     * @param ids ids of the authors to delete
+     * @throws BatchException when some of the authors do not exist ({@link EntityNotFoundException}) or have
+     *                        co-authored books ({@link DeleteAuthorException}), nothing is deleted then
+     */
+    void deleteAll(List<Long> ids) throws BatchException;
+
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package fr.uga.l3miage.library.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Thrown when a batch is rejected as a whole because of some of its items, none of them being applied
+ */
+public class BatchException extends Exception {
+
+    private final transient SortedMap<Integer, Exception> failures;
+
+    /**
+     * @param failures the cause of the failure of each rejected item, by index in the batch
+     */
+    public BatchException(Map<Integer, ? extends Exception> failures) {
+        super(failures.size() + " item(s) of the batch failed");
+        this.failures = Collections.unmodifiableSortedMap(new TreeMap<>(failures));
+    }
+
+    /**
+     * @return the cause of the failure of each rejected item, by index in the batch
+     */
+    public SortedMap<Integer, Exception> getFailures() {
+        return failures;
+    }
+}
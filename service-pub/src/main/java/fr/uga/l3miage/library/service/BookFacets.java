@@ -0,0 +1,20 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Numbers of books by value of their attributes, see {@link BookService#facets(BookFilter, int)}. The counts of
+ * an attribute apply the criteria on the other attributes only, so that they tell how many books selecting one
+ * more value would add. Values without books are absent.
+ *
+ * @param total      the number of books matching the whole filter
+ * @param years      the numbers of books by year, by increasing year
+ * @param languages  the numbers of books by language
+ * @param publishers the numbers of books of the publishers having the most, by decreasing number
+ */
+public record BookFacets(long total, SortedMap<Short, Long> years, Map<Book.Language, Long> languages,
+                         Map<String, Long> publishers) {
+}
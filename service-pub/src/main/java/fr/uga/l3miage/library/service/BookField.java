@@ -0,0 +1,43 @@
+package fr.uga.l3miage.library.service;
+
+import java.util.Set;
+
+/**
+ * Attributes of a book, to read only some of them, see {@link BookService#list(Set)}. A book read with a subset
+ * of them still has its id and version, the other attributes are left unset.
+ */
+public enum BookField {
+    ID("id"),
+    TITLE("title"),
+    ISBN("isbn"),
+    PUBLISHER("publisher"),
+    YEAR("year"),
+    LANGUAGE("language"),
+    AUTHORS("authors");
+
+    private final String attribute;
+
+    BookField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return the name of the attribute, the same in the entity and in its JSON representation
+     */
+    public String attribute() {
+        return attribute;
+    }
+
+    /**
+     * @param attribute the name of an attribute
+     * @return the field, null if the book has no such attribute
+     */
+    public static BookField of(String attribute) {
+        for (BookField field : values()) {
+            if (field.attribute.equals(attribute)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
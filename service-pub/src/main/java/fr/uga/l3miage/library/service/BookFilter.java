@@ -0,0 +1,50 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.Set;
+
+/**
+ * Criteria on the attributes of books, all of them having to match, see {@link BookService#filter}.
+ *
+ * @param yearFrom   the first year of publication, null for no lower bound
+ * @param yearTo     the last year of publication, null for no upper bound
+ * @param languages  the languages, any of them matching, empty for any language
+ * @param publishers the publishers, any of them matching, empty for any publisher
+ */
+public record BookFilter(Short yearFrom, Short yearTo, Set<Book.Language> languages, Set<String> publishers) {
+
+    /**
+     * Matches every book.
+     */
+    public static final BookFilter ALL = new BookFilter(null, null, Set.of(), Set.of());
+
+    public BookFilter {
+        languages = languages == null ? Set.of() : Set.copyOf(languages);
+        publishers = publishers == null ? Set.of() : Set.copyOf(publishers);
+    }
+
+    /**
+     * @return whether the filter matches every book
+     */
+    public boolean isEmpty() {
+        return !hasYears() && languages.isEmpty() && publishers.isEmpty();
+    }
+
+    /**
+     * @return whether the years are bounded
+     */
+    public boolean hasYears() {
+        return yearFrom != null || yearTo != null;
+    }
+
+    /**
+     * @return whether a book matches
+     */
+    public boolean test(Book book) {
+        return (yearFrom == null || book.getYear() >= yearFrom)
+                && (yearTo == null || book.getYear() <= yearTo)
+                && (languages.isEmpty() || book.getLanguage() != null && languages.contains(book.getLanguage()))
+                && (publishers.isEmpty() || book.getPublisher() != null && publishers.contains(book.getPublisher()));
+    }
+}
@@ -2,8 +2,15 @@ package fr.uga.l3miage.library.service;
 
 import fr.uga.l3miage.data.domain.Book;
 import fr.uga.l3miage.library.service.base.BaseService;
+import fr.uga.l3miage.library.service.base.CatalogCounters;
+import fr.uga.l3miage.library.service.base.FacetIndex;
+import fr.uga.l3miage.library.service.base.Page;
+import fr.uga.l3miage.library.service.base.SuggestIndex;
 
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
 
 public interface BookService extends BaseService<Book, Long> {
 
@@ -15,9 +22,32 @@ public interface BookService extends BaseService<Book, Long> {
      * @param book     the book to add
      * @return the book with an id set
      * @throws EntityNotFoundException if the author do not exist
+     * @throws DuplicateIsbnException  if another book has the same isbn
      */
     Book save(Long authorId, Book book) throws EntityNotFoundException;
 
+    /**
+     * Saves several books of an author at once
+     *
+     * @param authorId the author id
+     * @param books    the books to add
+     * @return the books with an id set, in the same order
+     * @throws EntityNotFoundException if the author do not exist
+     * @throws DuplicateIsbnException  if another book, or another one of the books, has the same isbn, none of
+     *                                 them being saved then
+     */
+    List<Book> saveAll(Long authorId, List<Book> books) throws EntityNotFoundException;
+
+    /**
+     * Updates several books at once, all of them or none
+     *
+     * @param books the books to update
+     * @return the updated books, in the same order
+     * @throws BatchException when some of the books do not exist or would get the isbn of another book, nothing is
+     *                        updated then
+     */
+    List<Book> updateAll(List<Book> books) throws BatchException;
+
     /**
      * Find books by title. Title can partial, will be matched in case-insensitive fashion
      *
@@ -26,6 +56,15 @@ public interface BookService extends BaseService<Book, Long> {
      */
     Collection<Book> findByTitle(String title);
 
+    /**
+     * Find a book by ISBN, books having distinct ISBNs
+     *
+     * @param isbn the isbn, 0 standing for none
+     * @return the book having this isbn
+     * @throws EntityNotFoundException if no book has this isbn
+     */
+    Book findByIsbn(long isbn) throws EntityNotFoundException;
+
     /**
      * Get all books for a given author
      *
@@ -45,14 +84,150 @@ public interface BookService extends BaseService<Book, Long> {
      */
     Collection<Book> findByAuthor(Long id, String title) throws EntityNotFoundException;
 
+    /*
+     * Projections: the same reads, needing only some attributes of the books. The others may be left unset, which
+     * lets an implementation skip loading them, the authors above all. The default implementations read whole
+     * books, as an in-memory store has nothing to skip.
+     */
+
+    /**
+     * Get a book, with some of its attributes only
+     *
+     * @param id     the book id
+     * @param fields the attributes needed
+     * @return the book
+     * @throws EntityNotFoundException if the book do not exist
+     */
+    default Book get(Long id, Set<BookField> fields) throws EntityNotFoundException {
+        return get(id);
+    }
+
+    /**
+     * @param fields the attributes needed
+     * @return all books, with some of their attributes only
+     * @see #list()
+     */
+    default Collection<Book> list(Set<BookField> fields) {
+        return list();
+    }
+
+    /**
+     * @param after  the id after which the page starts (excluded), null to start with the first book
+     * @param limit  the maximum number of books in the page
+     * @param fields the attributes needed
+     * @return a page of books, with some of their attributes only
+     * @see #page(Object, int)
+     */
+    default Page<Book, Long> page(Long after, int limit, Set<BookField> fields) {
+        return page(after, limit);
+    }
+
+    /**
+     * @param title  the title of the book or a part of it (case-insensitive)
+     * @param fields the attributes needed
+     * @return books with a matching title, with some of their attributes only
+     */
+    default Collection<Book> findByTitle(String title, Set<BookField> fields) {
+        return findByTitle(title);
+    }
+
+    /**
+     * @param id     the authors id
+     * @param fields the attributes needed
+     * @return all books belonging to the author, with some of their attributes only
+     * @throws EntityNotFoundException if the author do not exist
+     */
+    default Collection<Book> getByAuthor(Long id, Set<BookField> fields) throws EntityNotFoundException {
+        return getByAuthor(id);
+    }
+
+    /**
+     * @param id     author's id
+     * @param title  the title of the book or a part of it (case-insensitive)
+     * @param fields the attributes needed
+     * @return all books belonging to the author with a matching title, with some of their attributes only
+     * @throws EntityNotFoundException if the author do not exist
+     */
+    default Collection<Book> findByAuthor(Long id, String title, Set<BookField> fields) throws EntityNotFoundException {
+        return findByAuthor(id, title);
+    }
+
+    /*
+     * Filters on the year, language and publisher of the books. The default implementations look at every book,
+     * the implementations keep a FacetIndex up to date instead.
+     */
+
+    /**
+     * @param filter the criteria the books have to match
+     * @param after  the id after which the page starts (excluded), null to start with the first matching book
+     * @param limit  the maximum number of books in the page
+     * @param fields the attributes needed
+     * @return a page of the books matching the filter, with some of their attributes only
+     */
+    default Page<Book, Long> filter(BookFilter filter, Long after, int limit, Set<BookField> fields) {
+        List<Book> books = list().stream()
+                .filter(book -> (after == null || book.getId() > after) && filter.test(book))
+                .sorted(Comparator.comparing(Book::getId))
+                .limit(limit + 1L)
+                .toList();
+        return books.size() > limit
+                ? new Page<>(books.subList(0, limit), books.get(limit - 1).getId())
+                : new Page<>(books, null);
+    }
+
+    /**
+     * @param filter     the criteria the books have to match
+     * @param publishers the number of publishers to count books of, those having the most
+     * @return the numbers of books matching the filter, by value of their attributes
+     */
+    default BookFacets facets(BookFilter filter, int publishers) {
+        return FacetIndex.of(list()).facets(filter, publishers);
+    }
+
+    /**
+     * Suggests books as a title is typed, the shortest titles first. The default implementation ranks the books
+     * found by {@link #findByTitle(String)}, the implementations keep a {@link SuggestIndex} up to date instead.
+     *
+     * @param prefix the beginning of a word of the title, ignoring case and accents
+     * @param limit  the maximum number of suggestions
+     * @return the books having a word of their title starting with the prefix, best first
+     */
+    default List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix.isBlank()) {
+            return List.of();
+        }
+        SuggestIndex index = new SuggestIndex();
+        findByTitle(prefix.strip()).forEach(book -> index.put(book.getId(), book.getTitle(), 0));
+        return index.suggest(prefix, limit);
+    }
+
+    /**
+     * Numbers of books of the whole catalog, for dashboards. The default implementation counts every book, the
+     * implementations keep {@link CatalogCounters} up to date instead.
+     *
+     * @return the numbers of books by language and year, of co-authored books and of authors by number of books
+     */
+    default CatalogStats stats() {
+        return CatalogCounters.of(list()).stats();
+    }
+
     /**
      * Deletes a book
      *
      * @param id id of the book to delete
      * @throws EntityNotFoundException when the entity do not already exists
+     * @throws BorrowedBookException   when the book is part of a borrow not given back yet
      */
     void delete(Long id) throws EntityNotFoundException;
 
+    /**
+     * Deletes several books at once, all of them or none
+     *
+     * @param ids ids of the books to delete
+     * @throws BatchException when some of the books do not exist or are borrowed, nothing is deleted then
+     */
+    void deleteAll(List<Long> ids) throws BatchException;
+
 
     /**
      * Add an author to a book
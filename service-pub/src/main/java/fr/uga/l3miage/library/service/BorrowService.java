@@ -0,0 +1,63 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Borrow;
+import fr.uga.l3miage.data.domain.Borrower;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BorrowService {
+
+    /**
+     * Registers a borrower
+     *
+     * @param borrower to be saved
+     * @return the borrower with an id
+     */
+    Borrower saveBorrower(Borrower borrower);
+
+    /**
+     * @param id the borrower id
+     * @return the borrower
+     * @throws EntityNotFoundException when the borrower does not exist
+     */
+    Borrower getBorrower(Long id) throws EntityNotFoundException;
+
+    /**
+     * Lends books to a borrower, all of them or none. Each book can only be part of one active borrow: of several
+     * concurrent checkouts of the same book, a single one succeeds.
+     *
+     * @param borrowerId the borrower id
+     * @param bookIds    ids of the books to borrow
+     * @return the borrow, starting now and due after the loan period
+     * @throws EntityNotFoundException when the borrower or one of the books does not exist
+     * @throws UnavailableException    when some of the books are already borrowed, nothing is borrowed then
+     */
+    Borrow checkout(Long borrowerId, Collection<Long> bookIds) throws EntityNotFoundException, UnavailableException;
+
+    /**
+     * Gives the books of a borrow back, they can be borrowed again. Giving back a borrow twice has no effect.
+     *
+     * @param borrowId the borrow id
+     * @return the borrow, with its return date
+     * @throws EntityNotFoundException when the borrow does not exist
+     */
+    Borrow giveBack(Long borrowId) throws EntityNotFoundException;
+
+    /**
+     * @param borrowerId the borrower id
+     * @return borrows of the borrower whose books are not given back yet
+     * @throws EntityNotFoundException when the borrower does not exist
+     */
+    Collection<Borrow> active(Long borrowerId) throws EntityNotFoundException;
+
+    /**
+     * Borrowers with the highest late ratios. A borrow is late once its due date passed without it being given
+     * back, the late ratio of a borrower being its number of late borrows over its number of borrows.
+     *
+     * @param limit the maximum number of borrowers
+     * @return borrowers having late borrows, worst first
+     */
+    List<Borrower> worstBorrowers(int limit);
+
+}
@@ -0,0 +1,19 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * Thrown when a book cannot be deleted because it is borrowed. Unchecked, as {@link BookService#delete} only declares
+ * the failures all implementations share.
+ */
+public class BorrowedBookException extends RuntimeException {
+
+    private final long bookId;
+
+    public BorrowedBookException(long bookId) {
+        super("the book is borrowed: " + bookId);
+        this.bookId = bookId;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+}
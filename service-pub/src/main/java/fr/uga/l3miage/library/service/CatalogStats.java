@@ -0,0 +1,20 @@
+package fr.uga.l3miage.library.service;
+
+import fr.uga.l3miage.data.domain.Book;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Numbers of books of the whole catalog, see {@link BookService#stats()}. Values without books are absent.
+ *
+ * @param books           the number of books
+ * @param authors         the number of authors having books
+ * @param coAuthoredBooks the number of books having several authors
+ * @param booksPerAuthor  the numbers of authors by number of books, by increasing number of books
+ * @param languages       the numbers of books by language, books without one excepted
+ * @param years           the numbers of books by year, by increasing year
+ */
+public record CatalogStats(long books, long authors, long coAuthoredBooks, SortedMap<Integer, Long> booksPerAuthor,
+                           Map<Book.Language, Long> languages, SortedMap<Short, Long> years) {
+}
@@ -0,0 +1,19 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * Thrown when a book would get the ISBN of another book. Unchecked, as {@link BookService#update} cannot declare
+ * more than {@link fr.uga.l3miage.library.service.base.BaseService#update} does.
+ */
+public class DuplicateIsbnException extends RuntimeException {
+
+    private final long isbn;
+
+    public DuplicateIsbnException(long isbn) {
+        super("another book has the isbn: " + isbn);
+        this.isbn = isbn;
+    }
+
+    public long getIsbn() {
+        return isbn;
+    }
+}
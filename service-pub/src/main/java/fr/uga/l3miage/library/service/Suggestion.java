@@ -0,0 +1,11 @@
+package fr.uga.l3miage.library.service;
+
+/**
+ * A completion of a prefix typed by a user, see {@link AuthorService#suggest(String, int)} and
+ * {@link BookService#suggest(String, int)}.
+ *
+ * @param id   the id of the author or book
+ * @param text the full name of the author, or the title of the book
+ */
+public record Suggestion(long id, String text) {
+}
@@ -0,0 +1,23 @@
+package fr.uga.l3miage.library.service;
+
+import java.util.List;
+
+/**
+ * Thrown when books cannot be borrowed because some of them are already borrowed.
+ */
+public class UnavailableException extends Exception {
+
+    private final List<Long> bookIds;
+
+    public UnavailableException(String message, List<Long> bookIds) {
+        super(message);
+        this.bookIds = List.copyOf(bookIds);
+    }
+
+    /**
+     * @return ids of the books already borrowed
+     */
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+}
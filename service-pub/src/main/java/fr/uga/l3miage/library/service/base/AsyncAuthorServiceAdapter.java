@@ -0,0 +1,86 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.data.domain.Author;
+import fr.uga.l3miage.library.service.AsyncAuthorService;
+import fr.uga.l3miage.library.service.AuthorService;
+import fr.uga.l3miage.library.service.Suggestion;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncAuthorService} calling an {@link AuthorService} on an executor, whose threads are the ones blocked
+ * while the service waits for its store. The futures complete on these threads.
+ */
+public class AsyncAuthorServiceAdapter implements AsyncAuthorService {
+
+    private final AuthorService delegate;
+    private final Executor executor;
+
+    public AsyncAuthorServiceAdapter(AuthorService delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Author> get(Long id) {
+        return BlockingCalls.submit(executor, () -> delegate.get(id));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Author>> list() {
+        return BlockingCalls.submit(executor, delegate::list);
+    }
+
+    @Override
+    public CompletableFuture<Page<Author, Long>> page(Long after, int limit) {
+        return BlockingCalls.submit(executor, () -> delegate.page(after, limit));
+    }
+
+    @Override
+    public CompletableFuture<Long> version() {
+        return BlockingCalls.submit(executor, delegate::version);
+    }
+
+    @Override
+    public CompletableFuture<Author> update(Author author) {
+        return BlockingCalls.submit(executor, () -> delegate.update(author));
+    }
+
+    @Override
+    public CompletableFuture<Author> save(Author author) {
+        return BlockingCalls.submit(executor, () -> delegate.save(author));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Author>> searchByName(String name) {
+        return BlockingCalls.submit(executor, () -> delegate.searchByName(name));
+    }
+
+    @Override
+    public CompletableFuture<List<Suggestion>> suggest(String prefix, int limit) {
+        return BlockingCalls.submit(executor, () -> delegate.suggest(prefix, limit));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Long id) {
+        return BlockingCalls.run(executor, () -> delegate.delete(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Author>> saveAll(List<Author> authors) {
+        return BlockingCalls.submit(executor, () -> delegate.saveAll(authors));
+    }
+
+    @Override
+    public CompletableFuture<List<Author>> updateAll(List<Author> authors) {
+        return BlockingCalls.submit(executor, () -> delegate.updateAll(authors));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAll(List<Long> ids) {
+        return BlockingCalls.run(executor, () -> delegate.deleteAll(ids));
+    }
+}
@@ -0,0 +1,41 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link BaseService}: each method returns at once, the future completing with what
+ * the synchronous method returns, or failing with the exception it throws, such as an
+ * {@link fr.uga.l3miage.library.service.EntityNotFoundException}.
+ *
+ * @param <O> the type of persistence object
+ * @param <I> type of the identifier
+ */
+public interface AsyncBaseService<O, I> {
+
+    /**
+     * @see BaseService#get(Object)
+     */
+    CompletableFuture<O> get(I id);
+
+    /**
+     * @see BaseService#list()
+     */
+    CompletableFuture<Collection<O>> list();
+
+    /**
+     * @see BaseService#page(Object, int)
+     */
+    CompletableFuture<Page<O, I>> page(I after, int limit);
+
+    /**
+     * @see BaseService#version()
+     */
+    CompletableFuture<Long> version();
+
+    /**
+     * @see BaseService#update(Object)
+     */
+    CompletableFuture<O> update(O object);
+
+}
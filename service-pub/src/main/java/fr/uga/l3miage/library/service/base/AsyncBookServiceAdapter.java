@@ -0,0 +1,155 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.AsyncBookService;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookField;
+import fr.uga.l3miage.library.service.BookFilter;
+import fr.uga.l3miage.library.service.BookService;
+import fr.uga.l3miage.library.service.CatalogStats;
+import fr.uga.l3miage.library.service.Suggestion;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncBookService} calling a {@link BookService} on an executor, as {@link AsyncAuthorServiceAdapter} does.
+ */
+public class AsyncBookServiceAdapter implements AsyncBookService {
+
+    private final BookService delegate;
+    private final Executor executor;
+
+    public AsyncBookServiceAdapter(BookService delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Book> get(Long id) {
+        return BlockingCalls.submit(executor, () -> delegate.get(id));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Book>> list() {
+        return BlockingCalls.submit(executor, delegate::list);
+    }
+
+    @Override
+    public CompletableFuture<Page<Book, Long>> page(Long after, int limit) {
+        return BlockingCalls.submit(executor, () -> delegate.page(after, limit));
+    }
+
+    @Override
+    public CompletableFuture<Long> version() {
+        return BlockingCalls.submit(executor, delegate::version);
+    }
+
+    @Override
+    public CompletableFuture<Book> update(Book book) {
+        return BlockingCalls.submit(executor, () -> delegate.update(book));
+    }
+
+    @Override
+    public CompletableFuture<Book> save(Long authorId, Book book) {
+        return BlockingCalls.submit(executor, () -> delegate.save(authorId, book));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> saveAll(Long authorId, List<Book> books) {
+        return BlockingCalls.submit(executor, () -> delegate.saveAll(authorId, books));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> updateAll(List<Book> books) {
+        return BlockingCalls.submit(executor, () -> delegate.updateAll(books));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Book>> findByTitle(String title) {
+        return BlockingCalls.submit(executor, () -> delegate.findByTitle(title));
+    }
+
+    @Override
+    public CompletableFuture<Book> findByIsbn(long isbn) {
+        return BlockingCalls.submit(executor, () -> delegate.findByIsbn(isbn));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Book>> getByAuthor(Long id) {
+        return BlockingCalls.submit(executor, () -> delegate.getByAuthor(id));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Book>> findByAuthor(Long id, String title) {
+        return BlockingCalls.submit(executor, () -> delegate.findByAuthor(id, title));
+    }
+
+    @Override
+    public CompletableFuture<Book> get(Long id, Set<BookField> fields) {
+        return BlockingCalls.submit(executor, () -> delegate.get(id, fields));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Book>> list(Set<BookField> fields) {
+        return BlockingCalls.submit(executor, () -> delegate.list(fields));
+    }
+
+    @Override
+    public CompletableFuture<Page<Book, Long>> page(Long after, int limit, Set<BookField> fields) {
+        return BlockingCalls.submit(executor, () -> delegate.page(after, limit, fields));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Book>> findByTitle(String title, Set<BookField> fields) {
+        return BlockingCalls.submit(executor, () -> delegate.findByTitle(title, fields));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Book>> getByAuthor(Long id, Set<BookField> fields) {
+        return BlockingCalls.submit(executor, () -> delegate.getByAuthor(id, fields));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Book>> findByAuthor(Long id, String title, Set<BookField> fields) {
+        return BlockingCalls.submit(executor, () -> delegate.findByAuthor(id, title, fields));
+    }
+
+    @Override
+    public CompletableFuture<Page<Book, Long>> filter(BookFilter filter, Long after, int limit, Set<BookField> fields) {
+        return BlockingCalls.submit(executor, () -> delegate.filter(filter, after, limit, fields));
+    }
+
+    @Override
+    public CompletableFuture<BookFacets> facets(BookFilter filter, int publishers) {
+        return BlockingCalls.submit(executor, () -> delegate.facets(filter, publishers));
+    }
+
+    @Override
+    public CompletableFuture<List<Suggestion>> suggest(String prefix, int limit) {
+        return BlockingCalls.submit(executor, () -> delegate.suggest(prefix, limit));
+    }
+
+    @Override
+    public CompletableFuture<CatalogStats> stats() {
+        return BlockingCalls.submit(executor, delegate::stats);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Long id) {
+        return BlockingCalls.run(executor, () -> delegate.delete(id));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAll(List<Long> ids) {
+        return BlockingCalls.run(executor, () -> delegate.deleteAll(ids));
+    }
+
+    @Override
+    public CompletableFuture<Book> addAuthor(Long bookId, Long authorId) {
+        return BlockingCalls.submit(executor, () -> delegate.addAuthor(bookId, authorId));
+    }
+}
@@ -0,0 +1,190 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent bitset of borrowed books, keyed by book id.
+ * <p>
+ * Taking a set of books is lock-free: the bits of each 64-bit word are set together with a single compare and
+ * set, words in increasing order, and the words already taken are released if a bit turns out to be set.
+ * A bit is only ever set by one caller, so that a book is never given twice. A caller may fail because of a
+ * competitor which itself fails and releases its bits, failures are thus retried while the conflicting bits are
+ * found released.
+ * <p>
+ * Ids are zigzag encoded, so that the few negative ids of sample data still map to small indexes. Pages of bits
+ * are allocated on first use.
+ */
+public final class AvailabilityIndex {
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_WORDS = 1 << (PAGE_BITS - 6);
+    private static final int PAGES = 1 << 16;
+    private static final int RETRIES = 8;
+
+    private final AtomicReferenceArray<AtomicLongArray> pages = new AtomicReferenceArray<>(PAGES);
+
+    /**
+     * Takes books, all of them or none.
+     *
+     * @param ids the book ids, duplicates are ignored
+     * @return ids of the books already taken, none if all were taken by this call
+     */
+    public List<Long> acquire(Collection<Long> ids) {
+        long[] indexes = indexes(ids);
+        for (int attempt = 0; ; attempt++) {
+            int failed = tryAcquire(indexes);
+            if (failed < 0) {
+                return List.of();
+            }
+            List<Long> taken = taken(indexes);
+            if (!taken.isEmpty() || attempt == RETRIES) {
+                // nothing found taken on the last attempt means competitors kept failing: report the conflict
+                return taken.isEmpty() ? List.of(id(indexes[failed])) : taken;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Gives books back.
+     *
+     * @param ids ids of books taken by {@link #acquire(Collection)}
+     */
+    public void release(Collection<Long> ids) {
+        long[] indexes = indexes(ids);
+        for (int from = 0; from < indexes.length; ) {
+            int to = wordEnd(indexes, from);
+            clear(page(indexes[from]), indexes[from], mask(indexes, from, to));
+            from = to;
+        }
+    }
+
+    /**
+     * @return whether a book is taken
+     */
+    public boolean isTaken(Long id) {
+        long index = index(id);
+        AtomicLongArray page = pages.get(pageNumber(index));
+        return page != null && (page.get(offset(index)) & (1L << index)) != 0;
+    }
+
+    /**
+     * Tries to set all bits, word by word.
+     *
+     * @return the position of the first index found set, everything being released then, or -1 on success
+     */
+    private int tryAcquire(long[] indexes) {
+        for (int from = 0; from < indexes.length; ) {
+            int to = wordEnd(indexes, from);
+            long mask = mask(indexes, from, to);
+            AtomicLongArray page = page(indexes[from]);
+            int offset = offset(indexes[from]);
+            while (true) {
+                long current = page.get(offset);
+                if ((current & mask) != 0) {
+                    rollback(indexes, from);
+                    for (int i = from; i < to; i++) {
+                        if ((current & (1L << indexes[i])) != 0) {
+                            return i;
+                        }
+                    }
+                }
+                if (page.compareAndSet(offset, current, current | mask)) {
+                    break;
+                }
+            }
+            from = to;
+        }
+        return -1;
+    }
+
+    /**
+     * Releases the words taken before a position.
+     */
+    private void rollback(long[] indexes, int end) {
+        for (int from = 0; from < end; ) {
+            int to = wordEnd(indexes, from);
+            clear(page(indexes[from]), indexes[from], mask(indexes, from, to));
+            from = to;
+        }
+    }
+
+    private List<Long> taken(long[] indexes) {
+        List<Long> taken = new ArrayList<>();
+        for (long index : indexes) {
+            AtomicLongArray page = pages.get(pageNumber(index));
+            if (page != null && (page.get(offset(index)) & (1L << index)) != 0) {
+                taken.add(id(index));
+            }
+        }
+        return taken;
+    }
+
+    private static void clear(AtomicLongArray page, long index, long mask) {
+        int offset = offset(index);
+        long current;
+        do {
+            current = page.get(offset);
+        } while (!page.compareAndSet(offset, current, current & ~mask));
+    }
+
+    private AtomicLongArray page(long index) {
+        int number = pageNumber(index);
+        AtomicLongArray page = pages.get(number);
+        if (page == null) {
+            pages.compareAndSet(number, null, new AtomicLongArray(PAGE_WORDS));
+            page = pages.get(number);
+        }
+        return page;
+    }
+
+    /**
+     * @return the sorted distinct indexes of ids
+     */
+    private static long[] indexes(Collection<Long> ids) {
+        return ids.stream().mapToLong(AvailabilityIndex::index).distinct().sorted().toArray();
+    }
+
+    /**
+     * @return the end (excluded) of the run of indexes sharing the word of the index at {@code from}
+     */
+    private static int wordEnd(long[] indexes, int from) {
+        int to = from + 1;
+        while (to < indexes.length && indexes[to] >>> 6 == indexes[from] >>> 6) {
+            to++;
+        }
+        return to;
+    }
+
+    private static long mask(long[] indexes, int from, int to) {
+        long mask = 0;
+        for (int i = from; i < to; i++) {
+            mask |= 1L << indexes[i];
+        }
+        return mask;
+    }
+
+    private static long index(Long id) {
+        long index = (id << 1) ^ (id >> 63);
+        if (index >>> PAGE_BITS >= PAGES) {
+            throw new IllegalArgumentException("book id out of range: " + id);
+        }
+        return index;
+    }
+
+    private static Long id(long index) {
+        return (index >>> 1) ^ -(index & 1);
+    }
+
+    private static int pageNumber(long index) {
+        return (int) (index >>> PAGE_BITS);
+    }
+
+    private static int offset(long index) {
+        return (int) (index >>> 6) & (PAGE_WORDS - 1);
+    }
+}
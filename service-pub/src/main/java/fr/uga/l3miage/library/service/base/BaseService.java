@@ -3,6 +3,10 @@ package fr.uga.l3miage.library.service.base;
 import fr.uga.l3miage.library.service.EntityNotFoundException;
 
 import java.util.Collection;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This interface to read/update persistent object.
@@ -29,6 +33,35 @@ public interface BaseService<O, I> {
      */
     Collection<O> list();
 
+    /**
+     * Returns a page of objects ordered by identifier, starting after a given one
+     *
+     * @param after the identifier after which the page starts (excluded), null to start with the first object
+     * @param limit the maximum number of objects in the page
+     * @return the page, holding the identifier to use to fetch the next one
+     */
+    Page<O, I> page(I after, int limit);
+
+    /**
+     * Returns all objects ordered by identifier, lazily: unlike {@link #list()} they are not all loaded at once.
+     * The default implementation reads them page by page. The stream should be closed once consumed.
+     *
+     * @return all objects as a {@link Stream}
+     */
+    default Stream<O> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new PageIterator<>(this, 500),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns the version of the catalog, which changes after any change of an object of this service or of a
+     * related one. It is meant to tag collections: read it before the objects so that a change happening in
+     * between gives a newer version the next time.
+     *
+     * @return the current version of the catalog
+     */
+    long version();
+
     /**
      * updates the object and return it (in case the object was updated internally)
      *
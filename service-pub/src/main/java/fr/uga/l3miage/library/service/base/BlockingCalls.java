@@ -0,0 +1,58 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the calls of the asynchronous adapters on their executor.
+ */
+final class BlockingCalls {
+
+    private BlockingCalls() {
+        // utility class
+    }
+
+    /**
+     * A blocking call, that may throw the checked exceptions of the services.
+     */
+    @FunctionalInterface
+    interface Call<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * A blocking call returning nothing.
+     */
+    @FunctionalInterface
+    interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * @return a future completed with the result of the call, or failed with the exception it threw as is, not
+     * wrapped; a call the executor rejects fails with the {@link RejectedExecutionException}
+     */
+    static <T> CompletableFuture<T> submit(Executor executor, Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Exception | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    static CompletableFuture<Void> run(Executor executor, Action action) {
+        return submit(executor, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
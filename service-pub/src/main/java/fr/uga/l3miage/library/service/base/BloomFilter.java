@@ -0,0 +1,59 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of long keys: tells for sure that a key was never added, and otherwise that it may have been.
+ * Meant to spare a lookup in a slower store for most keys of a bulk import, which are new. Keys cannot be
+ * removed, a removed key only costs a useless lookup. Thread safe, without locking.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long mask;
+    private final int hashes;
+
+    /**
+     * @param expected          the number of keys expected
+     * @param falsePositiveRate the rate of false positives wanted once that many keys were added
+     */
+    public BloomFilter(long expected, double falsePositiveRate) {
+        long wanted = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long size = Long.highestOneBit(Math.max(64, wanted - 1)) << 1;
+        if (size > (long) Integer.MAX_VALUE * 64) {
+            throw new IllegalArgumentException("too many keys expected: " + expected);
+        }
+        this.bits = new AtomicLongArray((int) (size >>> 6));
+        this.mask = size - 1;
+        this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) size / Math.max(1, expected) * Math.log(2))));
+    }
+
+    public void add(long key) {
+        long h = LongIdIndex.mix(key);
+        long step = (h >>> 32) | 1;
+        for (int i = 0; i < hashes; i++, h += step) {
+            long bit = h & mask;
+            int word = (int) (bit >>> 6);
+            long m = 1L << bit;
+            long current = bits.get(word);
+            while ((current & m) == 0 && !bits.compareAndSet(word, current, current | m)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * @return false if the key was never added, true if it may have been
+     */
+    public boolean mightContain(long key) {
+        long h = LongIdIndex.mix(key);
+        long step = (h >>> 32) | 1;
+        for (int i = 0; i < hashes; i++, h += step) {
+            long bit = h & mask;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,329 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.CatalogStats;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Counts of books by language and year, of co-authored books and of authors by number of books, changed by each
+ * write in time independent of the size of the catalog, so that {@link CatalogStats} never need a scan.
+ * <p>
+ * The values counted for each book are kept, so that a change moves the book from its former counts, whatever the
+ * instance given. Links may come before the values of their book, which is then counted for its authors only
+ * until they come.
+ * <p>
+ * Changes applied after their commit may come after the deletion of their book, they are then ignored: callers
+ * take a ticket with {@link #begin()} when such a change is made and give it back with {@link #end(long)} once it
+ * is applied or dropped. Deleted ids are remembered as long as a change begun before their deletion is pending,
+ * and forgotten at once when none is, as for callers applying changes in order.
+ * <p>
+ * Readers share a lock, writers hold it alone, so that the counts read are those between two writes, all of
+ * them matching.
+ */
+public final class CatalogCounters {
+
+    private static final Book.Language[] LANGUAGES = Book.Language.values();
+    private static final long COUNTED = 1L << 48;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Values counted for each book, packed by {@link #pack(boolean, int, short, Book.Language)}.
+     */
+    private final Map<Long, Long> counted = new HashMap<>();
+    private IdBitmap deleted = new IdBitmap();
+    /**
+     * Deleted ids in the order of their deletion, with the number of deletions up to theirs.
+     */
+    private final ArrayDeque<Tombstone> tombstones = new ArrayDeque<>();
+    /**
+     * Number of pending changes by the number of deletions when they were begun.
+     */
+    private final NavigableMap<Long, Integer> pending = new TreeMap<>();
+    private long deletions;
+    private final Map<Long, Integer> booksByAuthor = new HashMap<>();
+    private final Map<Integer, Long> authorsByBooks = new HashMap<>();
+    private final Map<Short, Long> years = new HashMap<>();
+    private final long[] languages = new long[LANGUAGES.length];
+    private long books;
+    private long coAuthored;
+
+    /**
+     * @return counts of books, for a one-off use
+     */
+    public static CatalogCounters of(Collection<Book> books) {
+        CatalogCounters counters = new CatalogCounters();
+        for (Book book : books) {
+            counters.put(book);
+            if (book.getAuthors() != null) {
+                book.getAuthors().forEach(author -> counters.link(author.getId(), List.of(book.getId())));
+            }
+        }
+        return counters;
+    }
+
+    public void put(Book book) {
+        put(book.getId(), book.getYear(), book.getLanguage());
+    }
+
+    /**
+     * Counts the values of a new book, or of a changed one in place of its former values.
+     */
+    public void put(long id, short year, Book.Language language) {
+        lock.writeLock().lock();
+        try {
+            if (deleted.contains(id)) {
+                return;
+            }
+            Long former = counted.get(id);
+            int authors = former == null ? 0 : authors(former);
+            if (former != null && (former & COUNTED) != 0) {
+                uncount(former);
+            }
+            long values = pack(true, authors, year, language);
+            counted.put(id, values);
+            count(values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts books for an author just added to their authors.
+     */
+    public void link(long authorId, Collection<Long> bookIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : bookIds) {
+                if (deleted.contains(id)) {
+                    continue;
+                }
+                long values = counted.getOrDefault(id, 0L);
+                int authors = authors(values) + 1;
+                counted.put(id, values + (1L << 24));
+                if (authors == 2) {
+                    coAuthored++;
+                }
+                booksOf(authorId, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Uncounts a deleted book.
+     *
+     * @param authorIds the authors it had
+     */
+    public void remove(long id, Collection<Long> authorIds) {
+        lock.writeLock().lock();
+        try {
+            doRemove(id, authorIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Uncounts deleted authors and their books, as a whole.
+     *
+     * @param bookIds their books, none of them being co-authored
+     */
+    public void removeAuthors(Collection<Long> authorIds, Collection<Long> bookIds) {
+        lock.writeLock().lock();
+        try {
+            bookIds.forEach(id -> doRemove(id, List.of()));
+            authorIds.forEach(id -> booksOf(id, -booksByAuthor.getOrDefault(id, 0)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes a ticket for a change to be applied later, after deletions made meanwhile. The books deleted from now
+     * on are remembered until the ticket is given back.
+     *
+     * @return the ticket to give to {@link #end(long)}
+     */
+    public long begin() {
+        lock.writeLock().lock();
+        try {
+            pending.merge(deletions, 1, Integer::sum);
+            return deletions;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives back a ticket, once its change is applied or will never be.
+     */
+    public void end(long ticket) {
+        lock.writeLock().lock();
+        try {
+            pending.computeIfPresent(ticket, (begun, count) -> count == 1 ? null : count - 1);
+            prune();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets all books, deleted ones included.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            counted.clear();
+            deleted = new IdBitmap();
+            tombstones.clear();
+            booksByAuthor.clear();
+            authorsByBooks.clear();
+            years.clear();
+            Arrays.fill(languages, 0);
+            books = 0;
+            coAuthored = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the counts, authors being only known by their books: those without any are not counted
+     */
+    public CatalogStats stats() {
+        lock.readLock().lock();
+        try {
+            Map<Book.Language, Long> byLanguage = new EnumMap<>(Book.Language.class);
+            for (int i = 0; i < languages.length; i++) {
+                if (languages[i] > 0) {
+                    byLanguage.put(LANGUAGES[i], languages[i]);
+                }
+            }
+            return new CatalogStats(books, booksByAuthor.size(), coAuthored, new TreeMap<>(authorsByBooks),
+                    byLanguage, new TreeMap<>(years));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of books counted, deleted ones excepted
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return counted.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of deleted ids remembered
+     */
+    int tombstones() {
+        lock.readLock().lock();
+        try {
+            return tombstones.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void doRemove(long id, Collection<Long> authorIds) {
+        if (deleted.contains(id)) {
+            return;
+        }
+        deleted.add(id);
+        tombstones.add(new Tombstone(++deletions, id));
+        prune();
+        Long values = counted.remove(id);
+        if (values == null) {
+            return;
+        }
+        if ((values & COUNTED) != 0) {
+            uncount(values);
+        }
+        if (authors(values) > 1) {
+            coAuthored--;
+        }
+        authorIds.forEach(authorId -> booksOf(authorId, -1));
+    }
+
+    /**
+     * Forgets the deleted ids no pending change may refer to: those deleted before the oldest one was begun, a
+     * change begun after the deletion of its book being rejected by the store.
+     */
+    private void prune() {
+        long oldest = pending.isEmpty() ? deletions : pending.firstKey();
+        while (!tombstones.isEmpty() && tombstones.peek().deletion() <= oldest) {
+            deleted.remove(tombstones.poll().id());
+        }
+    }
+
+    /**
+     * Moves an author from the count of its former number of books to the one of its new number.
+     */
+    private void booksOf(long authorId, int change) {
+        int former = booksByAuthor.getOrDefault(authorId, 0);
+        int current = Math.max(0, former + change);
+        if (former == current) {
+            return;
+        }
+        if (former > 0) {
+            authorsByBooks.computeIfPresent(former, (n, count) -> count == 1 ? null : count - 1);
+        }
+        if (current > 0) {
+            booksByAuthor.put(authorId, current);
+            authorsByBooks.merge(current, 1L, Long::sum);
+        } else {
+            booksByAuthor.remove(authorId);
+        }
+    }
+
+    private void count(long values) {
+        books++;
+        years.merge(year(values), 1L, Long::sum);
+        int language = (int) (values >>> 16 & 0xFF);
+        if (language > 0) {
+            languages[language - 1]++;
+        }
+    }
+
+    private void uncount(long values) {
+        books--;
+        years.computeIfPresent(year(values), (year, count) -> count == 1 ? null : count - 1);
+        int language = (int) (values >>> 16 & 0xFF);
+        if (language > 0) {
+            languages[language - 1]--;
+        }
+    }
+
+    private static long pack(boolean counted, int authors, short year, Book.Language language) {
+        return (counted ? COUNTED : 0) | (long) authors << 24
+                | (language == null ? 0 : language.ordinal() + 1) << 16 | year & 0xFFFF;
+    }
+
+    private static int authors(long values) {
+        return (int) (values >>> 24 & 0xFFFFFF);
+    }
+
+    private static short year(long values) {
+        return (short) values;
+    }
+
+    private record Tombstone(long deletion, long id) {
+    }
+}
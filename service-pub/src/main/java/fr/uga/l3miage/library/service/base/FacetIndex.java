@@ -0,0 +1,244 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.data.domain.Book;
+import fr.uga.l3miage.library.service.BookFacets;
+import fr.uga.l3miage.library.service.BookFilter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ids of books by year, language and publisher, as {@link IdBitmap}s, so that a {@link BookFilter} is answered by
+ * uniting the bitmaps of the values of each attribute and intersecting the attributes, without looking at the
+ * books. Facet counts are cardinalities of intersections, computed without building them.
+ * <p>
+ * Publishers are coded by number, as there may be many of them. The values indexed for each book are kept, so
+ * that a change removes the book from its former bitmaps only, whatever the instance given. Readers share a lock,
+ * writers hold it alone.
+ */
+public final class FacetIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdBitmap all = new IdBitmap();
+    private final TreeMap<Short, IdBitmap> years = new TreeMap<>();
+    private final Map<Book.Language, IdBitmap> languages = new EnumMap<>(Book.Language.class);
+    private final Map<String, Integer> publisherCodes = new HashMap<>();
+    private final List<String> publisherNames = new ArrayList<>();
+    private final List<IdBitmap> publishers = new ArrayList<>();
+    /**
+     * Values indexed for each book, packed by {@link #pack(short, Book.Language, int)}.
+     */
+    private final Map<Long, Long> indexed = new HashMap<>();
+
+    /**
+     * @return an index of books, for a one-off use
+     */
+    public static FacetIndex of(Collection<Book> books) {
+        FacetIndex index = new FacetIndex();
+        books.forEach(index::put);
+        return index;
+    }
+
+    public void put(Book book) {
+        put(book.getId(), book.getYear(), book.getLanguage(), book.getPublisher());
+    }
+
+    /**
+     * Indexes the values of a book, in place of its former ones.
+     */
+    public void put(long id, short year, Book.Language language, String publisher) {
+        lock.writeLock().lock();
+        try {
+            int code = publisher == null ? -1 : publisherCodes.computeIfAbsent(publisher, this::newPublisher);
+            long values = pack(year, language, code);
+            Long former = indexed.put(id, values);
+            if (former != null && former == values) {
+                return;
+            }
+            if (former != null) {
+                unindex(id, former);
+            }
+            all.add(id);
+            years.computeIfAbsent(year, y -> new IdBitmap()).add(id);
+            if (language != null) {
+                languages.computeIfAbsent(language, l -> new IdBitmap()).add(id);
+            }
+            if (code >= 0) {
+                publishers.get(code).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Long former = indexed.remove(id);
+            if (former != null) {
+                unindex(id, former);
+                all.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param after the id after which to start (excluded), null to start with the first book
+     * @param max   the maximum number of ids
+     * @return the ids of the books matching a filter, sorted
+     */
+    public long[] select(BookFilter filter, Long after, int max) {
+        lock.readLock().lock();
+        try {
+            IdBitmap matching = and(and(years(filter), languages(filter)), publishers(filter));
+            return (matching == null ? all : matching).after(after, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param top the number of publishers to count books of
+     * @return the numbers of books matching a filter, by value of their attributes
+     * @see BookFacets
+     */
+    public BookFacets facets(BookFilter filter, int top) {
+        lock.readLock().lock();
+        try {
+            IdBitmap byYears = years(filter);
+            IdBitmap byLanguages = languages(filter);
+            IdBitmap byPublishers = publishers(filter);
+            IdBitmap matching = and(and(byYears, byLanguages), byPublishers);
+
+            TreeMap<Short, Long> yearCounts = new TreeMap<>();
+            IdBitmap others = and(byLanguages, byPublishers);
+            years.forEach((year, ids) -> count(yearCounts, year, ids, others));
+
+            Map<Book.Language, Long> languageCounts = new EnumMap<>(Book.Language.class);
+            IdBitmap othersThanLanguages = and(byYears, byPublishers);
+            languages.forEach((language, ids) -> count(languageCounts, language, ids, othersThanLanguages));
+
+            Map<String, Long> publisherCounts = new HashMap<>();
+            IdBitmap othersThanPublishers = and(byYears, byLanguages);
+            for (int code = 0; code < publishers.size(); code++) {
+                count(publisherCounts, publisherNames.get(code), publishers.get(code), othersThanPublishers);
+            }
+            Map<String, Long> topPublishers = new LinkedHashMap<>();
+            publisherCounts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(top)
+                    .forEach(entry -> topPublishers.put(entry.getKey(), entry.getValue()));
+
+            return new BookFacets(matching == null ? all.cardinality() : matching.cardinality(), yearCounts,
+                    languageCounts, topPublishers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of books indexed
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexed.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the books of the years of a filter, null when it does not bound them
+     */
+    private IdBitmap years(BookFilter filter) {
+        if (!filter.hasYears()) {
+            return null;
+        }
+        short from = filter.yearFrom() == null ? Short.MIN_VALUE : filter.yearFrom();
+        short to = filter.yearTo() == null ? Short.MAX_VALUE : filter.yearTo();
+        return from > to ? new IdBitmap() : IdBitmap.or(years.subMap(from, true, to, true).values());
+    }
+
+    private IdBitmap languages(BookFilter filter) {
+        if (filter.languages().isEmpty()) {
+            return null;
+        }
+        List<IdBitmap> selected = new ArrayList<>();
+        for (Book.Language language : filter.languages()) {
+            IdBitmap ids = languages.get(language);
+            if (ids != null) {
+                selected.add(ids);
+            }
+        }
+        return IdBitmap.or(selected);
+    }
+
+    private IdBitmap publishers(BookFilter filter) {
+        if (filter.publishers().isEmpty()) {
+            return null;
+        }
+        List<IdBitmap> selected = new ArrayList<>();
+        for (String publisher : filter.publishers()) {
+            Integer code = publisherCodes.get(publisher);
+            if (code != null) {
+                selected.add(publishers.get(code));
+            }
+        }
+        return IdBitmap.or(selected);
+    }
+
+    private void unindex(long id, long values) {
+        short year = (short) values;
+        IdBitmap byYear = years.get(year);
+        byYear.remove(id);
+        if (byYear.isEmpty()) {
+            years.remove(year);
+        }
+        int language = (int) (values >>> 16 & 0xFF);
+        if (language != 0) {
+            languages.get(Book.Language.values()[language - 1]).remove(id);
+        }
+        int code = (int) (values >>> 32) - 1;
+        if (code >= 0) {
+            // the code is kept even once the publisher has no books, it is likely to get some again
+            publishers.get(code).remove(id);
+        }
+    }
+
+    private int newPublisher(String publisher) {
+        publisherNames.add(publisher);
+        publishers.add(new IdBitmap());
+        return publishers.size() - 1;
+    }
+
+    /**
+     * Intersects the bitmaps of two attributes, null standing for all books.
+     */
+    private static IdBitmap and(IdBitmap a, IdBitmap b) {
+        return a == null ? b : b == null ? a : a.and(b);
+    }
+
+    private static <K> void count(Map<K, Long> counts, K value, IdBitmap ids, IdBitmap others) {
+        long count = others == null ? ids.cardinality() : ids.andCardinality(others);
+        if (count > 0) {
+            counts.put(value, count);
+        }
+    }
+
+    private static long pack(short year, Book.Language language, int code) {
+        return (year & 0xFFFFL) | (language == null ? 0 : language.ordinal() + 1L) << 16 | (code + 1L) << 32;
+    }
+}
@@ -0,0 +1,20 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.Map;
+
+/**
+ * What an implementation of the services keeps, for monitoring.
+ */
+public interface Footprint {
+
+    /**
+     * @return the number of entries of each structure by name: entities, indexes...
+     */
+    Map<String, Long> sizes();
+
+    /**
+     * @return an estimate of the heap used by the data kept in memory, in bytes, or a negative value when the
+     * implementation cannot tell
+     */
+    long estimatedHeapBytes();
+}
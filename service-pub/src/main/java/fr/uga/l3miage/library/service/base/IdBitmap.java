@@ -0,0 +1,539 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed bitmap of ids, in the manner of Roaring bitmaps: ids are split in chunks of 65536 by their high bits,
+ * each chunk holding its low 16 bits either as a sorted array, while it has at most {@value #ARRAY_MAX} of them,
+ * or as a bitset of 8 KB. Sparse and dense sets of ids both stay small, and intersections and unions go chunk by
+ * chunk, word by word for bitsets.
+ * <p>
+ * Chunks are ordered by their signed high bits, so that ids are iterated in increasing order, the few negative
+ * ids of sample data first. Not thread safe.
+ */
+public final class IdBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1 << 10;
+
+    // chunks by increasing high bits
+    private long[] keys;
+    private Container[] containers;
+    private int size;
+
+    public IdBitmap() {
+        this(4);
+    }
+
+    private IdBitmap(int capacity) {
+        this.keys = new long[capacity];
+        this.containers = new Container[capacity];
+    }
+
+    public void add(long id) {
+        int i = Arrays.binarySearch(keys, 0, size, id >> 16);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, id >> 16, new ArrayContainer(new char[4], 0));
+        }
+        containers[i] = containers[i].add((char) id);
+    }
+
+    public void remove(long id) {
+        int i = Arrays.binarySearch(keys, 0, size, id >> 16);
+        if (i >= 0) {
+            containers[i] = containers[i].remove((char) id);
+            if (containers[i].cardinality() == 0) {
+                System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+                containers[--size] = null;
+            }
+        }
+    }
+
+    public boolean contains(long id) {
+        int i = Arrays.binarySearch(keys, 0, size, id >> 16);
+        return i >= 0 && containers[i].contains((char) id);
+    }
+
+    /**
+     * @return the number of ids
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the ids in both bitmaps
+     */
+    public IdBitmap and(IdBitmap other) {
+        IdBitmap result = new IdBitmap(Math.max(1, Math.min(size, other.size)));
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insert(result.size, keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of ids in both bitmaps, without building their intersection
+     */
+    public long andCardinality(IdBitmap other) {
+        long cardinality = 0;
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return the ids in either bitmap
+     */
+    public IdBitmap or(IdBitmap other) {
+        IdBitmap result = new IdBitmap(Math.max(1, size + other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || i < size && keys[i] < other.keys[j]) {
+                result.insert(result.size, keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.insert(result.size, other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.insert(result.size, keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Unites several bitmaps at once, chunk by chunk, rather than through intermediate unions.
+     *
+     * @return the ids in any of the bitmaps
+     */
+    public static IdBitmap or(Collection<IdBitmap> bitmaps) {
+        TreeMap<Long, Container> chunks = new TreeMap<>();
+        for (IdBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                Container united = chunks.get(bitmap.keys[i]);
+                chunks.put(bitmap.keys[i], united == null ? bitmap.containers[i].copy() : united.or(bitmap.containers[i]));
+            }
+        }
+        IdBitmap result = new IdBitmap(Math.max(1, chunks.size()));
+        chunks.forEach((key, container) -> result.insert(result.size, key, container));
+        return result;
+    }
+
+    /**
+     * Gives the ids in increasing order.
+     */
+    public void forEach(LongConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * @return the ids, sorted
+     */
+    public long[] toArray() {
+        long[] ids = new long[(int) cardinality()];
+        int[] position = new int[1];
+        forEach(id -> ids[position[0]++] = id);
+        return ids;
+    }
+
+    /**
+     * Reads ids from a given one, skipping the chunks before it.
+     *
+     * @param after the id after which to start (excluded), null to start with the first id
+     * @param max   the maximum number of ids to read
+     * @return the ids following {@code after}, sorted
+     */
+    public long[] after(Long after, int max) {
+        long[] ids = new long[(int) Math.min(max, cardinality())];
+        int count = 0;
+        int i = 0;
+        char from = 0;
+        if (after != null) {
+            if (after == Long.MAX_VALUE) {
+                return new long[0];
+            }
+            i = Arrays.binarySearch(keys, 0, size, (after + 1) >> 16);
+            if (i >= 0) {
+                from = (char) (after + 1);
+            } else {
+                i = -i - 1;
+            }
+        }
+        for (; i < size && count < ids.length; i++, from = 0) {
+            count = containers[i].copyTo(keys[i] << 16, from, ids, count);
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private void insert(int i, long key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        size++;
+    }
+
+    /**
+     * The low bits of the ids of a chunk. Operations may return another container, of the other kind.
+     */
+    private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(long high, LongConsumer consumer);
+
+        /**
+         * Copies the ids from a low value on, up to the end of the array.
+         *
+         * @return the number of ids in the array
+         */
+        abstract int copyTo(long high, char from, long[] ids, int count);
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0, j = 0; i < cardinality && j < array.cardinality; ) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0, j = 0; i < cardinality && j < array.cardinality; ) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (cardinality + array.cardinality > ARRAY_MAX) {
+                return toBitmap().or(array);
+            }
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || i < cardinality && values[i] < array.values[j]) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        void forEach(long high, LongConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        int copyTo(long high, char from, long[] ids, int count) {
+            int i = from == 0 ? 0 : Arrays.binarySearch(values, 0, cardinality, from);
+            for (i = i < 0 ? -i - 1 : i; i < cardinality && count < ids.length; i++) {
+                ids[count++] = high | values[i];
+            }
+            return count;
+        }
+
+        private BitmapContainer toBitmap() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long word = words[value >>> 6];
+            if ((word & (1L << value)) == 0) {
+                words[value >>> 6] = word | 1L << value;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long word = words[value >>> 6];
+            if ((word & (1L << value)) != 0) {
+                words[value >>> 6] = word & ~(1L << value);
+                cardinality--;
+                if (cardinality <= ARRAY_MAX) {
+                    return toArray();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[WORDS];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitmapContainer bitmap = new BitmapContainer(result, count);
+            return count <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.andCardinality(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                count += Long.bitCount(words[i] & otherWords[i]);
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            int count;
+            if (other instanceof ArrayContainer array) {
+                count = cardinality;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    if ((result[value >>> 6] & (1L << value)) == 0) {
+                        result[value >>> 6] |= 1L << value;
+                        count++;
+                    }
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                count = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] |= otherWords[i];
+                    count += Long.bitCount(result[i]);
+                }
+            }
+            return new BitmapContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(long high, LongConsumer consumer) {
+            for (int i = 0; i < WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    consumer.accept(high | (long) i << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+
+        @Override
+        int copyTo(long high, char from, long[] ids, int count) {
+            for (int i = from >>> 6; i < WORDS && count < ids.length; i++) {
+                long word = i == from >>> 6 ? words[i] & (-1L << from) : words[i];
+                for (; word != 0 && count < ids.length; word &= word - 1) {
+                    ids[count++] = high | (long) i << 6 | Long.numberOfTrailingZeros(word);
+                }
+            }
+            return count;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Unique index of ids by a long key, such as an ISBN, without boxing: an open addressing hash table of keys
+ * and ids interleaved in a single array, probed linearly and kept at most half full. Key 0 stands for no key,
+ * it is never indexed.
+ * <p>
+ * Readers do not lock, they probe optimistically and only start again, under the read lock, if a write happened
+ * meanwhile. Writers are serialized, which makes checking that keys are free and taking them a single step.
+ */
+public final class LongIdIndex {
+
+    /**
+     * Returned for absent keys, ids being any other long.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    /**
+     * Key then id of each slot. A single array, so that a reader racing a resize sees keys and ids of the same
+     * table.
+     */
+    private long[] table = new long[2 * MIN_CAPACITY];
+    private int size;
+
+    /**
+     * @return the id having a key, or {@link #NONE}
+     */
+    public long get(long key) {
+        if (key == 0) {
+            return NONE;
+        }
+        long stamp = lock.tryOptimisticRead();
+        long id = find(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                id = find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Changes the keys of several ids at once, all of them or none. An id may give its key to another one of the
+     * batch. Key 0 as the old key means the id had none, as the new key that it loses its key.
+     *
+     * @param ids     the ids
+     * @param oldKeys their current keys
+     * @param newKeys their new keys
+     * @return the ids already having the new key of an item, by position of the item, nothing being changed then
+     */
+    public Map<Integer, Long> replaceAll(long[] ids, long[] oldKeys, long[] newKeys) {
+        long stamp = lock.writeLock();
+        try {
+            Map<Integer, Long> conflicts = new HashMap<>();
+            // keys released by the batch, and taken by it, with their ids
+            Map<Long, Long> released = new HashMap<>();
+            Map<Long, Long> taken = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (oldKeys[i] != newKeys[i] && oldKeys[i] != 0) {
+                    released.put(oldKeys[i], ids[i]);
+                }
+            }
+            for (int i = 0; i < ids.length; i++) {
+                long key = newKeys[i];
+                if (key == 0 || key == oldKeys[i]) {
+                    continue;
+                }
+                Long other = taken.putIfAbsent(key, ids[i]);
+                long owner = other != null ? other : find(key);
+                if (owner != NONE && owner != ids[i] && !(other == null && released.containsKey(key))) {
+                    conflicts.put(i, owner);
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                return conflicts;
+            }
+            released.forEach((key, id) -> {
+                if (find(key) == id) {
+                    delete(key);
+                }
+            });
+            taken.forEach(this::insert);
+            return conflicts;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gives a key to an id, whichever id had it. Key 0 is ignored.
+     */
+    public void put(long key, long id) {
+        if (key == 0) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            insert(key, id);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a key, if an id has it.
+     */
+    public void remove(long key, long id) {
+        if (key == 0) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (find(key) == id) {
+                delete(key);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the memory used by the tables, in bytes
+     */
+    public long tableBytes() {
+        return 8L * table.length;
+    }
+
+    private long find(long key) {
+        long[] t = table;
+        int mask = (t.length >> 1) - 1;
+        // bounded, a racing writer may leave no free slot in the table read
+        for (int i = slot(key, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            long found = t[2 * i];
+            if (found == key) {
+                return t[2 * i + 1];
+            } else if (found == 0) {
+                return NONE;
+            }
+        }
+        return NONE;
+    }
+
+    private void insert(long key, long id) {
+        int capacity = table.length >> 1;
+        if (2 * (size + 1) > capacity) {
+            resize(capacity * 2);
+        }
+        long[] t = table;
+        int mask = (t.length >> 1) - 1;
+        int i = slot(key, mask);
+        while (t[2 * i] != 0 && t[2 * i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (t[2 * i] == 0) {
+            size++;
+        }
+        t[2 * i] = key;
+        t[2 * i + 1] = id;
+    }
+
+    /**
+     * Removes a present key, moving back the following entries of its run so that probes still find them.
+     */
+    private void delete(long key) {
+        long[] t = table;
+        int mask = (t.length >> 1) - 1;
+        int i = slot(key, mask);
+        while (t[2 * i] != key) {
+            i = (i + 1) & mask;
+        }
+        int hole = i;
+        for (int j = (hole + 1) & mask; t[2 * j] != 0; j = (j + 1) & mask) {
+            int home = slot(t[2 * j], mask);
+            // the entry at j may fill the hole if its home is not within (hole, j]
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                t[2 * hole] = t[2 * j];
+                t[2 * hole + 1] = t[2 * j + 1];
+                hole = j;
+            }
+        }
+        t[2 * hole] = 0;
+        t[2 * hole + 1] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] old = table;
+        long[] t = new long[2 * capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0) {
+                int j = slot(old[i], mask);
+                while (t[2 * j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                t[2 * j] = old[i];
+                t[2 * j + 1] = old[i + 1];
+            }
+        }
+        // published under the write lock, readers validate their stamp
+        table = t;
+    }
+
+    private static int slot(long key, int mask) {
+        return (int) mix(key) & mask;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, consecutive keys such as ISBNs of a same publisher are spread over the table.
+     */
+    static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
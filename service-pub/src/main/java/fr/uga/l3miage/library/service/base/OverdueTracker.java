@@ -0,0 +1,211 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Late ratio of each borrower, kept up to date as borrows fall due, without looking at the borrows.
+ * <p>
+ * Due dates of the active borrows are timers of a {@link TimingWheel}, rounded up to a tick. Advancing the wheel
+ * to the current time expires the borrows that became overdue, each counting as late for its borrower. A borrow
+ * given back before its timer expires counts as late only if it was given back after its due date. The ratio of
+ * a borrower is its number of late borrows over its number of borrows.
+ * <p>
+ * Borrowers having late borrows are also kept sorted by ratio, the worst ones are thus read without a scan.
+ * The wheel is guarded by a lock held for constant time, except when advancing, and the counts of a borrower by
+ * its own monitor.
+ */
+public final class OverdueTracker {
+
+    private final long origin;
+    private final long tickMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel<Loan> wheel;
+    private final Map<Long, Loan> pending = new HashMap<>();
+    private final Map<Long, Tally> tallies = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Rank> ranking = new ConcurrentSkipListSet<>();
+    // tick reached by the wheel, read without the lock so that most calls to advance return right away
+    private volatile long reached;
+
+    /**
+     * @param tick   the precision of due dates
+     * @param origin the current time
+     */
+    public OverdueTracker(Duration tick, Instant origin) {
+        this.origin = origin.toEpochMilli();
+        this.tickMillis = tick.toMillis();
+        this.wheel = new TimingWheel<>(0);
+    }
+
+    /**
+     * Counts the borrows of a borrower already given back, when loading.
+     */
+    public void restore(Long borrowerId, long borrows, long late) {
+        tally(borrowerId).add(borrows, late);
+    }
+
+    /**
+     * Counts a new borrow of a borrower, and schedules its due date.
+     *
+     * @return the late ratio of the borrower
+     */
+    public float checkedOut(Long borrowerId, Long borrowId, Instant due) {
+        Loan loan = new Loan(borrowId, borrowerId);
+        boolean scheduled;
+        lock.lock();
+        try {
+            scheduled = wheel.schedule(loan, ceilTick(due));
+            if (scheduled) {
+                pending.put(borrowId, loan);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return tally(borrowerId).add(1, scheduled ? 0 : 1);
+    }
+
+    /**
+     * Cancels the due date of a borrow given back.
+     *
+     * @param at when the borrow was given back
+     * @return the late ratio of the borrower
+     */
+    public float returned(Long borrowerId, Long borrowId, Instant at) {
+        boolean late = false;
+        lock.lock();
+        try {
+            Loan loan = pending.remove(borrowId);
+            if (loan != null) {
+                wheel.cancel(loan);
+                // the timer may not have expired yet, ticks being coarser than the clock
+                late = ceilTick(at) > loan.due;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return late ? tally(borrowerId).add(0, 1) : lateRatio(borrowerId);
+    }
+
+    /**
+     * Expires the borrows due up to a time.
+     *
+     * @return the new late ratio of the borrowers having borrows expired
+     */
+    public Map<Long, Float> advance(Instant now) {
+        long tick = Math.floorDiv(now.toEpochMilli() - origin, tickMillis);
+        if (tick <= reached) {
+            return Map.of();
+        }
+        List<Loan> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advance(tick, loan -> {
+                pending.remove(loan.borrowId);
+                expired.add(loan);
+            });
+            reached = wheel.current();
+        } finally {
+            lock.unlock();
+        }
+        if (expired.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Float> ratios = new LinkedHashMap<>();
+        for (Loan loan : expired) {
+            ratios.put(loan.borrowerId, tally(loan.borrowerId).add(0, 1));
+        }
+        return ratios;
+    }
+
+    public float lateRatio(Long borrowerId) {
+        Tally tally = tallies.get(borrowerId);
+        return tally == null ? 0 : tally.ratio();
+    }
+
+    /**
+     * @param limit the maximum number of borrowers
+     * @return ids of the borrowers having the highest late ratios, worst first, among those having late borrows
+     */
+    public List<Long> worst(int limit) {
+        return ranking.stream().limit(limit).map(Rank::borrowerId).toList();
+    }
+
+    /**
+     * @return the number of borrows not due yet
+     */
+    public int pending() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long ceilTick(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli() - origin + tickMillis - 1, tickMillis);
+    }
+
+    private Tally tally(Long borrowerId) {
+        return tallies.computeIfAbsent(borrowerId, Tally::new);
+    }
+
+    private static final class Loan extends TimingWheel.Timer {
+        final Long borrowId;
+        final Long borrowerId;
+
+        Loan(Long borrowId, Long borrowerId) {
+            this.borrowId = borrowId;
+            this.borrowerId = borrowerId;
+        }
+    }
+
+    private final class Tally {
+        private final Long borrowerId;
+        private long borrows;
+        private long late;
+        private Rank rank;
+
+        Tally(Long borrowerId) {
+            this.borrowerId = borrowerId;
+        }
+
+        synchronized float add(long borrows, long late) {
+            this.borrows += borrows;
+            this.late += late;
+            if (rank != null) {
+                ranking.remove(rank);
+            }
+            rank = this.late == 0 ? null : new Rank(ratio(), this.late, borrowerId);
+            if (rank != null) {
+                ranking.add(rank);
+            }
+            return ratio();
+        }
+
+        synchronized float ratio() {
+            return borrows == 0 ? 0 : (float) late / borrows;
+        }
+    }
+
+    private record Rank(float ratio, long late, Long borrowerId) implements Comparable<Rank> {
+
+        // worst first: highest ratio, then most late borrows
+        @Override
+        public int compareTo(Rank other) {
+            int c = Float.compare(other.ratio, ratio);
+            if (c == 0) {
+                c = Long.compare(other.late, late);
+            }
+            return c == 0 ? borrowerId.compareTo(other.borrowerId) : c;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.List;
+
+/**
+ * A slice of objects ordered by identifier, as returned by {@link BaseService#page(Object, int)}
+ *
+ * @param content the objects of this page
+ * @param next    the identifier to pass as {@code after} to get the next page, null if this is the last one
+ * @param <O>     the type of persistence object
+ * @param <I>     type of the identifier
+ */
+public record Page<O, I>(List<O> content, I next) {
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,38 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over all objects of a service by fetching one page at a time.
+ */
+final class PageIterator<O, I> implements Iterator<O> {
+
+    private final BaseService<O, I> service;
+    private final int pageSize;
+    private Page<O, I> last;
+    private Iterator<O> current = Collections.emptyIterator();
+
+    PageIterator(BaseService<O, I> service, int pageSize) {
+        this.service = service;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext() && (last == null || last.hasNext())) {
+            last = service.page(last == null ? null : last.next(), pageSize);
+            current = last.content().iterator();
+        }
+        return current.hasNext();
+    }
+
+    @Override
+    public O next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+}
@@ -0,0 +1,467 @@
+package fr.uga.l3miage.library.service.base;
+
+import fr.uga.l3miage.library.service.Suggestion;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Best completions of a prefix among short texts, such as author names or book titles, any word of a text
+ * completing it. Texts are folded to lower case without accents.
+ * <p>
+ * Each word of a text starts a key, the end of the folded text from there. Keys are kept in immutable sorted runs,
+ * the keys completing a prefix being a range of a run, found by binary search. A run also keeps the best score of
+ * every 16 keys, of every 16 of those and so on: the best keys of a range are found best first by going down the
+ * groups having the best scores, in a few hundred steps whatever the size of the range.
+ * <p>
+ * Texts put are first buffered in a small sorted map, scanned by queries, then turned into a run. Runs of close
+ * sizes are merged, as in a log-structured merge tree, so that there are few of them and each key is copied a
+ * logarithmic number of times. Changed or removed texts stay in their runs until a merge drops them, queries
+ * skip them. Readers do not lock, writers are serialized.
+ * <p>
+ * A text is scored by its weight, then by its length, the shorter the better, and ties are broken by key order.
+ */
+public final class SuggestIndex {
+
+    private static final int BUFFER = 1024;
+    private static final int FANOUT_BITS = 4;
+    private static final int MAX_WEIGHT = (1 << 15) - 1;
+    private static final int MAX_LENGTH = (1 << 16) - 1;
+    // characters of the beginning of each key kept in a long, binary searches then read arrays only
+    private static final int HEAD = 4;
+    // bits of the positions of keys in the priorities of the search, leaving 3 bits to the level
+    private static final int MAX_POSITION = (1 << 29) - 1;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingInt((Candidate candidate) -> candidate.entry.score).reversed()
+            .thenComparing((a, b) -> compare(a.entry, a.offset, b.entry, b.offset));
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Entry> live = new ConcurrentHashMap<>();
+    private volatile State state = new State(List.of(), new ConcurrentSkipListMap<>());
+    private long stamps;
+    private int buffered;
+
+    /**
+     * Indexes the text of an id, in place of its former one.
+     *
+     * @param text   the text, null to remove the id
+     * @param weight the weight of the text, higher weights coming first, at most 32767
+     */
+    public void put(long id, String text, int weight) {
+        if (text == null) {
+            remove(id);
+            return;
+        }
+        lock.lock();
+        try {
+            Entry former = live.get(id);
+            int clamped = Math.max(0, Math.min(MAX_WEIGHT, weight));
+            if (former != null && former.weight == clamped && former.text.equals(text)) {
+                return;
+            }
+            Entry entry = new Entry(id, text, clamped, ++stamps);
+            live.put(id, entry);
+            State current = state;
+            for (int offset = 0; offset < entry.folded.length(); offset++) {
+                if (wordStart(entry.folded, offset)) {
+                    current.buffer.put(entry.folded.substring(offset) + '\0' + entry.stamp, entry);
+                }
+            }
+            if (++buffered >= BUFFER) {
+                flush(current);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the weight of the text of an id, if it has one.
+     */
+    public void reweigh(long id, int weight) {
+        lock.lock();
+        try {
+            Entry entry = live.get(id);
+            if (entry != null) {
+                put(id, entry.text, weight);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.lock();
+        try {
+            live.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param prefix the beginning of a word of the texts, case and accents being ignored
+     * @param limit  the maximum number of suggestions
+     * @return the best texts having a word starting with the prefix, best first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String folded = fold(prefix).stripLeading();
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        State current = state;
+        Map<Long, Candidate> found = new HashMap<>();
+        for (Map.Entry<String, Entry> key : current.buffer.subMap(folded, folded + Character.MAX_VALUE).entrySet()) {
+            Entry entry = key.getValue();
+            if (live.get(entry.id) == entry && !found.containsKey(entry.id)) {
+                found.put(entry.id, new Candidate(entry, entry.folded.length() - key.getKey().indexOf('\0')));
+            }
+        }
+        for (Run run : current.runs) {
+            run.search(folded, limit, floor(found, limit), found, live);
+        }
+        return found.values().stream()
+                .sorted(BEST_FIRST)
+                .limit(limit)
+                .map(candidate -> new Suggestion(candidate.entry.id, candidate.entry.text))
+                .toList();
+    }
+
+    /**
+     * @return the score a key needs to be among the best ones, given those found so far
+     */
+    private static int floor(Map<Long, Candidate> found, int limit) {
+        if (found.size() < limit) {
+            return 0;
+        }
+        int[] scores = found.values().stream().mapToInt(candidate -> candidate.entry.score).sorted().toArray();
+        return scores[scores.length - limit];
+    }
+
+    /**
+     * @return the number of texts indexed
+     */
+    public int size() {
+        return live.size();
+    }
+
+    /**
+     * @return the number of keys kept, including those of texts changed or removed since
+     */
+    public long keyCount() {
+        State current = state;
+        return current.buffer.size() + current.runs.stream().mapToLong(run -> run.entries.length).sum();
+    }
+
+    public static String fold(String text) {
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Turns the buffer into a run, then merges the last runs while the last one is at least half the size of the
+     * previous one. Caller must hold the lock.
+     */
+    private void flush(State current) {
+        List<Entry> entries = new ArrayList<>(current.buffer.size());
+        List<Integer> offsets = new ArrayList<>(current.buffer.size());
+        current.buffer.forEach((key, entry) -> {
+            if (live.get(entry.id) == entry) {
+                entries.add(entry);
+                offsets.add(entry.folded.length() - key.indexOf('\0'));
+            }
+        });
+        char[] chars = new char[offsets.size()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (int) offsets.get(i);
+        }
+        List<Run> runs = new ArrayList<>(current.runs);
+        runs.add(new Run(entries.toArray(new Entry[0]), chars));
+        while (runs.size() >= 2 && 2 * runs.get(runs.size() - 1).size() >= runs.get(runs.size() - 2).size()) {
+            Run last = runs.remove(runs.size() - 1);
+            Run previous = runs.remove(runs.size() - 1);
+            runs.add(merge(previous, last));
+        }
+        runs.removeIf(run -> run.size() == 0);
+        state = new State(List.copyOf(runs), new ConcurrentSkipListMap<>());
+        buffered = 0;
+    }
+
+    /**
+     * @return the keys of both runs, in order, without those of texts changed or removed since
+     */
+    private Run merge(Run a, Run b) {
+        Entry[] entries = new Entry[a.size() + b.size()];
+        char[] offsets = new char[entries.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            boolean fromA = j == b.size()
+                    || i < a.size() && compare(a.entries[i], a.offsets[i], b.entries[j], b.offsets[j]) <= 0;
+            Entry entry = fromA ? a.entries[i] : b.entries[j];
+            char offset = fromA ? a.offsets[i++] : b.offsets[j++];
+            if (live.get(entry.id) == entry) {
+                entries[count] = entry;
+                offsets[count++] = offset;
+            }
+        }
+        return new Run(Arrays.copyOf(entries, count), Arrays.copyOf(offsets, count));
+    }
+
+    private static boolean wordStart(String folded, int offset) {
+        return Character.isLetterOrDigit(folded.charAt(offset))
+                && (offset == 0 || !Character.isLetterOrDigit(folded.charAt(offset - 1)))
+                && offset <= Character.MAX_VALUE;
+    }
+
+    /**
+     * Orders keys, the ends of folded texts, then texts by age for keys that are equal.
+     */
+    private static int compare(Entry a, int offsetA, Entry b, int offsetB) {
+        String x = a.folded;
+        String y = b.folded;
+        int length = Math.min(x.length() - offsetA, y.length() - offsetB);
+        for (int k = 0; k < length; k++) {
+            int c = x.charAt(offsetA + k) - y.charAt(offsetB + k);
+            if (c != 0) {
+                return c;
+            }
+        }
+        int c = (x.length() - offsetA) - (y.length() - offsetB);
+        return c != 0 ? c : Long.compare(a.stamp, b.stamp);
+    }
+
+    /**
+     * Compares a key with a prefix, keys starting with the prefix being equal to it.
+     */
+    private static int comparePrefix(Entry entry, int offset, String prefix) {
+        String x = entry.folded;
+        int length = Math.min(x.length() - offset, prefix.length());
+        for (int k = 0; k < length; k++) {
+            int c = x.charAt(offset + k) - prefix.charAt(k);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return x.length() - offset < prefix.length() ? -1 : 0;
+    }
+
+    /**
+     * @return the first characters of a text from an offset, packed so that heads compare, unsigned, as the
+     * beginnings of the texts do, missing characters being 0
+     */
+    private static long head(String text, int offset) {
+        long head = 0;
+        for (int k = 0; k < HEAD; k++) {
+            head = head << 16 | (offset + k < text.length() ? text.charAt(offset + k) : 0);
+        }
+        return head;
+    }
+
+    private static long priority(int score, int position, int level) {
+        return (long) score << 32 | (long) (MAX_POSITION - position) << 3 | level;
+    }
+
+    private static final class Entry {
+
+        final long id;
+        final String text;
+        final String folded;
+        final int weight;
+        final int score;
+        final long stamp;
+
+        Entry(long id, String text, int weight, long stamp) {
+            this.id = id;
+            this.text = text;
+            this.folded = fold(text);
+            this.weight = weight;
+            this.score = weight << 16 | (MAX_LENGTH - Math.min(MAX_LENGTH, text.length()));
+            this.stamp = stamp;
+        }
+    }
+
+    /**
+     * A key found for a query.
+     */
+    private record Candidate(Entry entry, int offset) {
+    }
+
+    /**
+     * The runs and the buffer, replaced together so that a reader sees every key once.
+     */
+    private record State(List<Run> runs, ConcurrentSkipListMap<String, Entry> buffer) {
+    }
+
+    /**
+     * Sorted keys, each given by its text and the offset where it starts, along with their scores: {@code maxes[0]}
+     * has the score of each key, copied so that the search reads arrays only, {@code maxes[1]} the best score of
+     * every 16 keys, {@code maxes[2]} of every 16 groups, up to a level of at most 16 groups.
+     */
+    private static final class Run {
+
+        final Entry[] entries;
+        final char[] offsets;
+        final long[] heads;
+        final int[][] maxes;
+
+        Run(Entry[] entries, char[] offsets) {
+            if (entries.length > MAX_POSITION) {
+                throw new IllegalStateException("too many keys: " + entries.length);
+            }
+            this.entries = entries;
+            this.offsets = offsets;
+            this.heads = new long[entries.length];
+            for (int i = 0; i < heads.length; i++) {
+                heads[i] = head(entries[i].folded, offsets[i]);
+            }
+            List<int[]> levels = new ArrayList<>();
+            int[] scores = new int[entries.length];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = entries[i].score;
+            }
+            levels.add(scores);
+            for (int level = 0, count = entries.length; count > 1 << FANOUT_BITS; level++) {
+                int[] next = new int[(count + (1 << FANOUT_BITS) - 1) >> FANOUT_BITS];
+                for (int i = 0; i < count; i++) {
+                    next[i >> FANOUT_BITS] = Math.max(next[i >> FANOUT_BITS], levels.get(level)[i]);
+                }
+                levels.add(next);
+                count = next.length;
+            }
+            this.maxes = levels.toArray(new int[0][]);
+        }
+
+        int size() {
+            return entries.length;
+        }
+
+        /**
+         * Adds the best keys of a prefix to those found, up to a number of texts not found yet, stopping at keys
+         * scoring less than a floor.
+         */
+        void search(String prefix, int limit, int floor, Map<Long, Candidate> found, Map<Long, Entry> live) {
+            int from = bound(prefix, 0);
+            int to = bound(prefix, 1);
+            if (from >= to) {
+                return;
+            }
+            LongHeap heap = new LongHeap();
+            int top = maxes.length - 1;
+            int topShift = FANOUT_BITS * top;
+            for (int node = from >> topShift; node <= (to - 1) >> topShift; node++) {
+                heap.push(priority(score(top, node), Math.max(from, node << topShift), top));
+            }
+            int added = 0;
+            while (added < limit && !heap.isEmpty()) {
+                long popped = heap.pop();
+                if (popped >>> 32 < floor) {
+                    break;
+                }
+                int level = (int) (popped & 7);
+                int start = MAX_POSITION - (int) (popped >>> 3 & MAX_POSITION);
+                if (level == 0) {
+                    Entry entry = entries[start];
+                    if (live.get(entry.id) == entry && !found.containsKey(entry.id)) {
+                        found.put(entry.id, new Candidate(entry, offsets[start]));
+                        added++;
+                    }
+                    continue;
+                }
+                // the children of the group, within the range
+                int shift = FANOUT_BITS * (level - 1);
+                int end = Math.min(to, ((start >> (shift + FANOUT_BITS)) + 1) << (shift + FANOUT_BITS));
+                for (int child = start >> shift; child <= (end - 1) >> shift; child++) {
+                    heap.push(priority(score(level - 1, child), Math.max(start, child << shift), level - 1));
+                }
+            }
+        }
+
+        private int score(int level, int index) {
+            return maxes[level][index];
+        }
+
+        /**
+         * @param strict 0 for the first key starting with the prefix or after it, 1 for the first key after those
+         *               starting with the prefix
+         */
+        private int bound(String prefix, int strict) {
+            int shift = 16 * (HEAD - Math.min(HEAD, prefix.length()));
+            long head = head(prefix, 0) >>> shift;
+            int low = 0;
+            int high = entries.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int c = Long.compareUnsigned(heads[middle] >>> shift, head);
+                if (c == 0 && prefix.length() > HEAD) {
+                    c = comparePrefix(entries[middle], offsets[middle], prefix);
+                }
+                if (c < strict) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Binary max-heap of longs, the priorities of the search.
+     */
+    private static final class LongHeap {
+
+        private long[] values = new long[256];
+        private int size;
+
+        void push(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (values[parent] >= value) {
+                    break;
+                }
+                values[i] = values[parent];
+                i = parent;
+            }
+            values[i] = value;
+        }
+
+        long pop() {
+            long top = values[0];
+            long last = values[--size];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && values[child + 1] > values[child]) {
+                    child++;
+                }
+                if (values[child] <= last) {
+                    break;
+                }
+                values[i] = values[child];
+                i = child;
+            }
+            values[i] = last;
+            return top;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package fr.uga.l3miage.library.service.base;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel, as described by Varghese and Lauck: timers are kept in slots of a few wheels of
+ * increasing span, and moved down one wheel when the wheel above turns to their slot. Scheduling and cancelling
+ * cost a constant time, advancing costs one step per tick plus the timers expiring or moving, whatever the number
+ * of timers kept.
+ * <p>
+ * Wheels have 64 slots, four of them span 2<sup>24</sup> ticks, timers due after that wait in an overflow list
+ * looked at once per turn of the last wheel. Times are in ticks, the unit being chosen by the caller. Not thread
+ * safe.
+ *
+ * @param <T> the timer type, timers being their own list nodes
+ */
+final class TimingWheel<T extends TimingWheel.Timer> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+
+    /**
+     * A timer, scheduled at most once.
+     */
+    abstract static class Timer {
+        long due;
+        Timer previous;
+        Timer next;
+        int slot = -1;
+    }
+
+    private final Timer[] slots = new Timer[OVERFLOW + 1];
+    private long current;
+    private int size;
+
+    /**
+     * @param current the current tick
+     */
+    TimingWheel(long current) {
+        this.current = current;
+    }
+
+    long current() {
+        return current;
+    }
+
+    /**
+     * @return the number of scheduled timers
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param timer a timer not scheduled yet
+     * @param due   the tick at which it expires
+     * @return whether it was scheduled, false when it is already due
+     */
+    boolean schedule(T timer, long due) {
+        if (timer.slot >= 0) {
+            throw new IllegalStateException("timer already scheduled");
+        }
+        timer.due = due;
+        if (due <= current) {
+            return false;
+        }
+        place(timer);
+        size++;
+        return true;
+    }
+
+    /**
+     * @return whether the timer was scheduled, false when it already expired or was cancelled
+     */
+    boolean cancel(T timer) {
+        if (timer.slot < 0) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves to a tick, handing the timers expiring on the way in due order.
+     *
+     * @param to      the new current tick, nothing happens if it is not after the current one
+     * @param expired called with each expired timer
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long to, Consumer<? super T> expired) {
+        while (current < to) {
+            current++;
+            if ((current & (SLOTS - 1)) == 0) {
+                cascade();
+            }
+            int slot = (int) (current & (SLOTS - 1));
+            for (Timer timer = slots[slot]; timer != null; timer = slots[slot]) {
+                unlink(timer);
+                size--;
+                expired.accept((T) timer);
+            }
+        }
+    }
+
+    /**
+     * Moves the timers of the upper wheels turning to a new slot, highest first so that they keep going down.
+     */
+    private void cascade() {
+        int level = 1;
+        while (level < LEVELS && (current & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        if (level == LEVELS) {
+            replace(OVERFLOW);
+            level--;
+        }
+        for (; level >= 1; level--) {
+            replace(level * SLOTS + (int) ((current >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+        }
+    }
+
+    private void replace(int slot) {
+        Timer timer = slots[slot];
+        slots[slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.previous = null;
+            timer.next = null;
+            timer.slot = -1;
+            // due now or later, a timer is never due before the current tick here
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer timer) {
+        long delta = timer.due - current;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                link(timer, level * SLOTS + (int) ((timer.due >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+                return;
+            }
+        }
+        link(timer, OVERFLOW);
+    }
+
+    private void link(Timer timer, int slot) {
+        Timer head = slots[slot];
+        timer.next = head;
+        if (head != null) {
+            head.previous = timer;
+        }
+        slots[slot] = timer;
+        timer.slot = slot;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.previous == null) {
+            slots[timer.slot] = timer.next;
+        } else {
+            timer.previous.next = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+        timer.slot = -1;
+    }
+}